@@ -66,6 +66,10 @@ public enum ErrorStatus implements BaseErrorCode {
   AI_RESPONSE_FAILED(HttpStatus.INTERNAL_SERVER_ERROR, "CHAT5001", "ai 응답 생성에 실패하였습니다"),
   SKILL_NAME_IS_NULL(HttpStatus.BAD_REQUEST, "CHAT4003", "skill name이 공백입니다."),
   CHAT_LIMIT_EXCEEDED(HttpStatus.BAD_REQUEST, "CHAT4004", "하루에 최대 3번의 채팅만 가능합니다."),
+  CHAT_TURN_NOT_FOUND(HttpStatus.NOT_FOUND, "CHAT4005", "존재하는 대화 턴이 아닙니다."),
+  CHAT_TURN_IN_PROGRESS(HttpStatus.CONFLICT, "CHAT4006", "이전 응답을 생성 중입니다. 잠시 후 다시 시도해주세요."),
+  IDEMPOTENCY_KEY_REUSED(HttpStatus.UNPROCESSABLE_ENTITY, "CHAT4007", "같은 Idempotency-Key 로 다른 요청을 보낼 수 없습니다."),
+  CHAT_TURN_QUEUE_FULL(HttpStatus.SERVICE_UNAVAILABLE, "CHAT5031", "요청이 많아 응답을 생성할 수 없습니다. 잠시 후 다시 시도해주세요."),
 
   // IAP (Subscription)
   FAILED_TO_CREATE_CERTIFICATE_FACTORY(HttpStatus.INTERNAL_SERVER_ERROR, "SUBSCRIPTION5001", "CertificateFactory X.509 인스턴스 생성 실패"),
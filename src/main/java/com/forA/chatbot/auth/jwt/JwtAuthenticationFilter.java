@@ -7,10 +7,15 @@ import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import java.io.IOException;
 import java.util.Collections;
+import java.util.List;
+import java.util.Set;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
@@ -23,6 +28,10 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
   private final JwtUtil jwtUtil;
   private final BlacklistService blacklistService;
 
+  // 운영자 userId 목록. 이 유저들만 ROLE_ADMIN 을 받아 /api/v1/admin/** 을 호출할 수 있음
+  @Value("${security.admin.user-ids:}")
+  private Set<Long> adminUserIds;
+
   @Override
   protected void doFilterInternal(
       HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
@@ -43,7 +52,7 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
       log.info("토큰에서 꺼낸 userId: {}", userId);
       Authentication authentication =
           new UsernamePasswordAuthenticationToken(
-              new CustomUserDetails(userId), null, Collections.emptyList());
+              new CustomUserDetails(userId), null, authoritiesOf(userId));
 
       SecurityContextHolder.getContext().setAuthentication(authentication);
       log.info("JWT 인증 성공 - userId: {}", userId);
@@ -52,4 +61,11 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
     filterChain.doFilter(request, response);
     log.info("Authentication 객체: {}", SecurityContextHolder.getContext().getAuthentication());
   }
+
+  private List<GrantedAuthority> authoritiesOf(Long userId) {
+    if (adminUserIds != null && adminUserIds.contains(userId)) {
+      return List.of(new SimpleGrantedAuthority("ROLE_ADMIN"));
+    }
+    return Collections.emptyList();
+  }
 }
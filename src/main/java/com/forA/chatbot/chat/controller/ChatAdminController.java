@@ -0,0 +1,35 @@
+package com.forA.chatbot.chat.controller;
+
+import com.forA.chatbot.apiPayload.ApiResponse;
+import com.forA.chatbot.auth.jwt.CustomUserDetails;
+import com.forA.chatbot.chat.service.ChatService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * 채팅 운영용 API (ROLE_ADMIN 만 호출 가능, SecurityConfig 참고)
+ */
+@Slf4j
+@RestController
+@RequestMapping("/api/v1/admin/chat")
+@RequiredArgsConstructor
+public class ChatAdminController {
+
+  private final ChatService chatService;
+
+  /**
+   * 스킬별 상세 행동 캐시를 미리 채웁니다. (behavioral-skills.json 변경 후 배포 직후 등)
+   * 캐시에 없는 스킬마다 GPT 를 호출하므로 운영자만 호출할 수 있고, 이미 채우는 중이면 새로 시작하지 않습니다.
+   */
+  @PostMapping("/skills/steps-cache/warm")
+  public ApiResponse<Integer> warmSkillStepsCache(
+      @AuthenticationPrincipal CustomUserDetails userDetails
+  ) {
+    log.info("Skill steps cache warm-up requested by admin userId: {}", userDetails.getUserId());
+    return ApiResponse.onSuccess(chatService.warmSkillStepsCache());
+  }
+}
@@ -1,22 +1,37 @@
 package com.forA.chatbot.chat.controller;
 
 import com.forA.chatbot.apiPayload.ApiResponse;
+import com.forA.chatbot.apiPayload.code.ErrorReasonDTO;
+import com.forA.chatbot.apiPayload.code.status.ErrorStatus;
+import com.forA.chatbot.apiPayload.exception.GeneralException;
 import com.forA.chatbot.auth.jwt.CustomUserDetails;
 import com.forA.chatbot.chat.dto.ChatRequest;
 import com.forA.chatbot.chat.dto.ChatResponse;
 import com.forA.chatbot.chat.dto.ChatResponse.ChatMessageDto;
+import com.forA.chatbot.chat.dto.ChatTurnResponse;
+import com.forA.chatbot.chat.service.ChatIdempotencyService;
 import com.forA.chatbot.chat.service.ChatService;
+import com.forA.chatbot.chat.service.ChatTurnService;
 import jakarta.validation.Valid;
+import java.io.IOException;
 import java.util.List;
+import java.util.concurrent.ExecutorService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.async.DeferredResult;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 @Slf4j
 @RestController
@@ -24,7 +39,13 @@ import org.springframework.web.bind.annotation.RestController;
 @RequiredArgsConstructor
 public class ChatController {
 
+  private static final long STREAM_TIMEOUT_MS = 60_000L;
+  private static final long MAX_POLL_TIMEOUT_MS = 30_000L;
+
   private final ChatService chatService;
+  private final ChatTurnService chatTurnService;
+  private final ChatIdempotencyService chatIdempotencyService;
+  private final ExecutorService chatAiExecutor;
 
   @GetMapping("/session")
   public ApiResponse<ChatResponse> getCurrentStep(
@@ -40,22 +61,108 @@ public class ChatController {
     return ApiResponse.onSuccess(response);
   }
 
+  /**
+   * Idempotency-Key 헤더가 있으면 같은 키의 재요청(네트워크 오류 후 재시도 등)은 턴을 다시 실행하지 않고 처음 응답을 반환합니다.
+   */
   @PostMapping("/session/{sessionId}")
   public ApiResponse<ChatResponse> handleUserResponse(
       @PathVariable String sessionId,
       @Valid @RequestBody ChatRequest request,
+      @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey,
       @AuthenticationPrincipal CustomUserDetails userDetails)
   {
 
     Long userId = userDetails.getUserId();
     log.info("User response received. userId: {}, sessionId: {}, response: {}", userId, sessionId, request.getResponseValue());
 
-    ChatResponse response = chatService.handleUserResponse(userId, sessionId, request);
+    ChatResponse response = chatIdempotencyService.execute(userId, idempotencyKey, sessionId, request,
+        () -> chatService.handleUserResponse(userId, sessionId, request));
 
     log.info("Chat response sent. nextStep={}, isCompleted={}", response.getCurrentStep(), response.getIsCompleted());
 
     return ApiResponse.onSuccess(response);
   }
+
+  /**
+   * handleUserResponse 의 스트리밍(SSE) 버전입니다.
+   * GPT 토큰이 도착하는 대로 "token" 이벤트로 전송하고, 마지막에 "result" 이벤트로 최종 ChatResponse 를 전송합니다.
+   */
+  @PostMapping(value = "/session/{sessionId}/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+  public SseEmitter handleUserResponseStream(
+      @PathVariable String sessionId,
+      @Valid @RequestBody ChatRequest request,
+      @AuthenticationPrincipal CustomUserDetails userDetails)
+  {
+    Long userId = userDetails.getUserId();
+    log.info("User response received (stream). userId: {}, sessionId: {}, response: {}", userId, sessionId, request.getResponseValue());
+
+    SseEmitter emitter = new SseEmitter(STREAM_TIMEOUT_MS);
+    chatAiExecutor.execute(() -> {
+      try {
+        ChatResponse response = chatService.handleUserResponseStreaming(userId, sessionId, request,
+            token -> sendEvent(emitter, "token", token));
+        sendEvent(emitter, "result", ApiResponse.onSuccess(response));
+        log.info("Chat stream response sent. nextStep={}, isCompleted={}", response.getCurrentStep(), response.getIsCompleted());
+      } catch (GeneralException e) {
+        ErrorReasonDTO reason = e.getErrorReasonHttpStatus();
+        sendEvent(emitter, "error", ApiResponse.onFailure(reason.getCode(), reason.getMessage(), null));
+      } catch (Exception e) {
+        log.error("Chat stream failed. sessionId: {}", sessionId, e);
+        sendEvent(emitter, "error", ApiResponse.onFailure(
+            ErrorStatus._INTERNAL_SERVER_ERROR.getCode(), ErrorStatus._INTERNAL_SERVER_ERROR.getMessage(), null));
+      } finally {
+        emitter.complete();
+      }
+    });
+    return emitter;
+  }
+
+  /**
+   * handleUserResponse 의 비동기 버전입니다.
+   * 유저 메시지만 기록하고 바로 202 와 turnId, PENDING 봇 메시지를 반환합니다.
+   * 봇 응답은 GET /turn/{turnId} 롱폴링으로 받으며, 기다리는 요청이 없으면 완료 시 푸시 알림이 발송됩니다.
+   * 기존 POST 는 200 + ChatResponse 를 돌려주는 계약이라, 응답 타입(202 + ChatTurnResponse)이 다른 이 모드는 별도 경로로 둡니다.
+   */
+  @PostMapping("/session/{sessionId}/async")
+  public ResponseEntity<ApiResponse<ChatTurnResponse>> submitUserResponse(
+      @PathVariable String sessionId,
+      @Valid @RequestBody ChatRequest request,
+      @AuthenticationPrincipal CustomUserDetails userDetails)
+  {
+    Long userId = userDetails.getUserId();
+    log.info("User response received (async). userId: {}, sessionId: {}, response: {}", userId, sessionId, request.getResponseValue());
+
+    ChatTurnResponse response = chatTurnService.submit(userId, sessionId, request);
+
+    log.info("Chat turn accepted. turnId={}", response.getTurnId());
+    return ResponseEntity.status(HttpStatus.ACCEPTED).body(ApiResponse.onSuccess(response));
+  }
+
+  /**
+   * 비동기 대화 턴 결과를 롱폴링으로 조회합니다.
+   * 처리 중이면 완료되거나 timeoutMs 가 지날 때까지 기다렸다가 현재 상태를 반환합니다.
+   */
+  @GetMapping("/turn/{turnId}")
+  public DeferredResult<ApiResponse<ChatTurnResponse>> awaitTurn(
+      @PathVariable String turnId,
+      @RequestParam(defaultValue = "25000") long timeoutMs,
+      @AuthenticationPrincipal CustomUserDetails userDetails)
+  {
+    long timeout = Math.min(Math.max(timeoutMs, 0L), MAX_POLL_TIMEOUT_MS);
+    return chatTurnService.await(userDetails.getUserId(), turnId, timeout);
+  }
+
+  /**
+   * 클라이언트가 연결을 끊어도 턴 처리(봇 메시지 저장)는 끝까지 진행되도록 전송 실패는 기록만 합니다.
+   */
+  private void sendEvent(SseEmitter emitter, String name, Object data) {
+    try {
+      emitter.send(SseEmitter.event().name(name).data(data));
+    } catch (IOException | IllegalStateException e) {
+      log.debug("SSE event '{}' could not be delivered: {}", name, e.getMessage());
+    }
+  }
+
   /**
    * 기존에 미완료된 세션이 있어도 강제로 종료하고 새 세션을 시작합니다.
    */
@@ -40,4 +40,8 @@ public class ChatMessage {
 
   @Field(name = "response_code")
   private String responseCode;
+
+  // 봇 메시지 생성에 사용한 프롬프트 버전 (예: "empathy@1a2b3c4d"). GPT 를 쓰지 않은 메시지는 null
+  @Field(name = "prompt_version")
+  private String promptVersion;
 }
@@ -1,10 +1,14 @@
 package com.forA.chatbot.chat.domain;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Getter;
+import lombok.NoArgsConstructor;
 import lombok.Setter;
 import org.springframework.data.annotation.Id;
 import org.springframework.data.mongodb.core.mapping.Document;
@@ -46,6 +50,15 @@ public class ChatSession {
   @Field(name = "last_interaction_at")
   private LocalDateTime lastInteractionAt;
 
+  // 자유 대화(FREE_CHAT) 컨텍스트. 최근 메시지는 그대로, 밀려난 메시지는 요약으로 접어 세션에 보관
+  // (턴마다 chat_messages 전체를 다시 읽지 않도록)
+  @Field(name = "free_chat_summary")
+  private String freeChatSummary;
+
+  @Field(name = "free_chat_window")
+  @Builder.Default
+  private List<ContextMessage> freeChatWindow = new ArrayList<>();
+
   public void setTemporaryData(String key, String value) {
     if (this.temporaryData == null) {
       this.temporaryData = new HashMap<>();
@@ -62,4 +75,16 @@ public class ChatSession {
       this.temporaryData.clear();
     }
   }
+
+  @Getter
+  @NoArgsConstructor
+  @AllArgsConstructor
+  public static class ContextMessage {
+
+    @Field(name = "sender_type")
+    private ChatMessage.SenderType senderType;
+
+    @Field(name = "content")
+    private String content;
+  }
 }
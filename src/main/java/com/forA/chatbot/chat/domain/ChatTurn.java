@@ -0,0 +1,88 @@
+package com.forA.chatbot.chat.domain;
+
+import java.time.LocalDateTime;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.mapping.Document;
+import org.springframework.data.mongodb.core.mapping.Field;
+
+/**
+ * 비동기로 처리되는 대화 턴 (유저 응답 1개 → 봇 응답 1개)
+ * 접수 시 PENDING 으로 저장하고, 워커가 봇 응답을 만들면 COMPLETED(또는 FAILED)로 갱신
+ * 봇 메시지는 ChatMessage 와 같은 형태(옵션은 JSON 문자열)로 보관
+ * 세션당 PENDING 턴은 하나만 존재하도록 부분 유니크 인덱스로 보장
+ */
+@Getter
+@Setter
+@Builder
+@Document(collection = "chat_turns")
+@CompoundIndex(
+    name = "chat_turns_pending_session",
+    def = "{'session_id': 1}",
+    unique = true,
+    partialFilter = "{'status': 'PENDING'}")
+public class ChatTurn {
+
+  @Id private String id;
+
+  @Indexed
+  @Field(name = "session_id")
+  private String sessionId;
+
+  @Field(name = "user_id")
+  private Long userId;
+
+  @Field(name = "status")
+  private Status status;
+
+  // 처리 완료 후 채워지는 응답
+  @Field(name = "current_step")
+  private String currentStep;
+
+  @Field(name = "bot_message_content")
+  private String botMessageContent;
+
+  @Field(name = "bot_message_type")
+  private String botMessageType;
+
+  @Field(name = "options_json")
+  private String optionsJson;
+
+  @Field(name = "is_completed")
+  private Boolean isCompleted;
+
+  @Field(name = "onboarding_completed")
+  private Boolean onboardingCompleted;
+
+  @Field(name = "today_chat_count")
+  private Integer todayChatCount;
+
+  // 처리 실패 시 에러 코드/메시지
+  @Field(name = "error_code")
+  private String errorCode;
+
+  @Field(name = "error_message")
+  private String errorMessage;
+
+  // 하루가 지난 턴은 TTL 인덱스로 자동 삭제
+  @Indexed(name = "chat_turns_ttl", expireAfter = "1d")
+  @Field(name = "created_at")
+  private LocalDateTime createdAt;
+
+  @Field(name = "completed_at")
+  private LocalDateTime completedAt;
+
+  // 롱폴링 중인 요청이 (어느 인스턴스에서든) 이 시각까지 결과를 기다리고 있음. 지나 있으면 완료 시 푸시 발송
+  @Field(name = "awaited_until")
+  private LocalDateTime awaitedUntil;
+
+  public enum Status {
+    PENDING,
+    COMPLETED,
+    FAILED
+  }
+}
@@ -0,0 +1,40 @@
+package com.forA.chatbot.chat.domain;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import lombok.Builder;
+import lombok.Getter;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.mapping.Document;
+import org.springframework.data.mongodb.core.mapping.Field;
+
+/**
+ * 유저별 하루 채팅 세션 수 (_id = "{userId}:{yyyy-MM-dd}")
+ * 세션을 시작할 때 $inc 로만 갱신하므로 동시 요청에서도 횟수가 정확하고, 조회는 _id 한 번으로 끝남
+ */
+@Getter
+@Builder
+@Document(collection = "daily_chat_counts")
+public class DailyChatCount {
+
+  @Id private String id;
+
+  @Field(name = "user_id")
+  private Long userId;
+
+  @Field(name = "date")
+  private LocalDate date;
+
+  @Field(name = "count")
+  private int count;
+
+  // 이틀이 지난 카운터는 TTL 인덱스로 자동 삭제
+  @Indexed(name = "daily_chat_counts_ttl", expireAfter = "2d")
+  @Field(name = "created_at")
+  private LocalDateTime createdAt;
+
+  public static String idOf(Long userId, LocalDate date) {
+    return userId + ":" + date;
+  }
+}
@@ -0,0 +1,52 @@
+package com.forA.chatbot.chat.domain;
+
+import java.time.LocalDateTime;
+import lombok.Builder;
+import lombok.Getter;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+import org.springframework.data.mongodb.core.mapping.Field;
+
+/**
+ * Idempotency-Key 로 접수한 대화 턴 (_id = "{userId}:{key}")
+ * 처음 요청이 IN_PROGRESS 로 선점하고, 끝나면 응답을 저장해 COMPLETED 로 바꿈. 재요청은 저장된 응답을 그대로 받음
+ */
+@Getter
+@Builder
+@Document(collection = "idempotency_keys")
+public class IdempotencyRecord {
+
+  @Id private String id;
+
+  @Field(name = "user_id")
+  private Long userId;
+
+  @Field(name = "session_id")
+  private String sessionId;
+
+  // 같은 키로 다른 요청을 보냈는지 확인하는 요청 본문 해시
+  @Field(name = "request_hash")
+  private String requestHash;
+
+  @Field(name = "status")
+  private Status status;
+
+  @Field(name = "response_json")
+  private String responseJson;
+
+  // chat.idempotency.ttl 이 지난 키는 TTL 인덱스(ChatIdempotencyService 가 생성)로 자동 삭제
+  @Field(name = "created_at")
+  private LocalDateTime createdAt;
+
+  @Field(name = "completed_at")
+  private LocalDateTime completedAt;
+
+  public enum Status {
+    IN_PROGRESS,
+    COMPLETED
+  }
+
+  public static String idOf(Long userId, String key) {
+    return userId + ":" + key;
+  }
+}
@@ -0,0 +1,30 @@
+package com.forA.chatbot.chat.domain;
+
+import java.time.LocalDateTime;
+import lombok.Builder;
+import lombok.Getter;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+import org.springframework.data.mongodb.core.mapping.Field;
+
+/**
+ * 재배포 없이 GPT 프롬프트를 바꾸기 위한 템플릿 (classpath:prompts/{operation}.st 를 대체)
+ * active 인 항목만 PromptRegistry 가 주기적으로 읽어 반영
+ */
+@Getter
+@Builder
+@Document(collection = "prompt_templates")
+public class PromptTemplateOverride {
+
+  @Id private String id; // LlmOperation tag (예: goal_phrase)
+
+  @Field(name = "template")
+  private String template;
+
+  @Field(name = "active")
+  private boolean active;
+
+  @Field(name = "updated_at")
+  @Builder.Default
+  private LocalDateTime updatedAt = LocalDateTime.now();
+}
@@ -0,0 +1,42 @@
+package com.forA.chatbot.chat.domain;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import lombok.Builder;
+import lombok.Getter;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.mapping.Document;
+import org.springframework.data.mongodb.core.mapping.Field;
+
+/**
+ * 스킬별 GPT 상세 행동 4가지 캐시
+ * 스킬 카탈로그(behavioral-skills.json) 내용이 바뀌면 catalogHash 가 달라지므로 자연스럽게 무효화됨
+ * 이전 카탈로그 항목은 created_at TTL 인덱스로 삭제 (현재 카탈로그 항목도 만료되면 다음 조회 때 다시 생성)
+ */
+@Getter
+@Builder
+@Document(collection = "skill_detailed_steps")
+public class SkillDetailedSteps {
+
+  @Id private String id; // {catalogHash}:{chunkId}
+
+  @Field(name = "chunk_id")
+  private String chunkId;
+
+  @Indexed
+  @Field(name = "catalog_hash")
+  private String catalogHash;
+
+  @Field(name = "steps")
+  private List<String> steps;
+
+  @Indexed(name = "skill_detailed_steps_ttl", expireAfter = "30d")
+  @Field(name = "created_at")
+  @Builder.Default
+  private LocalDateTime createdAt = LocalDateTime.now();
+
+  public static String idOf(String catalogHash, String chunkId) {
+    return catalogHash + ":" + chunkId;
+  }
+}
@@ -0,0 +1,38 @@
+package com.forA.chatbot.chat.domain;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import lombok.Builder;
+import lombok.Getter;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+import org.springframework.data.mongodb.core.mapping.Field;
+
+/**
+ * 유저별 대화 기억 요약
+ * 세션이 CHAT_END 에 도달할 때마다 이전 요약 + 그 세션 내용만 접어서 갱신 (요약 길이는 토큰 상한으로 고정)
+ */
+@Getter
+@Builder
+@Document(collection = "user_memories")
+public class UserMemory {
+
+  @Id private Long userId;
+
+  @Field(name = "summary")
+  private String summary;
+
+  // 최근에 고른 스킬 이름 (최신순, 개수 제한)
+  @Field(name = "recent_skills")
+  private List<String> recentSkills;
+
+  @Field(name = "session_count")
+  private int sessionCount;
+
+  // 마지막으로 반영한 세션 (같은 세션을 두 번 접지 않도록)
+  @Field(name = "last_session_id")
+  private String lastSessionId;
+
+  @Field(name = "updated_at")
+  private LocalDateTime updatedAt;
+}
@@ -14,5 +14,6 @@ public enum ChatStep {
   SKILL_SELECT,
   SKILL_CONFIRM,
   ACTION_FEEDBACK,
-  CHAT_END
+  CHAT_END,
+  FREE_CHAT // 정해진 흐름이 끝난 뒤 이어지는 자유 대화
 }
@@ -4,9 +4,14 @@ import java.time.LocalDateTime;
 import java.util.List;
 import lombok.Builder;
 import lombok.Getter;
+import lombok.extern.jackson.Jacksonized;
 
+/**
+ * 대화 응답. Idempotency-Key 재요청에 저장된 응답을 그대로 돌려주기 위해 JSON 역직렬화를 지원 (@Jacksonized)
+ */
 @Getter
 @Builder
+@Jacksonized
 public class ChatResponse {
 
   private String sessionId;
@@ -19,6 +24,7 @@ public class ChatResponse {
 
   @Getter
   @Builder
+  @Jacksonized
   public static class ChatMessageDto {
     private String sender;
     private String content;
@@ -29,6 +35,7 @@ public class ChatResponse {
 
   @Getter
   @Builder
+  @Jacksonized
   public static class ChatBotMessage {
     private String content;
     private MessageType type; // TEXT, OPTION, INPUT
@@ -38,11 +45,13 @@ public class ChatResponse {
   public enum MessageType {
     TEXT, // 일반 텍스트 응답 (GPT AI와 대화할 경우)
     OPTION,
-    INPUT // 키보드 입력형 응답 (ex. 생년 입력, 현재 상황 입력)
+    INPUT, // 키보드 입력형 응답 (ex. 생년 입력, 현재 상황 입력)
+    PENDING // 비동기 처리 중인 봇 응답 (완료 후 대화 턴 조회로 수신)
   }
 
   @Getter
   @Builder
+  @Jacksonized
   public static class ButtonOption {
     private String label;
     private String value; // 백엔드로 전달될 실제 값 (예: MALE, 2000, DEPRESSION)
@@ -0,0 +1,19 @@
+package com.forA.chatbot.chat.dto;
+
+import lombok.Builder;
+import lombok.Getter;
+
+/**
+ * 비동기 대화 턴 접수/조회 응답
+ * status 가 COMPLETED 이면 chatResponse 에 봇 응답이, FAILED 이면 errorCode/errorMessage 가 채워짐
+ */
+@Getter
+@Builder
+public class ChatTurnResponse {
+
+  private String turnId;
+  private String status; // PENDING, COMPLETED, FAILED
+  private ChatResponse chatResponse;
+  private String errorCode;
+  private String errorMessage;
+}
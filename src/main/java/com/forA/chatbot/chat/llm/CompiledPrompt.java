@@ -0,0 +1,90 @@
+package com.forA.chatbot.chat.llm;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import lombok.Getter;
+
+/**
+ * 한 번만 파싱해 둔 프롬프트 템플릿 (불변)
+ * 템플릿 문법은 기존 PromptTemplate 과 같은 {변수} 치환만 지원하며, 렌더링은 조각을 이어 붙이기만 함
+ * version 은 "{작업}@{본문 SHA-256 앞 8자리}" 로, 본문이 바뀌면 자동으로 달라짐
+ */
+@Getter
+public final class CompiledPrompt {
+
+  private final LlmOperation operation;
+  private final String source; // classpath / mongo
+  private final String version;
+  private final Set<String> variables;
+  private final List<String> literals; // literals.size() == names.size() + 1
+  private final List<String> names;
+  private final int literalLength;
+
+  private CompiledPrompt(LlmOperation operation, String source, String template,
+      List<String> literals, List<String> names) {
+    this.operation = operation;
+    this.source = source;
+    this.version = operation.getTag() + "@" + checksum(template);
+    this.literals = List.copyOf(literals);
+    this.names = List.copyOf(names);
+    this.variables = Set.copyOf(new LinkedHashSet<>(names));
+    this.literalLength = literals.stream().mapToInt(String::length).sum();
+  }
+
+  /**
+   * 템플릿을 리터럴/변수 조각으로 분해. 닫히지 않은 중괄호나 잘못된 변수 이름이 있으면 IllegalArgumentException
+   */
+  public static CompiledPrompt compile(LlmOperation operation, String source, String template) {
+    List<String> literals = new ArrayList<>();
+    List<String> names = new ArrayList<>();
+    int cursor = 0;
+    while (true) {
+      int open = template.indexOf('{', cursor);
+      if (open < 0) {
+        literals.add(template.substring(cursor));
+        break;
+      }
+      int close = template.indexOf('}', open);
+      if (close < 0) {
+        throw new IllegalArgumentException("닫히지 않은 프롬프트 변수: " + operation.getTag() + " (위치 " + open + ")");
+      }
+      String name = template.substring(open + 1, close);
+      if (!name.matches("[A-Za-z][A-Za-z0-9_]*")) {
+        throw new IllegalArgumentException("잘못된 프롬프트 변수 이름: " + operation.getTag() + " {" + name + "}");
+      }
+      literals.add(template.substring(cursor, open));
+      names.add(name);
+      cursor = close + 1;
+    }
+    return new CompiledPrompt(operation, source, template, literals, names);
+  }
+
+  public String render(Map<String, ?> values) {
+    StringBuilder rendered = new StringBuilder(literalLength + 256);
+    for (int i = 0; i < names.size(); i++) {
+      rendered.append(literals.get(i));
+      Object value = values.get(names.get(i));
+      if (value == null) {
+        throw new IllegalStateException("프롬프트 변수 값 누락: " + version + " {" + names.get(i) + "}");
+      }
+      rendered.append(value);
+    }
+    return rendered.append(literals.get(names.size())).toString();
+  }
+
+  private static String checksum(String template) {
+    try {
+      byte[] digest = MessageDigest.getInstance("SHA-256").digest(template.getBytes(StandardCharsets.UTF_8));
+      return HexFormat.of().formatHex(digest, 0, 4);
+    } catch (NoSuchAlgorithmException e) {
+      throw new IllegalStateException(e);
+    }
+  }
+}
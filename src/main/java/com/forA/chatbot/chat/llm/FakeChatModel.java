@@ -0,0 +1,279 @@
+package com.forA.chatbot.chat.llm;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HexFormat;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.ai.chat.messages.AssistantMessage;
+import org.springframework.ai.chat.metadata.ChatResponseMetadata;
+import org.springframework.ai.chat.metadata.DefaultUsage;
+import org.springframework.ai.chat.model.ChatModel;
+import org.springframework.ai.chat.model.ChatResponse;
+import org.springframework.ai.chat.model.Generation;
+import org.springframework.ai.chat.prompt.Prompt;
+import reactor.core.publisher.Flux;
+
+/**
+ * 부하/지연 테스트용 ChatModel (perf 프로필에서 OpenAI 대신 사용, FakeChatModelConfig 참고)
+ * - SYNTHESIZE: 프롬프트가 어느 작업의 템플릿인지 판별해, 파서가 받아들이는 형식의 응답을 만들어 냄
+ *   (추천은 프롬프트 안 후보 중 distress-NNN 4개, 상세 행동은 콤마 4개, 목표 구문은 짧은 구문, 나머지는 문장)
+ * - REPLAY: 카세트(JSON Lines)에 녹화된 프롬프트 → 응답을 재생, 녹화되지 않은 프롬프트는 SYNTHESIZE
+ * - RECORD: 실제 모델(delegate)로 호출하고 프롬프트/응답/지연 시간을 카세트에 추가
+ * 응답 지연은 chat.llm.fake.latency 분포에서 뽑으며, 토큰 사용량은 로컬 토크나이저로 계산해 메타데이터에 넣음
+ */
+@Slf4j
+public class FakeChatModel implements ChatModel {
+
+  private static final Pattern SKILL_ID = Pattern.compile("distress-\\d{3}");
+  private static final String MODEL = "fake";
+  private static final Map<LlmOperation, String> SYNTHESIZED = new EnumMap<>(Map.of(
+      LlmOperation.GOAL_PHRASE, "마음을 진정시키는",
+      LlmOperation.STEPS, "숨을 천천히 네 번 들이쉬기, 주변 물건 다섯 가지 세어보기, 찬물로 손 씻기, 창밖을 보며 잠시 쉬기",
+      LlmOperation.MEMORY_SUMMARY, "사용자는 발표나 평가를 앞두고 불안을 자주 느끼며, 호흡 기법이 조금 도움이 되었다고 말했다.",
+      LlmOperation.CONVERSATION_SUMMARY, "사용자는 회사 일로 지쳐 있으며, 모리와 이야기하며 조금 진정되었다."));
+  private static final String SYNTHESIZED_SENTENCE =
+      "그런 상황이라면 마음이 많이 무거우셨을 것 같아요. 지금 느끼는 감정은 충분히 그럴 수 있어요.";
+
+  private final LlmGatewayProperties.Fake properties;
+  private final PromptRegistry promptRegistry;
+  private final PromptBudgeter promptBudgeter;
+  private final ObjectMapper objectMapper;
+  private final ChatModel delegate;
+  private final Map<String, Cassette> cassettes = new ConcurrentHashMap<>();
+  private final List<Duration> recordedLatencies = Collections.synchronizedList(new ArrayList<>());
+
+  public FakeChatModel(LlmGatewayProperties.Fake properties, PromptRegistry promptRegistry,
+      PromptBudgeter promptBudgeter, ObjectMapper objectMapper, ChatModel delegate) {
+    if (properties.getMode() == LlmGatewayProperties.Fake.Mode.RECORD && delegate == null) {
+      throw new IllegalStateException("RECORD 모드에는 실제 ChatModel 이 필요합니다 (spring.ai.model.chat=openai)");
+    }
+    this.properties = properties;
+    this.promptRegistry = promptRegistry;
+    this.promptBudgeter = promptBudgeter;
+    this.objectMapper = objectMapper;
+    this.delegate = delegate;
+    if (properties.getMode() == LlmGatewayProperties.Fake.Mode.REPLAY) {
+      loadCassettes();
+    }
+  }
+
+  @Override
+  public ChatResponse call(Prompt prompt) {
+    String content = prompt.getContents();
+    if (delegate != null) {
+      long startNanos = System.nanoTime();
+      ChatResponse response = delegate.call(prompt);
+      Duration latency = Duration.ofNanos(System.nanoTime() - startNanos);
+      String text = response.getResult() == null ? null : response.getResult().getOutput().getText();
+      record(content, text, latency);
+      return response;
+    }
+    sleep(sampleLatency());
+    return response(content, respond(content));
+  }
+
+  /**
+   * 첫 조각은 샘플링한 지연 시간 뒤에, 이후 조각은 stream-chunk-delay 간격으로 전달 (마지막 조각에 사용량 포함)
+   */
+  @Override
+  public Flux<ChatResponse> stream(Prompt prompt) {
+    if (delegate != null) {
+      return Flux.defer(() -> Flux.just(call(prompt)));
+    }
+    String content = prompt.getContents();
+    return Flux.defer(() -> {
+      String text = respond(content);
+      List<String> chunks = chunks(text);
+      List<ChatResponse> responses = new ArrayList<>(chunks.size());
+      for (int i = 0; i < chunks.size(); i++) {
+        responses.add(i == chunks.size() - 1 ? response(content, text, chunks.get(i)) : response(chunks.get(i)));
+      }
+      Duration chunkDelay = properties.getStreamChunkDelay();
+      Flux<ChatResponse> flux = Flux.fromIterable(responses);
+      if (!chunkDelay.isZero()) {
+        flux = flux.delayElements(chunkDelay);
+      }
+      return flux.delaySubscription(sampleLatency());
+    });
+  }
+
+  /** 녹화된 응답이 있으면 재생, 없으면 작업 형식에 맞게 합성 */
+  String respond(String content) {
+    if (properties.getMode() == LlmGatewayProperties.Fake.Mode.REPLAY) {
+      Cassette cassette = cassettes.get(hash(content));
+      if (cassette != null) {
+        return cassette.response();
+      }
+      log.debug("카세트에 없는 프롬프트라 합성 응답 사용: {}", hash(content));
+    }
+    LlmOperation operation = classify(content);
+    if (operation == LlmOperation.RECOMMEND) {
+      return recommend(content, String.join("", promptRegistry.get(operation).getLiterals()));
+    }
+    return SYNTHESIZED.getOrDefault(operation, SYNTHESIZED_SENTENCE);
+  }
+
+  /**
+   * 프롬프트가 어느 작업의 템플릿으로 렌더링됐는지 판별 (첫 변수 앞의 고정 문구가 가장 길게 일치하는 템플릿)
+   */
+  LlmOperation classify(String content) {
+    LlmOperation matched = null;
+    int matchedLength = -1;
+    for (LlmOperation operation : LlmOperation.values()) {
+      String prefix = promptRegistry.get(operation).getLiterals().get(0);
+      if (content.startsWith(prefix) && prefix.length() > matchedLength) {
+        matched = operation;
+        matchedLength = prefix.length();
+      }
+    }
+    return matched;
+  }
+
+  Duration sampleLatency() {
+    LlmGatewayProperties.Latency latency = properties.getLatency();
+    ThreadLocalRandom random = ThreadLocalRandom.current();
+    Duration sampled = switch (latency.getDistribution()) {
+      case FIXED -> latency.getMedian();
+      case LOGNORMAL -> Duration.ofNanos((long) (latency.getMedian().toNanos()
+          * Math.exp(latency.getSigma() * random.nextGaussian())));
+      case EMPIRICAL -> {
+        List<Duration> samples = latency.getSamples().isEmpty() ? recordedLatencies : latency.getSamples();
+        yield samples.isEmpty() ? latency.getMedian() : samples.get(random.nextInt(samples.size()));
+      }
+    };
+    return sampled.compareTo(latency.getMax()) > 0 ? latency.getMax() : sampled;
+  }
+
+  // 프롬프트에 넣은 후보 스킬 중 4개 (템플릿 문구 안의 예시 id 는 제외, 후보가 그보다 적으면 전부)
+  private static String recommend(String content, String templateLiterals) {
+    LinkedHashSet<String> candidates = skillIds(content);
+    candidates.removeAll(skillIds(templateLiterals));
+    List<String> ids = new ArrayList<>(candidates);
+    Collections.shuffle(ids, ThreadLocalRandom.current());
+    return String.join(",", ids.subList(0, Math.min(4, ids.size())));
+  }
+
+  private static LinkedHashSet<String> skillIds(String text) {
+    LinkedHashSet<String> ids = new LinkedHashSet<>();
+    Matcher matcher = SKILL_ID.matcher(text);
+    while (matcher.find()) {
+      ids.add(matcher.group());
+    }
+    return ids;
+  }
+
+  // 어절 단위 조각 (공백은 앞 조각에 붙여서 이어 붙이면 원문이 되도록)
+  private static List<String> chunks(String text) {
+    List<String> chunks = new ArrayList<>();
+    int start = 0;
+    for (int i = 1; i <= text.length(); i++) {
+      if (i == text.length() || text.charAt(i - 1) == ' ') {
+        chunks.add(text.substring(start, i));
+        start = i;
+      }
+    }
+    return chunks.isEmpty() ? List.of("") : chunks;
+  }
+
+  private ChatResponse response(String content, String text) {
+    return response(content, text, text);
+  }
+
+  private ChatResponse response(String content, String fullText, String chunk) {
+    ChatResponseMetadata metadata = ChatResponseMetadata.builder()
+        .model(MODEL)
+        .usage(new DefaultUsage(promptBudgeter.countTokens(content), promptBudgeter.countTokens(fullText)))
+        .build();
+    return new ChatResponse(List.of(new Generation(new AssistantMessage(chunk))), metadata);
+  }
+
+  private static ChatResponse response(String chunk) {
+    return new ChatResponse(List.of(new Generation(new AssistantMessage(chunk))));
+  }
+
+  private static void sleep(Duration latency) {
+    try {
+      Thread.sleep(latency);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException("FakeChatModel 응답 대기 중 인터럽트", e);
+    }
+  }
+
+  private void loadCassettes() {
+    Path path = Path.of(properties.getCassettePath());
+    if (!Files.exists(path)) {
+      log.warn("카세트 파일이 없어 모든 응답을 합성합니다: {}", path);
+      return;
+    }
+    try {
+      for (String line : Files.readAllLines(path, StandardCharsets.UTF_8)) {
+        if (line.isBlank()) {
+          continue;
+        }
+        Cassette cassette = objectMapper.readValue(line, Cassette.class);
+        cassettes.put(cassette.promptHash(), cassette);
+        recordedLatencies.add(Duration.ofMillis(cassette.latencyMs()));
+      }
+    } catch (IOException e) {
+      throw new UncheckedIOException("카세트 파일을 읽지 못했습니다: " + path, e);
+    }
+    log.info("카세트 {}개 로드: {}", cassettes.size(), path);
+  }
+
+  private synchronized void record(String content, String text, Duration latency) {
+    if (text == null) {
+      return;
+    }
+    LlmOperation operation = classify(content);
+    Cassette cassette = new Cassette(operation == null ? null : operation.getTag(), hash(content), content, text,
+        latency.toMillis());
+    Path path = Path.of(properties.getCassettePath());
+    try {
+      if (path.getParent() != null) {
+        Files.createDirectories(path.getParent());
+      }
+      try (BufferedWriter writer = Files.newBufferedWriter(path, StandardCharsets.UTF_8,
+          StandardOpenOption.CREATE, StandardOpenOption.APPEND)) {
+        writer.write(objectMapper.writeValueAsString(cassette));
+        writer.newLine();
+      }
+    } catch (JsonProcessingException e) {
+      log.warn("카세트 직렬화 실패: {}", e.getMessage());
+    } catch (IOException e) {
+      log.warn("카세트 기록 실패: {}", e.getMessage());
+    }
+  }
+
+  static String hash(String content) {
+    try {
+      byte[] digest = MessageDigest.getInstance("SHA-256").digest(content.getBytes(StandardCharsets.UTF_8));
+      return HexFormat.of().formatHex(digest);
+    } catch (NoSuchAlgorithmException e) {
+      throw new IllegalStateException(e);
+    }
+  }
+
+  /** 녹화된 호출 한 건 (카세트 파일의 한 줄) */
+  record Cassette(String operation, String promptHash, String prompt, String response, long latencyMs) {}
+}
@@ -0,0 +1,125 @@
+package com.forA.chatbot.chat.llm;
+
+import java.time.Clock;
+import java.time.Instant;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * OpenAI 업스트림용 카운트 기반 서킷 브레이커
+ * CLOSED: 최근 N개 호출의 실패율이 임계값 이상이면 OPEN
+ * OPEN: openDuration 동안 모든 호출 차단 (즉시 fallback)
+ * HALF_OPEN: 정해진 수의 시험 호출만 허용, 모두 성공하면 CLOSED / 하나라도 실패하면 다시 OPEN
+ *   (결과 없이 끝난 시험 호출은 onIgnored 로 허용량을 반납)
+ */
+@Slf4j
+class LlmCircuitBreaker {
+
+  enum State {
+    CLOSED,
+    OPEN,
+    HALF_OPEN
+  }
+
+  private final LlmGatewayProperties.CircuitBreaker config;
+  private final Clock clock;
+  private final boolean[] window;
+
+  private State state = State.CLOSED;
+  private int windowIndex;
+  private int recordedCalls;
+  private int failures;
+  private Instant openUntil = Instant.MIN;
+  private int halfOpenPermits;
+  private int halfOpenSuccesses;
+
+  LlmCircuitBreaker(LlmGatewayProperties.CircuitBreaker config, Clock clock) {
+    this.config = config;
+    this.clock = clock;
+    this.window = new boolean[config.getSlidingWindowSize()];
+  }
+
+  synchronized boolean tryAcquire() {
+    if (state == State.OPEN) {
+      if (clock.instant().isBefore(openUntil)) {
+        return false;
+      }
+      transitionTo(State.HALF_OPEN);
+    }
+    if (state == State.HALF_OPEN) {
+      if (halfOpenPermits >= config.getHalfOpenCalls()) {
+        return false;
+      }
+      halfOpenPermits++;
+    }
+    return true;
+  }
+
+  synchronized void onSuccess() {
+    if (state == State.HALF_OPEN) {
+      halfOpenSuccesses++;
+      if (halfOpenSuccesses >= config.getHalfOpenCalls()) {
+        transitionTo(State.CLOSED);
+      }
+      return;
+    }
+    record(false);
+  }
+
+  synchronized void onFailure() {
+    if (state == State.HALF_OPEN) {
+      transitionTo(State.OPEN);
+      return;
+    }
+    if (state == State.CLOSED) {
+      record(true);
+      if (recordedCalls >= config.getMinimumCalls()
+          && (double) failures / recordedCalls >= config.getFailureRateThreshold()) {
+        transitionTo(State.OPEN);
+      }
+    }
+  }
+
+  /**
+   * 성공/실패 어느 쪽으로도 기록하지 않고 끝난 호출 (턴 마감, 취소, 클라이언트 전송 실패 등)
+   * HALF_OPEN 에서 받은 시험 호출 허용량을 돌려줘야 다음 시험 호출이 가능함
+   */
+  synchronized void onIgnored() {
+    if (state == State.HALF_OPEN && halfOpenPermits > 0) {
+      halfOpenPermits--;
+    }
+  }
+
+  synchronized State getState() {
+    return state;
+  }
+
+  private void record(boolean failed) {
+    if (recordedCalls == window.length) {
+      if (window[windowIndex]) {
+        failures--;
+      }
+    } else {
+      recordedCalls++;
+    }
+    window[windowIndex] = failed;
+    if (failed) {
+      failures++;
+    }
+    windowIndex = (windowIndex + 1) % window.length;
+  }
+
+  private void transitionTo(State next) {
+    log.warn("LLM circuit breaker {} -> {}", state, next);
+    state = next;
+    halfOpenPermits = 0;
+    halfOpenSuccesses = 0;
+    if (next == State.OPEN) {
+      openUntil = clock.instant().plus(config.getOpenDuration());
+    }
+    if (next == State.CLOSED) {
+      windowIndex = 0;
+      recordedCalls = 0;
+      failures = 0;
+    }
+  }
+}
@@ -0,0 +1,630 @@
+package com.forA.chatbot.chat.llm;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.nio.charset.StandardCharsets;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.ai.chat.client.ChatClient;
+import org.springframework.ai.chat.messages.Message;
+import org.springframework.ai.chat.metadata.Usage;
+import org.springframework.ai.chat.model.ChatResponse;
+import org.springframework.ai.chat.model.Generation;
+import org.springframework.ai.chat.prompt.Prompt;
+import org.springframework.ai.openai.OpenAiChatOptions;
+import org.springframework.stereotype.Component;
+import org.springframework.util.DigestUtils;
+import org.springframework.util.StringUtils;
+import reactor.core.Disposable;
+
+/**
+ * 모든 GPT 호출이 거쳐가는 게이트웨이
+ * - 작업별 타임아웃
+ * - 동시 호출 수 제한(bulkhead): 허용량이 없으면 잠깐 기다린 뒤 fallback
+ * - 서킷 브레이커: OpenAI 장애 시 호출하지 않고 즉시 fallback
+ * - 재시도: retryable 작업만 지터가 있는 지수 백오프로 재시도
+ * - 요청 병합(single-flight): 같은 프롬프트+옵션의 호출이 이미 진행 중이면 업스트림 호출 하나의 결과를 공유
+ * - 라우팅: 작업별로 모델/temperature/max-tokens 를 지정해 짧은 구조화 출력은 저렴한 모델로 처리
+ * - 헤지: 최근 응답 시간의 백분위수를 넘기면 같은 요청을 한 번 더 보내고 먼저 온 응답 사용 (비율 상한 있음)
+ * - 턴 마감(LlmTurnContext): 남은 시간만큼만 기다리고, 마감이 지나면 fallback. 늦게 온 응답은 로그로만 남김
+ *   (스트리밍은 첫 토큰까지만 턴 마감을 적용)
+ * - 사용량: 작업/모델별 응답 시간, 토큰, 추정 비용 메트릭과 유저별 일일 장부. 유저 하루 토큰 한도를 넘으면 fallback
+ * 어떤 경우에도 예외를 던지지 않고, 호출부가 넘긴 기본값(fallback)으로 응답이 이어지도록 함
+ */
+@Slf4j
+@Component
+public class LlmGateway {
+
+  private final ChatClient.Builder chatClientBuilder;
+  private final ExecutorService chatAiExecutor;
+  private final LlmGatewayProperties properties;
+  private final MeterRegistry meterRegistry;
+  private final Semaphore bulkhead;
+  private final LlmCircuitBreaker circuitBreaker;
+  private final LlmHedgePolicy hedgePolicy;
+  private final LlmMetrics metrics;
+  private final LlmUsageLedger ledger;
+  private final Map<String, InFlightCall> inFlight = new ConcurrentHashMap<>();
+  // 라우트(작업)별로 한 번만 만들어 재사용하는 ChatClient (thread-safe)
+  private final Map<LlmOperation, ChatClient> clients = new ConcurrentHashMap<>();
+
+  public LlmGateway(ChatClient.Builder chatClientBuilder, ExecutorService chatAiExecutor,
+      LlmGatewayProperties properties, MeterRegistry meterRegistry, LlmUsageLedger ledger) {
+    this.chatClientBuilder = chatClientBuilder;
+    this.chatAiExecutor = chatAiExecutor;
+    this.properties = properties;
+    this.meterRegistry = meterRegistry;
+    this.bulkhead = new Semaphore(properties.getBulkhead().getMaxConcurrentCalls());
+    this.circuitBreaker = new LlmCircuitBreaker(properties.getCircuitBreaker(), Clock.systemUTC());
+    this.hedgePolicy = new LlmHedgePolicy(properties.getHedge());
+    this.metrics = new LlmMetrics(meterRegistry, properties, ledger);
+    this.ledger = ledger;
+    Gauge.builder("chat.llm.circuit_breaker.open", circuitBreaker,
+            cb -> cb.getState() == LlmCircuitBreaker.State.CLOSED ? 0 : 1)
+        .register(meterRegistry);
+  }
+
+  /**
+   * GPT 호출 후 응답 텍스트를 parser 로 변환
+   * 응답이 비었거나 호출이 실패/차단되면 fallback 값을 반환
+   */
+  public <T> T call(LlmOperation operation, Prompt prompt, Function<String, T> parser, Supplier<T> fallback) {
+    if (LlmTurnContext.isExpired()) {
+      return fallback(operation, "deadline", fallback);
+    }
+    Long userId = LlmTurnContext.userId().orElse(null);
+    if (ledger.isOverBudget(userId)) {
+      return fallback(operation, "user_budget", fallback);
+    }
+    Prompt routedPrompt = route(operation, prompt, false);
+    String key = coalescingKey(operation, routedPrompt);
+    InFlightCall shared = inFlight.get(key);
+    if (shared != null && shared.join()) {
+      // 이미 진행 중인 동일 호출이 있으면 bulkhead/서킷 브레이커를 거치지 않고 결과만 기다림
+      return awaitShared(operation, shared, parser, fallback);
+    }
+    if (!acquire(operation)) {
+      return fallback.get();
+    }
+    boolean outcomeRecorded = false;
+    try {
+      int maxAttempts = operation.isRetryable() ? Math.max(1, properties.getRetry().getMaxAttempts()) : 1;
+      for (int attempt = 1; attempt <= maxAttempts; attempt++) {
+        try {
+          String text = requestWithTimeout(operation, key, routedPrompt, userId);
+          circuitBreaker.onSuccess();
+          outcomeRecorded = true;
+          return parse(operation, text, parser, fallback);
+        } catch (TimeoutException e) {
+          if (LlmTurnContext.isExpired()) {
+            // 업스트림이 느린 것이 아니라 턴 시간이 부족한 것이므로 서킷 브레이커에는 기록하지 않음
+            log.warn("턴 마감으로 GPT 응답을 기다리지 않음: operation={}, attempt={}/{}",
+                operation.getTag(), attempt, maxAttempts);
+            return fallback(operation, "deadline", fallback);
+          }
+          circuitBreaker.onFailure();
+          outcomeRecorded = true;
+          log.warn("GPT 호출 타임아웃: operation={}, attempt={}/{}", operation.getTag(), attempt, maxAttempts);
+          if (attempt == maxAttempts) {
+            return fallback(operation, "timeout", fallback);
+          }
+        } catch (ExecutionException e) {
+          circuitBreaker.onFailure();
+          outcomeRecorded = true;
+          log.warn("GPT 호출 실패: operation={}, attempt={}/{}, error={}",
+              operation.getTag(), attempt, maxAttempts, e.getCause().getMessage());
+          if (attempt == maxAttempts) {
+            return fallback(operation, "error", fallback);
+          }
+        }
+        if (!backoff(attempt)) {
+          return fallback(operation, "interrupted", fallback);
+        }
+        if (LlmTurnContext.isExpired()) {
+          return fallback(operation, "deadline", fallback);
+        }
+      }
+      return fallback(operation, "error", fallback);
+    } finally {
+      if (!outcomeRecorded) {
+        // 턴 마감/인터럽트로 결과 없이 끝난 경우 HALF_OPEN 시험 호출 허용량을 반납
+        circuitBreaker.onIgnored();
+      }
+      bulkhead.release();
+    }
+  }
+
+  /**
+   * 스트리밍 GPT 호출: 토큰이 도착할 때마다 onToken 으로 전달하고, 완성된 텍스트를 parser 로 변환
+   * 이미 토큰이 전송되었을 수 있으므로 재시도하지 않음
+   * - 첫 토큰은 작업별 타임아웃과 턴 마감 중 짧은 쪽까지만 기다림. 아직 아무것도 보내지 않았으므로 fallback 으로 대체
+   * - 첫 토큰을 보낸 뒤에는 턴 마감으로 끊지 않고 작업별 타임아웃까지 기다림. 타임아웃/실패 시에도 클라이언트가 받은
+   *   토큰과 최종 메시지가 어긋나지 않도록, 보낸 부분까지의 텍스트를 결과로 사용
+   * - 취소/인터럽트와 클라이언트 전송 실패는 업스트림 장애가 아니므로 서킷 브레이커에 기록하지 않음
+   */
+  public <T> T stream(LlmOperation operation, Prompt prompt, Consumer<String> onToken,
+      Function<String, T> parser, Supplier<T> fallback) {
+    if (LlmTurnContext.isExpired()) {
+      return fallback(operation, "deadline", fallback);
+    }
+    Long userId = LlmTurnContext.userId().orElse(null);
+    if (ledger.isOverBudget(userId)) {
+      return fallback(operation, "user_budget", fallback);
+    }
+    if (!acquire(operation)) {
+      return fallback.get();
+    }
+    Prompt routedPrompt = route(operation, prompt, true);
+    long startNanos = System.nanoTime();
+    long timeoutNanos = properties.timeoutOf(operation).toNanos();
+    StringBuffer buffer = new StringBuffer(); // 리액터 스레드에서 쓰고 호출 스레드에서 읽음
+    AtomicReference<Usage> usage = new AtomicReference<>();
+    CompletableFuture<Void> firstToken = new CompletableFuture<>();
+    CompletableFuture<Void> completed = new CompletableFuture<>();
+    Disposable subscription = null;
+    boolean outcomeRecorded = false;
+    try {
+      subscription = clientOf(operation).prompt(routedPrompt).stream().chatResponse()
+          .subscribe(response -> {
+            if (response.getMetadata() != null && response.getMetadata().getUsage() != null
+                && response.getMetadata().getUsage().getTotalTokens() > 0) {
+              usage.set(response.getMetadata().getUsage());
+            }
+            String token = textOf(response);
+            if (StringUtils.hasLength(token)) {
+              buffer.append(token);
+              deliver(onToken, token);
+              firstToken.complete(null);
+            }
+          }, completed::completeExceptionally, () -> completed.complete(null));
+      CompletableFuture.anyOf(firstToken, completed).get(timeoutFor(operation).toNanos(), TimeUnit.NANOSECONDS);
+      completed.get(Math.max(0, startNanos + timeoutNanos - System.nanoTime()), TimeUnit.NANOSECONDS);
+      circuitBreaker.onSuccess();
+      outcomeRecorded = true;
+      metrics.recordLatency(operation, modelOf(operation), false, Duration.ofNanos(System.nanoTime() - startNanos));
+      metrics.recordUsage(operation, modelOf(operation), userId, usage.get());
+      return parse(operation, buffer.toString(), parser, fallback);
+    } catch (TimeoutException e) {
+      if (buffer.isEmpty() && LlmTurnContext.isExpired()) {
+        // 업스트림이 느린 것이 아니라 턴 시간이 부족한 것이므로 서킷 브레이커에는 기록하지 않음
+        log.warn("턴 마감까지 GPT 스트리밍 첫 토큰이 없어 기본값 사용: operation={}", operation.getTag());
+        return fallback(operation, "deadline", fallback);
+      }
+      circuitBreaker.onFailure();
+      outcomeRecorded = true;
+      log.warn("GPT 스트리밍 호출 타임아웃: operation={}, sentChars={}", operation.getTag(), buffer.length());
+      return partialOrFallback(operation, buffer, "timeout", parser, fallback);
+    } catch (ExecutionException e) {
+      if (!(e.getCause() instanceof TokenDeliveryException)) {
+        circuitBreaker.onFailure();
+        outcomeRecorded = true;
+      }
+      log.warn("GPT 스트리밍 호출 실패: operation={}, error={}", operation.getTag(), e.getCause().getMessage());
+      return partialOrFallback(operation, buffer, "error", parser, fallback);
+    } catch (InterruptedException e) {
+      // fan-out 정리 등으로 취소된 경우
+      Thread.currentThread().interrupt();
+      return partialOrFallback(operation, buffer, "interrupted", parser, fallback);
+    } catch (RuntimeException e) {
+      circuitBreaker.onFailure();
+      outcomeRecorded = true;
+      log.warn("GPT 스트리밍 호출 실패: operation={}, error={}", operation.getTag(), e.getMessage());
+      return fallback(operation, "error", fallback);
+    } finally {
+      if (subscription != null) {
+        subscription.dispose();
+      }
+      if (!outcomeRecorded) {
+        circuitBreaker.onIgnored();
+      }
+      bulkhead.release();
+    }
+  }
+
+  private static void deliver(Consumer<String> onToken, String token) {
+    try {
+      onToken.accept(token);
+    } catch (RuntimeException e) {
+      throw new TokenDeliveryException(e);
+    }
+  }
+
+  /**
+   * 스트리밍이 중간에 끝난 경우: 이미 보낸 토큰이 있으면 그 부분까지를 결과로, 없으면 fallback
+   */
+  private <T> T partialOrFallback(LlmOperation operation, StringBuffer buffer, String reason,
+      Function<String, T> parser, Supplier<T> fallback) {
+    String sent = buffer.toString();
+    if (!StringUtils.hasText(sent)) {
+      return fallback(operation, reason, fallback);
+    }
+    fallbackCounter(operation, "partial_" + reason).increment();
+    return parser.apply(sent);
+  }
+
+  /**
+   * bulkhead 허용량 확보 후 서킷 브레이커 확인. 실패 시 fallback 메트릭을 남기고 false
+   */
+  private boolean acquire(LlmOperation operation) {
+    try {
+      if (!bulkhead.tryAcquire(properties.getBulkhead().getMaxWait().toMillis(), TimeUnit.MILLISECONDS)) {
+        log.warn("GPT 동시 호출 한도 초과로 기본값 사용: operation={}", operation.getTag());
+        fallbackCounter(operation, "bulkhead_full").increment();
+        return false;
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      fallbackCounter(operation, "interrupted").increment();
+      return false;
+    }
+    if (!circuitBreaker.tryAcquire()) {
+      bulkhead.release();
+      log.warn("GPT 서킷 브레이커 OPEN 상태로 기본값 사용: operation={}", operation.getTag());
+      fallbackCounter(operation, "circuit_open").increment();
+      return false;
+    }
+    return true;
+  }
+
+  private String requestWithTimeout(LlmOperation operation, String key, Prompt prompt, Long userId)
+      throws TimeoutException, ExecutionException {
+    long startNanos = System.nanoTime();
+    long timeoutNanos = timeoutFor(operation).toNanos();
+    hedgePolicy.onCall();
+    InFlightCall existing = null;
+    InFlightCall call = null;
+    while (call == null) {
+      existing = join(operation, key);
+      call = existing != null ? existing : tryStart(operation, key, prompt, userId);
+    }
+    try {
+      String text;
+      Duration hedgeDelay = existing == null ? hedgePolicy.hedgeDelay(operation) : null;
+      if (hedgeDelay != null && hedgeDelay.toNanos() < timeoutNanos) {
+        text = awaitWithHedge(operation, key, prompt, call, hedgeDelay, startNanos + timeoutNanos);
+      } else {
+        text = call.result.get(timeoutNanos, TimeUnit.NANOSECONDS);
+      }
+      if (existing == null) {
+        recordLatency(operation, call, Duration.ofNanos(System.nanoTime() - startNanos));
+      }
+      return text;
+    } catch (TimeoutException e) {
+      if (LlmTurnContext.isExpired()) {
+        detach(operation, key, call, existing == null ? startNanos : null);
+      } else {
+        abandon(key, call);
+      }
+      throw e;
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      abandon(key, call);
+      throw new ExecutionException(e);
+    }
+  }
+
+  /**
+   * 작업별 타임아웃과 턴 마감까지 남은 시간 중 짧은 쪽
+   */
+  private Duration timeoutFor(LlmOperation operation) {
+    Duration timeout = properties.timeoutOf(operation);
+    return LlmTurnContext.remaining()
+        .filter(remaining -> remaining.compareTo(timeout) < 0)
+        .orElse(timeout);
+  }
+
+  /**
+   * hedgeDelay 안에 응답이 없으면 같은 요청을 한 번 더 보내고, 먼저 도착한 응답을 사용
+   * 헤지 예산이 없으면 첫 요청만 계속 기다림
+   */
+  private String awaitWithHedge(LlmOperation operation, String key, Prompt prompt, InFlightCall call,
+      Duration hedgeDelay, long deadlineNanos)
+      throws TimeoutException, ExecutionException, InterruptedException {
+    try {
+      return call.result.get(hedgeDelay.toNanos(), TimeUnit.NANOSECONDS);
+    } catch (TimeoutException e) {
+      if (hedgePolicy.tryAcquireHedge()) {
+        hedgeCounter(operation, "fired").increment();
+        log.info("GPT 응답 지연으로 헤지 요청 발송: operation={}, delay={}ms", operation.getTag(), hedgeDelay.toMillis());
+        submitAttempt(key, prompt, call);
+      } else {
+        hedgeCounter(operation, "skipped_budget").increment();
+      }
+    }
+    return call.result.get(Math.max(0, deadlineNanos - System.nanoTime()), TimeUnit.NANOSECONDS);
+  }
+
+  /**
+   * 같은 키의 호출이 진행 중이면 합류. 합류할 호출이 없으면 null
+   */
+  private InFlightCall join(LlmOperation operation, String key) {
+    InFlightCall existing = inFlight.get(key);
+    if (existing != null && existing.join()) {
+      duplicateCounter(operation).increment();
+      return existing;
+    }
+    return null;
+  }
+
+  /**
+   * 새 업스트림 호출을 시작해 병합 대상으로 등록 (포기된 호출이 남아 있으면 교체)
+   * 다른 스레드가 먼저 시작했으면 null 을 반환하고, 호출부는 그 호출에 합류
+   */
+  private InFlightCall tryStart(LlmOperation operation, String key, Prompt prompt, Long userId) {
+    InFlightCall current = inFlight.get(key);
+    InFlightCall created = new InFlightCall(operation, userId);
+    boolean started = current == null
+        ? inFlight.putIfAbsent(key, created) == null
+        : current.waiters.get() == 0 && inFlight.replace(key, current, created);
+    if (!started) {
+      return null;
+    }
+    submitAttempt(key, prompt, created);
+    return created;
+  }
+
+  /**
+   * 업스트림 요청 1회. 먼저 성공한 요청이 결과를 채우고 나머지 요청은 취소
+   * 모든 요청이 실패한 경우에만 실패로 완료
+   */
+  private void submitAttempt(String key, Prompt prompt, InFlightCall call) {
+    if (call.result.isDone()) {
+      return;
+    }
+    int attempt = call.started.getAndIncrement();
+    call.attempts.add(chatAiExecutor.submit(() -> {
+      try {
+        String text = requestText(call.operation, call.userId, prompt);
+        if (call.winner.compareAndSet(-1, attempt)) {
+          call.result.complete(text);
+          call.cancelAttempts();
+        }
+      } catch (Throwable t) {
+        if (call.failures.incrementAndGet() >= call.started.get()) {
+          call.result.completeExceptionally(t);
+        }
+      } finally {
+        if (call.result.isDone()) {
+          inFlight.remove(key, call);
+        }
+      }
+    }));
+  }
+
+  private void recordLatency(LlmOperation operation, InFlightCall call, Duration latency) {
+    hedgePolicy.recordLatency(operation, latency);
+    boolean hedged = call.started.get() > 1;
+    if (hedged) {
+      hedgeCounter(operation, call.winner.get() > 0 ? "won" : "lost").increment();
+    }
+    metrics.recordLatency(operation, modelOf(operation), hedged, latency);
+  }
+
+  /**
+   * 다른 호출의 결과를 공유해서 기다림 (재시도/서킷 브레이커 기록은 먼저 시작한 호출이 담당)
+   */
+  private <T> T awaitShared(LlmOperation operation, InFlightCall call, Function<String, T> parser,
+      Supplier<T> fallback) {
+    duplicateCounter(operation).increment();
+    try {
+      String text = call.result.get(timeoutFor(operation).toMillis(), TimeUnit.MILLISECONDS);
+      return parse(operation, text, parser, fallback);
+    } catch (TimeoutException e) {
+      if (LlmTurnContext.isExpired()) {
+        call.leave();
+        return fallback(operation, "deadline", fallback);
+      }
+      call.leave();
+      log.warn("공유 중인 GPT 호출 타임아웃: operation={}", operation.getTag());
+      return fallback(operation, "timeout", fallback);
+    } catch (ExecutionException e) {
+      return fallback(operation, "error", fallback);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      call.leave();
+      return fallback(operation, "interrupted", fallback);
+    }
+  }
+
+  /**
+   * 타임아웃으로 결과를 포기. 기다리는 다른 호출이 없으면 업스트림 호출도 취소하고,
+   * 이후 재시도가 멈춘 호출에 다시 합류하지 않도록 병합 대상에서 제외
+   */
+  private void abandon(String key, InFlightCall call) {
+    inFlight.remove(key, call);
+    if (call.leave() == 0) {
+      call.cancelAttempts();
+    }
+  }
+
+  /**
+   * 턴 마감으로 결과를 더 기다리지 않음. 업스트림 호출은 취소하지 않고, 늦게 도착한 응답은 로그로 남김
+   * 이미 비용을 지불한 호출이라 fallback 품질 비교와 타임아웃 조정에 사용
+   * 호출을 시작한 쪽(startNanos 가 있으면)은 지연 시간도 기록해, 헤지 백분위수가 빠른 호출만으로 계산되지 않도록 함
+   * (늦게라도 도착하면 실제 지연, 실패하면 마감 시점까지의 경과 시간을 하한값으로 기록)
+   */
+  private void detach(LlmOperation operation, String key, InFlightCall call, Long startNanos) {
+    inFlight.remove(key, call);
+    call.leave();
+    long detachedNanos = System.nanoTime();
+    call.result.whenComplete((text, error) -> {
+      if (startNanos != null) {
+        long endNanos = error == null ? System.nanoTime() : detachedNanos;
+        recordLatency(operation, call, Duration.ofNanos(endNanos - startNanos));
+      }
+      if (error != null) {
+        return;
+      }
+      Counter.builder("chat.llm.late_results")
+          .tag("operation", operation.getTag())
+          .register(meterRegistry)
+          .increment();
+      log.info("턴 마감 이후 도착한 GPT 응답: operation={}, lateBy={}ms, text={}",
+          operation.getTag(), Duration.ofNanos(System.nanoTime() - detachedNanos).toMillis(), text);
+    });
+  }
+
+  private String requestText(LlmOperation operation, Long userId, Prompt prompt) {
+    ChatResponse response = clientOf(operation).prompt(prompt).call().chatResponse();
+    if (response != null && response.getMetadata() != null) {
+      metrics.recordUsage(operation, modelOf(operation), userId, response.getMetadata().getUsage());
+    }
+    return textOf(response);
+  }
+
+  private ChatClient clientOf(LlmOperation operation) {
+    return clients.computeIfAbsent(operation, op -> chatClientBuilder.build());
+  }
+
+  private static String textOf(ChatResponse response) {
+    if (response == null) {
+      return null;
+    }
+    Generation generation = response.getResult();
+    if (generation == null || generation.getOutput() == null) {
+      return null;
+    }
+    return generation.getOutput().getText();
+  }
+
+  /**
+   * 라우팅 테이블에 있는 작업이면 모델/temperature/max-tokens 옵션을 붙인 프롬프트로 교체
+   * 스트리밍 호출은 토큰 사용량을 받기 위해 stream usage 를 켬
+   */
+  private Prompt route(LlmOperation operation, Prompt prompt, boolean streaming) {
+    LlmGatewayProperties.Route route = properties.routeOf(operation);
+    if (route == null || prompt.getOptions() != null) {
+      return prompt;
+    }
+    OpenAiChatOptions.Builder options = OpenAiChatOptions.builder()
+        .model(route.getModel())
+        .temperature(route.getTemperature())
+        .maxTokens(route.getMaxTokens());
+    if (streaming) {
+      options.streamUsage(true);
+    }
+    return new Prompt(prompt.getInstructions(), options.build());
+  }
+
+  private String modelOf(LlmOperation operation) {
+    LlmGatewayProperties.Route route = properties.routeOf(operation);
+    return route != null && route.getModel() != null ? route.getModel() : "default";
+  }
+
+  private <T> T parse(LlmOperation operation, String text, Function<String, T> parser, Supplier<T> fallback) {
+    if (!StringUtils.hasText(text)) {
+      log.error("GPT 응답에서 유효한 텍스트를 얻지 못했습니다: operation={}", operation.getTag());
+      return fallback(operation, "empty", fallback);
+    }
+    return parser.apply(text);
+  }
+
+  private <T> T fallback(LlmOperation operation, String reason, Supplier<T> fallback) {
+    fallbackCounter(operation, reason).increment();
+    return fallback.get();
+  }
+
+  private boolean backoff(int attempt) {
+    LlmGatewayProperties.Retry retry = properties.getRetry();
+    long base = retry.getInitialBackoff().toMillis() << (attempt - 1);
+    long capped = Math.min(base, retry.getMaxBackoff().toMillis());
+    long jittered = ThreadLocalRandom.current().nextLong(capped / 2, capped + 1); // equal jitter
+    try {
+      Thread.sleep(Duration.ofMillis(jittered));
+      return true;
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      return false;
+    }
+  }
+
+  private Counter duplicateCounter(LlmOperation operation) {
+    return Counter.builder("chat.llm.coalesced")
+        .tag("operation", operation.getTag())
+        .register(meterRegistry);
+  }
+
+  /**
+   * 작업 + 모델 옵션 + 렌더링된 메시지 전체로 만든 병합 키
+   */
+  static String coalescingKey(LlmOperation operation, Prompt prompt) {
+    StringBuilder raw = new StringBuilder(operation.getTag()).append('\n');
+    raw.append(prompt.getOptions()).append('\n');
+    for (Message message : prompt.getInstructions()) {
+      raw.append(message.getMessageType()).append(':').append(message.getText()).append('\n');
+    }
+    return DigestUtils.md5DigestAsHex(raw.toString().getBytes(StandardCharsets.UTF_8));
+  }
+
+  private Counter fallbackCounter(LlmOperation operation, String reason) {
+    return Counter.builder("chat.llm.fallbacks")
+        .tag("operation", operation.getTag())
+        .tag("reason", reason)
+        .register(meterRegistry);
+  }
+
+  private Counter hedgeCounter(LlmOperation operation, String result) {
+    return Counter.builder("chat.llm.hedges")
+        .tag("operation", operation.getTag())
+        .tag("result", result)
+        .register(meterRegistry);
+  }
+
+  /** onToken(클라이언트 전송)에서 난 예외. 업스트림 장애와 구분하기 위해 감쌈 */
+  private static final class TokenDeliveryException extends RuntimeException {
+    TokenDeliveryException(RuntimeException cause) {
+      super(cause.getMessage(), cause);
+    }
+  }
+
+  /**
+   * 진행 중인 업스트림 호출 (헤지 요청 포함). waiters 가 0 이 되면 더 이상 합류할 수 없음
+   */
+  private static final class InFlightCall {
+
+    private final LlmOperation operation;
+    private final Long userId; // 업스트림 호출을 시작한 유저 (토큰 사용량을 기록할 대상)
+    private final CompletableFuture<String> result = new CompletableFuture<>();
+    private final AtomicInteger waiters = new AtomicInteger(1);
+    private final List<Future<?>> attempts = new CopyOnWriteArrayList<>();
+    private final AtomicInteger started = new AtomicInteger();
+    private final AtomicInteger failures = new AtomicInteger();
+    private final AtomicInteger winner = new AtomicInteger(-1); // 결과를 채운 요청 순번 (0: 첫 요청, 1: 헤지 요청)
+
+    InFlightCall(LlmOperation operation, Long userId) {
+      this.operation = operation;
+      this.userId = userId;
+    }
+
+    boolean join() {
+      return waiters.getAndUpdate(n -> n == 0 ? 0 : n + 1) > 0;
+    }
+
+    int leave() {
+      return waiters.updateAndGet(n -> Math.max(0, n - 1));
+    }
+
+    void cancelAttempts() {
+      attempts.forEach(attempt -> attempt.cancel(true));
+    }
+  }
+}
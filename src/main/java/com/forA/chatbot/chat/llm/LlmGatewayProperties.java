@@ -0,0 +1,191 @@
+package com.forA.chatbot.chat.llm;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * LlmGateway 설정 (chat.llm.*)
+ */
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "chat.llm")
+public class LlmGatewayProperties {
+
+  /** 작업별 타임아웃이 없을 때 사용하는 기본 타임아웃 */
+  private Duration defaultTimeout = Duration.ofSeconds(8);
+
+  /** 작업별 타임아웃 (예: chat.llm.timeouts.goal-phrase=3s) */
+  private Map<LlmOperation, Duration> timeouts = new EnumMap<>(LlmOperation.class);
+
+  /** 작업별 모델 라우팅 (예: chat.llm.routes.goal-phrase.model=gpt-4.1-nano). 없으면 기본 모델/옵션 사용 */
+  private Map<LlmOperation, Route> routes = new EnumMap<>(LlmOperation.class);
+
+  /**
+   * 모델별 토큰 단가 (예: chat.llm.prices[gpt-4.1-nano].input-per-million=0.10)
+   * 라우트가 없는 작업은 "default" 단가를 사용. 단가가 없는 모델은 비용을 집계하지 않음
+   */
+  private Map<String, Price> prices = new HashMap<>();
+
+  private final Bulkhead bulkhead = new Bulkhead();
+  private final CircuitBreaker circuitBreaker = new CircuitBreaker();
+  private final Retry retry = new Retry();
+  private final Hedge hedge = new Hedge();
+  private final Budget budget = new Budget();
+  private final Fake fake = new Fake();
+  private final Ledger ledger = new Ledger();
+
+  public Duration timeoutOf(LlmOperation operation) {
+    return timeouts.getOrDefault(operation, defaultTimeout);
+  }
+
+  public Route routeOf(LlmOperation operation) {
+    return routes.get(operation);
+  }
+
+  public Price priceOf(String model) {
+    return prices.get(model);
+  }
+
+  @Getter
+  @Setter
+  public static class Route {
+    /** 비어 있으면 spring.ai.openai.chat.options.model */
+    private String model;
+    private Double temperature;
+    private Integer maxTokens;
+  }
+
+  @Getter
+  @Setter
+  public static class Price {
+    /** 프롬프트 토큰 100만 개당 비용 (USD) */
+    private double inputPerMillion;
+    /** 응답 토큰 100만 개당 비용 (USD) */
+    private double outputPerMillion;
+
+    public double costOf(long promptTokens, long completionTokens) {
+      return (promptTokens * inputPerMillion + completionTokens * outputPerMillion) / 1_000_000;
+    }
+  }
+
+  @Getter
+  @Setter
+  public static class Ledger {
+    /** 유저별 일일 토큰 장부를 보관하는 일수 (오늘 포함) */
+    private int retentionDays = 7;
+    /** 유저별 하루 토큰 한도. 넘으면 GPT 를 호출하지 않고 fallback (0 이하이면 제한 없음) */
+    private long dailyTokenBudget = 0;
+  }
+
+  @Getter
+  @Setter
+  public static class Bulkhead {
+    /** 동시에 진행 가능한 GPT 호출 수 */
+    private int maxConcurrentCalls = 32;
+    /** 허용량이 없을 때 기다리는 최대 시간 (초과 시 즉시 fallback) */
+    private Duration maxWait = Duration.ofMillis(500);
+  }
+
+  @Getter
+  @Setter
+  public static class CircuitBreaker {
+    /** 최근 호출 결과를 기록하는 슬라이딩 윈도우 크기 */
+    private int slidingWindowSize = 20;
+    /** 실패율 계산에 필요한 최소 호출 수 */
+    private int minimumCalls = 10;
+    /** 이 실패율 이상이면 차단(OPEN) */
+    private double failureRateThreshold = 0.5;
+    /** 차단 유지 시간. 이후 일부 호출만 시험적으로 허용(HALF_OPEN) */
+    private Duration openDuration = Duration.ofSeconds(30);
+    /** HALF_OPEN 상태에서 허용하는 시험 호출 수 */
+    private int halfOpenCalls = 3;
+  }
+
+  @Getter
+  @Setter
+  public static class Retry {
+    /** 재시도 가능한 작업의 최대 시도 횟수 (최초 호출 포함) */
+    private int maxAttempts = 2;
+    private Duration initialBackoff = Duration.ofMillis(200);
+    private Duration maxBackoff = Duration.ofSeconds(1);
+  }
+
+  @Getter
+  @Setter
+  public static class Hedge {
+    private boolean enabled = true;
+    /** 최근 응답 시간의 이 백분위수를 넘기면 두 번째 요청을 보냄 */
+    private double percentile = 0.95;
+    /** 백분위수 계산에 사용할 최근 응답 수 */
+    private int windowSize = 200;
+    /** 이보다 표본이 적으면 헤지하지 않음 */
+    private int minSamples = 20;
+    /** 헤지 대기 시간의 하한 */
+    private Duration minDelay = Duration.ofMillis(300);
+    /** 전체 호출 대비 헤지 요청 비율 상한 */
+    private double maxFraction = 0.1;
+  }
+
+  @Getter
+  @Setter
+  public static class Budget {
+    /** 토큰 수를 셀 BPE 인코딩 (gpt-4o / gpt-4.1 계열은 o200k_base) */
+    private String encoding = "o200k_base";
+    /** 렌더링된 프롬프트 전체의 최대 토큰 수. 넘으면 줄일 수 있는 변수부터 줄임 */
+    private int maxPromptTokens = 4000;
+    /** 변수별 최대 토큰 수 (예: chat.llm.budget.max-variable-tokens.situation=400). 여기 있는 변수만 줄임 */
+    private Map<String, Integer> maxVariableTokens = new HashMap<>(Map.of("situation", 400));
+  }
+
+  /**
+   * perf 프로필의 FakeChatModel 설정 (chat.llm.fake.*). OpenAI 대신 로컬에서 응답해 네트워크/토큰 비용 없이 부하 테스트
+   */
+  @Getter
+  @Setter
+  public static class Fake {
+
+    public enum Mode {
+      /** 작업별로 형식에 맞는 응답을 만들어 냄 */
+      SYNTHESIZE,
+      /** 녹화된 카세트(프롬프트 → 응답)를 재생하고, 없는 프롬프트는 SYNTHESIZE 로 응답 */
+      REPLAY,
+      /** 실제 OpenAI 로 호출하면서 프롬프트/응답/지연 시간을 카세트에 기록 (spring.ai.model.chat=openai 필요) */
+      RECORD
+    }
+
+    private Mode mode = Mode.SYNTHESIZE;
+    /** 카세트 파일 (JSON Lines) */
+    private String cassettePath = "perf/llm-cassettes.jsonl";
+    /** 스트리밍 응답에서 첫 조각 이후 조각 사이 간격 */
+    private Duration streamChunkDelay = Duration.ofMillis(30);
+    private final Latency latency = new Latency();
+  }
+
+  @Getter
+  @Setter
+  public static class Latency {
+
+    public enum Distribution {
+      FIXED,
+      /** median * exp(sigma * N(0,1)) */
+      LOGNORMAL,
+      /** samples 중 하나를 무작위로 사용 (운영 지표에서 뽑은 값, 비어 있으면 카세트에 기록된 지연 시간) */
+      EMPIRICAL
+    }
+
+    private Distribution distribution = Distribution.LOGNORMAL;
+    /** FIXED 에서는 항상 이 값, LOGNORMAL 에서는 중앙값 */
+    private Duration median = Duration.ofMillis(800);
+    private double sigma = 0.6;
+    /** 샘플링한 지연 시간의 상한 */
+    private Duration max = Duration.ofSeconds(10);
+    private List<Duration> samples = new ArrayList<>();
+  }
+}
@@ -0,0 +1,90 @@
+package com.forA.chatbot.chat.llm;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * 헤지(hedged request) 발동 시점과 예산을 정하는 정책
+ * - 작업별 최근 응답 시간을 링 버퍼에 기록하고, 설정한 백분위수(p95 등)를 넘기면 두 번째 요청을 보냄
+ * - 전체 호출 대비 헤지 비율은 토큰 버킷으로 제한: 호출마다 maxFraction 만큼 적립, 헤지 1회에 1 차감
+ */
+class LlmHedgePolicy {
+
+  private static final double MAX_BURST = 5.0;
+
+  private final LlmGatewayProperties.Hedge config;
+  private final Map<LlmOperation, LatencyWindow> windows = new EnumMap<>(LlmOperation.class);
+  private double budget;
+
+  LlmHedgePolicy(LlmGatewayProperties.Hedge config) {
+    this.config = config;
+    for (LlmOperation operation : LlmOperation.values()) {
+      windows.put(operation, new LatencyWindow(config.getWindowSize()));
+    }
+  }
+
+  /**
+   * 헤지 요청을 보낼 때까지 기다릴 시간. 비활성화되었거나 표본이 부족하면 null
+   */
+  Duration hedgeDelay(LlmOperation operation) {
+    if (!config.isEnabled()) {
+      return null;
+    }
+    long millis = windows.get(operation).percentile(config.getPercentile(), config.getMinSamples());
+    return millis < 0 ? null : Duration.ofMillis(Math.max(millis, config.getMinDelay().toMillis()));
+  }
+
+  void recordLatency(LlmOperation operation, Duration latency) {
+    windows.get(operation).record(latency.toMillis());
+  }
+
+  /** 호출 1회마다 헤지 예산 적립 */
+  synchronized void onCall() {
+    budget = Math.min(MAX_BURST, budget + config.getMaxFraction());
+  }
+
+  /** 예산이 남아 있으면 1 차감 후 true */
+  synchronized boolean tryAcquireHedge() {
+    if (budget < 1.0) {
+      return false;
+    }
+    budget -= 1.0;
+    return true;
+  }
+
+  /**
+   * 최근 N개 응답 시간(ms) 링 버퍼
+   */
+  static class LatencyWindow {
+
+    private final long[] samples;
+    private int next;
+    private int size;
+
+    LatencyWindow(int capacity) {
+      this.samples = new long[capacity];
+    }
+
+    synchronized void record(long millis) {
+      samples[next] = millis;
+      next = (next + 1) % samples.length;
+      size = Math.min(size + 1, samples.length);
+    }
+
+    /** 표본이 minSamples 보다 적으면 -1 */
+    long percentile(double percentile, int minSamples) {
+      long[] copy;
+      synchronized (this) {
+        if (size < Math.max(1, minSamples)) {
+          return -1;
+        }
+        copy = Arrays.copyOf(samples, size);
+      }
+      Arrays.sort(copy);
+      int index = (int) Math.ceil(percentile * copy.length) - 1;
+      return copy[Math.min(Math.max(index, 0), copy.length - 1)];
+    }
+  }
+}
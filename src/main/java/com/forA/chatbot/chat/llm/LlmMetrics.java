@@ -0,0 +1,70 @@
+package com.forA.chatbot.chat.llm;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.time.Duration;
+import org.springframework.ai.chat.metadata.Usage;
+
+/**
+ * 라우트(작업 + 모델)별 GPT 응답 시간과 토큰 사용량 메트릭
+ * - chat.llm.latency{operation, model, hedged}
+ * - chat.llm.tokens{operation, model, type=prompt|completion}
+ * - chat.llm.cost{operation, model}: chat.llm.prices 단가로 추정한 비용 (USD)
+ * 토큰/비용은 호출한 유저의 일일 장부(LlmUsageLedger)에도 기록
+ */
+class LlmMetrics {
+
+  private final MeterRegistry meterRegistry;
+  private final LlmGatewayProperties properties;
+  private final LlmUsageLedger ledger;
+
+  LlmMetrics(MeterRegistry meterRegistry, LlmGatewayProperties properties, LlmUsageLedger ledger) {
+    this.meterRegistry = meterRegistry;
+    this.properties = properties;
+    this.ledger = ledger;
+  }
+
+  void recordLatency(LlmOperation operation, String model, boolean hedged, Duration latency) {
+    Timer.builder("chat.llm.latency")
+        .tag("operation", operation.getTag())
+        .tag("model", model)
+        .tag("hedged", String.valueOf(hedged))
+        .publishPercentiles(0.5, 0.95, 0.99)
+        .register(meterRegistry)
+        .record(latency);
+  }
+
+  void recordUsage(LlmOperation operation, String model, Long userId, Usage usage) {
+    if (usage == null) {
+      return;
+    }
+    long promptTokens = tokens(operation, model, "prompt", usage.getPromptTokens());
+    long completionTokens = tokens(operation, model, "completion", usage.getCompletionTokens());
+    double cost = 0;
+    LlmGatewayProperties.Price price = properties.priceOf(model);
+    if (price != null) {
+      cost = price.costOf(promptTokens, completionTokens);
+      Counter.builder("chat.llm.cost")
+          .baseUnit("usd")
+          .tag("operation", operation.getTag())
+          .tag("model", model)
+          .register(meterRegistry)
+          .increment(cost);
+    }
+    ledger.record(userId, operation, promptTokens, completionTokens, cost);
+  }
+
+  private long tokens(LlmOperation operation, String model, String type, Integer count) {
+    if (count == null || count <= 0) {
+      return 0;
+    }
+    Counter.builder("chat.llm.tokens")
+        .tag("operation", operation.getTag())
+        .tag("model", model)
+        .tag("type", type)
+        .register(meterRegistry)
+        .increment(count);
+    return count;
+  }
+}
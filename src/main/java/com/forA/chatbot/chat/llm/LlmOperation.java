@@ -0,0 +1,26 @@
+package com.forA.chatbot.chat.llm;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * ChatAiService 가 GPT 에 요청하는 작업 종류
+ * tag 는 설정 키, 메트릭 태그로 사용되며, retryable 은 짧은 구조화 응답처럼 재시도해도 지연이 크지 않은 작업
+ */
+@Getter
+@RequiredArgsConstructor
+public enum LlmOperation {
+  EMPATHY("empathy", false),
+  GOAL_PHRASE("goal_phrase", true),
+  RECOMMEND("recommend", true),
+  STEPS("steps", true),
+  SKILL_DESCRIPTION("skill_description", false),
+  SELF_SOOTHING("self_soothing", false),
+  ACTION_SKIPPED("action_skipped", false),
+  MEMORY_SUMMARY("memory_summary", true),
+  FREE_CHAT("free_chat", false),
+  CONVERSATION_SUMMARY("conversation_summary", true);
+
+  private final String tag;
+  private final boolean retryable;
+}
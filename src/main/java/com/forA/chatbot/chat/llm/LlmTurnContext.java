@@ -0,0 +1,125 @@
+package com.forA.chatbot.chat.llm;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * 대화 한 턴 동안 GPT 호출들이 공유하는 컨텍스트 (현재 스레드 기준)
+ * - 턴 마감 시각: 턴 시작 시 정해지고, 각 GPT 호출은 남은 시간만큼만 기다림
+ * - 프롬프트 버전: 이 턴에서 렌더링한 프롬프트 버전을 모아 봇 메시지에 기록
+ * - 유저: 이 턴의 GPT 토큰/비용을 유저별 일일 장부(LlmUsageLedger)에 기록할 때 사용
+ * 다른 스레드에서 실행되는 호출(fan-out)은 propagate 로 감싸서 같은 컨텍스트를 이어받음
+ *
+ * <pre>
+ * try (LlmTurnContext.Scope ignored = LlmTurnContext.open(Duration.ofMillis(2500))) {
+ *   ... // 이 안의 LlmGateway 호출은 남은 시간이 지나면 fallback
+ * }
+ * </pre>
+ */
+public final class LlmTurnContext {
+
+  private static final ThreadLocal<State> CURRENT = new ThreadLocal<>();
+
+  private LlmTurnContext() {}
+
+  /** 마감 시각 없이 턴 컨텍스트 시작 (닫으면 이전 상태로 복원) */
+  public static Scope open() {
+    return enter(new State(null, null));
+  }
+
+  /** 지금부터 budget 이후를 마감 시각으로 하는 턴 컨텍스트 시작 (닫으면 이전 상태로 복원) */
+  public static Scope open(Duration budget) {
+    return enter(new State(Instant.now().plus(budget), null));
+  }
+
+  /** 마감 시각 없이 유저의 턴 컨텍스트 시작 (백그라운드 요약, 미리 계산 등) */
+  public static Scope open(Long userId) {
+    return enter(new State(null, userId));
+  }
+
+  public static Scope open(Long userId, Duration budget) {
+    return enter(new State(Instant.now().plus(budget), userId));
+  }
+
+  public static Optional<Long> userId() {
+    State state = CURRENT.get();
+    return state == null ? Optional.empty() : Optional.ofNullable(state.userId);
+  }
+
+  public static Optional<Instant> deadline() {
+    State state = CURRENT.get();
+    return state == null ? Optional.empty() : Optional.ofNullable(state.deadline);
+  }
+
+  /** 턴 마감까지 남은 시간 (마감이 지났으면 0). 마감 시각이 없으면 empty */
+  public static Optional<Duration> remaining() {
+    return deadline().map(deadline -> {
+      Duration remaining = Duration.between(Instant.now(), deadline);
+      return remaining.isNegative() ? Duration.ZERO : remaining;
+    });
+  }
+
+  public static boolean isExpired() {
+    return remaining().map(Duration::isZero).orElse(false);
+  }
+
+  public static void recordPromptVersion(String version) {
+    State state = CURRENT.get();
+    if (state != null) {
+      state.promptVersions.add(version);
+    }
+  }
+
+  /** 이 턴에서 사용한 프롬프트 버전 (정렬됨) */
+  public static Set<String> promptVersions() {
+    State state = CURRENT.get();
+    return state == null ? Set.of() : new TreeSet<>(state.promptVersions);
+  }
+
+  /** 현재 스레드의 컨텍스트를 다른 스레드에서 실행될 작업에 전달 */
+  public static <T> Supplier<T> propagate(Supplier<T> task) {
+    State state = CURRENT.get();
+    if (state == null) {
+      return task;
+    }
+    return () -> {
+      try (Scope ignored = enter(state)) {
+        return task.get();
+      }
+    };
+  }
+
+  private static Scope enter(State state) {
+    State previous = CURRENT.get();
+    CURRENT.set(state);
+    return () -> {
+      if (previous == null) {
+        CURRENT.remove();
+      } else {
+        CURRENT.set(previous);
+      }
+    };
+  }
+
+  public interface Scope extends AutoCloseable {
+    @Override
+    void close();
+  }
+
+  private static final class State {
+
+    private final Instant deadline;
+    private final Long userId;
+    private final Set<String> promptVersions = ConcurrentHashMap.newKeySet();
+
+    private State(Instant deadline, Long userId) {
+      this.deadline = deadline;
+      this.userId = userId;
+    }
+  }
+}
@@ -0,0 +1,105 @@
+package com.forA.chatbot.chat.llm;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Selector;
+import org.springframework.stereotype.Component;
+
+/**
+ * GET /actuator/llmusage: 작업/모델별 호출 수, 응답 시간, 토큰, 추정 비용 + 오늘 토큰을 많이 쓴 유저
+ * GET /actuator/llmusage/{userId}: 유저의 일별 토큰/비용 (보관 기간 내)
+ * 작업별 값은 기동 이후 누적값 (백분위수는 /actuator/metrics/chat.llm.latency 참고)
+ * 다른 유저의 사용량이 보이므로 운영자(ROLE_ADMIN)만 호출 가능 (SecurityConfig)
+ */
+@Component
+@Endpoint(id = "llmusage")
+@RequiredArgsConstructor
+public class LlmUsageEndpoint {
+
+  private static final int TOP_USERS = 10;
+
+  private final MeterRegistry meterRegistry;
+  private final LlmUsageLedger ledger;
+
+  @ReadOperation
+  public Map<String, Object> usage() {
+    Map<String, Object> body = new LinkedHashMap<>();
+    body.put("operations", operations());
+    body.put("usersToday", ledger.userCountToday());
+    body.put("topUsersToday", ledger.topToday(TOP_USERS));
+    return body;
+  }
+
+  @ReadOperation
+  public List<LlmUsageLedger.UserUsage> user(@Selector Long userId) {
+    return ledger.history(userId);
+  }
+
+  private List<OperationUsage> operations() {
+    Map<String, OperationUsage.Builder> builders = new TreeMap<>();
+    for (Timer timer : meterRegistry.find("chat.llm.latency").timers()) {
+      builderOf(builders, timer.getId().getTag("operation"), timer.getId().getTag("model")).add(timer);
+    }
+    for (Counter counter : meterRegistry.find("chat.llm.tokens").counters()) {
+      OperationUsage.Builder builder = builderOf(builders, counter.getId().getTag("operation"),
+          counter.getId().getTag("model"));
+      if ("prompt".equals(counter.getId().getTag("type"))) {
+        builder.promptTokens += (long) counter.count();
+      } else {
+        builder.completionTokens += (long) counter.count();
+      }
+    }
+    for (Counter counter : meterRegistry.find("chat.llm.cost").counters()) {
+      builderOf(builders, counter.getId().getTag("operation"), counter.getId().getTag("model")).cost +=
+          counter.count();
+    }
+    return builders.values().stream().map(OperationUsage.Builder::build).toList();
+  }
+
+  private static OperationUsage.Builder builderOf(Map<String, OperationUsage.Builder> builders, String operation,
+      String model) {
+    return builders.computeIfAbsent(operation + "|" + model, key -> new OperationUsage.Builder(operation, model));
+  }
+
+  public record OperationUsage(String operation, String model, long calls, double meanLatencyMs,
+                               double maxLatencyMs, long promptTokens, long completionTokens, double costUsd) {
+
+    private static final class Builder {
+
+      private final String operation;
+      private final String model;
+      private long calls;
+      private double totalLatencyMs;
+      private double maxLatencyMs;
+      private long promptTokens;
+      private long completionTokens;
+      private double cost;
+
+      private Builder(String operation, String model) {
+        this.operation = operation;
+        this.model = model;
+      }
+
+      // hedged=true/false 로 나뉜 타이머를 합침
+      private void add(Timer timer) {
+        calls += timer.count();
+        totalLatencyMs += timer.totalTime(TimeUnit.MILLISECONDS);
+        maxLatencyMs = Math.max(maxLatencyMs, timer.max(TimeUnit.MILLISECONDS));
+      }
+
+      private OperationUsage build() {
+        return new OperationUsage(operation, model, calls, calls == 0 ? 0 : totalLatencyMs / calls, maxLatencyMs,
+            promptTokens, completionTokens, cost);
+      }
+    }
+  }
+}
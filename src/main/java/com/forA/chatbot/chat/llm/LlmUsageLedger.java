@@ -0,0 +1,125 @@
+package com.forA.chatbot.chat.llm;
+
+import java.time.Clock;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.DoubleAdder;
+import java.util.concurrent.atomic.LongAdder;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+/**
+ * 유저별 일일 GPT 토큰/비용 장부 (인스턴스 메모리, 최근 retention-days 일만 보관)
+ * - LlmGateway 가 응답의 토큰 사용량을 LlmTurnContext 의 유저에게 기록 (병합된 호출은 먼저 시작한 유저에게만)
+ * - 오늘 사용량 조회는 맵 조회 한 번이라 매 호출 전에 유저별 한도(daily-token-budget)를 확인해도 부담이 없음
+ * 재시작하면 초기화되며, 여러 인스턴스 사이에서 합산하지 않음 (정확한 과금이 아닌 운영 가시성/과다 사용 차단용)
+ */
+@Component
+public class LlmUsageLedger {
+
+  private final LlmGatewayProperties.Ledger config;
+  private final Clock clock;
+  private final Map<LocalDate, Map<Long, Entry>> days = new ConcurrentHashMap<>();
+
+  @Autowired
+  public LlmUsageLedger(LlmGatewayProperties properties) {
+    this(properties.getLedger(), Clock.systemDefaultZone());
+  }
+
+  LlmUsageLedger(LlmGatewayProperties.Ledger config, Clock clock) {
+    this.config = config;
+    this.clock = clock;
+  }
+
+  void record(Long userId, LlmOperation operation, long promptTokens, long completionTokens, double cost) {
+    if (userId == null) {
+      return;
+    }
+    LocalDate today = LocalDate.now(clock);
+    Map<Long, Entry> day = days.get(today);
+    if (day == null) {
+      day = days.computeIfAbsent(today, date -> new ConcurrentHashMap<>());
+      // 날짜가 바뀐 뒤 첫 기록에서만 오래된 날짜를 정리
+      LocalDate oldest = today.minusDays(Math.max(1, config.getRetentionDays()) - 1L);
+      days.keySet().removeIf(date -> date.isBefore(oldest));
+    }
+    Entry entry = day.computeIfAbsent(userId, id -> new Entry());
+    entry.calls.increment();
+    entry.promptTokens.add(promptTokens);
+    entry.completionTokens.add(completionTokens);
+    entry.cost.add(cost);
+    entry.tokensByOperation.computeIfAbsent(operation, op -> new LongAdder()).add(promptTokens + completionTokens);
+  }
+
+  /** 오늘 이 유저가 쓴 토큰 수 (프롬프트 + 응답) */
+  public long tokensToday(Long userId) {
+    if (userId == null) {
+      return 0;
+    }
+    Map<Long, Entry> day = days.get(LocalDate.now(clock));
+    Entry entry = day == null ? null : day.get(userId);
+    return entry == null ? 0 : entry.tokens();
+  }
+
+  /** 오늘 사용량이 유저별 하루 토큰 한도를 넘었는지 (한도가 없으면 항상 false) */
+  public boolean isOverBudget(Long userId) {
+    long budget = config.getDailyTokenBudget();
+    return budget > 0 && tokensToday(userId) >= budget;
+  }
+
+  /** 이 유저의 보관 중인 일별 사용량 (최근 날짜 먼저) */
+  public List<UserUsage> history(Long userId) {
+    List<UserUsage> history = new ArrayList<>();
+    days.forEach((date, day) -> {
+      Entry entry = day.get(userId);
+      if (entry != null) {
+        history.add(entry.toUsage(userId, date));
+      }
+    });
+    history.sort(Comparator.comparing(UserUsage::date).reversed());
+    return history;
+  }
+
+  /** 오늘 토큰을 가장 많이 쓴 유저 순 */
+  public List<UserUsage> topToday(int limit) {
+    LocalDate today = LocalDate.now(clock);
+    Map<Long, Entry> day = days.getOrDefault(today, Map.of());
+    return day.entrySet().stream()
+        .sorted(Comparator.comparingLong((Map.Entry<Long, Entry> e) -> e.getValue().tokens()).reversed())
+        .limit(limit)
+        .map(e -> e.getValue().toUsage(e.getKey(), today))
+        .toList();
+  }
+
+  public int userCountToday() {
+    return days.getOrDefault(LocalDate.now(clock), Map.of()).size();
+  }
+
+  public record UserUsage(Long userId, LocalDate date, long calls, long promptTokens, long completionTokens,
+                          double costUsd, Map<String, Long> tokensByOperation) {}
+
+  private static final class Entry {
+
+    private final LongAdder calls = new LongAdder();
+    private final LongAdder promptTokens = new LongAdder();
+    private final LongAdder completionTokens = new LongAdder();
+    private final DoubleAdder cost = new DoubleAdder();
+    private final Map<LlmOperation, LongAdder> tokensByOperation = new ConcurrentHashMap<>();
+
+    long tokens() {
+      return promptTokens.sum() + completionTokens.sum();
+    }
+
+    UserUsage toUsage(Long userId, LocalDate date) {
+      Map<String, Long> byOperation = new TreeMap<>();
+      tokensByOperation.forEach((operation, tokens) -> byOperation.put(operation.getTag(), tokens.sum()));
+      return new UserUsage(userId, date, calls.sum(), promptTokens.sum(), completionTokens.sum(), cost.sum(),
+          byOperation);
+    }
+  }
+}
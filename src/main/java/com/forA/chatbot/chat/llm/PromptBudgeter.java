@@ -0,0 +1,168 @@
+package com.forA.chatbot.chat.llm;
+
+import com.knuddels.jtokkit.Encodings;
+import com.knuddels.jtokkit.api.Encoding;
+import com.knuddels.jtokkit.api.EncodingType;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.util.HashMap;
+import java.util.Map;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.ai.chat.prompt.Prompt;
+import org.springframework.stereotype.Component;
+
+/**
+ * 프롬프트 토큰 예산 관리
+ * - 로컬 BPE 토크나이저(jtokkit)로 토큰 수를 계산 (원격 호출 없음)
+ * - 변수별 상한(chat.llm.budget.max-variable-tokens)을 넘는 입력은 앞/뒤만 남기고 가운데를 생략
+ * - 렌더링된 프롬프트가 전체 상한을 넘으면 줄일 수 있는 변수 중 가장 긴 것을 추가로 줄임
+ * 같은 입력이면 항상 같은 결과가 나오도록(결정적) 자르므로 요청 병합/캐시 키에도 영향이 없음
+ */
+@Slf4j
+@Component
+public class PromptBudgeter {
+
+  static final String OMISSION_MARKER = " …(중략)… ";
+
+  private final Encoding encoding;
+  private final LlmGatewayProperties.Budget budget;
+  private final MeterRegistry meterRegistry;
+
+  public PromptBudgeter(LlmGatewayProperties properties, MeterRegistry meterRegistry) {
+    this.budget = properties.getBudget();
+    this.meterRegistry = meterRegistry;
+    EncodingType encodingType = EncodingType.fromName(budget.getEncoding())
+        .orElseThrow(() -> new IllegalArgumentException("지원하지 않는 토큰 인코딩: " + budget.getEncoding()));
+    this.encoding = Encodings.newLazyEncodingRegistry().getEncoding(encodingType);
+  }
+
+  public int countTokens(String text) {
+    return text == null || text.isEmpty() ? 0 : encoding.countTokensOrdinary(text);
+  }
+
+  /**
+   * 템플릿을 렌더링하면서 토큰 예산에 맞게 변수를 줄이고, 프롬프트 토큰 수를 작업별로 기록
+   * 사용한 템플릿 버전은 현재 턴 컨텍스트에 기록
+   */
+  public Prompt render(CompiledPrompt template, Map<String, Object> variables) {
+    LlmOperation operation = template.getOperation();
+    Map<String, Object> fitted = new HashMap<>(variables);
+    budget.getMaxVariableTokens().forEach((name, maxTokens) ->
+        trimVariable(operation, fitted, name, maxTokens));
+
+    Prompt prompt = new Prompt(template.render(fitted));
+    int tokens = countTokens(prompt.getContents());
+    int overflow = tokens - budget.getMaxPromptTokens();
+    if (overflow > 0) {
+      String largest = largestTrimmableVariable(fitted);
+      if (largest != null) {
+        int target = Math.max(0, countTokens((String) fitted.get(largest)) - overflow);
+        trimVariable(operation, fitted, largest, target);
+        prompt = new Prompt(template.render(fitted));
+        tokens = countTokens(prompt.getContents());
+      }
+      if (tokens > budget.getMaxPromptTokens()) {
+        log.warn("프롬프트 토큰 예산 초과: operation={}, tokens={}, max={}",
+            operation.getTag(), tokens, budget.getMaxPromptTokens());
+      }
+    }
+
+    LlmTurnContext.recordPromptVersion(template.getVersion());
+    DistributionSummary.builder("chat.llm.prompt.tokens")
+        .baseUnit("tokens")
+        .tag("operation", operation.getTag())
+        .register(meterRegistry)
+        .record(tokens);
+    return prompt;
+  }
+
+  /**
+   * 토큰 수가 maxTokens 이하가 되도록 앞부분 2/3, 뒷부분 1/3 을 남기고 가운데를 생략
+   * 한국어 상황 설명은 보통 앞에 배경, 끝에 현재 감정/요청이 오기 때문에 양 끝을 보존
+   */
+  public String fit(String text, int maxTokens) {
+    if (text == null || countTokens(text) <= maxTokens) {
+      return text;
+    }
+    int available = maxTokens - countTokens(OMISSION_MARKER);
+    if (available <= 0) {
+      return text.substring(0, longestPrefix(text, Math.max(0, maxTokens)));
+    }
+    int headTokens = available * 2 / 3;
+    int tailTokens = available - headTokens;
+    String head = text.substring(0, longestPrefix(text, headTokens)).strip();
+    String tail = text.substring(text.length() - longestSuffix(text, tailTokens)).strip();
+    return head + OMISSION_MARKER + tail;
+  }
+
+  private void trimVariable(LlmOperation operation, Map<String, Object> variables, String name, int maxTokens) {
+    if (!(variables.get(name) instanceof String value)) {
+      return;
+    }
+    String trimmed = fit(value, maxTokens);
+    if (!trimmed.equals(value)) {
+      variables.put(name, trimmed);
+      log.warn("프롬프트 변수가 토큰 예산을 넘어 생략: operation={}, variable={}, tokens={}->{}",
+          operation.getTag(), name, countTokens(value), countTokens(trimmed));
+      Counter.builder("chat.llm.prompt.trimmed")
+          .tag("operation", operation.getTag())
+          .tag("variable", name)
+          .register(meterRegistry)
+          .increment();
+    }
+  }
+
+  private String largestTrimmableVariable(Map<String, Object> variables) {
+    String largest = null;
+    int largestTokens = 0;
+    for (String name : budget.getMaxVariableTokens().keySet()) {
+      if (variables.get(name) instanceof String value) {
+        int tokens = countTokens(value);
+        if (tokens > largestTokens) {
+          largest = name;
+          largestTokens = tokens;
+        }
+      }
+    }
+    return largest;
+  }
+
+  /** 토큰 수가 maxTokens 이하인 가장 긴 접두사의 문자 길이 (이진 탐색) */
+  private int longestPrefix(String text, int maxTokens) {
+    int low = 0;
+    int high = text.length();
+    while (low < high) {
+      int mid = (low + high + 1) >>> 1;
+      if (countTokens(text.substring(0, safeBoundary(text, mid))) <= maxTokens) {
+        low = mid;
+      } else {
+        high = mid - 1;
+      }
+    }
+    return safeBoundary(text, low);
+  }
+
+  /** 토큰 수가 maxTokens 이하인 가장 긴 접미사의 문자 길이 (이진 탐색) */
+  private int longestSuffix(String text, int maxTokens) {
+    int low = 0;
+    int high = text.length();
+    while (low < high) {
+      int mid = (low + high + 1) >>> 1;
+      if (countTokens(text.substring(safeBoundary(text, text.length() - mid))) <= maxTokens) {
+        low = mid;
+      } else {
+        high = mid - 1;
+      }
+    }
+    return text.length() - safeBoundary(text, text.length() - low);
+  }
+
+  // 이모지 등 서로게이트 쌍 가운데에서 자르지 않도록 경계를 앞으로 당김
+  private static int safeBoundary(String text, int index) {
+    if (index > 0 && index < text.length() && Character.isLowSurrogate(text.charAt(index))) {
+      return index - 1;
+    }
+    return index;
+  }
+}
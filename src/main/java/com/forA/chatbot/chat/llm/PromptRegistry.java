@@ -0,0 +1,134 @@
+package com.forA.chatbot.chat.llm;
+
+import com.forA.chatbot.chat.domain.PromptTemplateOverride;
+import com.forA.chatbot.chat.repository.PromptTemplateOverrideRepository;
+import jakarta.annotation.PostConstruct;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StreamUtils;
+
+/**
+ * GPT 프롬프트 템플릿 저장소
+ * - 기본 템플릿: classpath:prompts/{operation}.st
+ * - 재정의: Mongo prompt_templates 컬렉션의 active 항목 (기본 템플릿에 없는 변수를 쓰면 반영하지 않음)
+ * - 시작 시와 chat.prompt.reload-interval-ms 마다 다시 읽어 컴파일하고, 스냅샷 전체를 한 번에 교체
+ * 요청 처리 중에는 컴파일된 불변 템플릿만 꺼내 쓰므로 파싱 비용이 없음
+ */
+@Slf4j
+@Component
+public class PromptRegistry {
+
+  private static final String SOURCE_CLASSPATH = "classpath";
+  private static final String SOURCE_MONGO = "mongo";
+
+  private final PromptTemplateOverrideRepository overrideRepository;
+  private final boolean overridesEnabled;
+  private final AtomicReference<Map<LlmOperation, CompiledPrompt>> snapshot =
+      new AtomicReference<>(Collections.emptyMap());
+
+  public PromptRegistry(PromptTemplateOverrideRepository overrideRepository,
+      @Value("${chat.prompt.overrides.enabled:true}") boolean overridesEnabled) {
+    this.overrideRepository = overrideRepository;
+    this.overridesEnabled = overridesEnabled;
+  }
+
+  @PostConstruct
+  public void load() {
+    reload();
+  }
+
+  public CompiledPrompt get(LlmOperation operation) {
+    CompiledPrompt prompt = snapshot.get().get(operation);
+    if (prompt == null) {
+      throw new IllegalStateException("프롬프트 템플릿이 없습니다: " + operation.getTag());
+    }
+    return prompt;
+  }
+
+  @Scheduled(fixedDelayString = "${chat.prompt.reload-interval-ms:60000}",
+      initialDelayString = "${chat.prompt.reload-interval-ms:60000}")
+  public void reload() {
+    Map<LlmOperation, CompiledPrompt> current = snapshot.get();
+    Map<LlmOperation, String> overrides = loadOverrides();
+    Map<LlmOperation, CompiledPrompt> next = new EnumMap<>(LlmOperation.class);
+    for (LlmOperation operation : LlmOperation.values()) {
+      CompiledPrompt previous = current.get(operation);
+      CompiledPrompt base = CompiledPrompt.compile(operation, SOURCE_CLASSPATH, readClasspath(operation));
+      CompiledPrompt compiled;
+      if (overrides == null) {
+        // Mongo 조회 실패 시에는 직전 재정의를 유지
+        compiled = previous != null && SOURCE_MONGO.equals(previous.getSource()) ? previous : base;
+      } else {
+        compiled = applyOverride(base, overrides.get(operation));
+      }
+      if (previous != null && !previous.getVersion().equals(compiled.getVersion())) {
+        log.info("프롬프트 버전 변경: {} -> {} ({})", previous.getVersion(), compiled.getVersion(), compiled.getSource());
+      }
+      next.put(operation, compiled);
+    }
+    snapshot.set(Collections.unmodifiableMap(next));
+  }
+
+  private CompiledPrompt applyOverride(CompiledPrompt base, String template) {
+    if (template == null) {
+      return base;
+    }
+    try {
+      CompiledPrompt override = CompiledPrompt.compile(base.getOperation(), SOURCE_MONGO, template);
+      if (!base.getVariables().containsAll(override.getVariables())) {
+        log.error("프롬프트 재정의에 알 수 없는 변수가 있어 기본 템플릿 사용: operation={}, variables={}",
+            base.getOperation().getTag(), override.getVariables());
+        return base;
+      }
+      return override;
+    } catch (IllegalArgumentException e) {
+      log.error("프롬프트 재정의 컴파일 실패로 기본 템플릿 사용: {}", e.getMessage());
+      return base;
+    }
+  }
+
+  /**
+   * active 재정의 템플릿 조회. 조회에 실패하면 null
+   */
+  private Map<LlmOperation, String> loadOverrides() {
+    Map<LlmOperation, String> overrides = new EnumMap<>(LlmOperation.class);
+    if (!overridesEnabled) {
+      return overrides;
+    }
+    List<PromptTemplateOverride> documents;
+    try {
+      documents = overrideRepository.findByActiveTrue();
+    } catch (RuntimeException e) {
+      log.warn("프롬프트 재정의 조회 실패, 이전 템플릿 유지: {}", e.getMessage());
+      return null;
+    }
+    for (PromptTemplateOverride document : documents) {
+      for (LlmOperation operation : LlmOperation.values()) {
+        if (operation.getTag().equals(document.getId())) {
+          overrides.put(operation, document.getTemplate());
+        }
+      }
+    }
+    return overrides;
+  }
+
+  private static String readClasspath(LlmOperation operation) {
+    ClassPathResource resource = new ClassPathResource("prompts/" + operation.getTag() + ".st");
+    try (InputStream inputStream = resource.getInputStream()) {
+      return StreamUtils.copyToString(inputStream, StandardCharsets.UTF_8);
+    } catch (IOException e) {
+      throw new IllegalStateException("프롬프트 템플릿을 읽을 수 없습니다: " + resource.getPath(), e);
+    }
+  }
+}
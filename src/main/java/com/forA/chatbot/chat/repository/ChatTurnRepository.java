@@ -0,0 +1,9 @@
+package com.forA.chatbot.chat.repository;
+
+import com.forA.chatbot.chat.domain.ChatTurn;
+import org.springframework.data.mongodb.repository.MongoRepository;
+
+public interface ChatTurnRepository extends MongoRepository<ChatTurn, String> {
+
+  void deleteByUserId(Long userId);
+}
@@ -0,0 +1,9 @@
+package com.forA.chatbot.chat.repository;
+
+import com.forA.chatbot.chat.domain.PromptTemplateOverride;
+import java.util.List;
+import org.springframework.data.mongodb.repository.MongoRepository;
+
+public interface PromptTemplateOverrideRepository extends MongoRepository<PromptTemplateOverride, String> {
+  List<PromptTemplateOverride> findByActiveTrue();
+}
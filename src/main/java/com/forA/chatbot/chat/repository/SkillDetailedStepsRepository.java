@@ -0,0 +1,7 @@
+package com.forA.chatbot.chat.repository;
+
+import com.forA.chatbot.chat.domain.SkillDetailedSteps;
+import org.springframework.data.mongodb.repository.MongoRepository;
+
+public interface SkillDetailedStepsRepository extends MongoRepository<SkillDetailedSteps, String> {
+}
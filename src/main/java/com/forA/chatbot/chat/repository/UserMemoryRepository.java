@@ -0,0 +1,7 @@
+package com.forA.chatbot.chat.repository;
+
+import com.forA.chatbot.chat.domain.UserMemory;
+import org.springframework.data.mongodb.repository.MongoRepository;
+
+public interface UserMemoryRepository extends MongoRepository<UserMemory, Long> {
+}
@@ -0,0 +1,10 @@
+package com.forA.chatbot.chat.service;
+
+import java.util.List;
+
+/**
+ * behavioral-skills.json 의 행동 스킬 항목 (필드 이름은 JSON 키와 동일)
+ */
+record BehavioralSkill(String chunk_id, String skill_type, List<String> situation_tags,
+                       String skill_origin, String skill_name, String description, List<String> step_by_step,
+                       List<String> emotion_tags) {}
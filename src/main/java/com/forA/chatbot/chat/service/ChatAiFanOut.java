@@ -0,0 +1,159 @@
+package com.forA.chatbot.chat.service;
+
+import com.forA.chatbot.chat.llm.LlmTurnContext;
+import jakarta.annotation.PostConstruct;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * 서로 독립적인 GPT 호출을 동시에 실행하고, 하나의 공유 마감 시간 안에서 합류(join)시키는 헬퍼
+ * 각 호출은 실패하거나 마감 시간을 넘기면 개별 fallback 값으로 대체됨
+ * 동시 실행 수는 chat.ai.fan-out.max-concurrency 로 제한되며, 허용량을 기다리는 시간도 마감 시간에 포함됨
+ * 턴 마감 시각(LlmTurnContext)이 있으면 하위 작업에 전달하고, 공유 마감 시간도 턴 마감을 넘지 않음
+ * 단, 토큰을 클라이언트로 흘려보내는 작업(forkStreaming)은 턴 마감으로 취소하지 않음. 이미 보낸 토큰과 다른
+ * 기본값으로 바꿀 수 없으므로, 첫 토큰 전 마감 처리와 부분 응답은 LlmGateway.stream 이 담당
+ *
+ * <pre>
+ * try (ChatAiFanOut.Scope scope = chatAiFanOut.open()) {
+ *   ChatAiFanOut.Subtask&lt;String&gt; a = scope.fork("a", () -> ..., () -> "기본값");
+ *   scope.join();
+ *   a.get();
+ * }
+ * </pre>
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ChatAiFanOut {
+
+  private final ExecutorService chatAiExecutor;
+
+  @Value("${chat.ai.fan-out.timeout-ms:10000}")
+  private long timeoutMs;
+
+  // 가상 스레드는 개수 제한이 없으므로, 동시에 나가는 GPT 호출 수를 세마포어로 제한
+  @Value("${chat.ai.fan-out.max-concurrency:64}")
+  private int maxConcurrency;
+
+  private Semaphore permits;
+
+  @PostConstruct
+  void initPermits() {
+    this.permits = new Semaphore(maxConcurrency);
+  }
+
+  // 턴 마감 시 게이트웨이가 먼저 fallback 을 반환(메트릭 기록)할 수 있도록 주는 여유 시간
+  private static final Duration TURN_DEADLINE_GRACE = Duration.ofMillis(250);
+
+  public Scope open() {
+    Instant deadline = Instant.now().plusMillis(timeoutMs);
+    Instant turnDeadline = LlmTurnContext.deadline().map(d -> d.plus(TURN_DEADLINE_GRACE)).orElse(deadline);
+    return new Scope(turnDeadline.isBefore(deadline) ? turnDeadline : deadline, deadline);
+  }
+
+  public class Scope implements AutoCloseable {
+
+    private final Instant deadline;
+    private final Instant streamingDeadline;
+    private final List<Subtask<?>> subtasks = new ArrayList<>();
+
+    private Scope(Instant deadline, Instant streamingDeadline) {
+      this.deadline = deadline;
+      this.streamingDeadline = streamingDeadline;
+    }
+
+    public <T> Subtask<T> fork(String name, Supplier<T> call, Supplier<T> fallback) {
+      return fork(name, call, fallback, deadline);
+    }
+
+    /**
+     * 토큰을 클라이언트로 흘려보내는 작업: 턴 마감이 아니라 fan-out 자체 마감 시간까지 기다림
+     */
+    public <T> Subtask<T> forkStreaming(String name, Supplier<T> call, Supplier<T> fallback) {
+      return fork(name, call, fallback, streamingDeadline);
+    }
+
+    private <T> Subtask<T> fork(String name, Supplier<T> call, Supplier<T> fallback, Instant joinDeadline) {
+      Supplier<T> task = LlmTurnContext.propagate(call);
+      Subtask<T> subtask = new Subtask<>(name, chatAiExecutor.submit(() -> {
+        permits.acquire();
+        try {
+          return task.get();
+        } finally {
+          permits.release();
+        }
+      }), fallback, joinDeadline);
+      subtasks.add(subtask);
+      return subtask;
+    }
+
+    /** 모든 하위 작업이 끝나거나 각자의 마감 시간이 지날 때까지 대기 */
+    public void join() {
+      for (Subtask<?> subtask : subtasks) {
+        subtask.await();
+      }
+    }
+
+    /** 아직 끝나지 않은 작업은 취소 (join 이전에 예외로 빠져나간 경우 포함) */
+    @Override
+    public void close() {
+      subtasks.forEach(subtask -> subtask.future.cancel(true));
+    }
+  }
+
+  public static class Subtask<T> {
+
+    private final String name;
+    private final Future<T> future;
+    private final Supplier<T> fallback;
+    private final Instant deadline;
+    private T result;
+    private boolean joined;
+
+    private Subtask(String name, Future<T> future, Supplier<T> fallback, Instant deadline) {
+      this.name = name;
+      this.future = future;
+      this.fallback = fallback;
+      this.deadline = deadline;
+    }
+
+    private void await() {
+      long remainingMs = Math.max(0, Duration.between(Instant.now(), deadline).toMillis());
+      try {
+        result = future.get(remainingMs, TimeUnit.MILLISECONDS);
+      } catch (TimeoutException e) {
+        log.warn("GPT 호출 '{}' 이(가) 마감 시간을 초과했습니다. 기본값을 사용합니다.", name);
+        future.cancel(true);
+        result = fallback.get();
+      } catch (ExecutionException e) {
+        log.warn("GPT 호출 '{}' 실패. 기본값을 사용합니다.", name, e.getCause());
+        result = fallback.get();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        future.cancel(true);
+        result = fallback.get();
+      }
+      joined = true;
+    }
+
+    public T get() {
+      if (!joined) {
+        throw new IllegalStateException("Subtask '" + name + "' has not been joined yet.");
+      }
+      return result;
+    }
+  }
+}
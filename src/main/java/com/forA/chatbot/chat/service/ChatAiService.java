@@ -3,31 +3,52 @@ package com.forA.chatbot.chat.service;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.forA.chatbot.chat.domain.enums.EmotionType;
+import com.forA.chatbot.chat.llm.LlmGateway;
+import com.forA.chatbot.chat.llm.LlmOperation;
+import com.forA.chatbot.chat.llm.PromptBudgeter;
+import com.forA.chatbot.chat.llm.PromptRegistry;
 import com.forA.chatbot.user.domain.User;
 import com.forA.chatbot.user.domain.enums.DisorderType;
 import com.forA.chatbot.user.domain.enums.JobType;
 import java.time.LocalDate;
 import java.util.Arrays;
-import java.util.Collections;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 import java.util.Set;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.ai.chat.client.ChatClient;
-import org.springframework.ai.chat.model.ChatResponse;
-import org.springframework.ai.chat.model.Generation;
 import org.springframework.ai.chat.prompt.Prompt;
-import org.springframework.ai.chat.prompt.PromptTemplate;
 import org.springframework.stereotype.Service;
 
 @Slf4j
 @Service
 @RequiredArgsConstructor
 public class ChatAiService {
-  private final ChatClient.Builder chatClientBuilder;
+  public static final String DEFAULT_EMPATHY_SENTENCE = "그 상황에서 마음이 많이 복잡하고 힘들었겠어요.";
+  public static final String DEFAULT_GOAL_PHRASE = "마음을 진정시키는";
+  public static final String DEFAULT_SELF_SOOTHING_MESSAGE = "그런 상황이었다면 혼자 조용히 마음을 추스르고 싶은 것도 당연해요. 지금 느끼는 감정 모두 충분히 그럴 수 있어요.";
+  public static final List<String> DEFAULT_SKILL_STEPS = List.of(
+      "상세 행동 1 (AI 생성 실패)",
+      "상세 행동 2 (AI 생성 실패)",
+      "상세 행동 3 (AI 생성 실패)",
+      "상세 행동 4 (AI 생성 실패)"
+  );
+  public static final String DEFAULT_FREE_CHAT_REPLY = "이야기해줘서 고마워요. 모리가 계속 듣고 있을게요. 조금 더 이야기해줄 수 있을까요?";
+  public static final List<String> DEFAULT_SKILL_IDS = List.of("distress-001", "distress-002", "distress-003", "distress-005");
+
+  // 유사 상황 캐시 작업 구분값 (개인 프로필을 쓰지 않는 생성만 캐시)
+  private static final String OP_GOAL_PHRASE = LlmOperation.GOAL_PHRASE.getTag();
+  private static final String OP_SELF_SOOTHING = LlmOperation.SELF_SOOTHING.getTag();
+  private static final String OP_RECOMMEND = LlmOperation.RECOMMEND.getTag();
+
+  private final LlmGateway llmGateway;
+  private final PromptBudgeter promptBudgeter;
+  private final PromptRegistry promptRegistry;
   private final ObjectMapper objectMapper;
+  private final SimilarSituationCache similarSituationCache;
 
   /**
    * /generate-response (공감 및 추천 허용)
@@ -35,6 +56,21 @@ public class ChatAiService {
    * 사용자의 상황, 감정, 프로필을 기반으로 공감 메시지 생성
    */
   public String generateEmpathyResponse(String userSituation, Set<EmotionType> emotions, User user) {
+    return generateEmpathyResponse(userSituation, emotions, user, null);
+  }
+
+  public String generateEmpathyResponse(String userSituation, Set<EmotionType> emotions, User user,
+      Consumer<String> onToken) {
+    return generateEmpathyResponse(userSituation, emotions, user, "", onToken);
+  }
+
+  /**
+   * 공감 메시지 생성 (스트리밍)
+   * memory: 지난 대화 요약 (UserMemoryService, 길이 고정). 없으면 빈 문자열
+   * onToken 이 주어지면 토큰이 도착하는 대로 전달하고, 완성된 문장을 반환
+   */
+  public String generateEmpathyResponse(String userSituation, Set<EmotionType> emotions, User user,
+      String memory, Consumer<String> onToken) {
     String emotionsString = emotions.stream().map(EmotionType::getName).collect(Collectors.joining(", "));
     String jobsString = user.getJobs().stream().map(JobType::getName).collect(Collectors.joining(", "));
     String disordersString = user.getDisorders().stream().map(DisorderType::getName).collect(Collectors.joining(", "));
@@ -45,51 +81,19 @@ public class ChatAiService {
     log.info("GPT 공감 문장 생성 요청. 상황: {}, 감정: {}, 프로필: [{}, {}, {}, {}]",
         userSituation, emotionsString, gender, age, jobsString, disordersString);
 
-    ChatClient chatClient = chatClientBuilder.build();
-
-    String promptMessage = """
-        당신은 사용자의 마음을 깊이 공감해주는 AI 상담 친구 '모리'입니다.
-        사용자가 방금 자신의 힘든 상황과 감정을 털어놓았습니다.
-        사용자의 프로필과 상황을 모두 고려하여, 사용자의 감정에 깊이 공감하는 문장을 딱 한 문장으로 생성해주세요.
-        이 문장은 이후에 스킬 추천 제안 질문으로 이어질 것입니다.
-        
-        [사용자 프로필]
-        - 성별: {gender}
-        - 나이: {age}세
-        - 직업: {jobs}
-        - 겪는 어려움(질환): {disorders}
-
-        [사용자 상황]
-        {situation}
-
-        [사용자 감정]
-        {emotions}
-
-        [규칙]
-        1. 사용자의 상황과 감정을 직접적으로 언급하며 공감해주세요. (예: "~한 상황에서 ~한 감정을 느끼시는군요.")
-        2. 사용자의 감정이 자연스럽거나 그럴 수 있다는 점을 부드럽게 언급해주세요.
-        3. 응답은 반드시 한 문장으로 완성하고, 추가적인 인사나 말을 붙이지 마세요.
-        4. 사용자의 프로필(특히 직업, 질환)을 자연스럽게 엮어 공감하면 좋습니다. (예: "ADHD를 겪고 계셔서 시간 관리가 더 힘드셨겠어요.")
-        """;
-
-    PromptTemplate promptTemplate = new PromptTemplate(promptMessage);
-    Prompt prompt = promptTemplate.create(Map.of(
+    Prompt prompt = promptBudgeter.render(promptRegistry.get(LlmOperation.EMPATHY), Map.of(
         "gender", gender,
         "age", age,
         "jobs", jobsString,
         "disorders", disordersString,
         "situation", userSituation,
-        "emotions", emotionsString
+        "emotions", emotionsString,
+        "memory", memory == null || memory.isBlank() ? "없음" : memory
     ));
-    ChatResponse response = chatClient.prompt(prompt).call().chatResponse();
-
-    Generation generation = response.getResult();
-    if (generation != null && generation.getOutput() != null) {
-      return generation.getOutput().getText();
-    } else {
-      log.error("AI 응답(공감 문장)에서 유효한 Generation 또는 Output을 얻지 못했습니다.");
-      return "그 상황에서 마음이 많이 복잡하고 힘들었겠어요.";
+    if (onToken != null) {
+      return llmGateway.stream(LlmOperation.EMPATHY, prompt, onToken, text -> text, () -> DEFAULT_EMPATHY_SENTENCE);
     }
+    return llmGateway.call(LlmOperation.EMPATHY, prompt, text -> text, () -> DEFAULT_EMPATHY_SENTENCE);
   }
   /**
    * /skill-description (행동 설명)
@@ -97,6 +101,11 @@ public class ChatAiService {
    * 사용자가 선택한 스킬에 대해, 상황/감정에 맞는 공감 + 스킬 설명을 결합한 메시지 생성
    */
   public String generateSkillDescription(String userSituation, Set<EmotionType> emotions, BehavioralSkill selectedSkill, User user) {
+    return generateSkillDescription(userSituation, emotions, selectedSkill, user, null);
+  }
+
+  public String generateSkillDescription(String userSituation, Set<EmotionType> emotions, BehavioralSkill selectedSkill, User user,
+      Consumer<String> onToken) {
     String emotionString = emotions.stream().map(EmotionType::getName).collect(Collectors.joining(", "));
     String skillJsonContext;
     try {
@@ -110,35 +119,7 @@ public class ChatAiService {
 
     log.info("GPT 스킬 맞춤 설명 생성 요청. 스킬: {}", selectedSkill.chunk_id());
 
-    ChatClient chatClient = chatClientBuilder.build();
-    String promptMessage = """
-            당신은 AI 상담 친구 '모리'입니다.
-            사용자가 [상황]에서 [감정]을 느끼고 있으며, 이 감정을 다루기 위해 [스킬]을 선택했습니다.
-            사용자의 [상황]과 [감정]에 먼저 1~2문장으로 깊이 공감해주세요.
-            그런 다음, 이 스킬이 왜 도움이 되는지 [스킬 상세설명]을 활용하여 자연스럽게 설명하는 메시지를 생성해주세요.
-            
-            [사용자 프로필]
-            - 성별: {gender}
-            - 나이: {age}세
-
-            [사용자 상황]
-            {situation}
-
-            [사용자 감정]
-            {emotions}
-
-            [선택한 스킬 정보]
-            - 이름: {skillName}
-            - 설명: {description}
-
-            [규칙]
-            1. 먼저 1~2문장으로 사용자의 상황과 감정에 깊이 공감합니다. (예: "시험 준비를 열심히 했는데... 정말 속상하셨겠어요.")
-            2. 그 다음, [선택한 스킬 정보]의 "description" 필드 내용을 자연스럽게 풀어 설명합니다. (예: "이럴 땐... {description} ... 해보는 건 어때요?")
-            3. 전체 응답은 부드럽고 따뜻한 '모리'의 말투여야 합니다. (예: ~했군요, ~어때요?, ~거예요)
-            4. 스킬의 "description" 내용을 그대로 복사하지 말고, 공감 문장과 자연스럽게 이어지도록 다듬어주세요.
-            """;
-    PromptTemplate promptTemplate = new PromptTemplate(promptMessage);
-    Prompt prompt = promptTemplate.create(Map.of(
+    Prompt prompt = promptBudgeter.render(promptRegistry.get(LlmOperation.SKILL_DESCRIPTION), Map.of(
         "gender", gender,
         "age", age,
         "situation", userSituation,
@@ -146,50 +127,48 @@ public class ChatAiService {
         "skillName", selectedSkill.skill_name(),
         "description", selectedSkill.description()
     ));
-    ChatResponse response = chatClient.prompt(prompt).call().chatResponse();
-    Generation generation = response.getResult();
-    if (generation != null && generation.getOutput() != null) {
-      return generation.getOutput().getText();
+    if (onToken != null) {
+      return llmGateway.stream(LlmOperation.SKILL_DESCRIPTION, prompt, onToken, text -> text, selectedSkill::description);
     }
-
-    log.error("AI 스킬 맞춤 설명 생성 실패. 기본 설명을 반환합니다.");
-    return selectedSkill.description();
+    return llmGateway.call(LlmOperation.SKILL_DESCRIPTION, prompt, text -> text, selectedSkill::description);
   }
   /**
    * /self-soothing-messages (혼자 진정하고 싶을 때)
    * ACTION_OFFER 단계에서 'NO_PROPOSE' 선택 시 호출
    */
   public String generateSelfSoothingMessages(String userSituation, Set<EmotionType> emotions) {
+    return generateSelfSoothingMessages(userSituation, emotions, null);
+  }
+
+  public String generateSelfSoothingMessages(String userSituation, Set<EmotionType> emotions, Consumer<String> onToken) {
+    String emotionKey = emotionKey(emotions);
+    Optional<String> cached = similarSituationCache.lookup(OP_SELF_SOOTHING, userSituation, emotionKey);
+    if (cached.isPresent()) {
+      if (onToken != null) {
+        onToken.accept(cached.get());
+      }
+      return cached.get();
+    }
+    String message = requestSelfSoothingMessages(userSituation, emotions, onToken);
+    if (!DEFAULT_SELF_SOOTHING_MESSAGE.equals(message)) {
+      similarSituationCache.put(OP_SELF_SOOTHING, userSituation, emotionKey, message);
+    }
+    return message;
+  }
+
+  private String requestSelfSoothingMessages(String userSituation, Set<EmotionType> emotions, Consumer<String> onToken) {
     String emotionString = emotions.stream()
         .map(EmotionType::getName)
         .collect(Collectors.joining(", "));
 
-    ChatClient chatClient = chatClientBuilder.build();
-    String promptMessage = """
-            당신은 사용자의 마음을 깊이 공감해주는 AI 상담 친구 '모리'입니다.
-            사용자가 [상황]으로 인해 [감정]을 느끼고 있으며, '혼자 진정하고 싶다'고 말했습니다.
-            
-            사용자의 상황과 감정을 따뜻하게 수용하고 공감해주는 위로의 말을 딱 한 문장으로 생성해주세요.
-            사용자의 감정을 충분히 이해하고 있으며, 그런 감정이 자연스럽다는 것을 강조해주세요.
-            
-            [사용자 상황]
-            {situation}
-            
-            [사용자 감정]
-            {emotions}
-            
-            [규칙]
-            1. 절대 해결책을 제시하지 마세요.
-            2. "힘들었겠어요", "~하셨군요", "~이해가 돼요" 처럼 사용자의 감정과 상황을 그대로 인정해주는 말을 하세요.
-            3. 응답은 반드시 세 문장 문장 이내로 완성하고, 추가적인 인사나 말을 붙이지 마세요.
-            """;
-    PromptTemplate promptTemplate = new PromptTemplate(promptMessage);
-    Prompt prompt = promptTemplate.create(Map.of(
+    Prompt prompt = promptBudgeter.render(promptRegistry.get(LlmOperation.SELF_SOOTHING), Map.of(
         "situation", userSituation,
         "emotions", emotionString
     ));
-    ChatResponse response = chatClient.prompt(prompt).call().chatResponse();
-    return response.getResult().getOutput().getText();
+    if (onToken != null) {
+      return llmGateway.stream(LlmOperation.SELF_SOOTHING, prompt, onToken, text -> text, () -> DEFAULT_SELF_SOOTHING_MESSAGE);
+    }
+    return llmGateway.call(LlmOperation.SELF_SOOTHING, prompt, text -> text, () -> DEFAULT_SELF_SOOTHING_MESSAGE);
   }
   /**
    * /action-skipped (행동을 수행하지 않음)
@@ -199,92 +178,46 @@ public class ChatAiService {
     String emotionsString = emotions.stream().map(EmotionType::getName).collect(Collectors.joining(", "));
     log.info("GPT 행동 스킵 메시지 생성 요청. 스킬: {}", skippedSkill.chunk_id());
 
-    ChatClient chatClient = chatClientBuilder.build();
-    String promptMessage = """
-            당신은 20대 상담 친구 '모리'입니다.
-            사용자가 [상황]에서 [감정]을 느꼈고, [스킬]을 추천받았으나 방금 '아니, 안 하고 왔어'라고 답했습니다.
-            
-            사용자를 비난하지 않고, 괜찮다고 다독여주는 따뜻한 메시지를 생성해주세요.
-            그리고 원래 스킬과 관련있지만 훨씬 더 간단한, 아주 작은 대안 행동을 1가지만 제안해주세요.
-            
-            [사용자 상황]
-            {situation}
-            
-            [사용자 감정]
-            {emotions}
-            
-            [스킵한 스킬]
-            - 이름: {skillName}
-            - 설명: {skillDescription}
-            
-            [규칙]
-            1. "괜찮아요, 그럴 수 있어요" 처럼 사용자를 안심시키는 말로 시작합니다.
-            2. "지금 이렇게 모리랑 이야기해주는 것만으로도 정말 고마워요."와 같이 사용자의 현재 행동을 긍정합니다.
-            3. 마지막으로, 스킵한 스킬과 연관된 매우 간단한 대안을 1가지만 제안합니다. (예: "혹시 지금 깊게 숨 한 번 쉬어보는 건 어떨까요?")
-            4. 전체 응답은 2~3문장으로 구성합니다.
-            """;
-    PromptTemplate promptTemplate = new PromptTemplate(promptMessage);
-    Prompt prompt = promptTemplate.create(Map.of(
+    Prompt prompt = promptBudgeter.render(promptRegistry.get(LlmOperation.ACTION_SKIPPED), Map.of(
         "situation", userSituation,
         "emotions", emotionsString,
         "skillName", skippedSkill.skill_name(),
         "skillDescription", skippedSkill.description()
     ));
 
-    ChatResponse response = chatClient.prompt(prompt).call().chatResponse();
-    Generation generation = response.getResult();
+    return llmGateway.call(LlmOperation.ACTION_SKIPPED, prompt, text -> text,
+        () -> "괜찮아요, 그럴 수 있죠. 지금은 그럴 마음이 안 생길 수도 있어요. 모리랑 다시 이야기해줘서 고마워요. 혹시 지금 딱 한 번만 깊게 숨을 쉬어보는 건 어때요?");
+  }
 
-    if (generation != null && generation.getOutput() != null) {
-      return generation.getOutput().getText();
+  public String generateProposalGoalPhrase(String userSituation, Set<EmotionType> emotions) {
+    String emotionKey = emotionKey(emotions);
+    Optional<String> cached = similarSituationCache.lookup(OP_GOAL_PHRASE, userSituation, emotionKey);
+    if (cached.isPresent()) {
+      return cached.get();
     }
-
-    log.error("AI 행동 스킵 메시지 생성 실패. 기본 메시지를 반환합니다.");
-    return "괜찮아요, 그럴 수 있죠. 지금은 그럴 마음이 안 생길 수도 있어요. 모리랑 다시 이야기해줘서 고마워요. 혹시 지금 딱 한 번만 깊게 숨을 쉬어보는 건 어때요?";
+    String phrase = requestProposalGoalPhrase(userSituation, emotions);
+    if (!DEFAULT_GOAL_PHRASE.equals(phrase)) {
+      similarSituationCache.put(OP_GOAL_PHRASE, userSituation, emotionKey, phrase);
+    }
+    return phrase;
   }
 
-  public String generateProposalGoalPhrase(String userSituation, Set<EmotionType> emotions) {
+  private String requestProposalGoalPhrase(String userSituation, Set<EmotionType> emotions) {
     String emotionsString = emotions.stream().map(EmotionType::getName).collect(Collectors.joining(", "));
     log.info("GPT 제안 목표 구문 생성 요청. 상황: {}, 감정: {}", userSituation, emotionsString);
-    ChatClient chatClient = chatClientBuilder.build();
-
-    String promptMessage = """
-                당신은 DBT(변증법적 행동 치료) 전문가입니다.
-                사용자의 상황과 감정을 고려할 때, 다음에 추천할 행동 지침(스킬)들이 어떤 **목표**를 가지는지 설명하는 **짧은 한국어 구문**을 생성해주세요.
-                이 구문은 "모리가 [닉네임]님을 위해 [여기에 삽입될 구문] 도움이 될 수 있는 방법을 추천 드려도 될까요?" 라는 질문에 사용됩니다.
-
-                [사용자 상황]
-                {situation}
-
-                [사용자 감정]
-                {emotions}
-
-                [규칙]
-                1. 상황과 감정을 바탕으로, 추천될 스킬들이 궁극적으로 사용자에게 어떤 도움을 줄 수 있는지 핵심 목표를 요약하세요.
-                2. 응답은 반드시 **"~하는", "~도록 돕는"** 과 같은 형태의 **짧은 구문**(5~10자 내외)이어야 합니다. (예: "마음을 차분하게 가라앉히는", "복잡한 생각을 잠시 멈추는", "기분을 전환하는")
-                3. 오직 생성된 구문만 반환하고, 다른 설명이나 문장은 절대 포함하지 마세요.
-                """;
-
-    PromptTemplate promptTemplate = new PromptTemplate(promptMessage);
-    Prompt prompt = promptTemplate.create(Map.of(
+    Prompt prompt = promptBudgeter.render(promptRegistry.get(LlmOperation.GOAL_PHRASE), Map.of(
         "situation", userSituation,
         "emotions", emotionsString
     ));
-    ChatResponse response = chatClient.prompt(prompt).call().chatResponse();
-
-    Generation generation = response.getResult();
-    if (generation != null && generation.getOutput() != null) {
-      String phrase = generation.getOutput().getText().trim();
+    return llmGateway.call(LlmOperation.GOAL_PHRASE, prompt, text -> {
       // 간단한 후처리 추가 (혹시 모를 괄호 제거)
-      phrase = phrase.replaceAll("[()]", "");
+      String phrase = text.trim().replaceAll("[()]", "");
       if (phrase.length() > 20 || phrase.endsWith("?") || phrase.endsWith(".")) { // 길이 제한 약간 늘림
         log.warn("Generated proposal goal phrase is too long or has wrong format: '{}'. Using default.", phrase);
-        return "마음을 진정시키는";
+        return DEFAULT_GOAL_PHRASE;
       }
       return phrase;
-    } else {
-      log.error("AI 응답(제안 목표 구문)에서 유효한 Generation 또는 Output을 얻지 못했습니다.");
-      return "마음을 진정시키는";
-    }
+    }, () -> DEFAULT_GOAL_PHRASE);
   }
 
   /**
@@ -293,65 +226,66 @@ public class ChatAiService {
    * 4개의 chunk_id 리스트를 반환
    */
   public List<String> recommendSkillChunkId(String userSituation, String emotions, String allSkillsJson) {
+    return recommendSkillChunkId(userSituation, emotions, allSkillsJson, "");
+  }
+
+  /**
+   * profileKey: 후보 목록을 바꾸는 사용자 프로필(증상/질환 매칭 스킬) 식별값
+   * 프로필이 다르면 후보가 달라지므로 유사 상황 캐시를 공유하지 않음
+   */
+  public List<String> recommendSkillChunkId(String userSituation, String emotions, String allSkillsJson,
+      String profileKey) {
+    String emotionKey = emotions == null ? "" : Arrays.stream(emotions.split(","))
+        .map(String::trim)
+        .sorted()
+        .collect(Collectors.joining(","));
+    if (profileKey != null && !profileKey.isEmpty()) {
+      emotionKey = emotionKey + "|" + profileKey;
+    }
+    Optional<List<String>> cached = similarSituationCache.lookup(OP_RECOMMEND, userSituation, emotionKey);
+    if (cached.isPresent()) {
+      return cached.get();
+    }
+    List<String> recommendedChunkIds = requestSkillChunkIds(userSituation, emotions, allSkillsJson);
+    if (!DEFAULT_SKILL_IDS.equals(recommendedChunkIds)) {
+      similarSituationCache.put(OP_RECOMMEND, userSituation, emotionKey, List.copyOf(recommendedChunkIds));
+    }
+    return recommendedChunkIds;
+  }
+
+  private List<String> requestSkillChunkIds(String userSituation, String emotions, String allSkillsJson) {
     log.info("상황에 맞는 스킬 4개 추천 요청: {}, 감정: {}", userSituation, emotions);
-    ChatClient chatClient = chatClientBuilder.build();
-    String promptMessage = """
-            당신은 DBT(변증법적 행동 치료) 전문가입니다.
-            사용자의 현재 상황과 감정을 듣고,
-            제공된 [행동 지침 목록(JSON)] 중에서 가장 도움이 될 것 같은 행동 지침 **4개**를 추천해야 합니다.
-
-            [사용자 상황]
-            {situation}
-
-            [사용자 감정]
-            {emotions}
-
-            [행동 지침 목록(JSON)]
-            {skills}
-
-            [규칙]
-            1. 사용자의 [상황]과 [감정]을 [행동 지침 목록]의 'situation_tags'와 'emotion_tags'와 비교하여 가장 적절한 'chunk_id' **4개**를 선택하세요.
-            2. 관련성이 높은 순서대로 정렬하세요.
-            3. 당신의 응답은 반드시 선택된 'chunk_id' 값 4개를 **콤마(,)로 구분한 문자열**이어야 합니다. (예: "distress-005,distress-001,distress-014,distress-026")
-            4. 어떠한 설명이나 추가 텍스트도 포함하지 마세요. 오직 'chunk_id' 4개를 콤마로 구분한 문자열만 반환하세요.
-            """;
-
-    PromptTemplate promptTemplate = new PromptTemplate(promptMessage);
-    Prompt prompt = promptTemplate.create(Map.of(
+    Prompt prompt = promptBudgeter.render(promptRegistry.get(LlmOperation.RECOMMEND), Map.of(
         "situation", userSituation,
         "emotions", emotions,
         "skills", allSkillsJson
     ));
 
-    ChatResponse response = chatClient.prompt(prompt).call().chatResponse();
-    List<String> recommendedChunkIds = Collections.emptyList();
-
-    Generation generation = response.getResult();
-    if (generation != null && generation.getOutput() != null) {
-      String rawResponse = generation.getOutput().getText().trim();
+    List<String> recommendedChunkIds = llmGateway.call(LlmOperation.RECOMMEND, prompt, text -> {
+      String rawResponse = text.trim();
       log.info("gpt 응답 skill IDs: {}", rawResponse);
 
-      recommendedChunkIds = Arrays.stream(rawResponse.split(","))
+      List<String> chunkIds = Arrays.stream(rawResponse.split(","))
           .map(String::trim) // 각 ID 앞뒤 공백 제거
           .filter(id -> id.matches("distress-\\d{3}")) // 유효한 형식인지 확인
           .distinct() // 중복 제거
           .limit(4) // 최대 4개만 사용
           .collect(Collectors.toList());
 
-      if (recommendedChunkIds.size() < 4) {
-        log.warn("GPT 4개 chunk_ids 반환 ({} found).", recommendedChunkIds.size());
-        List<String> defaultIds = List.of("distress-001", "distress-002", "distress-003", "distress-005");
-        for (String defaultId : defaultIds) {
-          if (recommendedChunkIds.size() >= 4) break;
-          if (!recommendedChunkIds.contains(defaultId)) {
-            recommendedChunkIds.add(defaultId);
+      if (chunkIds.size() < 4) {
+        log.warn("GPT 4개 chunk_ids 반환 ({} found).", chunkIds.size());
+        for (String defaultId : DEFAULT_SKILL_IDS) {
+          if (chunkIds.size() >= 4) break;
+          if (!chunkIds.contains(defaultId)) {
+            chunkIds.add(defaultId);
           }
         }
       }
-    } else {
-      log.error("스킬 추천 AI 응답에서 유효한 Generation 또는 Output을 얻지 못했습니다. 기본 ID 리스트를 반환합니다.");
-      recommendedChunkIds = List.of("distress-001", "distress-002", "distress-003", "distress-005");
-    }
+      return chunkIds;
+    }, () -> {
+      log.error("스킬 추천 AI 응답을 얻지 못했습니다. 기본 ID 리스트를 반환합니다.");
+      return DEFAULT_SKILL_IDS;
+    });
 
     log.info("최종 추천된 스킬 chunk_id 리스트 ({}개): {}", recommendedChunkIds.size(), recommendedChunkIds);
     return recommendedChunkIds;
@@ -362,54 +296,77 @@ public class ChatAiService {
    */
   public List<String> generateDetailedSkillSteps(BehavioralSkill skill) {
     log.info("AI 상세 행동 4가지 제안 요청: {}", skill.chunk_id());
-    ChatClient chatClient = chatClientBuilder.build();
-
     String skillJsonContext;
     try {
-      ObjectMapper objectMapper = new ObjectMapper();
       skillJsonContext = objectMapper.writeValueAsString(skill);
     } catch (JsonProcessingException e) {
       log.error("Skill JSON 직렬화 실패", e);
       skillJsonContext = skill.description();
     }
 
-    String promptMessage = """
-            당신은 DBT(변증법적 행동 치료) 전문가입니다.
-            사용자가 다음 JSON 정보에 해당하는 행동을 선택했습니다:
-            [컨텍스트]
-            {skillContext}
-            
-            이 행동을 실제로 실천할 수 있는 4가지의 구체적이고 간단한 '상세 행동'을 제안해주세요.
-            
-            [규칙]
-            1. 응답은 반드시 4개의 짧은 행동(예: "거울 보고 웃기") 리스트여야 합니다.
-            2. 4개의 항목을 콤마(,)로만 구분된 하나의 문자열로 반환하세요.
-            3. (예시): 거울 보고 칭찬하기,내가 잘한 일 3가지 적기,따뜻한 물로 샤워하기,좋아하는 음악 1곡 듣기
-            4. 절대 다른 설명이나 번호(1., 2.)를 붙이지 마세요.
-            """;
-
-    PromptTemplate promptTemplate = new PromptTemplate(promptMessage);
-    Prompt prompt = promptTemplate.create(Map.of("skillContext", skillJsonContext));
-
-    ChatResponse response = chatClient.prompt(prompt).call().chatResponse();
-    Generation generation = response.getResult();
-
-    if (generation != null && generation.getOutput() != null) {
-      String rawResponse = generation.getOutput().getText().trim();
+    Prompt prompt = promptBudgeter.render(promptRegistry.get(LlmOperation.STEPS), Map.of("skillContext", skillJsonContext));
+
+    return llmGateway.call(LlmOperation.STEPS, prompt, text -> {
+      String rawResponse = text.trim();
       log.info("AI 상세 행동 응답 (Raw): {}", rawResponse);
 
       return Arrays.stream(rawResponse.split(","))
           .map(String::trim)
           .limit(4)
           .collect(Collectors.toList());
+    }, () -> {
+      log.error("AI 상세 행동 생성 실패. 임시값을 반환합니다.");
+      return DEFAULT_SKILL_STEPS;
+    });
+  }
+
+  /**
+   * 유저 대화 기억 요약 갱신 (CHAT_END 이후 백그라운드에서 호출)
+   * 기존 요약 + 이번 세션 내용만 전달하므로 프롬프트 크기는 대화 이력 길이와 무관
+   * 생성에 실패하면 null 을 반환
+   */
+  public String generateMemorySummary(String previousSummary, String sessionDigest) {
+    log.info("GPT 대화 기억 요약 요청. 이번 대화: {}", sessionDigest);
+    Prompt prompt = promptBudgeter.render(promptRegistry.get(LlmOperation.MEMORY_SUMMARY), Map.of(
+        "summary", previousSummary == null || previousSummary.isBlank() ? "없음" : previousSummary,
+        "session", sessionDigest
+    ));
+    return llmGateway.call(LlmOperation.MEMORY_SUMMARY, prompt, String::trim, () -> null);
+  }
+
+  /**
+   * 자유 대화(FREE_CHAT) 답변 생성
+   * memory: 지난 세션들의 요약, summary: 이번 세션에서 창 밖으로 밀려난 대화의 요약, history: 최근 대화 원문
+   * onToken 이 주어지면 토큰이 도착하는 대로 전달
+   */
+  public String generateFreeChatReply(String memory, String summary, String history, String message,
+      Consumer<String> onToken) {
+    log.info("GPT 자유 대화 답변 요청. 메시지: {}", message);
+    Prompt prompt = promptBudgeter.render(promptRegistry.get(LlmOperation.FREE_CHAT), Map.of(
+        "memory", memory == null || memory.isBlank() ? "없음" : memory,
+        "summary", summary == null || summary.isBlank() ? "없음" : summary,
+        "history", history == null || history.isBlank() ? "없음" : history,
+        "message", message
+    ));
+    if (onToken != null) {
+      return llmGateway.stream(LlmOperation.FREE_CHAT, prompt, onToken, String::trim, () -> DEFAULT_FREE_CHAT_REPLY);
     }
+    return llmGateway.call(LlmOperation.FREE_CHAT, prompt, String::trim, () -> DEFAULT_FREE_CHAT_REPLY);
+  }
+
+  /**
+   * 자유 대화 창에서 밀려난 메시지를 기존 요약에 접어 넣음 (밀려난 부분만 전달)
+   * 생성에 실패하면 null 을 반환
+   */
+  public String generateConversationSummary(String previousSummary, String evictedTurns) {
+    Prompt prompt = promptBudgeter.render(promptRegistry.get(LlmOperation.CONVERSATION_SUMMARY), Map.of(
+        "summary", previousSummary == null || previousSummary.isBlank() ? "없음" : previousSummary,
+        "turns", evictedTurns
+    ));
+    return llmGateway.call(LlmOperation.CONVERSATION_SUMMARY, prompt, String::trim, () -> null);
+  }
 
-    log.error("AI 상세 행동 생성 실패. 임시값을 반환합니다.");
-    return List.of(
-        "상세 행동 1 (AI 생성 실패)",
-        "상세 행동 2 (AI 생성 실패)",
-        "상세 행동 3 (AI 생성 실패)",
-        "상세 행동 4 (AI 생성 실패)"
-    );
+  private String emotionKey(Set<EmotionType> emotions) {
+    return emotions.stream().map(Enum::name).sorted().collect(Collectors.joining(","));
   }
 }
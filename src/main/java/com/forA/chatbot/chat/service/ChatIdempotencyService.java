@@ -0,0 +1,275 @@
+package com.forA.chatbot.chat.service;
+
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+import static org.springframework.data.mongodb.core.query.Query.query;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.forA.chatbot.apiPayload.code.status.ErrorStatus;
+import com.forA.chatbot.apiPayload.exception.handler.ChatHandler;
+import com.forA.chatbot.chat.domain.IdempotencyRecord;
+import com.forA.chatbot.chat.dto.ChatRequest;
+import com.forA.chatbot.chat.dto.ChatResponse;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.data.mongodb.core.index.IndexOperations;
+import org.springframework.data.mongodb.core.index.IndexOptions;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+import org.springframework.util.DigestUtils;
+
+/**
+ * 대화 턴 요청의 Idempotency-Key 처리 (idempotency_keys, TTL chat.idempotency.ttl)
+ * - 처음 온 요청이 키를 IN_PROGRESS 로 선점(insert)하고 턴을 실행한 뒤 응답을 저장
+ * - 끝난 키로 다시 오면 턴을 실행하지 않고 저장된 응답을 반환 (유저 메시지 중복 기록, 단계 중복 진행, GPT 재호출 없음)
+ * - 처리 중인 키로 다시 오면: 같은 인스턴스면 진행 중인 결과를 함께 기다리고, 다른 인스턴스면 완료될 때까지 짧게 폴링
+ * 턴이 실패하면 키를 지워 재시도가 다시 실행되도록 하고, 만료된 키는 Mongo TTL 인덱스가 정리
+ */
+@Slf4j
+@Service
+public class ChatIdempotencyService {
+
+  private static final Duration POLL_INTERVAL = Duration.ofMillis(200);
+  private static final int MAX_KEY_LENGTH = 128;
+  static final String TTL_INDEX = "idempotency_keys_ttl";
+
+  private final MongoTemplate mongoTemplate;
+  private final ObjectMapper objectMapper;
+  private final MeterRegistry meterRegistry;
+  private final boolean enabled;
+  private final Duration waitTimeout;
+  private final Duration inProgressTimeout;
+  private final Duration ttl;
+
+  // 이 인스턴스에서 실행 중인 키 (_id -> 실행 결과)
+  private final Map<String, InFlight> inFlight = new ConcurrentHashMap<>();
+
+  public ChatIdempotencyService(MongoTemplate mongoTemplate, ObjectMapper objectMapper, MeterRegistry meterRegistry,
+      @Value("${chat.idempotency.enabled:true}") boolean enabled,
+      @Value("${chat.idempotency.wait-timeout:30s}") Duration waitTimeout,
+      @Value("${chat.idempotency.in-progress-timeout:120s}") Duration inProgressTimeout,
+      @Value("${chat.idempotency.ttl:1d}") Duration ttl) {
+    this.mongoTemplate = mongoTemplate;
+    this.objectMapper = objectMapper;
+    this.meterRegistry = meterRegistry;
+    this.enabled = enabled;
+    this.waitTimeout = waitTimeout;
+    this.inProgressTimeout = inProgressTimeout;
+    this.ttl = ttl;
+  }
+
+  /**
+   * created_at TTL 인덱스를 설정값으로 생성. 이미 있으면 만료 시간만 바꿈 (collMod, 인덱스 재생성 없음)
+   */
+  @PostConstruct
+  void ensureTtlIndex() {
+    IndexOperations indexOps = mongoTemplate.indexOps(IdempotencyRecord.class);
+    boolean exists = indexOps.getIndexInfo().stream().anyMatch(index -> TTL_INDEX.equals(index.getName()));
+    if (exists) {
+      indexOps.alterIndex(TTL_INDEX, IndexOptions.expireAfter(ttl));
+    } else {
+      indexOps.createIndex(new Index().on("created_at", Sort.Direction.ASC).expire(ttl).named(TTL_INDEX));
+    }
+    log.info("Idempotency-Key TTL 인덱스 적용: {}", ttl);
+  }
+
+  /**
+   * key 가 없으면 그대로 실행하고, 있으면 같은 키의 요청이 한 번만 실행되도록 보장
+   */
+  public ChatResponse execute(Long userId, String key, String sessionId, ChatRequest request,
+      Supplier<ChatResponse> turn) {
+    if (!enabled || key == null || key.isBlank()) {
+      return turn.get();
+    }
+    if (key.length() > MAX_KEY_LENGTH) {
+      throw new ChatHandler(ErrorStatus._BAD_REQUEST);
+    }
+    String id = IdempotencyRecord.idOf(userId, key);
+    String requestHash = requestHash(sessionId, request);
+
+    InFlight mine = new InFlight(requestHash, new CompletableFuture<>());
+    InFlight running = inFlight.putIfAbsent(id, mine);
+    if (running != null) {
+      if (!running.requestHash.equals(requestHash)) {
+        throw rejected(id);
+      }
+      record("joined");
+      return await(running.result);
+    }
+    try {
+      ChatResponse response = claimOrReplay(id, userId, sessionId, requestHash, turn);
+      mine.result.complete(response);
+      return response;
+    } catch (RuntimeException e) {
+      mine.result.completeExceptionally(e);
+      throw e;
+    } finally {
+      inFlight.remove(id, mine);
+    }
+  }
+
+  /** 유저의 저장된 키/응답을 모두 삭제 (회원 탈퇴 시) */
+  public void deleteByUserId(Long userId) {
+    mongoTemplate.remove(query(where("user_id").is(userId)), IdempotencyRecord.class);
+  }
+
+  private ChatResponse claimOrReplay(String id, Long userId, String sessionId, String requestHash,
+      Supplier<ChatResponse> turn) {
+    long deadlineNanos = System.nanoTime() + waitTimeout.toNanos();
+    boolean waited = false;
+    while (true) {
+      if (claim(id, userId, sessionId, requestHash)) {
+        return run(id, turn);
+      }
+      IdempotencyRecord existing = mongoTemplate.findById(id, IdempotencyRecord.class);
+      if (existing == null) {
+        continue; // 선점했던 요청이 실패해 키가 지워졌으면 다시 선점 시도
+      }
+      if (!requestHash.equals(existing.getRequestHash())) {
+        throw rejected(id);
+      }
+      if (existing.getStatus() == IdempotencyRecord.Status.COMPLETED) {
+        log.info("Idempotency-Key 재요청에 저장된 응답 반환: id={}", id);
+        record("replayed");
+        return read(existing.getResponseJson());
+      }
+      if (existing.getCreatedAt().isBefore(LocalDateTime.now().minus(inProgressTimeout))
+          && takeOver(id, existing.getCreatedAt())) {
+        // 선점한 인스턴스가 응답을 저장하지 못하고 멈춘 키 (재시작 등)
+        log.warn("오래된 IN_PROGRESS 키를 이어받아 실행: id={}", id);
+        return run(id, turn);
+      }
+      if (System.nanoTime() > deadlineNanos) {
+        record("timeout");
+        throw new ChatHandler(ErrorStatus.CHAT_TURN_IN_PROGRESS);
+      }
+      if (!waited) {
+        record("waited");
+        waited = true;
+      }
+      sleep();
+    }
+  }
+
+  private boolean claim(String id, Long userId, String sessionId, String requestHash) {
+    try {
+      mongoTemplate.insert(IdempotencyRecord.builder()
+          .id(id)
+          .userId(userId)
+          .sessionId(sessionId)
+          .requestHash(requestHash)
+          .status(IdempotencyRecord.Status.IN_PROGRESS)
+          .createdAt(LocalDateTime.now())
+          .build());
+      return true;
+    } catch (DuplicateKeyException e) {
+      return false;
+    }
+  }
+
+  private boolean takeOver(String id, LocalDateTime createdAt) {
+    IdempotencyRecord taken = mongoTemplate.findAndModify(
+        query(where("_id").is(id).and("status").is(IdempotencyRecord.Status.IN_PROGRESS)
+            .and("created_at").is(createdAt)),
+        new Update().set("created_at", LocalDateTime.now()),
+        FindAndModifyOptions.options().returnNew(true),
+        IdempotencyRecord.class);
+    return taken != null;
+  }
+
+  private ChatResponse run(String id, Supplier<ChatResponse> turn) {
+    ChatResponse response;
+    try {
+      response = turn.get();
+    } catch (RuntimeException e) {
+      mongoTemplate.remove(query(where("_id").is(id)), IdempotencyRecord.class);
+      record("failed");
+      throw e;
+    }
+    try {
+      mongoTemplate.updateFirst(query(where("_id").is(id)), new Update()
+              .set("status", IdempotencyRecord.Status.COMPLETED)
+              .set("response_json", objectMapper.writeValueAsString(response))
+              .set("completed_at", LocalDateTime.now()),
+          IdempotencyRecord.class);
+    } catch (JsonProcessingException e) {
+      // 응답을 저장하지 못하면 재요청이 다시 실행되도록 키를 지움
+      log.error("Idempotency-Key 응답 저장 실패: id={}", id, e);
+      mongoTemplate.remove(query(where("_id").is(id)), IdempotencyRecord.class);
+    }
+    record("executed");
+    return response;
+  }
+
+  private ChatResponse await(CompletableFuture<ChatResponse> result) {
+    try {
+      return result.get(waitTimeout.toMillis(), TimeUnit.MILLISECONDS);
+    } catch (ExecutionException e) {
+      if (e.getCause() instanceof RuntimeException cause) {
+        throw cause;
+      }
+      throw new ChatHandler(ErrorStatus._INTERNAL_SERVER_ERROR);
+    } catch (TimeoutException e) {
+      throw new ChatHandler(ErrorStatus.CHAT_TURN_IN_PROGRESS);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new ChatHandler(ErrorStatus.CHAT_TURN_IN_PROGRESS);
+    }
+  }
+
+  private ChatResponse read(String json) {
+    try {
+      return objectMapper.readValue(json, ChatResponse.class);
+    } catch (JsonProcessingException e) {
+      log.error("저장된 Idempotency-Key 응답을 읽지 못했습니다", e);
+      throw new ChatHandler(ErrorStatus._INTERNAL_SERVER_ERROR);
+    }
+  }
+
+  private ChatHandler rejected(String id) {
+    log.warn("같은 Idempotency-Key 로 다른 요청: id={}", id);
+    record("rejected");
+    return new ChatHandler(ErrorStatus.IDEMPOTENCY_KEY_REUSED);
+  }
+
+  private static String requestHash(String sessionId, ChatRequest request) {
+    String raw = sessionId + "\n" + request.getResponseValue();
+    return DigestUtils.md5DigestAsHex(raw.getBytes(StandardCharsets.UTF_8));
+  }
+
+  private static void sleep() {
+    try {
+      Thread.sleep(POLL_INTERVAL);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new ChatHandler(ErrorStatus.CHAT_TURN_IN_PROGRESS);
+    }
+  }
+
+  private void record(String result) {
+    Counter.builder("chat.idempotency")
+        .tag("result", result)
+        .register(meterRegistry)
+        .increment();
+  }
+
+  private record InFlight(String requestHash, CompletableFuture<ChatResponse> result) {}
+}
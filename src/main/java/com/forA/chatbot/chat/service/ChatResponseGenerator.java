@@ -260,14 +260,7 @@ public class ChatResponseGenerator {
 
   public ChatBotMessage createFeedbackDisplayAndClosingMessage(String feedbackValue, String nickname)
   {
-    String feedbackText = switch (feedbackValue) {
-      case "MUCH_BETTER_THANKS" -> "많이 나아졌어 고마워";
-      case "SLIGHTLY_BETTER" -> "살짝 기분 좋아졌어";
-      case "SAME" -> "그대로야";
-      case "SLIGHTLY_WORSE" -> "조금 더 안좋아";
-      case "MORE_HEAVY" -> "더 무거워졌어";
-      default -> "기분을 알려주셨어요.";
-    };
+    String feedbackText = feedbackLabel(feedbackValue);
     String closingMessage = "힘들 때마다 언제든 모리를 찾아주세요."
         + "모리가 " + nickname + "님의 곁에서 도움이 될 수 있도록 함께할게요."
         + "지금 약 페이지로 이동하면, 제 시간에 약을 복용하실 수 있도록 도와드릴게요!";
@@ -277,4 +270,21 @@ public class ChatResponseGenerator {
         .build();
   }
 
+  public ChatBotMessage createFreeChatMessage(String reply) {
+    return ChatBotMessage.builder()
+        .content(reply)
+        .type(MessageType.TEXT)
+        .build();
+  }
+
+  public static String feedbackLabel(String feedbackValue) {
+    return switch (feedbackValue == null ? "" : feedbackValue) {
+      case "MUCH_BETTER_THANKS" -> "많이 나아졌어 고마워";
+      case "SLIGHTLY_BETTER" -> "살짝 기분 좋아졌어";
+      case "SAME" -> "그대로야";
+      case "SLIGHTLY_WORSE" -> "조금 더 안좋아";
+      case "MORE_HEAVY" -> "더 무거워졌어";
+      default -> "기분을 알려주셨어요.";
+    };
+  }
 }
@@ -12,6 +12,7 @@ import com.forA.chatbot.chat.converter.ChatConverter;
 import com.forA.chatbot.chat.domain.ChatMessage;
 import com.forA.chatbot.chat.domain.ChatMessage.SenderType;
 import com.forA.chatbot.chat.domain.ChatSession;
+import com.forA.chatbot.chat.domain.ChatTurn;
 import com.forA.chatbot.chat.domain.enums.ChatStep;
 import com.forA.chatbot.chat.domain.enums.EmotionType;
 import com.forA.chatbot.chat.domain.enums.EmotionType.EmotionState;
@@ -21,8 +22,12 @@ import com.forA.chatbot.chat.dto.ChatResponse.ButtonOption;
 import com.forA.chatbot.chat.dto.ChatResponse.ChatBotMessage;
 import com.forA.chatbot.chat.dto.ChatResponse.ChatMessageDto;
 import com.forA.chatbot.chat.dto.ChatResponse.MessageType;
+import com.forA.chatbot.chat.llm.LlmTurnContext;
 import com.forA.chatbot.chat.repository.ChatMessageRepository;
 import com.forA.chatbot.chat.repository.ChatSessionRepository;
+import com.forA.chatbot.chat.repository.ChatTurnRepository;
+import com.forA.chatbot.chat.repository.UserMemoryRepository;
+import com.forA.chatbot.chat.service.ChatAiFanOut.Subtask;
 import com.forA.chatbot.enums.Gender;
 import com.forA.chatbot.notification.scheduler.ChatNotificationScheduler;
 import com.forA.chatbot.subscriptions.domain.Subscription;
@@ -31,30 +36,30 @@ import com.forA.chatbot.user.domain.User;
 import com.forA.chatbot.user.domain.enums.DisorderType;
 import com.forA.chatbot.user.domain.enums.JobType;
 import com.forA.chatbot.user.domain.enums.SymptomType;
-import jakarta.annotation.PostConstruct;
-import java.io.InputStream;
-import java.time.LocalDate;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.time.Duration;
 import java.time.LocalDateTime;
-import java.time.LocalTime;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.LinkedHashSet;
 import java.util.List;
-import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.function.Consumer;
 import java.util.function.Function;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.context.ApplicationContext;
-import org.springframework.core.io.Resource;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
-
-record BehavioralSkill(String chunk_id, String skill_type, List<String> situation_tags,
-                       String skill_origin, String skill_name, String description, List<String> step_by_step,
-                       List<String> emotion_tags) {}
+import org.springframework.transaction.support.TransactionTemplate;
 
 @Slf4j
 @Service
@@ -63,28 +68,73 @@ public class ChatService {
 
   private final ChatSessionRepository chatSessionRepository; // 세션 관리
   private final ChatMessageRepository chatMessageRepository; // 메시지 기록
+  private final ChatTurnRepository chatTurnRepository;
+  private final ChatTurnClaims chatTurnClaims;
+  private final UserMemoryRepository userMemoryRepository;
   private final ChatResponseGenerator responseGenerator;
   private final UserRepository userRepository;
-  private final ApplicationContext applicationContext;
   private final ObjectMapper objectMapper;
   private final ChatAiService chatAiService;
+  private final ChatAiFanOut chatAiFanOut;
   private final ChatNotificationScheduler chatNotificationScheduler;
-  private List<BehavioralSkill> behavioralSkills = Collections.emptyList();
+  private final SkillStepsCache skillStepsCache;
+  private final SkillCatalog skillCatalog;
+  private final ExecutorService chatAiExecutor;
   private final ChatConverter chatConverter;
   private final SubscriptionRepository subscriptionRepository;
+  private final TransactionTemplate transactionTemplate;
+  private final SpeculativePrefetcher speculativePrefetcher;
+  private final UserMemoryService userMemoryService;
+  private final FreeChatService freeChatService;
+  private final DailyChatCounter dailyChatCounter;
+  private final ChatIdempotencyService chatIdempotencyService;
+  private final MeterRegistry meterRegistry;
+
+  // 스킬 추천 프롬프트에 넣을 후보 스킬 수 (0 이하이면 전체 목록 사용)
+  @Value("${chat.skill.retrieval.candidate-count:8}")
+  private int skillCandidateCount;
+
+  // 후보 중 온보딩 증상/질환으로 미리 고른 스킬 수 (나머지는 상황 검색으로 채움, 0 이면 사용 안 함)
+  @Value("${chat.skill.retrieval.profile-candidate-count:4}")
+  private int profileCandidateCount;
+
+  @Value("${chat.skill.steps-cache.warm-on-startup:true}")
+  private boolean warmSkillStepsOnStartup;
+
+  // 턴당 GPT 호출에 허용되는 총 시간. 넘기면 남은 호출은 기본 문구/기본 스킬로 응답 (0 이하이면 사용 안 함)
+  @Value("${chat.turn.deadline-ms:2500}")
+  private long turnDeadlineMs;
+
+  // 기동 시 캐시 채우기가 끝난 뒤에만 카탈로그 변경 이벤트에 반응 (기동 중 최초 로드 이벤트는 무시)
+  private volatile boolean skillStepsWarmed;
+
+  @EventListener(ApplicationReadyEvent.class)
+  public void warmSkillStepsCacheOnStartup() {
+    if (warmSkillStepsOnStartup) {
+      warmSkillStepsCache();
+      skillStepsWarmed = true;
+    }
+  }
 
-  @PostConstruct
-  public void loadBehavioralSkills() {
-    try {
-      Resource resource = applicationContext.getResource("classpath:behavioral-skills.json");
-      InputStream inputStream = resource.getInputStream();
-      this.behavioralSkills = objectMapper.readValue(inputStream, new TypeReference<List<BehavioralSkill>>() {});
-      log.info("Loaded {} behavioral skills from JSON.", behavioralSkills.size());
-    } catch (Exception e) {
-      log.error("Failed to load behavioral skills from JSON", e);
-      this.behavioralSkills = Collections.emptyList();
+  /**
+   * 실행 중에 스킬 카탈로그가 바뀌면 새 카탈로그 기준으로 상세 행동 캐시를 다시 채움
+   */
+  @EventListener
+  public void onSkillCatalogChanged(SkillCatalog.ChangedEvent event) {
+    if (skillStepsWarmed) {
+      warmSkillStepsCache();
     }
   }
+
+  /**
+   * 스킬별 상세 행동 캐시를 백그라운드에서 미리 채움
+   * @return 캐시 대상 스킬 수
+   */
+  public int warmSkillStepsCache() {
+    SkillCatalog.Snapshot catalog = skillCatalog.current();
+    chatAiExecutor.execute(() -> skillStepsCache.warmUp(catalog.getHash(), catalog.getSkills()));
+    return catalog.size();
+  }
   @Transactional
   public ChatResponse initializeSession(Long userId) {
     // TODO : 구독 여부 체크 주석 해제
@@ -97,7 +147,7 @@ public class ChatService {
     ChatSession session;
     ChatBotMessage botMessage;
     List<ChatMessageDto> history = new ArrayList<>();
-    int todayChatCount = getTodayChatCount(userId);
+    int todayChatCount;
 
     // 1. 세션 확인
     Optional<ChatSession> unfinishedSessionOpt = chatSessionRepository
@@ -107,13 +157,11 @@ public class ChatService {
       session = unfinishedSessionOpt.get();
       history = getChatHistory(session.getId());
       botMessage = chatConverter.convertLatestHistoryToBotMessage(history);
+      todayChatCount = dailyChatCounter.today(userId);
       log.info("미완료 세션 재개: {}", session.getId());
     } else { // 세션 완
-      // TODO : 채팅 제한 주석 해제
-/*      if (todayChatCount >= 3) {
-        log.warn("일일 채팅 횟수 초과: userId={}, count={}", userId, todayChatCount);
-        throw new ChatHandler(ErrorStatus.CHAT_LIMIT_EXCEEDED);
-      }*/
+      // 한도 확인과 증가를 한 번에 처리 (chat.daily-limit.enabled 일 때 초과 시 CHAT_LIMIT_EXCEEDED)
+      todayChatCount = dailyChatCounter.increment(userId);
       Optional<ChatSession> lastSessionOpt = chatSessionRepository.findFirstByUserIdOrderByStartedAtDesc(userId); // 가장 최신 세션 가져오기
       boolean isUserOnboarded = lastSessionOpt
           .map(ChatSession::getOnboardingCompleted)
@@ -128,7 +176,6 @@ public class ChatService {
 
       chatSessionRepository.save(session);
 
-      todayChatCount++;
       log.info("새 세션 시작: {}, Initial Step: {}", isUserOnboarded, initialStep);
 
       Set<EmotionType> currentEmotions = parseEmotionsFromString(session.getTemporaryData("selectedEmotions"));
@@ -154,35 +201,170 @@ public class ChatService {
         .build();
   }
 
-  private int getTodayChatCount(Long userId) {
-    LocalDateTime startOfDay = LocalDate.now().atStartOfDay(); // 00:00:00
-    LocalDateTime endOfDay = LocalDate.now().atTime(LocalTime.MAX); // 23:59:59.999...
-
-    // 오늘 시작된 세션 수를 계산
-    long count = chatSessionRepository.countByUserIdAndStartedAtBetween(userId, startOfDay, endOfDay);
-    return (int) count;
-  }
-
   /**
    * [2. 유저 응답 처리]
+   * GPT 호출 동안 DB 커넥션을 잡고 있지 않도록 트랜잭션을 걸지 않고, 저장 단계만 짧은 트랜잭션으로 처리
    */
-  @Transactional
   public ChatResponse handleUserResponse(Long userId, String sessionId, ChatRequest request) {
+    return processUserResponse(userId, sessionId, request, null);
+  }
+
+  /**
+   * [2-1. 유저 응답 처리 (스트리밍)]
+   * GPT 생성 단계(SITUATION_INPUT, ACTION_OFFER, ACTION_PROPOSE, 자유 대화)의 토큰을 onToken 으로 흘려보내고,
+   * 완성된 봇 메시지는 기존과 동일하게 한 번만 저장한 뒤 최종 ChatResponse 를 반환
+   */
+  public ChatResponse handleUserResponseStreaming(Long userId, String sessionId, ChatRequest request,
+      Consumer<String> onToken) {
+    return processUserResponse(userId, sessionId, request, onToken);
+  }
+
+  private ChatResponse processUserResponse(Long userId, String sessionId, ChatRequest request,
+      Consumer<String> onToken) {
     // TODO : 구독 여부 체크 주석 해제
     //checkPremiumStatus(userId);
 
-    // 1. 세션 및 유저 정보 로드
+    // 0. 선점: 같은 세션의 비동기/다른 턴과 세션 상태를 동시에 바꾸지 않도록 턴이 끝날 때까지 세션을 점유
+    ChatTurn claim = chatTurnClaims.claim(userId, sessionId);
+    try {
+      // 1. 로드: 세션 및 유저 정보 조회
+      ChatTurnContext turn = loadTurn(userId, sessionId, request);
+      return completeTurn(turn, onToken, turnDeadlineMs > 0 ? Duration.ofMillis(turnDeadlineMs) : null);
+    } finally {
+      chatTurnClaims.release(claim);
+    }
+  }
+
+  /**
+   * [2-2. 비동기 턴 접수]
+   * 세션/유저를 로드하고 유저 메시지만 먼저 기록. 봇 응답은 워커에서 completeTurn 으로 생성
+   */
+  ChatTurnContext beginTurn(Long userId, String sessionId, ChatRequest request) {
+    ChatTurnContext turn = loadTurn(userId, sessionId, request);
+    recordUserMessage(sessionId, turn.getCurrentStep().name(), turn.getUserResponse(), turn.getReceivedAt());
+    turn.setUserMessageRecorded(true);
+    return turn;
+  }
+
+  /**
+   * deadline: 턴 전체 GPT 호출에 허용되는 시간. 요청을 붙잡고 있는 동기/스트리밍 턴만 지정하고,
+   * 기다리는 요청이 없는 비동기 워커는 null (작업별 타임아웃만 적용)
+   */
+  ChatResponse completeTurn(ChatTurnContext turn, Consumer<String> onToken, Duration deadline) {
+    // 2. 계산: GPT 호출이 포함되므로 트랜잭션(DB 커넥션) 밖에서 처리. 턴 마감 시각을 GPT 호출에 전달
+    computeInTurnContext(turn, onToken, deadline);
+    // 3. 커밋: 유저/세션/메시지 저장만 짧은 트랜잭션으로 처리
+    ChatResponse response = transactionTemplate.execute(status -> commitTurn(turn));
+    // 4. 행동 제안 질문을 보낸 직후, 유저가 고를 두 분기의 GPT 결과를 미리 계산
+    if (turn.getNextStep() == ChatStep.ACTION_OFFER) {
+      prefetchActionOfferBranches(turn);
+    }
+    // 5. 세션이 끝났으면 백그라운드에서 유저 기억 요약에 이번 세션을 반영
+    if (turn.getSessionDigest() != null) {
+      userMemoryService.foldAsync(turn.getUser().getId(), turn.getSessionDigest());
+    }
+    // 6. 자유 대화 창이 넘쳤으면 답변을 커밋한 뒤 백그라운드에서 요약에 접음
+    if (turn.getNextStep() == ChatStep.FREE_CHAT) {
+      freeChatService.compactAsync(turn.getUser().getId(), turn.getSession());
+    }
+    return response;
+  }
+
+  private void prefetchActionOfferBranches(ChatTurnContext turn) {
+    ChatSession session = turn.getSession();
+    String userSituation = session.getTemporaryData("userSituation");
+    String selectedEmotionsString = session.getTemporaryData("selectedEmotions");
+    Set<EmotionType> selectedEmotions = parseEmotionsFromString(selectedEmotionsString);
+    String step = ChatStep.ACTION_OFFER.name();
+    // GPT 대신 기본값으로 대체된 결과는 null 로 남겨 꺼낼 때 miss 로 처리 (턴에서 다시 호출)
+    speculativePrefetcher.prefetch(session.getId(), turn.getUser().getId(), step, "YES_PROPOSE", 2, () -> {
+      List<String> skillIds = recommendSkillIds(turn.getUser(), userSituation, selectedEmotions,
+          selectedEmotionsString);
+      return ChatAiService.DEFAULT_SKILL_IDS.equals(skillIds) ? null : toSkills(skillIds);
+    });
+    speculativePrefetcher.prefetch(session.getId(), turn.getUser().getId(), step, "NO_PROPOSE", 2, () -> {
+      String message = chatAiService.generateSelfSoothingMessages(userSituation, selectedEmotions);
+      return ChatAiService.DEFAULT_SELF_SOOTHING_MESSAGE.equals(message) ? null : message;
+    });
+  }
+
+  /**
+   * 상황/감정과 관련 있는 후보만 추려서 GPT 에 행동 추천을 요청
+   * 온보딩 증상/질환과 겹치는 스킬을 먼저 후보에 넣고, 남은 자리는 상황 검색(BM25) 결과로 채움
+   */
+  private List<BehavioralSkill> recommendSkills(User user, String userSituation, Set<EmotionType> selectedEmotions,
+      String selectedEmotionsString) {
+    return toSkills(recommendSkillIds(user, userSituation, selectedEmotions, selectedEmotionsString));
+  }
+
+  private List<String> recommendSkillIds(User user, String userSituation, Set<EmotionType> selectedEmotions,
+      String selectedEmotionsString) {
+    SkillCatalog.Snapshot catalog = skillCatalog.current();
+    List<String> emotionNames = selectedEmotions.stream().map(EmotionType::getName).toList();
+    List<BehavioralSkill> profileMatched = catalog.shortlist(user.getSymptoms(), user.getDisorders(),
+        skillCandidateCount > 0 ? Math.min(profileCandidateCount, skillCandidateCount) : profileCandidateCount);
+    Set<BehavioralSkill> candidates = new LinkedHashSet<>(profileMatched);
+    for (BehavioralSkill skill : catalog.search(userSituation, emotionNames, skillCandidateCount)) {
+      if (skillCandidateCount > 0 && candidates.size() >= skillCandidateCount) {
+        break;
+      }
+      candidates.add(skill);
+    }
+    log.info("스킬 후보 {}개 (프로필 {}개) / 전체 {}개", candidates.size(), profileMatched.size(), catalog.size());
+    String skillJson = catalog.toJson(List.copyOf(candidates));
+    String profileKey = profileMatched.stream().map(BehavioralSkill::chunk_id).collect(Collectors.joining(","));
+    return chatAiService.recommendSkillChunkId(userSituation, selectedEmotionsString, skillJson, profileKey);
+  }
+
+  private List<BehavioralSkill> toSkills(List<String> skillIds) {
+    SkillCatalog.Snapshot catalog = skillCatalog.current();
+    return skillIds.stream()
+        .map(catalog::find)
+        .flatMap(Optional::stream)
+        .collect(Collectors.toList());
+  }
+
+  private ChatTurnContext loadTurn(Long userId, String sessionId, ChatRequest request) {
     ChatSession session = chatSessionRepository.findById(sessionId)
         .orElseThrow(() -> new ChatHandler(ErrorStatus.SESSION_NOT_FOUND));
     User user = userRepository.findById(userId)
         .orElseThrow(() -> new UserHandler(ErrorStatus.USER_NOT_FOUND));
 
-    int todayChatCount = getTodayChatCount(userId);
+    int todayChatCount = dailyChatCounter.today(userId);
+    return new ChatTurnContext(session, user, ChatStep.valueOf(session.getCurrentStep()),
+        request.getResponseValue(), LocalDateTime.now(), todayChatCount);
+  }
+
+  private void computeInTurnContext(ChatTurnContext turn, Consumer<String> onToken, Duration deadline) {
+    boolean deadlineEnabled = deadline != null;
+    Long userId = turn.getUser().getId();
+    try (LlmTurnContext.Scope ignored = deadlineEnabled
+        ? LlmTurnContext.open(userId, deadline)
+        : LlmTurnContext.open(userId)) {
+      computeTurn(turn, onToken);
+      Set<String> promptVersions = LlmTurnContext.promptVersions();
+      turn.setPromptVersion(promptVersions.isEmpty() ? null : String.join(",", promptVersions));
+      if (!deadlineEnabled) {
+        return;
+      }
+      boolean exceeded = LlmTurnContext.isExpired();
+      if (exceeded) {
+        log.warn("턴 마감 시간 초과로 일부 응답을 기본값으로 대체: sessionId={}, step={}",
+            turn.getSession().getId(), turn.getCurrentStep());
+      }
+      Counter.builder("chat.turn.deadline")
+          .tag("step", turn.getCurrentStep().name())
+          .tag("result", exceeded ? "exceeded" : "met")
+          .register(meterRegistry)
+          .increment();
+    }
+  }
 
-    ChatStep currentStep = ChatStep.valueOf(session.getCurrentStep());
-    String userResponse = request.getResponseValue();
-    // 2. 사용자 응답 메시지 DB에 기록
-    recordUserMessage(sessionId, currentStep.name(), userResponse);
+  private void computeTurn(ChatTurnContext turn, Consumer<String> onToken) {
+    ChatSession session = turn.getSession();
+    User user = turn.getUser();
+    ChatStep currentStep = turn.getCurrentStep();
+    String userResponse = turn.getUserResponse();
 
     ChatStep nextStep = currentStep;
     ChatBotMessage botMessage = null;
@@ -194,6 +376,7 @@ public class ChatService {
       switch (currentStep) {
         case GENDER:
           user.updateGender(Gender.valueOf(userResponse));
+          turn.setUserChanged(true);
           nextStep = ChatStep.BIRTH_YEAR;
           botMessage = responseGenerator.getBotMessageForStep(nextStep.name(), user, false);
           break;
@@ -203,18 +386,21 @@ public class ChatService {
             throw new UserHandler(ErrorStatus.INVALID_YEAR_OF_BIRTH);
           }
           user.updateBirthYear(birthYear);
+          turn.setUserChanged(true);
           nextStep = ChatStep.JOB_TYPE;
           botMessage = responseGenerator.getBotMessageForStep(nextStep.name(), user, false);
           break;
         case JOB_TYPE: // 3. 직업 응답 처리
           Set<JobType> jobs = parseAndValidateMultiSelect(userResponse, JobType::valueOf, 2, "직업");
           user.updateJobs(jobs);
+          turn.setUserChanged(true);
           nextStep = ChatStep.DISORDER_TYPE;
           botMessage = responseGenerator.getBotMessageForStep(nextStep.name(), user, false);
           break;
         case DISORDER_TYPE:
           Set<DisorderType> disorders = parseAndValidateMultiSelect(userResponse, DisorderType::valueOf, 2, "질환");
           user.updateDisorders(disorders);
+          turn.setUserChanged(true);
 
           if (disorders.stream().anyMatch(d -> d == DisorderType.NONE)) { // '없음' 선택 시
             nextStep = ChatStep.EMOTION_SELECT; // 증상 건너 뛰고 감정 선택으로
@@ -229,6 +415,7 @@ public class ChatService {
         case SYMPTOM_TYPE: // 5. 증상 응답 처리 (온보딩 마지막)
           Set<SymptomType> symptoms = parseAndValidateMultiSelect(userResponse, SymptomType::valueOf, Integer.MAX_VALUE, "증상");
           user.updateSymptoms(symptoms);
+          turn.setUserChanged(true);
 
           nextStep = ChatStep.EMOTION_SELECT; // 다음 단계: 6번(감정)
           session.setOnboardingCompleted(true); // ★ 온보딩 완료
@@ -252,30 +439,46 @@ public class ChatService {
           }
           break;
         case SITUATION_INPUT:
-          userSituation = userResponse;
-          session.setTemporaryData("userSituation", userSituation);
-          String empathySentence = chatAiService.generateEmpathyResponse(userSituation, selectedEmotions, user);
-          String goalPhrase = chatAiService.generateProposalGoalPhrase(userSituation, selectedEmotions);
-          nextStep = ChatStep.ACTION_OFFER;
-          botMessage = responseGenerator.createActionOfferMessage(nickname, empathySentence, goalPhrase);
+          String situation = userResponse;
+          session.setTemporaryData("userSituation", situation);
+          // 공감 문장과 제안 목표 구문은 서로 독립적이므로 동시에 요청
+          try (ChatAiFanOut.Scope scope = chatAiFanOut.open()) {
+            Supplier<String> empathy = () -> chatAiService.generateEmpathyResponse(situation, selectedEmotions, user,
+                userMemoryService.summaryFor(user.getId()), onToken);
+            // 스트리밍 중인 공감 문장은 턴 마감으로 끊지 않음 (이미 보낸 토큰과 최종 메시지가 달라지지 않도록)
+            Subtask<String> empathySentence = onToken != null
+                ? scope.forkStreaming("empathy", empathy, () -> ChatAiService.DEFAULT_EMPATHY_SENTENCE)
+                : scope.fork("empathy", empathy, () -> ChatAiService.DEFAULT_EMPATHY_SENTENCE);
+            Subtask<String> goalPhrase = scope.fork("goal_phrase",
+                () -> chatAiService.generateProposalGoalPhrase(situation, selectedEmotions),
+                () -> ChatAiService.DEFAULT_GOAL_PHRASE);
+            scope.join();
+            nextStep = ChatStep.ACTION_OFFER;
+            botMessage = responseGenerator.createActionOfferMessage(nickname, empathySentence.get(), goalPhrase.get());
+          }
           break;
         case ACTION_OFFER:
           if ("YES_PROPOSE".equals(userResponse)) {
+            speculativePrefetcher.recordBranch(currentStep.name(), userResponse);
+            speculativePrefetcher.discard(session.getId(), "NO_PROPOSE");
             nextStep = ChatStep.ACTION_PROPOSE;
-            String skillJson = convertSkillsToJson();
-            // 행동 추천 생성
-            List<String> recommendedIds = chatAiService.recommendSkillChunkId(userSituation, selectedEmotionsString, skillJson);
-            List<BehavioralSkill> recommendedSkills = recommendedIds.stream()
-                .map(id -> behavioralSkills.stream()
-                    .filter(skill -> skill.chunk_id().equals(id))
-                    .findFirst()
-                    .orElse(null))
-                .filter(Objects::nonNull)
-                .collect(Collectors.toList());
+            // 행동 추천 생성 (미리 계산된 결과가 있으면 사용)
+            List<BehavioralSkill> recommendedSkills = speculativePrefetcher
+                .<List<BehavioralSkill>>take(session.getId(), "YES_PROPOSE")
+                .orElseGet(() -> recommendSkills(user, userSituation, selectedEmotions, selectedEmotionsString));
             botMessage = responseGenerator.createActionProposeMessage(recommendedSkills);
           } else if ("NO_PROPOSE".equals(userResponse)) {
+            speculativePrefetcher.recordBranch(currentStep.name(), userResponse);
+            speculativePrefetcher.discard(session.getId(), "YES_PROPOSE");
             nextStep = ChatStep.CHAT_END;
-            String gptComfortMessage = chatAiService.generateSelfSoothingMessages(userSituation, selectedEmotions);
+            String gptComfortMessage = speculativePrefetcher.<String>take(session.getId(), "NO_PROPOSE")
+                .map(message -> {
+                  if (onToken != null) {
+                    onToken.accept(message); // 미리 계산된 메시지는 한 번에 전송
+                  }
+                  return message;
+                })
+                .orElseGet(() -> chatAiService.generateSelfSoothingMessages(userSituation, selectedEmotions, onToken));
             botMessage = responseGenerator.createAloneComfortMessage(user.getNickname(), gptComfortMessage);
           } else {
             throw new ChatHandler(ErrorStatus.INVALID_BUTTON_SELECTION);
@@ -283,10 +486,8 @@ public class ChatService {
           break;
         case ACTION_PROPOSE:
           String selectedSkillId = userResponse;
-          BehavioralSkill selectedSkill = behavioralSkills.stream()
-              .filter(skill -> skill.chunk_id().equals(selectedSkillId))
-              .findFirst()
-              .orElse(null);
+          SkillCatalog.Snapshot catalog = skillCatalog.current();
+          BehavioralSkill selectedSkill = catalog.find(selectedSkillId).orElse(null);
           if (selectedSkill == null) {
             log.error("선택하신 스킬을 찾을 수 없습니다: {}", selectedSkillId);
             botMessage = ChatBotMessage.builder()
@@ -297,9 +498,19 @@ public class ChatService {
             session.setTemporaryData("selectedSkillId", selectedSkillId);
             session.setTemporaryData("selectedSkillName", selectedSkill.skill_name());
             nextStep = ChatStep.SKILL_SELECT;
-            List<String> detailedSteps = chatAiService.generateDetailedSkillSteps(selectedSkill);
-            String customDescription = chatAiService.generateSkillDescription(userSituation, selectedEmotions, selectedSkill, user);
-            botMessage = responseGenerator.createSkillSelectMessage(customDescription, detailedSteps);
+            // 상세 행동과 맞춤 설명은 서로 독립적이므로 동시에 요청, 한쪽이 실패해도 기본값으로 메시지 구성
+            try (ChatAiFanOut.Scope scope = chatAiFanOut.open()) {
+              Subtask<List<String>> detailedSteps = scope.fork("steps",
+                  () -> skillStepsCache.getSteps(catalog.getHash(), selectedSkill),
+                  () -> ChatAiService.DEFAULT_SKILL_STEPS);
+              Supplier<String> description = () -> chatAiService.generateSkillDescription(userSituation,
+                  selectedEmotions, selectedSkill, user, onToken);
+              Subtask<String> customDescription = onToken != null
+                  ? scope.forkStreaming("skill_description", description, selectedSkill::description)
+                  : scope.fork("skill_description", description, selectedSkill::description);
+              scope.join();
+              botMessage = responseGenerator.createSkillSelectMessage(customDescription.get(), detailedSteps.get());
+            }
           }
           break;
         case SKILL_SELECT:
@@ -317,10 +528,7 @@ public class ChatService {
             nextStep = ChatStep.CHAT_END;
 
             String skippedSkillId = session.getTemporaryData("selectedSkillId");
-            BehavioralSkill skippedSkill = behavioralSkills.stream()
-                .filter(s -> s.chunk_id().equals(skippedSkillId))
-                .findFirst()
-                .orElse(null);
+            BehavioralSkill skippedSkill = skillCatalog.current().find(skippedSkillId).orElse(null);
 
             String gptComfortMessage;
             if (skippedSkill != null) {
@@ -341,8 +549,14 @@ public class ChatService {
           botMessage = responseGenerator.createFeedbackDisplayAndClosingMessage(feedbackValue, nickname);
           break;
         case CHAT_END:
-          log.info("Chat session {}이 이미 종료되었습니다.", sessionId);
-          botMessage = responseGenerator.getBotMessageForStep(currentStep.name(), user, true);
+          // 종료 후에도 유저가 말을 걸면 자유 대화로 이어감
+          nextStep = ChatStep.FREE_CHAT;
+          botMessage = responseGenerator.createFreeChatMessage(
+              freeChatService.reply(session, user, userResponse, onToken));
+          break;
+        case FREE_CHAT:
+          botMessage = responseGenerator.createFreeChatMessage(
+              freeChatService.reply(session, user, userResponse, onToken));
           break;
         default:
           log.warn("handleUserResponse: Unhandled step: {}", currentStep);
@@ -362,20 +576,37 @@ public class ChatService {
           .build();
     }
 
+    turn.setNextStep(nextStep);
+    turn.setBotMessage(botMessage);
+  }
+
+  private ChatResponse commitTurn(ChatTurnContext turn) {
+    ChatSession session = turn.getSession();
+    ChatStep nextStep = turn.getNextStep();
+    ChatBotMessage botMessage = turn.getBotMessage();
+
     // 4. 유저 정보 및 세션 상태 저장
-    userRepository.save(user); // 1~5단계에서 변경된 유저 정보(성별, 생년 등)를 DB에 최종 저장
+    if (turn.isUserChanged()) {
+      userRepository.save(turn.getUser()); // 1~5단계에서 변경된 유저 정보(성별, 생년 등)를 DB에 최종 저장
+    }
     session.setCurrentStep(nextStep.name());
     session.setLastInteractionAt(LocalDateTime.now());
 
     // 대화 종료 시 세션에 종료 시간 기록
     if(nextStep == ChatStep.CHAT_END) {
+      if (turn.getCurrentStep() != ChatStep.CHAT_END) {
+        turn.setSessionDigest(sessionDigest(turn)); // 임시 데이터를 지우기 전에 기억할 내용을 만듦
+      }
       session.setEndedAt(LocalDateTime.now());
       session.clearTemporaryData();
     }
     chatSessionRepository.save(session);
 
-    // 5. 봇의 다음 응답 메시지 DB에 기록
-    recordBotMessage(sessionId, nextStep.name(), botMessage);
+    // 5. 사용자 응답과 봇의 다음 응답 메시지 DB에 기록
+    if (!turn.isUserMessageRecorded()) {
+      recordUserMessage(session.getId(), turn.getCurrentStep().name(), turn.getUserResponse(), turn.getReceivedAt());
+    }
+    recordBotMessage(session.getId(), nextStep.name(), botMessage, turn.getPromptVersion());
 
     // 6. 최종 응답 반환
     return ChatResponse.builder()
@@ -384,10 +615,28 @@ public class ChatService {
         .botMessage(botMessage)
         .isCompleted(nextStep == ChatStep.CHAT_END)
         .onboardingCompleted(session.getOnboardingCompleted())
-        .todayChatCount(todayChatCount)
+        .todayChatCount(turn.getTodayChatCount())
         .build();
   }
 
+  private UserMemoryService.SessionDigest sessionDigest(ChatTurnContext turn) {
+    ChatSession session = turn.getSession();
+    String emotions = parseEmotionsFromString(session.getTemporaryData("selectedEmotions")).stream()
+        .sorted()
+        .map(EmotionType::getName)
+        .collect(Collectors.joining(", "));
+    String outcome = switch (turn.getCurrentStep()) {
+      case EMOTION_SELECT -> "괜찮은 기분이라 바로 대화 종료";
+      case ACTION_OFFER -> "행동 제안 대신 혼자 진정하기를 선택";
+      case SKILL_CONFIRM -> "선택한 행동을 하지 않음";
+      case ACTION_FEEDBACK -> "행동 완료, 피드백: " + ChatResponseGenerator.feedbackLabel(turn.getUserResponse());
+      default -> null;
+    };
+    return new UserMemoryService.SessionDigest(session.getId(), turn.getReceivedAt().toLocalDate(),
+        emotions.isEmpty() ? null : emotions, session.getTemporaryData("userSituation"),
+        session.getTemporaryData("selectedSkillName"), outcome);
+  }
+
   @Transactional(readOnly = true)
   public List<ChatMessageDto> getRecentChatHistory(Long userId) {
     LocalDateTime cutoffTime = LocalDateTime.now().minusHours(24);
@@ -451,15 +700,6 @@ public class ChatService {
         .collect(Collectors.toSet());
   }
 
-  private String convertSkillsToJson() {
-    try {
-      return objectMapper.writeValueAsString(this.behavioralSkills);
-    } catch (JsonProcessingException e) {
-      log.error("Json 문자열 직렬화 실패", e);
-      return "[]"; // 오류 시 빈 배열 반환
-    }
-  }
-
   private boolean isPositiveOrSoSo(Set<EmotionType> emotions) {
     if (emotions.isEmpty()) {
       throw new IllegalArgumentException("감정을 선택해주세요.");
@@ -471,14 +711,14 @@ public class ChatService {
     );
   }
 
-  private void recordUserMessage(String sessionId, String step, String content) {
+  private void recordUserMessage(String sessionId, String step, String content, LocalDateTime sentAt) {
     ChatMessage message = ChatMessage.builder()
         .sessionId(sessionId)
         .senderType(SenderType.USER)
         .chatStep(step)
         .messageContent(content)
         .responseCode(content) // 선택/입력값 원본 저장
-        .sentAt(LocalDateTime.now())
+        .sentAt(sentAt)
         .build();
     chatMessageRepository.save(message);
   }
@@ -517,6 +757,10 @@ public class ChatService {
   }
 
   private void recordBotMessage(String sessionId, String step, ChatBotMessage botMessage) {
+    recordBotMessage(sessionId, step, botMessage, null);
+  }
+
+  private void recordBotMessage(String sessionId, String step, ChatBotMessage botMessage, String promptVersion) {
     String optionJson = null;
     if (botMessage.getOptions() != null && !botMessage.getOptions().isEmpty()) {
       try {
@@ -532,6 +776,7 @@ public class ChatService {
         .messageContent(botMessage.getContent())
         .messageType(botMessage.getType().toString())
         .optionsJson(optionJson)
+        .promptVersion(promptVersion)
         .sentAt(LocalDateTime.now())
         .build();
     chatMessageRepository.save(message);
@@ -591,15 +836,22 @@ public class ChatService {
 
     List<ChatSession> chatSessions = chatSessionRepository.findByUserId(userId);
     if (chatSessions.isEmpty()) {
-      log.info("삭제할 채팅 데이터가 없습니다 : userId={}", userId);
-      return;
+      log.info("삭제할 채팅 세션이 없습니다 : userId={}", userId);
+    } else {
+      List<String> sessionIds = chatSessions.stream()
+          .map(ChatSession::getId)
+          .collect(Collectors.toList());
+      chatMessageRepository.deleteBySessionIdIn(sessionIds);
+      log.info("{}개의 채팅 세션에 대한 메시지 삭제 완료", sessionIds.size());
+      chatSessionRepository.deleteByUserId(userId);
+      log.info("사용자의 모든 채팅 세션 삭제 완료: userId={}", userId);
     }
-    List<String> sessionIds = chatSessions.stream()
-        .map(ChatSession::getId)
-        .collect(Collectors.toList());
-    chatMessageRepository.deleteBySessionIdIn(sessionIds);
-    log.info("{}개의 채팅 세션에 대한 메시지 삭제 완료", sessionIds.size());
-    chatSessionRepository.deleteByUserId(userId);
-    log.info("사용자의 모든 채팅 세션 삭제 완료: userId={}", userId);
+
+    // 세션과 별도로 보관되는 유저 데이터 (기억 요약, 비동기 턴 응답, Idempotency-Key 응답, 일일 채팅 횟수)
+    userMemoryRepository.deleteById(userId);
+    chatTurnRepository.deleteByUserId(userId);
+    chatIdempotencyService.deleteByUserId(userId);
+    dailyChatCounter.deleteByUserId(userId);
+    log.info("사용자의 기억 요약, 턴 응답 기록 및 일일 채팅 횟수 삭제 완료: userId={}", userId);
   }
 }
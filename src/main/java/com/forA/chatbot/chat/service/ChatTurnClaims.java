@@ -0,0 +1,77 @@
+package com.forA.chatbot.chat.service;
+
+import com.forA.chatbot.apiPayload.code.status.ErrorStatus;
+import com.forA.chatbot.apiPayload.exception.handler.ChatHandler;
+import com.forA.chatbot.chat.domain.ChatTurn;
+import com.forA.chatbot.chat.repository.ChatTurnRepository;
+import java.time.LocalDateTime;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Component;
+
+/**
+ * 세션당 진행 중인 턴 하나만 허용하는 선점(claim)
+ * 동기/스트리밍/비동기 턴 모두 시작 전에 PENDING 턴 문서를 넣고, chat_turns 의 부분 유니크 인덱스로
+ * 같은 세션의 다른 턴이 세션 상태(단계, 임시 데이터)를 동시에 바꾸지 못하게 막음
+ */
+@Slf4j
+@Component
+public class ChatTurnClaims {
+
+  private final ChatTurnRepository chatTurnRepository;
+  private final MongoTemplate mongoTemplate;
+  private final long pendingTimeoutSeconds;
+
+  public ChatTurnClaims(ChatTurnRepository chatTurnRepository, MongoTemplate mongoTemplate,
+      // 이 시간보다 오래된 PENDING 턴은 서버 재시작 등으로 유실된 것으로 보고 새 턴을 막지 않음
+      @Value("${chat.turn.pending-timeout-seconds:120}") long pendingTimeoutSeconds) {
+    this.chatTurnRepository = chatTurnRepository;
+    this.mongoTemplate = mongoTemplate;
+    this.pendingTimeoutSeconds = pendingTimeoutSeconds;
+  }
+
+  /**
+   * 세션의 PENDING 턴을 선점. 이미 진행 중인 턴이 있으면 CHAT_TURN_IN_PROGRESS
+   */
+  public ChatTurn claim(Long userId, String sessionId) {
+    expireStalePendingTurns(sessionId);
+    try {
+      return chatTurnRepository.insert(ChatTurn.builder()
+          .sessionId(sessionId)
+          .userId(userId)
+          .status(ChatTurn.Status.PENDING)
+          .createdAt(LocalDateTime.now())
+          .build());
+    } catch (DuplicateKeyException e) {
+      log.info("같은 세션에 진행 중인 턴이 있어 거절: sessionId={}", sessionId);
+      throw new ChatHandler(ErrorStatus.CHAT_TURN_IN_PROGRESS);
+    }
+  }
+
+  /**
+   * 선점만 하고 결과를 남길 필요가 없는 턴(동기/스트리밍, 접수 실패한 비동기 턴)의 선점 해제
+   */
+  public void release(ChatTurn turn) {
+    if (turn != null && turn.getId() != null) {
+      chatTurnRepository.deleteById(turn.getId());
+    }
+  }
+
+  private void expireStalePendingTurns(String sessionId) {
+    LocalDateTime pendingSince = LocalDateTime.now().minusSeconds(pendingTimeoutSeconds);
+    mongoTemplate.updateMulti(
+        Query.query(Criteria.where("session_id").is(sessionId)
+            .and("status").is(ChatTurn.Status.PENDING)
+            .and("created_at").lt(pendingSince)),
+        Update.update("status", ChatTurn.Status.FAILED)
+            .set("error_code", ErrorStatus._INTERNAL_SERVER_ERROR.getCode())
+            .set("error_message", ErrorStatus._INTERNAL_SERVER_ERROR.getMessage())
+            .set("completed_at", LocalDateTime.now()),
+        ChatTurn.class);
+  }
+}
@@ -0,0 +1,34 @@
+package com.forA.chatbot.chat.service;
+
+import com.forA.chatbot.chat.domain.ChatSession;
+import com.forA.chatbot.chat.domain.enums.ChatStep;
+import com.forA.chatbot.chat.dto.ChatResponse.ChatBotMessage;
+import com.forA.chatbot.user.domain.User;
+import java.time.LocalDateTime;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.Setter;
+
+/**
+ * 대화 한 턴(유저 응답 → 봇 응답) 동안 단계 사이에 전달되는 상태
+ * 로드 단계에서 채우고, 계산 단계(트랜잭션 밖)에서 다음 단계와 봇 메시지를 정한 뒤, 커밋 단계에서 저장
+ */
+@Getter
+@Setter
+@RequiredArgsConstructor
+class ChatTurnContext {
+
+  private final ChatSession session;
+  private final User user;
+  private final ChatStep currentStep;
+  private final String userResponse;
+  private final LocalDateTime receivedAt; // 유저 메시지 기록 시각
+  private final int todayChatCount;
+
+  private ChatStep nextStep;
+  private ChatBotMessage botMessage;
+  private boolean userChanged; // 온보딩 단계에서 유저 정보가 바뀐 경우에만 저장
+  private boolean userMessageRecorded; // 비동기 턴은 접수 시점에 유저 메시지를 먼저 기록
+  private String promptVersion; // 봇 메시지 생성에 사용한 프롬프트 버전 (GPT 를 쓰지 않았으면 null)
+  private UserMemoryService.SessionDigest sessionDigest; // 이번 턴에 세션이 끝나면 유저 기억에 반영할 내용
+}
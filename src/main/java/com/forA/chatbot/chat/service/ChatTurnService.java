@@ -0,0 +1,288 @@
+package com.forA.chatbot.chat.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.forA.chatbot.apiPayload.ApiResponse;
+import com.forA.chatbot.apiPayload.code.ErrorReasonDTO;
+import com.forA.chatbot.apiPayload.code.status.ErrorStatus;
+import com.forA.chatbot.apiPayload.exception.GeneralException;
+import com.forA.chatbot.apiPayload.exception.handler.ChatHandler;
+import com.forA.chatbot.chat.domain.ChatTurn;
+import com.forA.chatbot.chat.dto.ChatRequest;
+import com.forA.chatbot.chat.dto.ChatResponse;
+import com.forA.chatbot.chat.dto.ChatResponse.ButtonOption;
+import com.forA.chatbot.chat.dto.ChatResponse.ChatBotMessage;
+import com.forA.chatbot.chat.dto.ChatResponse.MessageType;
+import com.forA.chatbot.chat.dto.ChatTurnResponse;
+import com.forA.chatbot.chat.repository.ChatTurnRepository;
+import com.forA.chatbot.notification.service.NotificationService;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+import org.springframework.web.context.request.async.DeferredResult;
+
+/**
+ * 비동기 대화 턴 처리
+ * - 접수: PENDING 턴을 선점(ChatTurnClaims, 세션당 하나)하고 유저 메시지를 기록한 뒤 워커 풀에 넣고 바로 반환
+ * - 처리: 워커에서 봇 응답을 생성해 턴을 COMPLETED/FAILED 로 갱신
+ * - 수신: 클라이언트는 롱폴링으로 결과를 기다리며, 기다리는 요청이 없으면(앱이 백그라운드) FCM 푸시 발송
+ *   웹/워커가 다른 인스턴스일 수 있으므로 롱폴링은 턴 문서를 주기적으로 조회해 완료를 확인
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ChatTurnService {
+
+  private static final String PENDING_MESSAGE = "모리가 답장을 쓰고 있어요...";
+  private static final int PUSH_PREVIEW_LENGTH = 40;
+
+  private final ChatService chatService;
+  private final ChatTurnRepository chatTurnRepository;
+  private final ChatTurnClaims chatTurnClaims;
+  private final MongoTemplate mongoTemplate;
+  private final NotificationService notificationService;
+  private final ThreadPoolTaskExecutor chatTurnExecutor;
+  private final ObjectMapper objectMapper;
+
+  // 이 인스턴스에서 결과를 기다리고 있는 롱폴링 요청 (turnId -> 요청들). 완료 여부는 pollWaitingTurns 가 턴 문서로 확인
+  private final Map<String, Set<DeferredResult<ApiResponse<ChatTurnResponse>>>> waiters = new ConcurrentHashMap<>();
+
+  // 비동기 턴은 기다리는 HTTP 요청이 없으므로 대화형 마감(chat.turn.deadline-ms)을 쓰지 않음 (0 이하이면 작업별 타임아웃만 적용)
+  @Value("${chat.turn.async-deadline-ms:0}")
+  private long asyncDeadlineMs;
+
+  /**
+   * [비동기 턴 접수]
+   */
+  public ChatTurnResponse submit(Long userId, String sessionId, ChatRequest request) {
+    // 세션당 PENDING 턴은 하나만 허용되므로, 동시에 들어온 턴 중 하나만 통과 (동기/스트리밍 턴과 공유)
+    ChatTurn turn = chatTurnClaims.claim(userId, sessionId);
+
+    ChatTurnContext context;
+    try {
+      context = chatService.beginTurn(userId, sessionId, request);
+    } catch (RuntimeException e) {
+      chatTurnClaims.release(turn);
+      throw e;
+    }
+
+    try {
+      chatTurnExecutor.execute(() -> process(turn, context));
+    } catch (TaskRejectedException e) {
+      log.warn("대화 턴 워커 큐 초과: sessionId={}, turnId={}", sessionId, turn.getId());
+      fail(turn, ErrorStatus.CHAT_TURN_QUEUE_FULL.getCode(), ErrorStatus.CHAT_TURN_QUEUE_FULL.getMessage());
+      throw new ChatHandler(ErrorStatus.CHAT_TURN_QUEUE_FULL);
+    }
+
+    return ChatTurnResponse.builder()
+        .turnId(turn.getId())
+        .status(ChatTurn.Status.PENDING.name())
+        .chatResponse(ChatResponse.builder()
+            .sessionId(sessionId)
+            .currentStep(context.getCurrentStep().name())
+            .botMessage(ChatBotMessage.builder()
+                .content(PENDING_MESSAGE)
+                .type(MessageType.PENDING)
+                .build())
+            .isCompleted(false)
+            .onboardingCompleted(context.getSession().getOnboardingCompleted())
+            .todayChatCount(context.getTodayChatCount())
+            .build())
+        .build();
+  }
+
+  /**
+   * [턴 결과 롱폴링]
+   * 이미 끝난 턴은 바로 반환하고, 처리 중이면 완료되거나 timeoutMs 가 지날 때까지 대기 (타임아웃 시 PENDING 반환)
+   */
+  public DeferredResult<ApiResponse<ChatTurnResponse>> await(Long userId, String turnId, long timeoutMs) {
+    ChatTurn turn = findOwnedTurn(userId, turnId);
+    DeferredResult<ApiResponse<ChatTurnResponse>> result = new DeferredResult<>(timeoutMs,
+        () -> ApiResponse.onSuccess(toResponse(findOwnedTurn(userId, turnId))));
+    if (turn.getStatus() != ChatTurn.Status.PENDING) {
+      result.setResult(ApiResponse.onSuccess(toResponse(turn)));
+      return result;
+    }
+
+    // 워커가 다른 인스턴스여도 기다리는 요청이 있음을 알 수 있도록 턴 문서에 표시
+    mongoTemplate.updateFirst(
+        Query.query(Criteria.where("_id").is(turnId).and("status").is(ChatTurn.Status.PENDING)),
+        Update.update("awaited_until", LocalDateTime.now().plusNanos(timeoutMs * 1_000_000)),
+        ChatTurn.class);
+    waiters.computeIfAbsent(turnId, id -> ConcurrentHashMap.newKeySet()).add(result);
+    result.onCompletion(() -> waiters.computeIfPresent(turnId, (id, set) -> {
+      set.remove(result);
+      return set.isEmpty() ? null : set;
+    }));
+    // 등록 직전에 완료된 경우를 놓치지 않도록 한 번 더 확인
+    ChatTurn latest = findOwnedTurn(userId, turnId);
+    if (latest.getStatus() != ChatTurn.Status.PENDING) {
+      result.setResult(ApiResponse.onSuccess(toResponse(latest)));
+    }
+    return result;
+  }
+
+  /**
+   * 이 인스턴스에서 기다리고 있는 턴들의 완료 여부를 턴 문서로 확인해 전달 (다른 인스턴스의 워커가 처리한 턴 포함)
+   */
+  @Scheduled(fixedDelayString = "${chat.turn.poll-interval-ms:500}")
+  public void pollWaitingTurns() {
+    if (waiters.isEmpty()) {
+      return;
+    }
+    for (ChatTurn turn : chatTurnRepository.findAllById(List.copyOf(waiters.keySet()))) {
+      if (turn.getStatus() != ChatTurn.Status.PENDING) {
+        notifyWaiters(turn);
+      }
+    }
+  }
+
+  private void process(ChatTurn turn, ChatTurnContext context) {
+    try {
+      ChatResponse response = chatService.completeTurn(context, null,
+          asyncDeadlineMs > 0 ? Duration.ofMillis(asyncDeadlineMs) : null);
+      complete(turn, response);
+    } catch (GeneralException e) {
+      ErrorReasonDTO reason = e.getErrorReasonHttpStatus();
+      fail(turn, reason.getCode(), reason.getMessage());
+    } catch (Exception e) {
+      log.error("비동기 대화 턴 처리 실패: turnId={}", turn.getId(), e);
+      fail(turn, ErrorStatus._INTERNAL_SERVER_ERROR.getCode(), ErrorStatus._INTERNAL_SERVER_ERROR.getMessage());
+    }
+  }
+
+  private void complete(ChatTurn turn, ChatResponse response) {
+    ChatBotMessage botMessage = response.getBotMessage();
+    turn.setStatus(ChatTurn.Status.COMPLETED);
+    turn.setCurrentStep(response.getCurrentStep());
+    turn.setBotMessageContent(botMessage.getContent());
+    turn.setBotMessageType(botMessage.getType().name());
+    turn.setOptionsJson(writeOptions(botMessage.getOptions()));
+    turn.setIsCompleted(response.getIsCompleted());
+    turn.setOnboardingCompleted(response.getOnboardingCompleted());
+    turn.setTodayChatCount(response.getTodayChatCount());
+    turn.setCompletedAt(LocalDateTime.now());
+    save(turn);
+
+    if (!notifyWaiters(turn) && !isAwaited(turn)) {
+      pushCompletion(turn.getUserId(), botMessage.getContent());
+    }
+  }
+
+  private void fail(ChatTurn turn, String code, String message) {
+    turn.setStatus(ChatTurn.Status.FAILED);
+    turn.setErrorCode(code);
+    turn.setErrorMessage(message);
+    turn.setCompletedAt(LocalDateTime.now());
+    save(turn);
+    notifyWaiters(turn);
+  }
+
+  /**
+   * 다른 인스턴스의 롱폴링이 남긴 awaited_until 을 덮어쓰지 않도록 최신 값을 이어받아 저장
+   */
+  private void save(ChatTurn turn) {
+    chatTurnRepository.findById(turn.getId())
+        .ifPresent(latest -> turn.setAwaitedUntil(latest.getAwaitedUntil()));
+    chatTurnRepository.save(turn);
+  }
+
+  private boolean isAwaited(ChatTurn turn) {
+    return turn.getAwaitedUntil() != null && turn.getAwaitedUntil().isAfter(LocalDateTime.now());
+  }
+
+  /**
+   * 기다리고 있는 롱폴링 요청에 결과 전달. 전달받은 요청이 하나라도 있으면 true
+   */
+  private boolean notifyWaiters(ChatTurn turn) {
+    Set<DeferredResult<ApiResponse<ChatTurnResponse>>> pending = waiters.remove(turn.getId());
+    if (pending == null) {
+      return false;
+    }
+    ApiResponse<ChatTurnResponse> body = ApiResponse.onSuccess(toResponse(turn));
+    boolean delivered = false;
+    for (DeferredResult<ApiResponse<ChatTurnResponse>> waiter : pending) {
+      delivered |= waiter.setResult(body);
+    }
+    return delivered;
+  }
+
+  private void pushCompletion(Long userId, String content) {
+    String preview = content != null && content.length() > PUSH_PREVIEW_LENGTH
+        ? content.substring(0, PUSH_PREVIEW_LENGTH) + "..."
+        : content;
+    try {
+      notificationService.sendChatTurnCompletedNotification(userId, preview);
+    } catch (Exception e) {
+      log.warn("대화 턴 완료 푸시 발송 실패: userId={}, error={}", userId, e.getMessage());
+    }
+  }
+
+  private ChatTurn findOwnedTurn(Long userId, String turnId) {
+    return chatTurnRepository.findById(turnId)
+        .filter(turn -> turn.getUserId().equals(userId))
+        .orElseThrow(() -> new ChatHandler(ErrorStatus.CHAT_TURN_NOT_FOUND));
+  }
+
+  private ChatTurnResponse toResponse(ChatTurn turn) {
+    ChatTurnResponse.ChatTurnResponseBuilder builder = ChatTurnResponse.builder()
+        .turnId(turn.getId())
+        .status(turn.getStatus().name());
+    if (turn.getStatus() == ChatTurn.Status.COMPLETED) {
+      builder.chatResponse(ChatResponse.builder()
+          .sessionId(turn.getSessionId())
+          .currentStep(turn.getCurrentStep())
+          .botMessage(ChatBotMessage.builder()
+              .content(turn.getBotMessageContent())
+              .type(MessageType.valueOf(turn.getBotMessageType()))
+              .options(readOptions(turn.getOptionsJson()))
+              .build())
+          .isCompleted(turn.getIsCompleted())
+          .onboardingCompleted(turn.getOnboardingCompleted())
+          .todayChatCount(turn.getTodayChatCount())
+          .build());
+    } else if (turn.getStatus() == ChatTurn.Status.FAILED) {
+      builder.errorCode(turn.getErrorCode()).errorMessage(turn.getErrorMessage());
+    }
+    return builder.build();
+  }
+
+  private String writeOptions(List<ButtonOption> options) {
+    if (options == null || options.isEmpty()) {
+      return null;
+    }
+    try {
+      return objectMapper.writeValueAsString(options);
+    } catch (JsonProcessingException e) {
+      log.error("Json 직렬화에 실패했습니다.", e);
+      return null;
+    }
+  }
+
+  private List<ButtonOption> readOptions(String optionsJson) {
+    if (optionsJson == null || optionsJson.isEmpty()) {
+      return null;
+    }
+    try {
+      return objectMapper.readValue(optionsJson, new TypeReference<List<ButtonOption>>() {});
+    } catch (JsonProcessingException e) {
+      log.error("Failed to deserialize options JSON: {}", optionsJson, e);
+      return null;
+    }
+  }
+}
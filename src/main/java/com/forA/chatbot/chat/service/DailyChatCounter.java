@@ -0,0 +1,122 @@
+package com.forA.chatbot.chat.service;
+
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+import static org.springframework.data.mongodb.core.query.Query.query;
+
+import com.forA.chatbot.apiPayload.code.status.ErrorStatus;
+import com.forA.chatbot.apiPayload.exception.handler.ChatHandler;
+import com.forA.chatbot.chat.domain.DailyChatCount;
+import com.forA.chatbot.chat.repository.ChatSessionRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+
+/**
+ * 유저별 오늘 채팅 세션 수 (daily_chat_counts)
+ * - 조회: 로컬 캐시 → _id 조회. 매 요청마다 chat_sessions 를 범위 count 하지 않음
+ * - 증가: 세션을 시작할 때 $inc 한 번. 한도(chat.daily-limit)가 켜져 있으면 "count < 한도" 조건을 같은 연산에 넣어
+ *   동시에 세션을 여러 개 열어도 한도를 넘지 않음
+ * 로컬 캐시는 표시용 값이라 다른 인스턴스의 증가가 늦게 보일 수 있지만, 한도 판정은 항상 Mongo 에서 함
+ */
+@Slf4j
+@Service
+public class DailyChatCounter {
+
+  private final MongoTemplate mongoTemplate;
+  private final ChatSessionRepository chatSessionRepository;
+  private final boolean limitEnabled;
+  private final int maxSessions;
+  private final Cache<String, Integer> counts;
+
+  public DailyChatCounter(MongoTemplate mongoTemplate, ChatSessionRepository chatSessionRepository,
+      @Value("${chat.daily-limit.enabled:false}") boolean limitEnabled,
+      @Value("${chat.daily-limit.max-sessions:3}") int maxSessions,
+      @Value("${chat.daily-count.cache-ttl-seconds:300}") long cacheTtlSeconds) {
+    this.mongoTemplate = mongoTemplate;
+    this.chatSessionRepository = chatSessionRepository;
+    this.limitEnabled = limitEnabled;
+    this.maxSessions = maxSessions;
+    this.counts = Caffeine.newBuilder()
+        .maximumSize(10_000)
+        .expireAfterWrite(Duration.ofSeconds(cacheTtlSeconds))
+        .build();
+  }
+
+  /** 오늘 시작한 세션 수 */
+  public int today(Long userId) {
+    LocalDate date = LocalDate.now();
+    return counts.get(DailyChatCount.idOf(userId, date), id -> load(id, userId, date));
+  }
+
+  /**
+   * 새 세션 시작을 기록하고 오늘 세션 수(이번 세션 포함)를 반환
+   * 한도가 켜져 있고 이미 한도만큼 시작했으면 CHAT_LIMIT_EXCEEDED
+   */
+  public int increment(Long userId) {
+    LocalDate date = LocalDate.now();
+    String id = DailyChatCount.idOf(userId, date);
+    counts.get(id, key -> load(key, userId, date)); // 카운터 문서가 있도록 보장 (한도 조건부 증가는 upsert 하지 않음)
+
+    Query query = query(where("_id").is(id));
+    if (limitEnabled) {
+      query.addCriteria(where("count").lt(maxSessions));
+    }
+    Update update = new Update().inc("count", 1)
+        .setOnInsert("user_id", userId)
+        .setOnInsert("date", date)
+        .setOnInsert("created_at", LocalDateTime.now());
+    DailyChatCount updated = mongoTemplate.findAndModify(query, update,
+        FindAndModifyOptions.options().upsert(!limitEnabled).returnNew(true), DailyChatCount.class);
+    if (updated == null) {
+      counts.put(id, maxSessions);
+      log.warn("일일 채팅 횟수 초과: userId={}, limit={}", userId, maxSessions);
+      throw new ChatHandler(ErrorStatus.CHAT_LIMIT_EXCEEDED);
+    }
+    counts.put(id, updated.getCount());
+    return updated.getCount();
+  }
+
+  /** 유저의 날짜별 카운터를 모두 삭제 (회원 탈퇴 시) */
+  public void deleteByUserId(Long userId) {
+    mongoTemplate.remove(query(where("user_id").is(userId)), DailyChatCount.class);
+    counts.invalidate(DailyChatCount.idOf(userId, LocalDate.now()));
+  }
+
+  /**
+   * 카운터 문서를 읽음. 없는 날(배포 당일 등)은 그날 시작된 세션 수로 한 번만 채움
+   * 동시에 채워도 $setOnInsert 라 먼저 만든 값이 유지됨
+   */
+  private int load(String id, Long userId, LocalDate date) {
+    DailyChatCount existing = mongoTemplate.findById(id, DailyChatCount.class);
+    if (existing != null) {
+      return existing.getCount();
+    }
+    long started = chatSessionRepository.countByUserIdAndStartedAtBetween(userId, date.atStartOfDay(),
+        date.atTime(LocalTime.MAX));
+    Update update = new Update()
+        .setOnInsert("user_id", userId)
+        .setOnInsert("date", date)
+        .setOnInsert("count", (int) started)
+        .setOnInsert("created_at", LocalDateTime.now());
+    try {
+      DailyChatCount seeded = mongoTemplate.findAndModify(query(where("_id").is(id)), update,
+          FindAndModifyOptions.options().upsert(true).returnNew(true), DailyChatCount.class);
+      return seeded == null ? (int) started : seeded.getCount();
+    } catch (DuplicateKeyException e) {
+      // 같은 _id 로 동시에 upsert 한 경우 한쪽만 성공하므로 다시 읽음
+      DailyChatCount created = mongoTemplate.findById(id, DailyChatCount.class);
+      return created == null ? (int) started : created.getCount();
+    }
+  }
+}
@@ -0,0 +1,153 @@
+package com.forA.chatbot.chat.service;
+
+import com.forA.chatbot.chat.domain.ChatMessage.SenderType;
+import com.forA.chatbot.chat.domain.ChatSession;
+import com.forA.chatbot.chat.domain.ChatSession.ContextMessage;
+import com.forA.chatbot.chat.llm.LlmTurnContext;
+import com.forA.chatbot.chat.llm.PromptBudgeter;
+import com.forA.chatbot.user.domain.User;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.AggregationUpdate;
+import org.springframework.data.mongodb.core.aggregation.ArrayOperators;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Service;
+
+/**
+ * 정해진 흐름(CHAT_END) 이후의 자유 대화
+ * - 컨텍스트 창: 최근 메시지 N개(토큰 상한 내)는 원문 그대로, 창 밖으로 밀려난 메시지는 세션 요약에 접어 넣음
+ * - 창과 요약은 ChatSession 에 함께 저장되므로 턴마다 chat_messages 를 다시 읽지 않음 (조립 비용은 창 크기에 비례)
+ * - 요약은 밀려난 메시지만 기존 요약에 더해 갱신하고, 토큰 상한으로 잘라 크기를 고정
+ * - 요약(GPT 호출)은 답변을 커밋한 뒤 백그라운드에서 하며, 그 사이 세션이 바뀌었으면 반영하지 않고 다음 턴에 다시 접음
+ */
+@Slf4j
+@Service
+public class FreeChatService {
+
+  private final ChatAiService chatAiService;
+  private final UserMemoryService userMemoryService;
+  private final PromptBudgeter promptBudgeter;
+  private final MongoTemplate mongoTemplate;
+  private final ExecutorService chatAiExecutor;
+  private final MeterRegistry meterRegistry;
+  private final int windowMessages;
+  private final int windowTokens;
+  private final int maxSummaryTokens;
+
+  public FreeChatService(ChatAiService chatAiService, UserMemoryService userMemoryService,
+      PromptBudgeter promptBudgeter, MongoTemplate mongoTemplate, ExecutorService chatAiExecutor,
+      MeterRegistry meterRegistry,
+      @Value("${chat.free-chat.window-messages:8}") int windowMessages,
+      @Value("${chat.free-chat.window-tokens:1200}") int windowTokens,
+      @Value("${chat.free-chat.max-summary-tokens:300}") int maxSummaryTokens) {
+    this.chatAiService = chatAiService;
+    this.userMemoryService = userMemoryService;
+    this.promptBudgeter = promptBudgeter;
+    this.mongoTemplate = mongoTemplate;
+    this.chatAiExecutor = chatAiExecutor;
+    this.meterRegistry = meterRegistry;
+    this.windowMessages = windowMessages;
+    this.windowTokens = windowTokens;
+    this.maxSummaryTokens = maxSummaryTokens;
+  }
+
+  /**
+   * 유저 메시지에 답하고, 이번 두 메시지를 창에 더함
+   * 세션의 창만 바꾸며 저장은 호출 측(커밋 단계)에서 함. 창 정리는 커밋 후 compactAsync 로
+   */
+  public String reply(ChatSession session, User user, String message, Consumer<String> onToken) {
+    List<ContextMessage> window = session.getFreeChatWindow() == null
+        ? new ArrayList<>()
+        : new ArrayList<>(session.getFreeChatWindow());
+    String reply = chatAiService.generateFreeChatReply(userMemoryService.summaryFor(user.getId()),
+        session.getFreeChatSummary(), render(window), message, onToken);
+
+    window.add(new ContextMessage(SenderType.USER, message));
+    window.add(new ContextMessage(SenderType.BOT, reply));
+    session.setFreeChatWindow(window);
+    return reply;
+  }
+
+  /**
+   * 커밋된 세션의 창이 상한을 넘었으면 백그라운드에서 밀려난 메시지를 요약에 접음
+   */
+  public void compactAsync(Long userId, ChatSession session) {
+    List<ContextMessage> window = session.getFreeChatWindow() == null
+        ? List.of()
+        : List.copyOf(session.getFreeChatWindow());
+    String summary = session.getFreeChatSummary();
+    int evictCount = evictCount(window);
+    if (evictCount == 0) {
+      return;
+    }
+    chatAiExecutor.execute(() -> {
+      try (LlmTurnContext.Scope ignored = LlmTurnContext.open(userId)) {
+        compact(session.getId(), summary, window.subList(0, evictCount));
+      } catch (Exception e) {
+        log.error("자유 대화 창 정리 실패: sessionId={}", session.getId(), e);
+        record("error");
+      }
+    });
+  }
+
+  /**
+   * 창이 메시지 수/토큰 상한을 넘을 때 앞에서부터 빼야 할 메시지 수 (방금 주고받은 두 메시지는 항상 남김)
+   */
+  int evictCount(List<ContextMessage> window) {
+    int size = window.size();
+    int tokens = window.stream().mapToInt(m -> promptBudgeter.countTokens(m.getContent())).sum();
+    int count = 0;
+    while (size - count > 2 && (size - count > windowMessages || tokens > windowTokens)) {
+      tokens -= promptBudgeter.countTokens(window.get(count).getContent());
+      count++;
+    }
+    return count;
+  }
+
+  /**
+   * 밀려난 메시지를 기존 요약에 접고, 창 앞에서 그만큼 뺌
+   * 요약이 읽은 시점 그대로일 때만 반영 (다른 정리가 먼저 끝났으면 밀려난 메시지는 창에 남아 다음 정리에서 접힘)
+   */
+  void compact(String sessionId, String previous, List<ContextMessage> evicted) {
+    String turns = render(evicted);
+    String summary = chatAiService.generateConversationSummary(previous, turns);
+    String result = "summarized";
+    if (summary == null || summary.isBlank()) {
+      summary = previous == null || previous.isBlank() ? turns : previous + "\n" + turns;
+      result = "fallback";
+    }
+
+    Query query = Query.query(Criteria.where("_id").is(sessionId).and("free_chat_summary").is(previous));
+    AggregationUpdate update = AggregationUpdate.update()
+        .set("free_chat_window").toValue(ArrayOperators.Slice.sliceArrayOf("free_chat_window")
+            .offset(evicted.size()).itemCount(Integer.MAX_VALUE))
+        .set("free_chat_summary").toValue(promptBudgeter.fit(summary, maxSummaryTokens));
+    if (mongoTemplate.updateFirst(query, update, ChatSession.class).getModifiedCount() == 0) {
+      result = "conflict";
+    }
+    log.info("자유 대화 창 정리: sessionId={}, evicted={}, result={}", sessionId, evicted.size(), result);
+    record(result);
+  }
+
+  private void record(String result) {
+    Counter.builder("chat.free_chat.compactions")
+        .tag("result", result)
+        .register(meterRegistry)
+        .increment();
+  }
+
+  static String render(List<ContextMessage> messages) {
+    return messages.stream()
+        .map(m -> (m.getSenderType() == SenderType.USER ? "사용자: " : "모리: ") + m.getContent())
+        .collect(Collectors.joining("\n"));
+  }
+}
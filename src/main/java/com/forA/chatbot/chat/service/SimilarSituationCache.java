@@ -0,0 +1,212 @@
+package com.forA.chatbot.chat.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.text.Normalizer;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * 사용자 상황 문장이 거의 같은(near-duplicate) 요청에 대해 GPT 결과를 재사용하는 유사도 캐시
+ * - 한국어 문장을 정규화한 뒤 문자 3-gram shingle 로 분해
+ * - MinHash 서명을 LSH 밴드로 나눠 후보를 찾고, 실제 Jaccard 유사도가 임계값 이상일 때만 재사용
+ * - 같은 작업(operation) + 같은 감정 조합 안에서만 재사용하며, 개인 프로필을 쓰는 생성(공감 문장 등)에는 사용하지 않음
+ * - 항목 수 상한과 TTL 이 있는 Caffeine 캐시에 저장
+ */
+@Slf4j
+@Component
+public class SimilarSituationCache {
+
+  private static final int SHINGLE_SIZE = 3;
+  private static final int BANDS = 16;
+  private static final int ROWS_PER_BAND = 4;
+  private static final int NUM_HASHES = BANDS * ROWS_PER_BAND;
+  private static final long[] SEEDS = new Random(20240611L).longs(NUM_HASHES).toArray();
+
+  private final boolean enabled;
+  private final double threshold;
+  private final MeterRegistry meterRegistry;
+  private final Cache<Long, Entry> entries;
+  private final Map<String, Set<Long>> buckets = new ConcurrentHashMap<>();
+  private final AtomicLong idSequence = new AtomicLong();
+
+  public SimilarSituationCache(
+      MeterRegistry meterRegistry,
+      @Value("${chat.ai.similarity-cache.enabled:true}") boolean enabled,
+      @Value("${chat.ai.similarity-cache.threshold:0.8}") double threshold,
+      @Value("${chat.ai.similarity-cache.max-entries:5000}") long maxEntries,
+      @Value("${chat.ai.similarity-cache.ttl-minutes:360}") long ttlMinutes) {
+    this.meterRegistry = meterRegistry;
+    this.enabled = enabled;
+    this.threshold = threshold;
+    this.entries = Caffeine.newBuilder()
+        .maximumSize(maxEntries)
+        .expireAfterWrite(Duration.ofMinutes(ttlMinutes))
+        .removalListener((Long id, Entry entry, RemovalCause cause) -> {
+          if (entry != null) {
+            unindex(id, entry);
+          }
+        })
+        .build();
+    meterRegistry.gauge("chat.ai.similarity_cache.size", entries, cache -> cache.estimatedSize());
+  }
+
+  /**
+   * 유사한 상황에 대해 저장된 결과 조회 (가장 유사도가 높은 항목)
+   */
+  @SuppressWarnings("unchecked")
+  public <T> Optional<T> lookup(String operation, String situation, String emotionKey) {
+    if (!enabled || situation == null || situation.isBlank()) {
+      return Optional.empty();
+    }
+    Set<String> shingles = shingles(situation);
+    long[] signature = signature(shingles);
+
+    Entry best = null;
+    double bestSimilarity = 0;
+    Set<Long> seen = new HashSet<>();
+    for (String bandKey : bandKeys(operation, emotionKey, signature)) {
+      Set<Long> ids = buckets.get(bandKey);
+      if (ids == null) {
+        continue;
+      }
+      for (Long id : ids) {
+        if (!seen.add(id)) {
+          continue;
+        }
+        Entry entry = entries.getIfPresent(id);
+        if (entry == null) {
+          continue;
+        }
+        double similarity = jaccard(shingles, entry.shingles());
+        if (similarity >= threshold && similarity > bestSimilarity) {
+          best = entry;
+          bestSimilarity = similarity;
+        }
+      }
+    }
+
+    if (best == null) {
+      counter(operation, "miss").increment();
+      return Optional.empty();
+    }
+    counter(operation, "hit").increment();
+    log.info("유사 상황 캐시 적중: operation={}, similarity={}", operation, String.format("%.2f", bestSimilarity));
+    return Optional.of((T) best.value());
+  }
+
+  public void put(String operation, String situation, String emotionKey, Object value) {
+    if (!enabled || situation == null || situation.isBlank() || value == null) {
+      return;
+    }
+    Set<String> shingles = shingles(situation);
+    List<String> keys = bandKeys(operation, emotionKey, signature(shingles));
+    long id = idSequence.incrementAndGet();
+    Entry entry = new Entry(shingles, keys, value);
+    keys.forEach(key -> buckets.computeIfAbsent(key, k -> ConcurrentHashMap.newKeySet()).add(id));
+    entries.put(id, entry);
+  }
+
+  private void unindex(Long id, Entry entry) {
+    for (String key : entry.bandKeys()) {
+      buckets.computeIfPresent(key, (k, ids) -> {
+        ids.remove(id);
+        return ids.isEmpty() ? null : ids;
+      });
+    }
+  }
+
+  private Counter counter(String operation, String result) {
+    return Counter.builder("chat.ai.similarity_cache.requests")
+        .tag("operation", operation)
+        .tag("result", result)
+        .register(meterRegistry);
+  }
+
+  /**
+   * 유니코드 정규화(NFKC) 후 소문자화하고, 띄어쓰기/문장부호/이모지를 제거
+   * 한국어는 띄어쓰기가 사람마다 달라 공백까지 제거한 문자열로 비교
+   */
+  static String normalize(String text) {
+    return Normalizer.normalize(text, Normalizer.Form.NFKC)
+        .toLowerCase()
+        .replaceAll("[^\\p{L}\\p{N}]+", "");
+  }
+
+  static Set<String> shingles(String text) {
+    String normalized = normalize(text);
+    Set<String> shingles = new HashSet<>();
+    if (normalized.length() <= SHINGLE_SIZE) {
+      shingles.add(normalized);
+      return shingles;
+    }
+    for (int i = 0; i + SHINGLE_SIZE <= normalized.length(); i++) {
+      shingles.add(normalized.substring(i, i + SHINGLE_SIZE));
+    }
+    return shingles;
+  }
+
+  static double jaccard(Set<String> a, Set<String> b) {
+    if (a.isEmpty() && b.isEmpty()) {
+      return 1.0;
+    }
+    int intersection = 0;
+    for (String shingle : a) {
+      if (b.contains(shingle)) {
+        intersection++;
+      }
+    }
+    return (double) intersection / (a.size() + b.size() - intersection);
+  }
+
+  private static long[] signature(Set<String> shingles) {
+    long[] signature = new long[NUM_HASHES];
+    Arrays.fill(signature, Long.MAX_VALUE);
+    for (String shingle : shingles) {
+      long base = shingle.hashCode();
+      for (int i = 0; i < NUM_HASHES; i++) {
+        long hash = mix(base ^ SEEDS[i]);
+        if (hash < signature[i]) {
+          signature[i] = hash;
+        }
+      }
+    }
+    return signature;
+  }
+
+  private static List<String> bandKeys(String operation, String emotionKey, long[] signature) {
+    List<String> keys = new ArrayList<>(BANDS);
+    for (int band = 0; band < BANDS; band++) {
+      long bandHash = 1125899906842597L;
+      for (int row = 0; row < ROWS_PER_BAND; row++) {
+        bandHash = 31 * bandHash + signature[band * ROWS_PER_BAND + row];
+      }
+      keys.add(operation + "|" + emotionKey + "|" + band + "|" + Long.toHexString(bandHash));
+    }
+    return keys;
+  }
+
+  // SplitMix64 finalizer
+  private static long mix(long z) {
+    z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+    z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+    return z ^ (z >>> 31);
+  }
+
+  private record Entry(Set<String> shingles, List<String> bandKeys, Object value) {}
+}
@@ -0,0 +1,299 @@
+package com.forA.chatbot.chat.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.forA.chatbot.user.domain.enums.DisorderType;
+import com.forA.chatbot.user.domain.enums.SymptomType;
+import jakarta.annotation.PostConstruct;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationContext;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.core.io.Resource;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.util.DigestUtils;
+
+/**
+ * 행동 스킬 카탈로그 (behavioral-skills.json)
+ * - 불변 스냅샷: chunk_id 해시 인덱스, 감정/상황 태그 역인덱스, BM25 검색 인덱스, 스킬별 직렬화 JSON
+ * - situation_tags 는 SymptomType 설명과 같은 문장이므로, 증상/질환 → 스킬 맵을 미리 계산해
+ *   온보딩 프로필만으로 GPT 호출 없이 개인화 후보를 뽑을 수 있음
+ * - chat.skill.catalog.location 을 주기적으로 다시 읽고, 내용 해시가 바뀐 경우에만 스냅샷을 통째로 교체
+ *   (file: 경로를 지정하면 재시작 없이 카탈로그 변경 가능)
+ * 교체 시 ChangedEvent 를 발행해 상세 행동 캐시 등이 새 카탈로그 기준으로 다시 채워지도록 함
+ */
+@Slf4j
+@Component
+class SkillCatalog {
+
+  private final ApplicationContext applicationContext;
+  private final ApplicationEventPublisher eventPublisher;
+  private final ObjectMapper objectMapper;
+  private final String location;
+  private final AtomicReference<Snapshot> snapshot = new AtomicReference<>(Snapshot.EMPTY);
+
+  SkillCatalog(ApplicationContext applicationContext, ApplicationEventPublisher eventPublisher,
+      ObjectMapper objectMapper,
+      @Value("${chat.skill.catalog.location:classpath:behavioral-skills.json}") String location) {
+    this.applicationContext = applicationContext;
+    this.eventPublisher = eventPublisher;
+    this.objectMapper = objectMapper;
+    this.location = location;
+  }
+
+  @PostConstruct
+  void load() {
+    reload();
+  }
+
+  Snapshot current() {
+    return snapshot.get();
+  }
+
+  @Scheduled(fixedDelayString = "${chat.skill.catalog.reload-interval-ms:60000}",
+      initialDelayString = "${chat.skill.catalog.reload-interval-ms:60000}")
+  public void reloadIfChanged() {
+    reload();
+  }
+
+  /**
+   * 카탈로그를 다시 읽어 내용이 바뀌었으면 교체
+   * @return 교체 여부
+   */
+  boolean reload() {
+    byte[] content;
+    try {
+      content = read();
+    } catch (IOException e) {
+      log.error("Failed to read behavioral skills catalog: {}", location, e);
+      return false;
+    }
+    String hash = DigestUtils.md5DigestAsHex(content);
+    Snapshot previous = snapshot.get();
+    if (hash.equals(previous.getHash())) {
+      return false;
+    }
+    Snapshot next;
+    try {
+      List<BehavioralSkill> skills = objectMapper.readValue(content, new TypeReference<List<BehavioralSkill>>() {});
+      next = Snapshot.build(hash, skills, this::toJson);
+    } catch (IOException | RuntimeException e) {
+      // 잘못된 카탈로그는 반영하지 않고 이전 스냅샷 유지
+      log.error("Failed to load behavioral skills from JSON: {}", location, e);
+      return false;
+    }
+    if (!snapshot.compareAndSet(previous, next)) {
+      return false; // 다른 스레드가 먼저 교체
+    }
+    log.info("Loaded {} behavioral skills from JSON. (catalogHash={} -> {})",
+        next.size(), previous.getHash(), hash);
+    eventPublisher.publishEvent(new ChangedEvent(hash));
+    return true;
+  }
+
+  private byte[] read() throws IOException {
+    Resource resource = applicationContext.getResource(location);
+    try (InputStream inputStream = resource.getInputStream()) {
+      return inputStream.readAllBytes();
+    }
+  }
+
+  private String toJson(BehavioralSkill skill) {
+    try {
+      return objectMapper.writeValueAsString(skill);
+    } catch (JsonProcessingException e) {
+      throw new IllegalStateException("스킬 JSON 직렬화 실패: " + skill.chunk_id(), e);
+    }
+  }
+
+  /** 카탈로그 스냅샷이 교체되었음을 알림 */
+  record ChangedEvent(String catalogHash) {}
+
+  /**
+   * 카탈로그 한 버전의 불변 스냅샷. 요청 처리 중에는 한 번 꺼낸 스냅샷만 사용
+   */
+  static final class Snapshot {
+
+    static final Snapshot EMPTY = new Snapshot("empty", List.of(), Map.of(), Map.of(), Map.of(), Map.of());
+
+    // 같은 증상 수로 매칭되면 질환 매칭 수로, 그것도 같으면 카탈로그 순서로 정렬
+    private static final Comparator<Map.Entry<BehavioralSkill, int[]>> PROFILE_RANK =
+        Comparator.<Map.Entry<BehavioralSkill, int[]>>comparingInt(entry -> -entry.getValue()[0])
+            .thenComparingInt(entry -> -entry.getValue()[1]);
+
+    private final String hash;
+    private final List<BehavioralSkill> skills;
+    private final Map<String, BehavioralSkill> byChunkId;
+    private final Map<String, List<BehavioralSkill>> byEmotionTag;
+    private final Map<String, List<BehavioralSkill>> bySituationTag;
+    private final Map<String, String> jsonByChunkId;
+    private final Map<SymptomType, List<BehavioralSkill>> bySymptom;
+    private final Map<DisorderType, Map<BehavioralSkill, Integer>> disorderCoverage;
+    private final Map<DisorderType, List<BehavioralSkill>> byDisorder;
+    private final SkillRetrievalIndex retrievalIndex;
+
+    private Snapshot(String hash, List<BehavioralSkill> skills, Map<String, BehavioralSkill> byChunkId,
+        Map<String, List<BehavioralSkill>> byEmotionTag, Map<String, List<BehavioralSkill>> bySituationTag,
+        Map<String, String> jsonByChunkId) {
+      this.hash = hash;
+      this.skills = skills;
+      this.byChunkId = byChunkId;
+      this.byEmotionTag = byEmotionTag;
+      this.bySituationTag = bySituationTag;
+      this.jsonByChunkId = jsonByChunkId;
+      this.bySymptom = symptomIndex(bySituationTag);
+      this.disorderCoverage = disorderCoverage(bySymptom);
+      this.byDisorder = disorderIndex(skills, disorderCoverage);
+      this.retrievalIndex = SkillRetrievalIndex.build(skills);
+    }
+
+    static Snapshot build(String hash, List<BehavioralSkill> skills, Function<BehavioralSkill, String> serializer) {
+      Map<String, BehavioralSkill> byChunkId = new LinkedHashMap<>();
+      Map<String, String> jsonByChunkId = new LinkedHashMap<>();
+      for (BehavioralSkill skill : skills) {
+        if (byChunkId.putIfAbsent(skill.chunk_id(), skill) != null) {
+          throw new IllegalArgumentException("중복된 chunk_id: " + skill.chunk_id());
+        }
+        jsonByChunkId.put(skill.chunk_id(), serializer.apply(skill));
+      }
+      return new Snapshot(hash, List.copyOf(skills), Collections.unmodifiableMap(byChunkId),
+          invert(skills, BehavioralSkill::emotion_tags), invert(skills, BehavioralSkill::situation_tags),
+          Collections.unmodifiableMap(jsonByChunkId));
+    }
+
+    private static Map<String, List<BehavioralSkill>> invert(List<BehavioralSkill> skills,
+        Function<BehavioralSkill, List<String>> tags) {
+      Map<String, List<BehavioralSkill>> index = new LinkedHashMap<>();
+      for (BehavioralSkill skill : skills) {
+        List<String> skillTags = tags.apply(skill);
+        if (skillTags != null) {
+          skillTags.forEach(tag -> index.computeIfAbsent(tag, t -> new ArrayList<>()).add(skill));
+        }
+      }
+      return index.entrySet().stream()
+          .collect(Collectors.toUnmodifiableMap(Map.Entry::getKey, entry -> List.copyOf(entry.getValue())));
+    }
+
+    /** 증상 설명과 같은 situation_tag 를 가진 스킬 (카탈로그 순서) */
+    private static Map<SymptomType, List<BehavioralSkill>> symptomIndex(
+        Map<String, List<BehavioralSkill>> bySituationTag) {
+      Map<SymptomType, List<BehavioralSkill>> index = new EnumMap<>(SymptomType.class);
+      for (SymptomType symptom : SymptomType.values()) {
+        List<BehavioralSkill> matched = bySituationTag.get(symptom.getDescription());
+        if (matched != null) {
+          index.put(symptom, matched);
+        }
+      }
+      return Collections.unmodifiableMap(index);
+    }
+
+    /** 질환별로 스킬이 그 질환의 증상 몇 개와 겹치는지 */
+    private static Map<DisorderType, Map<BehavioralSkill, Integer>> disorderCoverage(
+        Map<SymptomType, List<BehavioralSkill>> bySymptom) {
+      Map<DisorderType, Map<BehavioralSkill, Integer>> coverage = new EnumMap<>(DisorderType.class);
+      bySymptom.forEach((symptom, matched) -> matched.forEach(skill ->
+          coverage.computeIfAbsent(symptom.getDisorderType(), d -> new HashMap<>()).merge(skill, 1, Integer::sum)));
+      coverage.replaceAll((disorder, counts) -> Map.copyOf(counts));
+      return Collections.unmodifiableMap(coverage);
+    }
+
+    /** 질환에 속한 증상과 많이 겹치는 스킬 순 (같으면 카탈로그 순서) */
+    private static Map<DisorderType, List<BehavioralSkill>> disorderIndex(List<BehavioralSkill> skills,
+        Map<DisorderType, Map<BehavioralSkill, Integer>> coverage) {
+      Map<DisorderType, List<BehavioralSkill>> index = new EnumMap<>(DisorderType.class);
+      coverage.forEach((disorder, counts) -> index.put(disorder, skills.stream()
+          .filter(counts::containsKey)
+          .sorted(Comparator.comparingInt((BehavioralSkill skill) -> -counts.get(skill)))
+          .toList()));
+      return Collections.unmodifiableMap(index);
+    }
+
+    String getHash() {
+      return hash;
+    }
+
+    List<BehavioralSkill> getSkills() {
+      return skills;
+    }
+
+    int size() {
+      return skills.size();
+    }
+
+    Optional<BehavioralSkill> find(String chunkId) {
+      return chunkId == null ? Optional.empty() : Optional.ofNullable(byChunkId.get(chunkId));
+    }
+
+    List<BehavioralSkill> findByEmotionTag(String tag) {
+      return byEmotionTag.getOrDefault(tag, List.of());
+    }
+
+    List<BehavioralSkill> findBySituationTag(String tag) {
+      return bySituationTag.getOrDefault(tag, List.of());
+    }
+
+    List<BehavioralSkill> findBySymptom(SymptomType symptom) {
+      return bySymptom.getOrDefault(symptom, List.of());
+    }
+
+    List<BehavioralSkill> findByDisorder(DisorderType disorder) {
+      return byDisorder.getOrDefault(disorder, List.of());
+    }
+
+    /**
+     * 온보딩 때 고른 증상/질환과 겹치는 스킬 상위 limit 개 (GPT 호출 없음)
+     * 선택한 증상과 직접 겹치는 스킬이 먼저 오고, 같은 질환의 다른 증상에 해당하는 스킬이 뒤따름
+     */
+    List<BehavioralSkill> shortlist(Collection<SymptomType> symptoms, Collection<DisorderType> disorders,
+        int limit) {
+      if (limit <= 0) {
+        return List.of();
+      }
+      // 스킬별 [선택 증상 매칭 수, 선택 질환의 증상 매칭 수], 카탈로그 순서 유지
+      Map<BehavioralSkill, int[]> hits = new LinkedHashMap<>();
+      skills.forEach(skill -> hits.put(skill, new int[2]));
+      if (symptoms != null) {
+        symptoms.forEach(symptom -> findBySymptom(symptom).forEach(skill -> hits.get(skill)[0]++));
+      }
+      if (disorders != null) {
+        disorders.forEach(disorder -> disorderCoverage.getOrDefault(disorder, Map.of())
+            .forEach((skill, count) -> hits.get(skill)[1] += count));
+      }
+      return hits.entrySet().stream()
+          .filter(entry -> entry.getValue()[0] > 0 || entry.getValue()[1] > 0)
+          .sorted(PROFILE_RANK)
+          .limit(limit)
+          .map(Map.Entry::getKey)
+          .toList();
+    }
+
+    /** 상황 + 감정과 관련 있는 상위 topK 후보 (BM25) */
+    List<BehavioralSkill> search(String userSituation, Collection<String> emotionNames, int topK) {
+      return retrievalIndex.search(userSituation, emotionNames, topK);
+    }
+
+    /** 미리 직렬화해 둔 스킬 JSON 을 이어 붙여 배열 JSON 생성 (ObjectMapper 로 목록을 직렬화한 결과와 동일) */
+    String toJson(List<BehavioralSkill> skills) {
+      return skills.stream()
+          .map(skill -> jsonByChunkId.get(skill.chunk_id()))
+          .collect(Collectors.joining(",", "[", "]"));
+    }
+  }
+}
@@ -0,0 +1,139 @@
+package com.forA.chatbot.chat.service;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.IntStream;
+
+/**
+ * behavioral-skills.json 에 대한 인메모리 BM25 검색 인덱스
+ * 한국어는 형태소 분석 없이도 잘 동작하도록 문자 bigram 단위로 색인하며,
+ * 색인 대상은 situation_tags, emotion_tags, skill_name, description
+ * 스킬 추천 프롬프트에 전체 목록 대신 상위 k개 후보만 넣기 위해 사용
+ */
+class SkillRetrievalIndex {
+
+  private static final double K1 = 1.2;
+  private static final double B = 0.75;
+  // 감정 태그는 사용자가 직접 고른 값과 정확히 일치하므로 가중치를 더 줌
+  private static final int EMOTION_TAG_WEIGHT = 2;
+
+  private final List<BehavioralSkill> skills;
+  private final List<Map<String, Integer>> termFrequencies;
+  private final int[] documentLengths;
+  private final Map<String, Double> idf;
+  private final double averageLength;
+
+  private SkillRetrievalIndex(List<BehavioralSkill> skills) {
+    this.skills = List.copyOf(skills);
+    this.termFrequencies = new ArrayList<>(skills.size());
+    this.documentLengths = new int[skills.size()];
+
+    Map<String, Integer> documentFrequencies = new HashMap<>();
+    long totalLength = 0;
+    for (int i = 0; i < skills.size(); i++) {
+      List<String> terms = documentTerms(skills.get(i));
+      Map<String, Integer> tf = new HashMap<>();
+      terms.forEach(term -> tf.merge(term, 1, Integer::sum));
+      tf.keySet().forEach(term -> documentFrequencies.merge(term, 1, Integer::sum));
+      termFrequencies.add(tf);
+      documentLengths[i] = terms.size();
+      totalLength += terms.size();
+    }
+    this.averageLength = skills.isEmpty() ? 0 : (double) totalLength / skills.size();
+
+    int n = skills.size();
+    this.idf = new HashMap<>();
+    documentFrequencies.forEach((term, df) ->
+        idf.put(term, Math.log(1 + (n - df + 0.5) / (df + 0.5))));
+  }
+
+  static SkillRetrievalIndex build(List<BehavioralSkill> skills) {
+    return new SkillRetrievalIndex(skills);
+  }
+
+  int size() {
+    return skills.size();
+  }
+
+  /**
+   * 사용자 상황 + 선택 감정과 가장 관련 있는 스킬 상위 topK개를 반환
+   * 점수가 같으면 카탈로그 순서를 유지하며, topK 가 전체 개수 이상이면 전체 목록을 반환
+   */
+  List<BehavioralSkill> search(String userSituation, Collection<String> emotionNames, int topK) {
+    if (topK <= 0 || topK >= skills.size()) {
+      return skills;
+    }
+    List<String> queryTerms = new ArrayList<>(tokenize(userSituation));
+    if (emotionNames != null) {
+      emotionNames.forEach(name -> queryTerms.addAll(tokenize(name)));
+    }
+
+    double[] scores = new double[skills.size()];
+    for (String term : queryTerms) {
+      Double termIdf = idf.get(term);
+      if (termIdf == null) {
+        continue;
+      }
+      for (int i = 0; i < skills.size(); i++) {
+        Integer tf = termFrequencies.get(i).get(term);
+        if (tf == null) {
+          continue;
+        }
+        double norm = K1 * (1 - B + B * documentLengths[i] / averageLength);
+        scores[i] += termIdf * (tf * (K1 + 1)) / (tf + norm);
+      }
+    }
+
+    return IntStream.range(0, skills.size())
+        .boxed()
+        .sorted(Comparator.comparingDouble((Integer i) -> scores[i]).reversed()
+            .thenComparingInt(i -> i))
+        .limit(topK)
+        .map(skills::get)
+        .toList();
+  }
+
+  private static List<String> documentTerms(BehavioralSkill skill) {
+    List<String> terms = new ArrayList<>();
+    if (skill.situation_tags() != null) {
+      skill.situation_tags().forEach(tag -> terms.addAll(tokenize(tag)));
+    }
+    if (skill.emotion_tags() != null) {
+      for (int w = 0; w < EMOTION_TAG_WEIGHT; w++) {
+        skill.emotion_tags().forEach(tag -> terms.addAll(tokenize(tag)));
+      }
+    }
+    terms.addAll(tokenize(skill.skill_name()));
+    terms.addAll(tokenize(skill.description()));
+    return terms;
+  }
+
+  /**
+   * 문자/숫자 이외의 기호(이모지, 문장부호)를 제거하고, 어절마다 문자 bigram 으로 분해
+   * 한 글자 어절은 그대로 하나의 토큰으로 사용
+   */
+  static List<String> tokenize(String text) {
+    List<String> tokens = new ArrayList<>();
+    if (text == null || text.isBlank()) {
+      return tokens;
+    }
+    String normalized = text.toLowerCase().replaceAll("[^\\p{L}\\p{N}]+", " ").trim();
+    if (normalized.isEmpty()) {
+      return tokens;
+    }
+    for (String word : normalized.split(" ")) {
+      if (word.length() == 1) {
+        tokens.add(word);
+        continue;
+      }
+      for (int i = 0; i + 2 <= word.length(); i++) {
+        tokens.add(word.substring(i, i + 2));
+      }
+    }
+    return tokens;
+  }
+}
@@ -0,0 +1,114 @@
+package com.forA.chatbot.chat.service;
+
+import com.forA.chatbot.chat.domain.SkillDetailedSteps;
+import com.forA.chatbot.chat.repository.SkillDetailedStepsRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicBoolean;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+/**
+ * 스킬별 상세 행동(generateDetailedSkillSteps) 2단 캐시
+ * 1단: 로컬 Caffeine, 2단: MongoDB(skill_detailed_steps)
+ * 상세 행동은 스킬 정보에만 의존하므로 key 는 카탈로그 해시 + chunk_id
+ * 이전 카탈로그의 Mongo 항목은 지우지 않고 TTL 인덱스로 만료시킴 (롤링 배포 중 카탈로그가 다른 인스턴스가
+ * 서로의 항목을 지우고 GPT 를 다시 호출하지 않도록)
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class SkillStepsCache {
+
+  private final ChatAiService chatAiService;
+  private final SkillDetailedStepsRepository skillDetailedStepsRepository;
+
+  private final Cache<String, List<String>> localCache = Caffeine.newBuilder()
+      .maximumSize(256)
+      .build();
+
+  private volatile String currentCatalogHash;
+  private final AtomicBoolean warming = new AtomicBoolean();
+
+  public List<String> getSteps(String catalogHash, BehavioralSkill skill) {
+    String key = SkillDetailedSteps.idOf(catalogHash, skill.chunk_id());
+    List<String> cached = localCache.getIfPresent(key);
+    if (cached != null) {
+      return cached;
+    }
+    List<String> stored = findStored(key);
+    if (stored != null) {
+      localCache.put(key, stored);
+      return stored;
+    }
+
+    List<String> steps = chatAiService.generateDetailedSkillSteps(skill);
+    if (!ChatAiService.DEFAULT_SKILL_STEPS.equals(steps)) { // 생성 실패 시 임시값은 캐시하지 않음
+      localCache.put(key, steps);
+      store(key, catalogHash, skill.chunk_id(), steps);
+    }
+    return steps;
+  }
+
+  /**
+   * 카탈로그 전체 스킬의 상세 행동을 미리 채움
+   * 카탈로그 해시가 바뀐 경우 이전 해시의 로컬 캐시는 먼저 비움
+   * 이미 채우는 중이면 (중복 요청 등) GPT 를 다시 호출하지 않고 건너뜀
+   */
+  public int warmUp(String catalogHash, List<BehavioralSkill> skills) {
+    if (!warming.compareAndSet(false, true)) {
+      log.info("Skill steps cache warm-up already running. Skipped (catalogHash={})", catalogHash);
+      return 0;
+    }
+    try {
+      invalidateIfCatalogChanged(catalogHash);
+      int warmed = 0;
+      for (BehavioralSkill skill : skills) {
+        List<String> steps = getSteps(catalogHash, skill);
+        if (!ChatAiService.DEFAULT_SKILL_STEPS.equals(steps)) {
+          warmed++;
+        }
+      }
+      log.info("Skill steps cache warmed: {}/{} skills (catalogHash={})", warmed, skills.size(), catalogHash);
+      return warmed;
+    } finally {
+      warming.set(false);
+    }
+  }
+
+  public void invalidateIfCatalogChanged(String catalogHash) {
+    if (Objects.equals(currentCatalogHash, catalogHash)) {
+      return;
+    }
+    localCache.invalidateAll();
+    log.info("Skill catalog changed. Cleared local skill steps cache (catalogHash={})", catalogHash);
+    currentCatalogHash = catalogHash;
+  }
+
+  private List<String> findStored(String key) {
+    try {
+      return skillDetailedStepsRepository.findById(key)
+          .map(SkillDetailedSteps::getSteps)
+          .orElse(null);
+    } catch (Exception e) {
+      log.warn("Skill steps cache lookup failed. key={}, error={}", key, e.getMessage());
+      return null;
+    }
+  }
+
+  private void store(String key, String catalogHash, String chunkId, List<String> steps) {
+    try {
+      skillDetailedStepsRepository.save(SkillDetailedSteps.builder()
+          .id(key)
+          .chunkId(chunkId)
+          .catalogHash(catalogHash)
+          .steps(steps)
+          .build());
+    } catch (Exception e) {
+      log.warn("Skill steps cache store failed. key={}, error={}", key, e.getMessage());
+    }
+  }
+}
@@ -0,0 +1,196 @@
+package com.forA.chatbot.chat.service;
+
+import com.forA.chatbot.chat.llm.LlmTurnContext;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * 다음 단계 GPT 결과를 미리 계산해 두는 추측 실행(speculative prefetch) 엔진
+ * - 봇 메시지를 보낸 직후, 유저가 고를 수 있는 분기별 GPT 호출을 백그라운드에서 시작
+ * - 결과는 세션별 짧은 TTL 슬롯에 보관하고, 유저가 실제로 고른 분기의 결과만 사용 (나머지는 버림)
+ * - 낭비되는 호출은 유저별 일일 예산과 관측된 분기 선택 확률로 제한
+ * - 미리 계산도 턴과 같은 마감 시간(chat.turn.deadline-ms) 안에서 GPT 를 호출하고, 꺼낼 때도 현재 턴의 남은 시간까지만 기다림
+ */
+@Slf4j
+@Component
+public class SpeculativePrefetcher {
+
+  private final ExecutorService chatAiExecutor;
+  private final MeterRegistry meterRegistry;
+  private final boolean enabled;
+  private final int dailyBudgetPerUser;
+  private final double minBranchProbability;
+  private final Duration turnDeadline;
+  private final Cache<String, CompletableFuture<Object>> slots;
+  private final Cache<String, AtomicInteger> budgets;
+  // 단계별 분기 선택 횟수 ("ACTION_OFFER" -> {"YES_PROPOSE": n, "NO_PROPOSE": m})
+  private final Map<String, Map<String, AtomicLong>> branchCounts = new ConcurrentHashMap<>();
+
+  public SpeculativePrefetcher(
+      ExecutorService chatAiExecutor,
+      MeterRegistry meterRegistry,
+      @Value("${chat.ai.prefetch.enabled:true}") boolean enabled,
+      @Value("${chat.ai.prefetch.ttl-seconds:180}") long ttlSeconds,
+      @Value("${chat.ai.prefetch.daily-budget-per-user:20}") int dailyBudgetPerUser,
+      @Value("${chat.ai.prefetch.min-branch-probability:0.2}") double minBranchProbability,
+      @Value("${chat.turn.deadline-ms:2500}") long turnDeadlineMs) {
+    this.chatAiExecutor = chatAiExecutor;
+    this.meterRegistry = meterRegistry;
+    this.enabled = enabled;
+    this.dailyBudgetPerUser = dailyBudgetPerUser;
+    this.minBranchProbability = minBranchProbability;
+    this.turnDeadline = turnDeadlineMs > 0 ? Duration.ofMillis(turnDeadlineMs) : null;
+    this.slots = Caffeine.newBuilder()
+        .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+        .removalListener((String key, CompletableFuture<Object> result, RemovalCause cause) -> {
+          if (cause != RemovalCause.EXPLICIT) {
+            counter(branchOf(key), "wasted").increment();
+          }
+        })
+        .build();
+    this.budgets = Caffeine.newBuilder()
+        .expireAfterWrite(Duration.ofDays(1))
+        .build();
+  }
+
+  /**
+   * 분기 결과를 미리 계산 시작. 선택 확률이 낮거나 유저 예산을 다 썼으면 건너뜀
+   * call 은 GPT 결과 대신 기본값으로 대체했으면 null 을 반환 (take 에서 miss 로 처리)
+   * @param branchCount 해당 단계에서 고를 수 있는 분기 수 (확률 계산 시 스무딩에 사용)
+   */
+  public boolean prefetch(String sessionId, Long userId, String step, String branch, int branchCount,
+      Supplier<?> call) {
+    if (!enabled) {
+      return false;
+    }
+    double probability = branchProbability(step, branch, branchCount);
+    if (probability < minBranchProbability) {
+      counter(branch, "skipped_probability").increment();
+      return false;
+    }
+    AtomicInteger used = budgets.get(userId + ":" + LocalDate.now(), key -> new AtomicInteger());
+    if (used.incrementAndGet() > dailyBudgetPerUser) {
+      counter(branch, "skipped_budget").increment();
+      return false;
+    }
+    CompletableFuture<Object> result = CompletableFuture.supplyAsync(() -> {
+      // 턴에서 바로 호출했을 때와 같은 마감 시간으로 계산하고, 토큰 사용량은 이 유저에게 기록
+      try (LlmTurnContext.Scope ignored = turnDeadline != null
+          ? LlmTurnContext.open(userId, turnDeadline)
+          : LlmTurnContext.open(userId)) {
+        return call.get();
+      }
+    }, chatAiExecutor);
+    slots.put(slotKey(sessionId, branch), result);
+    counter(branch, "started").increment();
+    log.info("다음 단계 미리 계산 시작: sessionId={}, branch={}, p={}", sessionId, branch,
+        String.format("%.2f", probability));
+    return true;
+  }
+
+  /**
+   * 유저가 고른 분기의 미리 계산된 결과를 꺼냄
+   * 아직 계산 중이면 새로 호출하는 것보다 먼저 시작했으므로 완료를 기다림. 단, 현재 턴의 남은 시간까지만 기다리고
+   * 그 안에 끝나지 않으면 empty (호출부는 기존처럼 바로 계산). 슬롯이 없거나 실패했으면 empty
+   * 미리 계산이 기본값으로 대체되어 null 을 남겼으면 hit 이 아니라 miss 로 세고 empty
+   */
+  @SuppressWarnings("unchecked")
+  public <T> Optional<T> take(String sessionId, String branch) {
+    CompletableFuture<Object> result = slots.asMap().remove(slotKey(sessionId, branch));
+    if (result == null) {
+      counter(branch, "miss").increment();
+      return Optional.empty();
+    }
+    boolean ready = result.isDone();
+    try {
+      Optional<Duration> remaining = LlmTurnContext.remaining();
+      T value = (T) (remaining.isPresent()
+          ? result.get(remaining.get().toNanos(), TimeUnit.NANOSECONDS)
+          : result.get());
+      if (value == null) {
+        log.info("미리 계산한 결과가 기본값이라 바로 계산합니다: sessionId={}, branch={}", sessionId, branch);
+        counter(branch, "miss").increment();
+        return Optional.empty();
+      }
+      counter(branch, ready ? "hit" : "hit_in_flight").increment();
+      return Optional.of(value);
+    } catch (TimeoutException e) {
+      log.warn("미리 계산한 결과가 턴 마감까지 끝나지 않아 바로 계산합니다: sessionId={}, branch={}", sessionId, branch);
+      counter(branch, "timeout").increment();
+      return Optional.empty();
+    } catch (ExecutionException e) {
+      log.warn("미리 계산한 결과가 실패했습니다: sessionId={}, branch={}, error={}", sessionId, branch,
+          e.getCause().getMessage());
+      counter(branch, "failed").increment();
+      return Optional.empty();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      return Optional.empty();
+    }
+  }
+
+  /**
+   * 유저의 실제 선택을 기록 (다음 추측 실행의 분기 확률에 반영)
+   */
+  public void recordBranch(String step, String branch) {
+    branchCounts.computeIfAbsent(step, s -> new ConcurrentHashMap<>())
+        .computeIfAbsent(branch, b -> new AtomicLong())
+        .incrementAndGet();
+  }
+
+  /**
+   * 선택되지 않은 분기의 결과를 버림
+   */
+  public void discard(String sessionId, String... branches) {
+    for (String branch : branches) {
+      CompletableFuture<Object> result = slots.asMap().remove(slotKey(sessionId, branch));
+      if (result != null) {
+        counter(branch, "wasted").increment();
+      }
+    }
+  }
+
+  /**
+   * 라플라스 스무딩을 적용한 분기 선택 확률 (관측이 없으면 균등)
+   */
+  double branchProbability(String step, String branch, int branchCount) {
+    Map<String, AtomicLong> counts = branchCounts.getOrDefault(step, Map.of());
+    long total = counts.values().stream().mapToLong(AtomicLong::get).sum();
+    long chosen = Optional.ofNullable(counts.get(branch)).map(AtomicLong::get).orElse(0L);
+    return (chosen + 1.0) / (total + branchCount);
+  }
+
+  private Counter counter(String branch, String result) {
+    return Counter.builder("chat.ai.prefetch")
+        .tag("branch", branch)
+        .tag("result", result)
+        .register(meterRegistry);
+  }
+
+  private static String slotKey(String sessionId, String branch) {
+    return sessionId + "|" + branch;
+  }
+
+  private static String branchOf(String slotKey) {
+    return slotKey.substring(slotKey.indexOf('|') + 1);
+  }
+}
@@ -0,0 +1,221 @@
+package com.forA.chatbot.chat.service;
+
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+import static org.springframework.data.mongodb.core.query.Query.query;
+
+import com.forA.chatbot.chat.domain.UserMemory;
+import com.forA.chatbot.chat.llm.LlmTurnContext;
+import com.forA.chatbot.chat.llm.PromptBudgeter;
+import com.forA.chatbot.chat.repository.UserMemoryRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.StringJoiner;
+import java.util.concurrent.ExecutorService;
+import java.util.function.UnaryOperator;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Service;
+
+/**
+ * 유저별 대화 기억 (user_memories)
+ * - 세션이 끝나면 백그라운드에서 "기존 요약 + 이번 세션"만 GPT 로 접어 새 요약을 저장 (전체 이력을 다시 읽지 않음)
+ * - 요약은 토큰 상한(chat.memory.max-summary-tokens)으로 잘라 두므로, 프롬프트에 넣는 기억의 크기는 이력 길이와 무관
+ * GPT 요약에 실패하면 기존 요약 뒤에 이번 세션 한 줄을 덧붙인 뒤 같은 상한으로 자름
+ * 저장은 읽은 시점의 last_session_id 가 그대로일 때만 덮어씀. 가까운 시각에 끝난 다른 세션이 먼저 반영했으면 다시 읽어서 접음
+ */
+@Slf4j
+@Service
+public class UserMemoryService {
+
+  private static final int MAX_FOLD_ATTEMPTS = 3;
+
+  private final UserMemoryRepository userMemoryRepository;
+  private final MongoTemplate mongoTemplate;
+  private final ChatAiService chatAiService;
+  private final PromptBudgeter promptBudgeter;
+  private final ExecutorService chatAiExecutor;
+  private final MeterRegistry meterRegistry;
+  private final boolean enabled;
+  private final int maxSummaryTokens;
+  private final int maxSituationTokens;
+  private final int recentSkillCount;
+
+  public UserMemoryService(UserMemoryRepository userMemoryRepository, MongoTemplate mongoTemplate,
+      ChatAiService chatAiService,
+      PromptBudgeter promptBudgeter, ExecutorService chatAiExecutor, MeterRegistry meterRegistry,
+      @Value("${chat.memory.enabled:true}") boolean enabled,
+      @Value("${chat.memory.max-summary-tokens:300}") int maxSummaryTokens,
+      @Value("${chat.memory.max-situation-tokens:200}") int maxSituationTokens,
+      @Value("${chat.memory.recent-skills:5}") int recentSkillCount) {
+    this.userMemoryRepository = userMemoryRepository;
+    this.mongoTemplate = mongoTemplate;
+    this.chatAiService = chatAiService;
+    this.promptBudgeter = promptBudgeter;
+    this.chatAiExecutor = chatAiExecutor;
+    this.meterRegistry = meterRegistry;
+    this.enabled = enabled;
+    this.maxSummaryTokens = maxSummaryTokens;
+    this.maxSituationTokens = maxSituationTokens;
+    this.recentSkillCount = recentSkillCount;
+  }
+
+  /**
+   * 프롬프트에 넣을 유저 기억 요약. 없거나 조회에 실패하면 빈 문자열
+   */
+  public String summaryFor(Long userId) {
+    if (!enabled || userId == null) {
+      return "";
+    }
+    try {
+      return userMemoryRepository.findById(userId)
+          .map(UserMemory::getSummary)
+          .orElse("");
+    } catch (Exception e) {
+      log.warn("유저 기억 조회 실패: userId={}, {}", userId, e.getMessage());
+      return "";
+    }
+  }
+
+  /**
+   * 끝난 세션을 유저 기억에 비동기로 반영
+   */
+  public void foldAsync(Long userId, SessionDigest digest) {
+    if (!enabled || userId == null || digest == null) {
+      return;
+    }
+    chatAiExecutor.execute(() -> {
+      try (LlmTurnContext.Scope ignored = LlmTurnContext.open(userId)) {
+        fold(userId, digest);
+      } catch (Exception e) {
+        log.error("유저 기억 갱신 실패: userId={}, sessionId={}", userId, digest.sessionId(), e);
+        record("error");
+      }
+    });
+  }
+
+  /**
+   * 기존 요약에 이번 세션만 접어서 저장. 이미 반영한 세션이면 그대로 반환
+   */
+  UserMemory fold(Long userId, SessionDigest digest) {
+    for (int attempt = 1; ; attempt++) {
+      UserMemory previous = userMemoryRepository.findById(userId).orElse(null);
+      if (previous != null && digest.sessionId().equals(previous.getLastSessionId())) {
+        record("skipped");
+        return previous;
+      }
+      String previousSummary = previous == null ? "" : previous.getSummary();
+      String session = digest.describe(situation -> promptBudgeter.fit(situation, maxSituationTokens));
+
+      String summary = chatAiService.generateMemorySummary(previousSummary, session);
+      String result = "summarized";
+      if (summary == null || summary.isBlank()) {
+        summary = previousSummary.isBlank() ? digest.oneLine() : previousSummary + "\n" + digest.oneLine();
+        result = "fallback";
+      }
+
+      UserMemory memory = UserMemory.builder()
+          .userId(userId)
+          .summary(promptBudgeter.fit(summary, maxSummaryTokens))
+          .recentSkills(recentSkills(previous, digest.skillName()))
+          .sessionCount(previous == null ? 1 : previous.getSessionCount() + 1)
+          .lastSessionId(digest.sessionId())
+          .updatedAt(LocalDateTime.now())
+          .build();
+      if (saveIfUnchanged(previous, memory)) {
+        log.info("유저 기억 갱신: userId={}, sessionId={}, result={}", userId, digest.sessionId(), result);
+        record(result);
+        return memory;
+      }
+      if (attempt >= MAX_FOLD_ATTEMPTS) {
+        log.warn("유저 기억 갱신 충돌이 계속되어 이번 세션은 반영하지 않음: userId={}, sessionId={}",
+            userId, digest.sessionId());
+        record("conflict");
+        return previous;
+      }
+      log.info("다른 세션이 먼저 유저 기억을 갱신해 다시 접음: userId={}, sessionId={}", userId, digest.sessionId());
+    }
+  }
+
+  /**
+   * 읽은 뒤 다른 세션이 먼저 반영하지 않았을 때만 저장 (조건: last_session_id 가 읽은 값 그대로)
+   */
+  private boolean saveIfUnchanged(UserMemory previous, UserMemory memory) {
+    if (previous == null) {
+      try {
+        mongoTemplate.insert(memory);
+        return true;
+      } catch (DuplicateKeyException e) {
+        return false;
+      }
+    }
+    Query unchanged = query(where("_id").is(memory.getUserId())
+        .and("last_session_id").is(previous.getLastSessionId()));
+    return mongoTemplate.findAndReplace(unchanged, memory) != null;
+  }
+
+  private List<String> recentSkills(UserMemory previous, String skillName) {
+    List<String> skills = new ArrayList<>();
+    if (skillName != null) {
+      skills.add(skillName);
+    }
+    if (previous != null && previous.getRecentSkills() != null) {
+      previous.getRecentSkills().stream()
+          .filter(skill -> !skill.equals(skillName))
+          .forEach(skills::add);
+    }
+    return List.copyOf(skills.subList(0, Math.min(skills.size(), recentSkillCount)));
+  }
+
+  private void record(String result) {
+    Counter.builder("chat.memory.folds")
+        .tag("result", result)
+        .register(meterRegistry)
+        .increment();
+  }
+
+  /**
+   * 기억에 반영할 세션 한 개의 내용 (세션 임시 데이터가 지워지기 전에 만듦)
+   * outcome: 세션이 어떻게 끝났는지 (예: "행동 완료, 피드백: 도움이 됐어요")
+   */
+  public record SessionDigest(String sessionId, LocalDate date, String emotions, String situation,
+                              String skillName, String outcome) {
+
+    String describe(UnaryOperator<String> situationLimiter) {
+      StringJoiner joiner = new StringJoiner("\n");
+      joiner.add("- 날짜: " + date);
+      add(joiner, "- 감정: ", emotions);
+      add(joiner, "- 상황: ", situation == null ? null : situationLimiter.apply(situation));
+      add(joiner, "- 선택한 행동: ", skillName);
+      add(joiner, "- 결과: ", outcome);
+      return joiner.toString();
+    }
+
+    /** GPT 요약 실패 시 기존 요약 뒤에 덧붙이는 한 줄 */
+    String oneLine() {
+      StringJoiner joiner = new StringJoiner(", ", date + " ", ".");
+      if (emotions != null) {
+        joiner.add(emotions + " 감정");
+      }
+      if (skillName != null) {
+        joiner.add("'" + skillName + "' 선택");
+      }
+      if (outcome != null) {
+        joiner.add(outcome);
+      }
+      return joiner.toString();
+    }
+
+    private static void add(StringJoiner joiner, String label, String value) {
+      if (value != null && !value.isBlank()) {
+        joiner.add(label + value);
+      }
+    }
+  }
+}
@@ -0,0 +1,38 @@
+package com.forA.chatbot.config;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+@Configuration
+public class ChatExecutorConfig {
+
+  /** GPT 호출처럼 대기 시간이 긴 작업을 처리하는 가상 스레드 Executor */
+  @Bean(destroyMethod = "shutdown")
+  public ExecutorService chatAiExecutor() {
+    return Executors.newVirtualThreadPerTaskExecutor();
+  }
+
+  /**
+   * 비동기 대화 턴을 처리하는 워커 풀
+   * 큐가 가득 차면 접수 단계에서 거절(TaskRejectedException)되어 요청 스레드가 밀리지 않도록 함
+   */
+  @Bean
+  public ThreadPoolTaskExecutor chatTurnExecutor(
+      @Value("${chat.turn.worker.core-size:16}") int coreSize,
+      @Value("${chat.turn.worker.max-size:64}") int maxSize,
+      @Value("${chat.turn.worker.queue-capacity:200}") int queueCapacity) {
+    ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+    executor.setCorePoolSize(coreSize);
+    executor.setMaxPoolSize(maxSize);
+    executor.setQueueCapacity(queueCapacity);
+    executor.setThreadNamePrefix("chat-turn-");
+    executor.setWaitForTasksToCompleteOnShutdown(true);
+    executor.setAwaitTerminationSeconds(30);
+    executor.initialize();
+    return executor;
+  }
+}
@@ -0,0 +1,35 @@
+package com.forA.chatbot.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.forA.chatbot.chat.llm.FakeChatModel;
+import com.forA.chatbot.chat.llm.LlmGatewayProperties;
+import com.forA.chatbot.chat.llm.PromptBudgeter;
+import com.forA.chatbot.chat.llm.PromptRegistry;
+import org.springframework.ai.chat.model.ChatModel;
+import org.springframework.ai.openai.OpenAiChatModel;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.context.annotation.Profile;
+
+/**
+ * perf 프로필: ChatClient.Builder 가 OpenAI 대신 FakeChatModel 을 쓰도록 교체 (application-perf.properties 참고)
+ * LlmGateway 이하(타임아웃, bulkhead, 헤지, 스트리밍 등)는 운영과 같은 코드로 동작하고 모델 응답만 로컬에서 만듦
+ * RECORD 모드에서만 실제 OpenAI 모델(spring.ai.model.chat=openai)을 함께 띄워 위임함
+ */
+@Configuration
+@Profile("perf")
+public class FakeChatModelConfig {
+
+  @Bean
+  @Primary
+  public ChatModel fakeChatModel(LlmGatewayProperties properties, PromptRegistry promptRegistry,
+      PromptBudgeter promptBudgeter, ObjectMapper objectMapper, ObjectProvider<OpenAiChatModel> openAiChatModel) {
+    LlmGatewayProperties.Fake fake = properties.getFake();
+    ChatModel delegate = fake.getMode() == LlmGatewayProperties.Fake.Mode.RECORD
+        ? openAiChatModel.getIfAvailable()
+        : null;
+    return new FakeChatModel(fake, promptRegistry, promptBudgeter, objectMapper, delegate);
+  }
+}
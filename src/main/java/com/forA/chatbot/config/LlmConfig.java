@@ -0,0 +1,9 @@
+package com.forA.chatbot.config;
+
+import com.forA.chatbot.chat.llm.LlmGatewayProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@EnableConfigurationProperties(LlmGatewayProperties.class)
+public class LlmConfig {}
@@ -0,0 +1,87 @@
+package com.forA.chatbot.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.httpcomponents.hc5.PoolingHttpClientConnectionManagerMetricsBinder;
+import java.net.http.HttpClient;
+import java.time.Duration;
+import org.apache.hc.client5.http.config.ConnectionConfig;
+import org.apache.hc.client5.http.config.RequestConfig;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.client5.http.impl.classic.HttpClients;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManagerBuilder;
+import org.apache.hc.core5.util.TimeValue;
+import org.apache.hc.core5.util.Timeout;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.web.client.RestClientCustomizer;
+import org.springframework.boot.web.reactive.function.client.WebClientCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.http.client.reactive.JdkClientHttpConnector;
+
+/**
+ * OpenAI API 호출에 쓰는 HTTP 클라이언트 설정 (Spring AI 는 Boot 의 RestClient/WebClient 빌더를 사용)
+ * - 일반 호출(RestClient): Apache HttpClient 5 커넥션 풀 (keep-alive 재사용, 풀 지표 노출)
+ * - 스트리밍 호출(WebClient): JDK HttpClient, 서버가 지원하면 HTTP/2 로 하나의 연결에 다중화
+ * 기본 설정은 라우트당 연결 5개라 동시 GPT 호출이 많으면 연결을 기다리게 됨
+ */
+@Configuration
+public class OpenAiHttpClientConfig {
+
+  @Bean(destroyMethod = "close")
+  public PoolingHttpClientConnectionManager openAiConnectionManager(
+      MeterRegistry meterRegistry,
+      @Value("${chat.llm.http.max-connections:64}") int maxConnections,
+      @Value("${chat.llm.http.connect-timeout:2s}") Duration connectTimeout,
+      @Value("${chat.llm.http.read-timeout:30s}") Duration readTimeout,
+      @Value("${chat.llm.http.connection-ttl:5m}") Duration connectionTtl) {
+    PoolingHttpClientConnectionManager connectionManager = PoolingHttpClientConnectionManagerBuilder.create()
+        .setMaxConnTotal(maxConnections)
+        .setMaxConnPerRoute(maxConnections) // 호출 대상이 OpenAI 하나뿐이므로 전체 한도와 같게
+        .setDefaultConnectionConfig(ConnectionConfig.custom()
+            .setConnectTimeout(Timeout.of(connectTimeout))
+            .setSocketTimeout(Timeout.of(readTimeout))
+            .setTimeToLive(TimeValue.of(connectionTtl))
+            .setValidateAfterInactivity(TimeValue.ofSeconds(10))
+            .build())
+        .build();
+    new PoolingHttpClientConnectionManagerMetricsBinder(connectionManager, "openai").bindTo(meterRegistry);
+    return connectionManager;
+  }
+
+  @Bean(destroyMethod = "close")
+  public CloseableHttpClient openAiHttpClient(
+      PoolingHttpClientConnectionManager openAiConnectionManager,
+      @Value("${chat.llm.http.connect-timeout:2s}") Duration connectTimeout,
+      @Value("${chat.llm.http.read-timeout:30s}") Duration readTimeout,
+      @Value("${chat.llm.http.idle-timeout:60s}") Duration idleTimeout) {
+    return HttpClients.custom()
+        .setConnectionManager(openAiConnectionManager)
+        .setDefaultRequestConfig(RequestConfig.custom()
+            .setConnectionRequestTimeout(Timeout.of(connectTimeout)) // 풀에서 연결을 기다리는 시간
+            .setResponseTimeout(Timeout.of(readTimeout))
+            .build())
+        .evictIdleConnections(TimeValue.of(idleTimeout))
+        .evictExpiredConnections()
+        .build();
+  }
+
+  @Bean
+  public RestClientCustomizer openAiRestClientCustomizer(CloseableHttpClient openAiHttpClient) {
+    return builder -> builder.requestFactory(new HttpComponentsClientHttpRequestFactory(openAiHttpClient));
+  }
+
+  @Bean
+  public WebClientCustomizer openAiWebClientCustomizer(
+      @Value("${chat.llm.http.connect-timeout:2s}") Duration connectTimeout,
+      @Value("${chat.llm.http.read-timeout:30s}") Duration readTimeout) {
+    HttpClient httpClient = HttpClient.newBuilder()
+        .version(HttpClient.Version.HTTP_2) // ALPN 협상 실패 시 HTTP/1.1 로 자동 전환
+        .connectTimeout(connectTimeout)
+        .build();
+    JdkClientHttpConnector connector = new JdkClientHttpConnector(httpClient);
+    connector.setReadTimeout(readTimeout);
+    return builder -> builder.clientConnector(connector);
+  }
+}
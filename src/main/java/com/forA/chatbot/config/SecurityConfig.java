@@ -4,6 +4,8 @@ import static org.springframework.security.config.Customizer.withDefaults;
 
 import com.forA.chatbot.auth.jwt.JwtAuthenticationFilter;
 import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.autoconfigure.security.servlet.EndpointRequest;
+import org.springframework.boot.actuate.health.HealthEndpoint;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
@@ -37,6 +39,12 @@ public class SecurityConfig {
                         "/webjars/**")
                     .permitAll()
 
+                    // 운영용 API 와 actuator(health 제외, 예: 유저별 토큰 사용량)는 운영자(security.admin.user-ids)만
+                    .requestMatchers("/api/v1/admin/**")
+                    .hasRole("ADMIN")
+                    .requestMatchers(EndpointRequest.toAnyEndpoint().excluding(HealthEndpoint.class))
+                    .hasRole("ADMIN")
+
                     // 그 외 모든 요청은 인증 필요
                     .anyRequest()
                     .authenticated())
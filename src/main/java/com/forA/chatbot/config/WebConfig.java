@@ -1,12 +1,19 @@
 package com.forA.chatbot.config;
 
+import jakarta.persistence.EntityManagerFactory;
+import lombok.RequiredArgsConstructor;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.orm.jpa.support.OpenEntityManagerInViewInterceptor;
 import org.springframework.web.servlet.config.annotation.CorsRegistry;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
 
 @Configuration
+@RequiredArgsConstructor
 public class WebConfig implements WebMvcConfigurer {
 
+  private final EntityManagerFactory entityManagerFactory;
+
   @Override
   public void addCorsMappings(CorsRegistry registry) {
     registry
@@ -20,4 +27,16 @@ public class WebConfig implements WebMvcConfigurer {
         .allowCredentials(true) // 쿠키/인증 정보 포함 허용
         .maxAge(3600); // Preflight 요청 캐시 시간 (초)
   }
+
+  /**
+   * spring.jpa.open-in-view=false 대신 직접 등록하는 OSIV
+   * 채팅 턴 처리(GPT 호출 포함) 요청은 요청 전체 동안 DB 커넥션을 잡지 않도록 제외
+   */
+  @Override
+  public void addInterceptors(InterceptorRegistry registry) {
+    OpenEntityManagerInViewInterceptor interceptor = new OpenEntityManagerInViewInterceptor();
+    interceptor.setEntityManagerFactory(entityManagerFactory);
+    registry.addWebRequestInterceptor(interceptor)
+        .excludePathPatterns("/api/v1/chat/session/**");
+  }
 }
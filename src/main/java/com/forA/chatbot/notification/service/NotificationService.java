@@ -76,4 +76,14 @@ public class NotificationService {
         () -> log.warn("Device token not found for user {}. Cannot send reminder.", userId)
     );
   }
+
+  public void sendChatTurnCompletedNotification(Long userId, String preview) {
+    deviceTokenRepository.findByUserId(userId).ifPresentOrElse(
+        deviceToken -> {
+          log.info("Sending chat turn completion push to user {}", userId);
+          sendPushNotification(deviceToken.getDeviceToken(), "모리가 답장을 보냈어요", preview);
+        },
+        () -> log.warn("Device token not found for user {}. Cannot send chat turn completion push.", userId)
+    );
+  }
 }
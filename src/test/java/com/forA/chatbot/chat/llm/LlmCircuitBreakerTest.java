@@ -0,0 +1,134 @@
+package com.forA.chatbot.chat.llm;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+class LlmCircuitBreakerTest {
+
+  private MutableClock clock;
+  private LlmCircuitBreaker circuitBreaker;
+
+  @BeforeEach
+  void setUp() {
+    LlmGatewayProperties.CircuitBreaker config = new LlmGatewayProperties.CircuitBreaker();
+    config.setSlidingWindowSize(4);
+    config.setMinimumCalls(4);
+    config.setFailureRateThreshold(0.5);
+    config.setOpenDuration(Duration.ofSeconds(30));
+    config.setHalfOpenCalls(1);
+    clock = new MutableClock(Instant.parse("2024-01-01T00:00:00Z"));
+    circuitBreaker = new LlmCircuitBreaker(config, clock);
+  }
+
+  @Test
+  @DisplayName("최소 호출 수 이상에서 실패율이 임계값을 넘으면 OPEN 되어 호출 차단")
+  void opens_WhenFailureRateExceeded() {
+    // given
+    circuitBreaker.onSuccess();
+    circuitBreaker.onSuccess();
+    circuitBreaker.onFailure();
+    assertThat(circuitBreaker.getState()).isEqualTo(LlmCircuitBreaker.State.CLOSED);
+
+    // when
+    circuitBreaker.onFailure();
+
+    // then
+    assertThat(circuitBreaker.getState()).isEqualTo(LlmCircuitBreaker.State.OPEN);
+    assertThat(circuitBreaker.tryAcquire()).isFalse();
+  }
+
+  @Test
+  @DisplayName("차단 시간이 지나면 시험 호출을 허용하고, 성공하면 CLOSED 로 복귀")
+  void closes_AfterSuccessfulHalfOpenCall() {
+    // given
+    for (int i = 0; i < 4; i++) {
+      circuitBreaker.onFailure();
+    }
+    clock.advance(Duration.ofSeconds(31));
+
+    // when
+    boolean first = circuitBreaker.tryAcquire();
+    boolean second = circuitBreaker.tryAcquire();
+    circuitBreaker.onSuccess();
+
+    // then
+    assertThat(first).isTrue();
+    assertThat(second).isFalse();
+    assertThat(circuitBreaker.getState()).isEqualTo(LlmCircuitBreaker.State.CLOSED);
+  }
+
+  @Test
+  @DisplayName("HALF_OPEN 시험 호출이 실패하면 다시 OPEN")
+  void reopens_WhenHalfOpenCallFails() {
+    // given
+    for (int i = 0; i < 4; i++) {
+      circuitBreaker.onFailure();
+    }
+    clock.advance(Duration.ofSeconds(31));
+    circuitBreaker.tryAcquire();
+
+    // when
+    circuitBreaker.onFailure();
+
+    // then
+    assertThat(circuitBreaker.getState()).isEqualTo(LlmCircuitBreaker.State.OPEN);
+    assertThat(circuitBreaker.tryAcquire()).isFalse();
+  }
+
+  @Test
+  @DisplayName("결과 없이 끝난 HALF_OPEN 시험 호출은 허용량을 반납해 다음 시험 호출이 가능")
+  void releasesPermit_WhenHalfOpenCallIsIgnored() {
+    // given
+    for (int i = 0; i < 4; i++) {
+      circuitBreaker.onFailure();
+    }
+    clock.advance(Duration.ofSeconds(31));
+    assertThat(circuitBreaker.tryAcquire()).isTrue();
+    assertThat(circuitBreaker.tryAcquire()).isFalse();
+
+    // when
+    circuitBreaker.onIgnored();
+
+    // then
+    assertThat(circuitBreaker.getState()).isEqualTo(LlmCircuitBreaker.State.HALF_OPEN);
+    assertThat(circuitBreaker.tryAcquire()).isTrue();
+    circuitBreaker.onSuccess();
+    assertThat(circuitBreaker.getState()).isEqualTo(LlmCircuitBreaker.State.CLOSED);
+  }
+
+  private static class MutableClock extends Clock {
+
+    private Instant now;
+
+    MutableClock(Instant now) {
+      this.now = now;
+    }
+
+    void advance(Duration duration) {
+      now = now.plus(duration);
+    }
+
+    @Override
+    public ZoneOffset getZone() {
+      return ZoneOffset.UTC;
+    }
+
+    @Override
+    public Clock withZone(ZoneId zone) {
+      return this;
+    }
+
+    @Override
+    public Instant instant() {
+      return now;
+    }
+  }
+}
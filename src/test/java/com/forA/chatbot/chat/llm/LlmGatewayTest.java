@@ -0,0 +1,361 @@
+package com.forA.chatbot.chat.llm;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.RETURNS_DEEP_STUBS;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.ai.chat.client.ChatClient;
+import org.springframework.ai.chat.messages.AssistantMessage;
+import org.springframework.ai.chat.metadata.ChatResponseMetadata;
+import org.springframework.ai.chat.metadata.DefaultUsage;
+import org.springframework.ai.chat.model.ChatResponse;
+import org.springframework.ai.chat.model.Generation;
+import org.springframework.ai.chat.prompt.Prompt;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+class LlmGatewayTest {
+
+  private final AtomicInteger upstreamCalls = new AtomicInteger();
+  private ExecutorService executor;
+  private SimpleMeterRegistry meterRegistry;
+  private LlmGateway gateway;
+
+  @BeforeEach
+  void setUp() {
+    ChatClient.Builder builder = mock(ChatClient.Builder.class, RETURNS_DEEP_STUBS);
+    when(builder.build().prompt(any(Prompt.class)).call().chatResponse()).thenAnswer(invocation -> {
+      upstreamCalls.incrementAndGet();
+      Thread.sleep(300);
+      return new ChatResponse(List.of(new Generation(new AssistantMessage("distress-001, distress-002"))));
+    });
+    executor = Executors.newVirtualThreadPerTaskExecutor();
+    meterRegistry = new SimpleMeterRegistry();
+    LlmGatewayProperties properties = new LlmGatewayProperties();
+    gateway = new LlmGateway(builder, executor, properties, meterRegistry, new LlmUsageLedger(properties));
+  }
+
+  @AfterEach
+  void tearDown() {
+    executor.shutdownNow();
+  }
+
+  @Test
+  @DisplayName("동시에 들어온 동일 프롬프트 호출은 업스트림 호출 하나를 공유")
+  void call_CoalescesIdenticalInFlightPrompts() throws Exception {
+    // given
+    Prompt prompt = new Prompt("상황: 내일 발표가 너무 긴장돼요");
+    List<Future<String>> results = new ArrayList<>();
+
+    // when
+    for (int i = 0; i < 3; i++) {
+      results.add(executor.submit(() ->
+          gateway.call(LlmOperation.RECOMMEND, prompt, text -> text, () -> "fallback")));
+    }
+
+    // then
+    for (Future<String> result : results) {
+      assertThat(result.get()).isEqualTo("distress-001, distress-002");
+    }
+    assertThat(upstreamCalls.get()).isEqualTo(1);
+    assertThat(meterRegistry.get("chat.llm.coalesced").tag("operation", "recommend").counter().count())
+        .isEqualTo(2.0);
+  }
+
+  @Test
+  @DisplayName("프롬프트가 다르면 병합하지 않음")
+  void call_DoesNotCoalesceDifferentPrompts() throws Exception {
+    // when
+    Future<String> first = executor.submit(() ->
+        gateway.call(LlmOperation.RECOMMEND, new Prompt("상황 A"), text -> text, () -> "fallback"));
+    Future<String> second = executor.submit(() ->
+        gateway.call(LlmOperation.RECOMMEND, new Prompt("상황 B"), text -> text, () -> "fallback"));
+    first.get();
+    second.get();
+
+    // then
+    assertThat(upstreamCalls.get()).isEqualTo(2);
+  }
+
+  @Test
+  @DisplayName("응답이 최근 백분위수보다 늦으면 헤지 요청을 보내고 먼저 온 응답을 사용")
+  void call_HedgesSlowRequest() throws Exception {
+    // given
+    AtomicInteger invocations = new AtomicInteger();
+    ChatClient.Builder builder = mock(ChatClient.Builder.class, RETURNS_DEEP_STUBS);
+    when(builder.build().prompt(any(Prompt.class)).call().chatResponse()).thenAnswer(invocation -> {
+      // 21번째 요청(첫 요청)만 느리고, 나머지는 빠름
+      Thread.sleep(invocations.incrementAndGet() == 21 ? 3_000 : 20);
+      return new ChatResponse(List.of(new Generation(new AssistantMessage("ok"))));
+    });
+    LlmGatewayProperties properties = new LlmGatewayProperties();
+    properties.getHedge().setMinSamples(20);
+    properties.getHedge().setMinDelay(Duration.ZERO);
+    properties.getHedge().setMaxFraction(0.5);
+    LlmGateway hedgingGateway = new LlmGateway(builder, executor, properties, meterRegistry,
+        new LlmUsageLedger(properties));
+    for (int i = 0; i < 20; i++) {
+      hedgingGateway.call(LlmOperation.EMPATHY, new Prompt("warm-up " + i), text -> text, () -> "fallback");
+    }
+
+    // when
+    long start = System.nanoTime();
+    String result = hedgingGateway.call(LlmOperation.EMPATHY, new Prompt("slow"), text -> text, () -> "fallback");
+    long elapsedMs = (System.nanoTime() - start) / 1_000_000;
+
+    // then
+    assertThat(result).isEqualTo("ok");
+    assertThat(elapsedMs).isLessThan(1_000);
+    assertThat(meterRegistry.get("chat.llm.hedges").tag("result", "won").counter().count()).isEqualTo(1.0);
+  }
+
+  @Test
+  @DisplayName("라우팅 테이블에 있는 작업은 지정한 모델 옵션으로 호출하고 라우트별 토큰 사용량/비용과 유저 장부를 기록")
+  void call_AppliesRouteOptionsAndRecordsTokens() {
+    // given
+    ChatClient.Builder builder = mock(ChatClient.Builder.class, RETURNS_DEEP_STUBS);
+    ArgumentCaptor<Prompt> sent = ArgumentCaptor.forClass(Prompt.class);
+    when(builder.build().prompt(sent.capture()).call().chatResponse()).thenReturn(
+        new ChatResponse(List.of(new Generation(new AssistantMessage("마음을 진정시키는"))),
+            ChatResponseMetadata.builder().usage(new DefaultUsage(120, 6)).build()));
+    LlmGatewayProperties properties = new LlmGatewayProperties();
+    LlmGatewayProperties.Route route = new LlmGatewayProperties.Route();
+    route.setModel("gpt-4.1-nano");
+    route.setMaxTokens(20);
+    properties.getRoutes().put(LlmOperation.GOAL_PHRASE, route);
+    LlmGatewayProperties.Price price = new LlmGatewayProperties.Price();
+    price.setInputPerMillion(0.10);
+    price.setOutputPerMillion(0.40);
+    properties.getPrices().put("gpt-4.1-nano", price);
+    LlmUsageLedger ledger = new LlmUsageLedger(properties);
+    LlmGateway routingGateway = new LlmGateway(builder, executor, properties, meterRegistry, ledger);
+
+    // when
+    try (LlmTurnContext.Scope ignored = LlmTurnContext.open(7L)) {
+      routingGateway.call(LlmOperation.GOAL_PHRASE, new Prompt("목표 구문"), text -> text, () -> "fallback");
+    }
+
+    // then
+    assertThat(sent.getValue().getOptions().getModel()).isEqualTo("gpt-4.1-nano");
+    assertThat(sent.getValue().getOptions().getMaxTokens()).isEqualTo(20);
+    assertThat(meterRegistry.get("chat.llm.tokens").tag("model", "gpt-4.1-nano").tag("type", "prompt")
+        .counter().count()).isEqualTo(120.0);
+    assertThat(meterRegistry.get("chat.llm.cost").tag("operation", "goal_phrase").counter().count())
+        .isCloseTo((120 * 0.10 + 6 * 0.40) / 1_000_000, within(1e-12));
+    assertThat(ledger.tokensToday(7L)).isEqualTo(126);
+    assertThat(ledger.history(7L)).singleElement()
+        .satisfies(usage -> assertThat(usage.tokensByOperation()).containsEntry("goal_phrase", 126L));
+  }
+
+  @Test
+  @DisplayName("유저의 하루 토큰 한도를 넘으면 업스트림을 호출하지 않고 fallback")
+  void call_FallsBackWhenUserDailyBudgetExceeded() {
+    // given
+    LlmGatewayProperties properties = new LlmGatewayProperties();
+    properties.getLedger().setDailyTokenBudget(1_000);
+    LlmUsageLedger ledger = new LlmUsageLedger(properties);
+    ledger.record(7L, LlmOperation.EMPATHY, 900, 100, 0);
+    LlmGateway budgetedGateway = new LlmGateway(mock(ChatClient.Builder.class, RETURNS_DEEP_STUBS), executor,
+        properties, meterRegistry, ledger);
+
+    // when
+    String overBudget;
+    try (LlmTurnContext.Scope ignored = LlmTurnContext.open(7L)) {
+      overBudget = budgetedGateway.call(LlmOperation.EMPATHY, new Prompt("상황"), text -> text, () -> "fallback");
+    }
+
+    // then
+    assertThat(overBudget).isEqualTo("fallback");
+    assertThat(ledger.isOverBudget(8L)).isFalse();
+    assertThat(meterRegistry.get("chat.llm.fallbacks").tag("reason", "user_budget").counter().count())
+        .isEqualTo(1.0);
+  }
+
+  @Test
+  @DisplayName("턴 마감이 지나면 응답을 기다리지 않고 fallback, 늦게 온 응답은 별도로 집계")
+  void call_FallsBackWhenTurnDeadlinePasses() throws Exception {
+    // given
+    String result;
+    long elapsedMs;
+
+    // when
+    try (LlmTurnContext.Scope ignored = LlmTurnContext.open(Duration.ofMillis(100))) {
+      long start = System.nanoTime();
+      result = gateway.call(LlmOperation.RECOMMEND, new Prompt("상황: 마감"), text -> text, () -> "fallback");
+      elapsedMs = (System.nanoTime() - start) / 1_000_000;
+    }
+
+    // then
+    assertThat(result).isEqualTo("fallback");
+    assertThat(elapsedMs).isLessThan(250);
+    assertThat(upstreamCalls.get()).isEqualTo(1); // 재시도하지 않음
+    assertThat(meterRegistry.get("chat.llm.fallbacks").tag("reason", "deadline").counter().count())
+        .isEqualTo(1.0);
+    Thread.sleep(400);
+    assertThat(meterRegistry.get("chat.llm.late_results").tag("operation", "recommend").counter().count())
+        .isEqualTo(1.0);
+    // 마감으로 포기한 호출도 실제 지연이 기록되어 헤지 백분위수가 빠른 호출 쪽으로 치우치지 않음
+    assertThat(meterRegistry.get("chat.llm.latency").tag("operation", "recommend").timer().max(TimeUnit.MILLISECONDS))
+        .isGreaterThanOrEqualTo(300.0);
+  }
+
+  @Test
+  @DisplayName("턴 마감이 이미 지났으면 업스트림을 호출하지 않음")
+  void call_SkipsUpstreamWhenTurnDeadlineExpired() {
+    // when
+    String result;
+    try (LlmTurnContext.Scope ignored = LlmTurnContext.open(Duration.ZERO)) {
+      result = gateway.call(LlmOperation.EMPATHY, new Prompt("상황"), text -> text, () -> "fallback");
+    }
+
+    // then
+    assertThat(result).isEqualTo("fallback");
+    assertThat(upstreamCalls.get()).isZero();
+    assertThat(LlmTurnContext.deadline()).isEmpty();
+  }
+
+  @Test
+  @DisplayName("HALF_OPEN 시험 호출이 모두 턴 마감으로 끝나도 허용량을 반납해 이후 호출로 서킷이 닫힘")
+  void call_RecoversAfterDeadlineTerminatedHalfOpenProbes() throws Exception {
+    // given
+    AtomicInteger failing = new AtomicInteger(1);
+    ChatClient.Builder builder = mock(ChatClient.Builder.class, RETURNS_DEEP_STUBS);
+    when(builder.build().prompt(any(Prompt.class)).call().chatResponse()).thenAnswer(invocation -> {
+      if (failing.get() == 1) {
+        throw new IllegalStateException("upstream down");
+      }
+      Thread.sleep(300);
+      return new ChatResponse(List.of(new Generation(new AssistantMessage("ok"))));
+    });
+    LlmGatewayProperties properties = new LlmGatewayProperties();
+    properties.getCircuitBreaker().setMinimumCalls(1);
+    properties.getCircuitBreaker().setOpenDuration(Duration.ofMillis(100));
+    properties.getRetry().setMaxAttempts(1);
+    SimpleMeterRegistry breakerMetrics = new SimpleMeterRegistry(); // 서킷 게이지가 이 게이트웨이의 브레이커를 보도록 분리
+    LlmGateway breakerGateway = new LlmGateway(builder, executor, properties, breakerMetrics,
+        new LlmUsageLedger(properties));
+    breakerGateway.call(LlmOperation.EMPATHY, new Prompt("장애"), text -> text, () -> "fallback");
+    assertThat(breakerMetrics.get("chat.llm.circuit_breaker.open").gauge().value()).isEqualTo(1.0);
+    failing.set(0);
+    Thread.sleep(150);
+
+    // when: 느리지만 정상인 업스트림에서 시험 호출 3개가 모두 턴 마감으로 끝남
+    for (int i = 0; i < 3; i++) {
+      try (LlmTurnContext.Scope ignored = LlmTurnContext.open(Duration.ofMillis(50))) {
+        assertThat(breakerGateway.call(LlmOperation.EMPATHY, new Prompt("시험 " + i), text -> text,
+            () -> "fallback")).isEqualTo("fallback");
+      }
+    }
+    List<String> results = new ArrayList<>();
+    for (int i = 0; i < 3; i++) {
+      results.add(breakerGateway.call(LlmOperation.EMPATHY, new Prompt("복구 " + i), text -> text,
+          () -> "fallback"));
+    }
+
+    // then
+    assertThat(results).containsOnly("ok");
+    assertThat(breakerMetrics.get("chat.llm.circuit_breaker.open").gauge().value()).isZero();
+  }
+
+  @Test
+  @DisplayName("스트리밍 첫 토큰이 턴 마감까지 오지 않으면 fallback 하고 서킷 브레이커에는 기록하지 않음")
+  void stream_FallsBackBeforeFirstTokenWithoutTrippingBreaker() {
+    // given
+    LlmGatewayProperties properties = new LlmGatewayProperties();
+    properties.getCircuitBreaker().setMinimumCalls(1);
+    LlmGateway streamingGateway = streamingGateway(properties, Flux.just(chunk("늦은 토큰"))
+        .delaySubscription(Duration.ofSeconds(1)));
+    List<String> tokens = new CopyOnWriteArrayList<>();
+
+    // when
+    String result;
+    long start = System.nanoTime();
+    try (LlmTurnContext.Scope ignored = LlmTurnContext.open(Duration.ofMillis(100))) {
+      result = streamingGateway.stream(LlmOperation.EMPATHY, new Prompt("상황"), tokens::add, text -> text,
+          () -> "fallback");
+    }
+    long elapsedMs = (System.nanoTime() - start) / 1_000_000;
+
+    // then
+    assertThat(result).isEqualTo("fallback");
+    assertThat(tokens).isEmpty();
+    assertThat(elapsedMs).isLessThan(500);
+    assertThat(meterRegistry.get("chat.llm.fallbacks").tag("reason", "deadline").counter().count())
+        .isEqualTo(1.0);
+    assertThat(meterRegistry.get("chat.llm.circuit_breaker.open").gauge().value()).isZero();
+  }
+
+  @Test
+  @DisplayName("첫 토큰을 보낸 뒤에는 턴 마감으로 끊지 않고, 작업 타임아웃이 지나면 보낸 부분까지를 결과로 사용")
+  void stream_KeepsSentTextWhenTimingOutAfterFirstToken() {
+    // given
+    LlmGatewayProperties properties = new LlmGatewayProperties();
+    properties.getTimeouts().put(LlmOperation.EMPATHY, Duration.ofMillis(400));
+    LlmGateway streamingGateway = streamingGateway(properties, Flux.concat(
+        Flux.just(chunk("많이 "), chunk("힘드셨겠어요")),
+        Mono.delay(Duration.ofMillis(200)).map(tick -> chunk(". 오늘은")),
+        Mono.delay(Duration.ofSeconds(2)).map(tick -> chunk(" 보내지 않은 토큰"))));
+    List<String> tokens = new CopyOnWriteArrayList<>();
+
+    // when
+    String result;
+    try (LlmTurnContext.Scope ignored = LlmTurnContext.open(Duration.ofMillis(100))) {
+      result = streamingGateway.stream(LlmOperation.EMPATHY, new Prompt("상황"), tokens::add, text -> text,
+          () -> "fallback");
+    }
+
+    // then
+    assertThat(result).isEqualTo("많이 힘드셨겠어요. 오늘은").isEqualTo(String.join("", tokens));
+    assertThat(meterRegistry.get("chat.llm.fallbacks").tag("reason", "partial_timeout").counter().count())
+        .isEqualTo(1.0);
+  }
+
+  @Test
+  @DisplayName("스트리밍 중 취소(인터럽트)는 서킷 브레이커 실패로 기록하지 않음")
+  void stream_InterruptIsNotCountedAsFailure() throws Exception {
+    // given
+    LlmGatewayProperties properties = new LlmGatewayProperties();
+    properties.getCircuitBreaker().setMinimumCalls(1);
+    LlmGateway streamingGateway = streamingGateway(properties, Flux.never());
+
+    // when
+    Future<String> result = executor.submit(() -> streamingGateway.stream(LlmOperation.EMPATHY, new Prompt("상황"),
+        token -> {}, text -> text, () -> "fallback"));
+    Thread.sleep(100);
+    result.cancel(true);
+    Thread.sleep(100);
+
+    // then
+    assertThat(meterRegistry.get("chat.llm.fallbacks").tag("reason", "interrupted").counter().count())
+        .isEqualTo(1.0);
+    assertThat(meterRegistry.get("chat.llm.circuit_breaker.open").gauge().value()).isZero();
+  }
+
+  private LlmGateway streamingGateway(LlmGatewayProperties properties, Flux<ChatResponse> responses) {
+    ChatClient.Builder builder = mock(ChatClient.Builder.class, RETURNS_DEEP_STUBS);
+    when(builder.build().prompt(any(Prompt.class)).stream().chatResponse()).thenReturn(responses);
+    return new LlmGateway(builder, executor, properties, meterRegistry, new LlmUsageLedger(properties));
+  }
+
+  private static ChatResponse chunk(String text) {
+    return new ChatResponse(List.of(new Generation(new AssistantMessage(text))));
+  }
+}
@@ -0,0 +1,51 @@
+package com.forA.chatbot.chat.llm;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Duration;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+class LlmHedgePolicyTest {
+
+  @Test
+  @DisplayName("표본이 충분하면 최근 응답 시간의 백분위수만큼 기다린 뒤 헤지")
+  void hedgeDelay_UsesRecentPercentile() {
+    // given
+    LlmGatewayProperties.Hedge config = new LlmGatewayProperties.Hedge();
+    config.setMinSamples(10);
+    config.setMinDelay(Duration.ZERO);
+    LlmHedgePolicy policy = new LlmHedgePolicy(config);
+    assertThat(policy.hedgeDelay(LlmOperation.EMPATHY)).isNull();
+
+    // when
+    for (int i = 1; i <= 100; i++) {
+      policy.recordLatency(LlmOperation.EMPATHY, Duration.ofMillis(i * 10L));
+    }
+
+    // then
+    assertThat(policy.hedgeDelay(LlmOperation.EMPATHY)).isEqualTo(Duration.ofMillis(950));
+    assertThat(policy.hedgeDelay(LlmOperation.STEPS)).isNull();
+  }
+
+  @Test
+  @DisplayName("헤지 요청 비율은 maxFraction 을 넘지 않음")
+  void tryAcquireHedge_BoundedByFraction() {
+    // given
+    LlmGatewayProperties.Hedge config = new LlmGatewayProperties.Hedge();
+    config.setMaxFraction(0.1);
+    LlmHedgePolicy policy = new LlmHedgePolicy(config);
+
+    // when
+    int hedges = 0;
+    for (int i = 0; i < 1_000; i++) {
+      policy.onCall();
+      if (policy.tryAcquireHedge()) {
+        hedges++;
+      }
+    }
+
+    // then
+    assertThat(hedges).isBetween(95, 100);
+  }
+}
@@ -0,0 +1,84 @@
+package com.forA.chatbot.chat.llm;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.RETURNS_DEEP_STUBS;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.ai.chat.client.ChatClient;
+import org.springframework.ai.chat.messages.AssistantMessage;
+import org.springframework.ai.chat.model.ChatResponse;
+import org.springframework.ai.chat.model.Generation;
+import org.springframework.ai.chat.prompt.Prompt;
+
+/**
+ * 헤지 요청 전/후 꼬리 지연(p99) 비교 벤치마크
+ * 업스트림 응답 시간을 p99 가 p50 의 4~5배인 로그정규 분포로 흉내냄 (실제 시간의 1/10 축척)
+ * ./gradlew perfTest 로 실행
+ */
+@Tag("perf")
+class LlmHedgingBenchmarkTest {
+
+  private static final int CALLS = 400;
+
+  @Test
+  @DisplayName("헤지를 켜면 예산 안에서 p99 응답 시간이 줄어듦")
+  void compareTailLatency() {
+    long[] withoutHedge = run(false);
+    long[] withHedge = run(true);
+
+    System.out.printf("[hedge] off: p50=%4d ms, p95=%4d ms, p99=%4d ms%n",
+        percentile(withoutHedge, 0.5), percentile(withoutHedge, 0.95), percentile(withoutHedge, 0.99));
+    System.out.printf("[hedge] on : p50=%4d ms, p95=%4d ms, p99=%4d ms%n",
+        percentile(withHedge, 0.5), percentile(withHedge, 0.95), percentile(withHedge, 0.99));
+
+    assertThat(percentile(withHedge, 0.99)).isLessThan(percentile(withoutHedge, 0.99));
+  }
+
+  private long[] run(boolean hedge) {
+    Random random = new Random(42);
+    ChatClient.Builder builder = mock(ChatClient.Builder.class, RETURNS_DEEP_STUBS);
+    when(builder.build().prompt(any(Prompt.class)).call().chatResponse()).thenAnswer(invocation -> {
+      double latency;
+      synchronized (random) {
+        latency = Math.exp(Math.log(80) + 0.6 * random.nextGaussian()); // p50 80ms, p99 ~320ms
+      }
+      Thread.sleep((long) latency);
+      return new ChatResponse(List.of(new Generation(new AssistantMessage("ok"))));
+    });
+    LlmGatewayProperties properties = new LlmGatewayProperties();
+    properties.setDefaultTimeout(Duration.ofSeconds(5));
+    properties.getHedge().setEnabled(hedge);
+    properties.getHedge().setMinDelay(Duration.ZERO);
+
+    try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+      LlmGateway gateway = new LlmGateway(builder, executor, properties, new SimpleMeterRegistry(),
+          new LlmUsageLedger(properties));
+      long[] latencies = new long[CALLS];
+      for (int i = 0; i < CALLS; i++) {
+        long start = System.nanoTime();
+        gateway.call(LlmOperation.EMPATHY, new Prompt("상황 " + i), text -> text, () -> "fallback");
+        latencies[i] = (System.nanoTime() - start) / 1_000_000;
+      }
+      // 표본이 쌓이기 전 구간은 제외
+      return Arrays.copyOfRange(latencies, properties.getHedge().getMinSamples(), CALLS);
+    }
+  }
+
+  private static long percentile(long[] values, double percentile) {
+    long[] sorted = values.clone();
+    Arrays.sort(sorted);
+    return sorted[Math.min(sorted.length - 1, (int) Math.ceil(percentile * sorted.length) - 1)];
+  }
+}
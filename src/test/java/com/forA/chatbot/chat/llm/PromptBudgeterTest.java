@@ -0,0 +1,82 @@
+package com.forA.chatbot.chat.llm;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.Map;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.ai.chat.prompt.Prompt;
+
+class PromptBudgeterTest {
+
+  private static final CompiledPrompt TEMPLATE = CompiledPrompt.compile(LlmOperation.GOAL_PHRASE, "test", """
+      [사용자 상황]
+      {situation}
+
+      [사용자 감정]
+      {emotions}
+      """);
+
+  private SimpleMeterRegistry meterRegistry;
+  private PromptBudgeter budgeter;
+
+  @BeforeEach
+  void setUp() {
+    LlmGatewayProperties properties = new LlmGatewayProperties();
+    properties.getBudget().getMaxVariableTokens().put("situation", 50);
+    properties.getBudget().setMaxPromptTokens(80);
+    meterRegistry = new SimpleMeterRegistry();
+    budgeter = new PromptBudgeter(properties, meterRegistry);
+  }
+
+  @Test
+  @DisplayName("예산 안의 입력은 그대로 렌더링하고 프롬프트 토큰 수를 기록")
+  void render_KeepsShortInput() {
+    // when
+    Prompt prompt = budgeter.render(TEMPLATE,
+        Map.of("situation", "내일 발표가 너무 긴장돼요", "emotions", "불안"));
+
+    // then
+    assertThat(prompt.getContents()).contains("내일 발표가 너무 긴장돼요");
+    assertThat(meterRegistry.get("chat.llm.prompt.tokens").tag("operation", "goal_phrase")
+        .summary().totalAmount()).isEqualTo(budgeter.countTokens(prompt.getContents()));
+    assertThat(meterRegistry.find("chat.llm.prompt.trimmed").counter()).isNull();
+  }
+
+  @Test
+  @DisplayName("긴 상황 입력은 앞/뒤를 남기고 가운데를 생략해 변수 예산 안으로 줄임")
+  void render_TrimsLongSituation() {
+    // given
+    String situation = "회사에서 발표를 망쳤어요. " + "팀장님이 계속 지적을 하셨고 ".repeat(200) + "지금은 너무 지치고 울고 싶어요.";
+
+    // when
+    Prompt prompt = budgeter.render(TEMPLATE,
+        Map.of("situation", situation, "emotions", "슬픔"));
+
+    // then
+    String contents = prompt.getContents();
+    assertThat(contents).startsWith("[사용자 상황]\n회사에서 발표를");
+    assertThat(contents).contains(PromptBudgeter.OMISSION_MARKER.strip());
+    assertThat(contents).contains("울고 싶어요.");
+    assertThat(budgeter.countTokens(contents)).isLessThanOrEqualTo(80);
+    assertThat(meterRegistry.get("chat.llm.prompt.trimmed").tag("variable", "situation").counter().count())
+        .isEqualTo(1.0);
+  }
+
+  @Test
+  @DisplayName("같은 입력은 항상 같은 결과로 줄어듦 (결정적)")
+  void fit_IsDeterministic() {
+    // given
+    String text = "잠이 안 와요 😢 ".repeat(100);
+
+    // when
+    String first = budgeter.fit(text, 30);
+    String second = budgeter.fit(text, 30);
+
+    // then
+    assertThat(first).isEqualTo(second);
+    assertThat(budgeter.countTokens(first)).isLessThanOrEqualTo(30);
+  }
+}
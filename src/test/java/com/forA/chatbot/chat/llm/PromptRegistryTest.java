@@ -0,0 +1,84 @@
+package com.forA.chatbot.chat.llm;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import com.forA.chatbot.chat.domain.PromptTemplateOverride;
+import com.forA.chatbot.chat.repository.PromptTemplateOverrideRepository;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.ai.chat.prompt.PromptTemplate;
+
+class PromptRegistryTest {
+
+  private PromptTemplateOverrideRepository repository;
+  private PromptRegistry registry;
+
+  @BeforeEach
+  void setUp() {
+    repository = mock(PromptTemplateOverrideRepository.class);
+    when(repository.findByActiveTrue()).thenReturn(List.of());
+    registry = new PromptRegistry(repository, true);
+    registry.load();
+  }
+
+  @Test
+  @DisplayName("모든 작업의 기본 템플릿을 classpath 에서 읽고, 기존 PromptTemplate 과 같은 결과로 렌더링")
+  void get_RendersSameAsPromptTemplate() throws Exception {
+    // given
+    Map<String, Object> values = Map.of("situation", "시험을 망쳤어요", "emotions", "슬픔, 불안");
+    String source = new String(getClass().getResourceAsStream("/prompts/goal_phrase.st").readAllBytes(),
+        StandardCharsets.UTF_8);
+
+    // when
+    CompiledPrompt prompt = registry.get(LlmOperation.GOAL_PHRASE);
+
+    // then
+    for (LlmOperation operation : LlmOperation.values()) {
+      assertThat(registry.get(operation).getSource()).isEqualTo("classpath");
+    }
+    assertThat(prompt.getVersion()).matches("goal_phrase@[0-9a-f]{8}");
+    assertThat(prompt.getVariables()).containsExactlyInAnyOrder("situation", "emotions");
+    assertThat(prompt.render(values)).isEqualTo(new PromptTemplate(source).render(values));
+  }
+
+  @Test
+  @DisplayName("Mongo 재정의를 다시 읽으면 버전이 바뀌고, 조회 실패 시에는 직전 재정의 유지")
+  void reload_AppliesOverride() {
+    // given
+    String before = registry.get(LlmOperation.GOAL_PHRASE).getVersion();
+    when(repository.findByActiveTrue()).thenReturn(List.of(PromptTemplateOverride.builder()
+        .id("goal_phrase").template("상황: {situation} / 감정: {emotions}").active(true).build()));
+
+    // when
+    registry.reload();
+    CompiledPrompt overridden = registry.get(LlmOperation.GOAL_PHRASE);
+    when(repository.findByActiveTrue()).thenThrow(new IllegalStateException("mongo down"));
+    registry.reload();
+
+    // then
+    assertThat(overridden.getSource()).isEqualTo("mongo");
+    assertThat(overridden.getVersion()).isNotEqualTo(before);
+    assertThat(overridden.render(Map.of("situation", "A", "emotions", "B"))).isEqualTo("상황: A / 감정: B");
+    assertThat(registry.get(LlmOperation.GOAL_PHRASE).getVersion()).isEqualTo(overridden.getVersion());
+  }
+
+  @Test
+  @DisplayName("기본 템플릿에 없는 변수를 쓰는 재정의는 반영하지 않음")
+  void reload_RejectsOverrideWithUnknownVariable() {
+    // given
+    when(repository.findByActiveTrue()).thenReturn(List.of(PromptTemplateOverride.builder()
+        .id("steps").template("{skillContext} {unknown}").active(true).build()));
+
+    // when
+    registry.reload();
+
+    // then
+    assertThat(registry.get(LlmOperation.STEPS).getSource()).isEqualTo("classpath");
+  }
+}
@@ -0,0 +1,173 @@
+package com.forA.chatbot.chat.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.forA.chatbot.chat.llm.LlmTurnContext;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+class ChatAiFanOutTest {
+
+  private ExecutorService executor;
+  private ChatAiFanOut fanOut;
+
+  @BeforeEach
+  void setUp() {
+    executor = Executors.newVirtualThreadPerTaskExecutor();
+    fanOut = new ChatAiFanOut(executor);
+    ReflectionTestUtils.setField(fanOut, "timeoutMs", 2_000L);
+    ReflectionTestUtils.setField(fanOut, "maxConcurrency", 8);
+    fanOut.initPermits();
+  }
+
+  @AfterEach
+  void tearDown() {
+    executor.shutdownNow();
+  }
+
+  @Test
+  @DisplayName("하위 작업들을 동시에 실행하고 각자의 결과를 반환")
+  void join_RunsSubtasksConcurrently() {
+    // given
+    CountDownLatch bothStarted = new CountDownLatch(2);
+
+    // when
+    long start = System.nanoTime();
+    try (ChatAiFanOut.Scope scope = fanOut.open()) {
+      ChatAiFanOut.Subtask<String> empathy = scope.fork("empathy", () -> awaitSibling(bothStarted, "공감"), () -> "기본 공감");
+      ChatAiFanOut.Subtask<String> goal = scope.fork("goal", () -> awaitSibling(bothStarted, "목표"), () -> "기본 목표");
+      scope.join();
+
+      // then
+      assertThat(empathy.get()).isEqualTo("공감");
+      assertThat(goal.get()).isEqualTo("목표");
+    }
+    assertThat(Duration.ofNanos(System.nanoTime() - start)).isLessThan(Duration.ofSeconds(1));
+  }
+
+  @Test
+  @DisplayName("한 작업이 실패해도 그 작업만 기본값으로 대체되고 다른 작업 결과는 유지")
+  void join_FailureFallsBackWithoutAffectingSibling() {
+    try (ChatAiFanOut.Scope scope = fanOut.open()) {
+      // when
+      ChatAiFanOut.Subtask<String> failed = scope.fork("empathy", () -> {
+        throw new IllegalStateException("boom");
+      }, () -> "기본 공감");
+      ChatAiFanOut.Subtask<String> ok = scope.fork("goal", () -> "목표", () -> "기본 목표");
+      scope.join();
+
+      // then
+      assertThat(failed.get()).isEqualTo("기본 공감");
+      assertThat(ok.get()).isEqualTo("목표");
+    }
+  }
+
+  @Test
+  @DisplayName("마감 시간을 넘긴 작업은 취소(인터럽트)되고 기본값을 반환")
+  void join_CancelsTimedOutSubtaskAndReturnsFallback() throws Exception {
+    // given
+    ReflectionTestUtils.setField(fanOut, "timeoutMs", 200L);
+    CountDownLatch interrupted = new CountDownLatch(1);
+
+    try (ChatAiFanOut.Scope scope = fanOut.open()) {
+      // when
+      ChatAiFanOut.Subtask<String> slow = scope.fork("empathy", () -> {
+        try {
+          Thread.sleep(5_000);
+        } catch (InterruptedException e) {
+          interrupted.countDown();
+        }
+        return "늦은 공감";
+      }, () -> "기본 공감");
+      scope.join();
+
+      // then
+      assertThat(slow.get()).isEqualTo("기본 공감");
+    }
+    assertThat(interrupted.await(1, TimeUnit.SECONDS)).isTrue();
+  }
+
+  @Test
+  @DisplayName("턴 마감이 fan-out 마감보다 빠르면 턴 마감 + 여유 시간에 합류")
+  void join_IsCappedByTurnDeadlinePlusGrace() {
+    // given
+    long start = System.nanoTime();
+    try (LlmTurnContext.Scope ignored = LlmTurnContext.open(1L, Duration.ofMillis(100));
+        ChatAiFanOut.Scope scope = fanOut.open()) {
+      // when
+      ChatAiFanOut.Subtask<String> slow = scope.fork("empathy", () -> sleep(1_500, "늦은 공감"), () -> "기본 공감");
+      scope.join();
+
+      // then
+      assertThat(slow.get()).isEqualTo("기본 공감");
+    }
+    Duration elapsed = Duration.ofNanos(System.nanoTime() - start);
+    // 100 ms 턴 마감 + 250 ms 여유 이후, fan-out 마감(2초)보다는 훨씬 전에 합류
+    assertThat(elapsed).isGreaterThanOrEqualTo(Duration.ofMillis(340)).isLessThan(Duration.ofMillis(1_200));
+  }
+
+  @Test
+  @DisplayName("토큰을 흘려보내는 작업은 턴 마감으로 취소하지 않고 fan-out 마감까지 기다림")
+  void forkStreaming_IsNotCappedByTurnDeadline() {
+    try (LlmTurnContext.Scope ignored = LlmTurnContext.open(1L, Duration.ofMillis(100));
+        ChatAiFanOut.Scope scope = fanOut.open()) {
+      // when
+      ChatAiFanOut.Subtask<String> streamed = scope.forkStreaming("empathy", () -> sleep(600, "이미 보낸 공감"),
+          () -> "기본 공감");
+      ChatAiFanOut.Subtask<String> capped = scope.fork("goal", () -> sleep(600, "늦은 목표"), () -> "기본 목표");
+      scope.join();
+
+      // then
+      assertThat(streamed.get()).isEqualTo("이미 보낸 공감");
+      assertThat(capped.get()).isEqualTo("기본 목표");
+    }
+  }
+
+  @Test
+  @DisplayName("하위 작업 스레드에서도 호출한 턴의 유저와 마감 시각을 그대로 사용")
+  void fork_PropagatesTurnContext() {
+    try (LlmTurnContext.Scope ignored = LlmTurnContext.open(7L, Duration.ofSeconds(1));
+        ChatAiFanOut.Scope scope = fanOut.open()) {
+      Instant turnDeadline = LlmTurnContext.deadline().orElseThrow();
+
+      // when
+      ChatAiFanOut.Subtask<Optional<Long>> userId = scope.fork("user", LlmTurnContext::userId, Optional::empty);
+      ChatAiFanOut.Subtask<Optional<Instant>> deadline = scope.fork("deadline", LlmTurnContext::deadline,
+          Optional::empty);
+      scope.join();
+
+      // then
+      assertThat(userId.get()).contains(7L);
+      assertThat(deadline.get()).contains(turnDeadline);
+    }
+  }
+
+  private static String awaitSibling(CountDownLatch bothStarted, String result) {
+    bothStarted.countDown();
+    try {
+      return bothStarted.await(1, TimeUnit.SECONDS) ? result : "직렬 실행";
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      return "중단";
+    }
+  }
+
+  private static String sleep(long millis, String result) {
+    try {
+      Thread.sleep(millis);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+    return result;
+  }
+}
@@ -0,0 +1,211 @@
+package com.forA.chatbot.chat.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.forA.chatbot.apiPayload.code.status.ErrorStatus;
+import com.forA.chatbot.apiPayload.exception.GeneralException;
+import com.forA.chatbot.apiPayload.exception.handler.ChatHandler;
+import com.forA.chatbot.chat.domain.IdempotencyRecord;
+import com.forA.chatbot.chat.dto.ChatRequest;
+import com.forA.chatbot.chat.dto.ChatResponse;
+import com.forA.chatbot.chat.dto.ChatResponse.ButtonOption;
+import com.forA.chatbot.chat.dto.ChatResponse.ChatBotMessage;
+import com.forA.chatbot.chat.dto.ChatResponse.MessageType;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.IndexDefinition;
+import org.springframework.data.mongodb.core.index.IndexInfo;
+import org.springframework.data.mongodb.core.index.IndexOperations;
+import org.springframework.data.mongodb.core.index.IndexOptions;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.util.DigestUtils;
+
+class ChatIdempotencyServiceTest {
+
+  private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+  private MongoTemplate mongoTemplate;
+  private SimpleMeterRegistry meterRegistry;
+  private ChatIdempotencyService idempotencyService;
+
+  @BeforeEach
+  void setUp() {
+    mongoTemplate = mock(MongoTemplate.class);
+    meterRegistry = new SimpleMeterRegistry();
+    idempotencyService = new ChatIdempotencyService(mongoTemplate, objectMapper, meterRegistry, true,
+        Duration.ofSeconds(5), Duration.ofMinutes(2), Duration.ofDays(1));
+  }
+
+  @Test
+  @DisplayName("이미 끝난 키로 다시 오면 턴을 실행하지 않고 저장된 응답을 그대로 반환")
+  void execute_ReplaysStoredResponse() throws Exception {
+    // given
+    ChatResponse stored = response("EMOTION_SELECT");
+    doThrow(new DuplicateKeyException("dup")).when(mongoTemplate).insert(any(IdempotencyRecord.class));
+    when(mongoTemplate.findById("1:key-1", IdempotencyRecord.class)).thenReturn(IdempotencyRecord.builder()
+        .id("1:key-1")
+        .requestHash(hashOf("session-1", "좋아요"))
+        .status(IdempotencyRecord.Status.COMPLETED)
+        .responseJson(objectMapper.writeValueAsString(stored))
+        .createdAt(LocalDateTime.now())
+        .build());
+
+    // when
+    ChatResponse replayed = idempotencyService.execute(1L, "key-1", "session-1", request("좋아요"), () -> {
+      throw new AssertionError("턴이 다시 실행되면 안 됨");
+    });
+
+    // then
+    assertThat(replayed.getCurrentStep()).isEqualTo("EMOTION_SELECT");
+    assertThat(replayed.getBotMessage().getOptions()).extracting(ButtonOption::getValue).containsExactly("YES");
+    assertThat(replayed.getBotMessage().getOptions().get(0).isMultiSelect()).isTrue();
+    assertThat(meterRegistry.get("chat.idempotency").tag("result", "replayed").counter().count()).isEqualTo(1.0);
+  }
+
+  @Test
+  @DisplayName("같은 키가 처리 중이면 함께 기다렸다가 같은 응답을 받고, 턴은 한 번만 실행")
+  void execute_ConcurrentDuplicateWaitsForInFlightResult() throws Exception {
+    // given
+    CountDownLatch started = new CountDownLatch(1);
+    CountDownLatch release = new CountDownLatch(1);
+    AtomicInteger executions = new AtomicInteger();
+    ChatResponse expected = response("SITUATION_INPUT");
+
+    // when
+    try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+      Future<ChatResponse> first = executor.submit(() -> idempotencyService.execute(1L, "key-1", "session-1",
+          request("좋아요"), () -> {
+            executions.incrementAndGet();
+            started.countDown();
+            await(release);
+            return expected;
+          }));
+      assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+      Future<ChatResponse> duplicate = executor.submit(() -> idempotencyService.execute(1L, "key-1", "session-1",
+          request("좋아요"), () -> {
+            executions.incrementAndGet();
+            return response("OTHER");
+          }));
+      Thread.sleep(100);
+      release.countDown();
+
+      // then
+      assertThat(first.get(5, TimeUnit.SECONDS)).isSameAs(expected);
+      assertThat(duplicate.get(5, TimeUnit.SECONDS)).isSameAs(expected);
+    }
+    assertThat(executions.get()).isEqualTo(1);
+    verify(mongoTemplate, times(1)).insert(any(IdempotencyRecord.class));
+  }
+
+  @Test
+  @DisplayName("같은 키로 다른 요청을 보내면 IDEMPOTENCY_KEY_REUSED")
+  void execute_RejectsKeyReuseWithDifferentBody() {
+    // given
+    doThrow(new DuplicateKeyException("dup")).when(mongoTemplate).insert(any(IdempotencyRecord.class));
+    when(mongoTemplate.findById("1:key-1", IdempotencyRecord.class)).thenReturn(IdempotencyRecord.builder()
+        .id("1:key-1")
+        .requestHash(hashOf("session-1", "좋아요"))
+        .status(IdempotencyRecord.Status.COMPLETED)
+        .createdAt(LocalDateTime.now())
+        .build());
+
+    // when & then
+    assertThatThrownBy(() -> idempotencyService.execute(1L, "key-1", "session-1", request("싫어요"),
+        () -> response("OTHER")))
+        .isInstanceOf(ChatHandler.class)
+        .extracting(e -> ((GeneralException) e).getCode())
+        .isEqualTo(ErrorStatus.IDEMPOTENCY_KEY_REUSED);
+  }
+
+  @Test
+  @DisplayName("턴이 실패하면 키를 지워 재시도가 다시 실행되도록 함")
+  void execute_RemovesKeyWhenTurnFails() {
+    // when & then
+    assertThatThrownBy(() -> idempotencyService.execute(1L, "key-1", "session-1", request("좋아요"), () -> {
+      throw new IllegalStateException("boom");
+    })).isInstanceOf(IllegalStateException.class);
+    verify(mongoTemplate).remove(any(Query.class), eq(IdempotencyRecord.class));
+  }
+
+  @Test
+  @DisplayName("TTL 인덱스가 없으면 설정값으로 만들고, 이미 있으면 만료 시간만 설정값으로 바꿈")
+  void ensureTtlIndex_AppliesConfiguredTtl() {
+    // given
+    IndexOperations indexOps = mock(IndexOperations.class);
+    when(mongoTemplate.indexOps(IdempotencyRecord.class)).thenReturn(indexOps);
+    when(indexOps.getIndexInfo()).thenReturn(List.of(),
+        List.of(IndexInfo.indexInfoOf(new Document("name", ChatIdempotencyService.TTL_INDEX)
+            .append("key", new Document("created_at", 1)).append("expireAfterSeconds", 86_400L))));
+    ChatIdempotencyService sixHours = new ChatIdempotencyService(mongoTemplate, objectMapper, meterRegistry, true,
+        Duration.ofSeconds(5), Duration.ofMinutes(2), Duration.ofHours(6));
+
+    // when
+    sixHours.ensureTtlIndex();
+    sixHours.ensureTtlIndex();
+
+    // then
+    ArgumentCaptor<IndexDefinition> created = ArgumentCaptor.forClass(IndexDefinition.class);
+    verify(indexOps).createIndex(created.capture());
+    assertThat(created.getValue().getIndexOptions().get("name")).isEqualTo(ChatIdempotencyService.TTL_INDEX);
+    assertThat(created.getValue().getIndexOptions().get("expireAfterSeconds")).isEqualTo(21_600L);
+    ArgumentCaptor<IndexOptions> altered = ArgumentCaptor.forClass(IndexOptions.class);
+    verify(indexOps).alterIndex(eq(ChatIdempotencyService.TTL_INDEX), altered.capture());
+    assertThat(altered.getValue().getExpire()).isEqualTo(Duration.ofHours(6));
+  }
+
+  private static ChatRequest request(String responseValue) {
+    ChatRequest request = new ChatRequest();
+    request.setResponseValue(responseValue);
+    return request;
+  }
+
+  private static ChatResponse response(String step) {
+    return ChatResponse.builder()
+        .sessionId("session-1")
+        .currentStep(step)
+        .botMessage(ChatBotMessage.builder()
+            .content("오늘 기분은 어때요?")
+            .type(MessageType.OPTION)
+            .options(List.of(ButtonOption.builder().label("네").value("YES").multiSelect(true).build()))
+            .build())
+        .isCompleted(false)
+        .todayChatCount(1)
+        .build();
+  }
+
+  private static String hashOf(String sessionId, String responseValue) {
+    return DigestUtils.md5DigestAsHex((sessionId + "\n" + responseValue).getBytes(StandardCharsets.UTF_8));
+  }
+
+  private static void await(CountDownLatch latch) {
+    try {
+      latch.await(5, TimeUnit.SECONDS);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+}
@@ -0,0 +1,238 @@
+package com.forA.chatbot.chat.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.forA.chatbot.auth.repository.UserRepository;
+import com.forA.chatbot.chat.converter.ChatConverter;
+import com.forA.chatbot.chat.domain.ChatSession;
+import com.forA.chatbot.chat.domain.enums.ChatStep;
+import com.forA.chatbot.chat.dto.ChatRequest;
+import com.forA.chatbot.chat.llm.LlmGateway;
+import com.forA.chatbot.chat.llm.LlmGatewayProperties;
+import com.forA.chatbot.chat.llm.PromptBudgeter;
+import com.forA.chatbot.chat.llm.PromptRegistry;
+import com.forA.chatbot.chat.repository.ChatMessageRepository;
+import com.forA.chatbot.chat.repository.ChatSessionRepository;
+import com.forA.chatbot.chat.repository.ChatTurnRepository;
+import com.forA.chatbot.chat.repository.PromptTemplateOverrideRepository;
+import com.forA.chatbot.chat.repository.UserMemoryRepository;
+import com.forA.chatbot.notification.scheduler.ChatNotificationScheduler;
+import com.forA.chatbot.subscriptions.repository.SubscriptionRepository;
+import com.forA.chatbot.user.domain.User;
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import javax.sql.DataSource;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.aop.framework.ProxyFactory;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.transaction.annotation.AnnotationTransactionAttributeSource;
+import org.springframework.transaction.interceptor.NameMatchTransactionAttributeSource;
+import org.springframework.transaction.interceptor.RuleBasedTransactionAttribute;
+import org.springframework.transaction.interceptor.TransactionAttributeSource;
+import org.springframework.transaction.interceptor.TransactionInterceptor;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * 채팅 턴 처리 시 DB 커넥션 풀 포화 부하 테스트
+ * 실제 ChatService.handleUserResponse 를 @Transactional 프록시를 씌워 작은 풀(H2 + Hikari)에 동시에 몰고,
+ * 느린 LlmGateway 스텁 안에서 현재 스레드가 커넥션/트랜잭션을 잡고 있는지 확인
+ * - before: 턴 전체에 트랜잭션을 건 경우 (이전 구조, 회귀 감지가 동작하는지 확인용)
+ * - after: 현재 ChatService (로드 → 트랜잭션 밖 GPT 호출 → 짧은 커밋 트랜잭션)
+ * ./gradlew perfTest 로 실행
+ */
+@Tag("perf")
+class ChatTurnPoolSaturationLoadTest {
+
+  private static final int POOL_SIZE = 4;
+  private static final int CONCURRENT_TURNS = 48;
+  private static final long LLM_LATENCY_MS = 400;
+  private static final long CONNECTION_TIMEOUT_MS = 1_000;
+
+  @Test
+  @DisplayName("handleUserResponse 는 GPT 호출 동안 커넥션을 잡지 않아 풀 대기와 획득 실패가 없음")
+  void handleUserResponse_DoesNotHoldConnectionDuringCompute() throws Exception {
+    Result before = run("before", true);
+    Result after = run("after", false);
+
+    System.out.printf("[pool] %-6s maxAwaiting=%3d, maxActive=%d, acquireFailures=%3d, heldDuringGpt=%3d, elapsed=%5d ms%n",
+        "before", before.maxAwaiting, before.maxActive, before.failures, before.heldDuringGpt, before.elapsedMs);
+    System.out.printf("[pool] %-6s maxAwaiting=%3d, maxActive=%d, acquireFailures=%3d, heldDuringGpt=%3d, elapsed=%5d ms%n",
+        "after", after.maxAwaiting, after.maxActive, after.failures, after.heldDuringGpt, after.elapsedMs);
+
+    assertThat(before.heldDuringGpt).isPositive();
+    assertThat(after.heldDuringGpt).isZero();
+    assertThat(after.failures).isZero();
+    assertThat(after.maxAwaiting).isLessThan(before.maxAwaiting);
+  }
+
+  private Result run(String name, boolean wholeTurnTransactional) throws Exception {
+    HikariConfig config = new HikariConfig();
+    config.setJdbcUrl("jdbc:h2:mem:" + name + ";DB_CLOSE_DELAY=-1");
+    config.setUsername("sa");
+    config.setMaximumPoolSize(POOL_SIZE);
+    config.setConnectionTimeout(CONNECTION_TIMEOUT_MS);
+    config.setPoolName("chat-turn-" + name);
+
+    try (HikariDataSource dataSource = new HikariDataSource(config);
+        ExecutorService workers = Executors.newVirtualThreadPerTaskExecutor();
+        ScheduledExecutorService sampler = Executors.newSingleThreadScheduledExecutor()) {
+      JdbcTemplate jdbc = new JdbcTemplate(dataSource);
+      jdbc.execute("CREATE TABLE users (id BIGINT PRIMARY KEY, nickname VARCHAR(20))");
+      for (int i = 0; i < CONCURRENT_TURNS; i++) {
+        jdbc.update("INSERT INTO users VALUES (?, ?)", i, "user" + i);
+      }
+      DataSourceTransactionManager transactionManager = new DataSourceTransactionManager(dataSource);
+      AtomicInteger heldDuringGpt = new AtomicInteger();
+      ChatService chatService = transactionalProxy(
+          chatService(jdbc, new TransactionTemplate(transactionManager), slowGateway(dataSource, heldDuringGpt)),
+          transactionManager, wholeTurnTransactional);
+
+      AtomicInteger maxAwaiting = new AtomicInteger();
+      AtomicInteger maxActive = new AtomicInteger();
+      sampler.scheduleAtFixedRate(() -> {
+        maxAwaiting.accumulateAndGet(dataSource.getHikariPoolMXBean().getThreadsAwaitingConnection(), Math::max);
+        maxActive.accumulateAndGet(dataSource.getHikariPoolMXBean().getActiveConnections(), Math::max);
+      }, 0, 5, TimeUnit.MILLISECONDS);
+
+      AtomicInteger failures = new AtomicInteger();
+      long start = System.nanoTime();
+      List<Future<?>> turns = new ArrayList<>();
+      for (int i = 0; i < CONCURRENT_TURNS; i++) {
+        long userId = i;
+        turns.add(workers.submit(() -> {
+          try {
+            chatService.handleUserResponse(userId, "session-" + userId, request("오늘 회사에서 많이 혼났어"));
+          } catch (RuntimeException e) {
+            failures.incrementAndGet();
+          }
+        }));
+      }
+      for (Future<?> turn : turns) {
+        turn.get();
+      }
+      long elapsedMs = (System.nanoTime() - start) / 1_000_000;
+      sampler.shutdownNow();
+      return new Result(maxAwaiting.get(), maxActive.get(), failures.get(), heldDuringGpt.get(), elapsedMs);
+    }
+  }
+
+  /**
+   * GPT 호출을 고정 지연으로 대체하고, 호출 시점에 이 스레드가 커넥션이나 트랜잭션을 잡고 있으면 기록
+   */
+  @SuppressWarnings("unchecked")
+  private static LlmGateway slowGateway(DataSource dataSource, AtomicInteger heldDuringGpt) {
+    LlmGateway llmGateway = mock(LlmGateway.class);
+    when(llmGateway.call(any(), any(), any(), any())).thenAnswer(invocation -> {
+      if (TransactionSynchronizationManager.hasResource(dataSource)
+          || TransactionSynchronizationManager.isActualTransactionActive()) {
+        heldDuringGpt.incrementAndGet();
+      }
+      Thread.sleep(LLM_LATENCY_MS);
+      return invocation.<Function<String, Object>>getArgument(2).apply("이야기해줘서 고마워요.");
+    });
+    return llmGateway;
+  }
+
+  /**
+   * 자유 대화(FREE_CHAT) 턴: 로드 시 유저를 DB 에서 읽고, GPT 한 번, 커밋 트랜잭션에서 유저를 다시 씀
+   */
+  private static ChatService chatService(JdbcTemplate jdbc, TransactionTemplate transactionTemplate,
+      LlmGateway llmGateway) {
+    SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    PromptBudgeter promptBudgeter = new PromptBudgeter(new LlmGatewayProperties(), meterRegistry);
+    PromptTemplateOverrideRepository overrideRepository = mock(PromptTemplateOverrideRepository.class);
+    when(overrideRepository.findByActiveTrue()).thenReturn(List.of());
+    PromptRegistry promptRegistry = new PromptRegistry(overrideRepository, false);
+    promptRegistry.load();
+    ChatAiService chatAiService = new ChatAiService(llmGateway, promptBudgeter, promptRegistry, new ObjectMapper(),
+        mock(SimilarSituationCache.class));
+
+    ChatSessionRepository chatSessionRepository = mock(ChatSessionRepository.class);
+    when(chatSessionRepository.findById(anyString())).thenAnswer(invocation -> Optional.of(ChatSession.builder()
+        .id(invocation.getArgument(0))
+        .currentStep(ChatStep.FREE_CHAT.name())
+        .build()));
+    UserRepository userRepository = mock(UserRepository.class);
+    when(userRepository.findById(anyLong())).thenAnswer(invocation -> {
+      Long userId = invocation.getArgument(0);
+      String nickname = jdbc.queryForObject("SELECT nickname FROM users WHERE id = ?", String.class, userId);
+      return Optional.of(User.builder().id(userId).nickname(nickname).build());
+    });
+    when(userRepository.save(any(User.class))).thenAnswer(invocation -> {
+      User user = invocation.getArgument(0);
+      jdbc.update("UPDATE users SET nickname = ? WHERE id = ?", user.getNickname(), user.getId());
+      return user;
+    });
+    when(chatSessionRepository.save(any(ChatSession.class))).thenAnswer(invocation -> {
+      // 커밋 트랜잭션 안에서 DB 쓰기가 일어나도록 유저 행을 함께 갱신
+      ChatSession session = invocation.getArgument(0);
+      jdbc.update("UPDATE users SET nickname = nickname WHERE id = ?",
+          Long.parseLong(session.getId().substring("session-".length())));
+      return session;
+    });
+    ChatResponseGenerator responseGenerator = mock(ChatResponseGenerator.class);
+    when(responseGenerator.createFreeChatMessage(anyString())).thenCallRealMethod();
+
+    ExecutorService chatAiExecutor = mock(ExecutorService.class);
+    FreeChatService freeChatService = new FreeChatService(chatAiService, mock(UserMemoryService.class),
+        promptBudgeter, mock(MongoTemplate.class), chatAiExecutor, meterRegistry, 8, 1200, 300);
+
+    return new ChatService(chatSessionRepository, mock(ChatMessageRepository.class), mock(ChatTurnRepository.class),
+        mock(ChatTurnClaims.class), mock(UserMemoryRepository.class), responseGenerator, userRepository,
+        new ObjectMapper(), chatAiService, mock(ChatAiFanOut.class), mock(ChatNotificationScheduler.class),
+        mock(SkillStepsCache.class), mock(SkillCatalog.class), chatAiExecutor, mock(ChatConverter.class),
+        mock(SubscriptionRepository.class), transactionTemplate, mock(SpeculativePrefetcher.class),
+        mock(UserMemoryService.class), freeChatService, mock(DailyChatCounter.class),
+        mock(ChatIdempotencyService.class), meterRegistry);
+  }
+
+  /**
+   * 스프링 컨테이너와 같은 방식으로 @Transactional 을 적용한 프록시
+   * wholeTurnTransactional 이면 handleUserResponse 전체에 트랜잭션을 걸어 이전 구조를 재현
+   */
+  private static ChatService transactionalProxy(ChatService target, DataSourceTransactionManager transactionManager,
+      boolean wholeTurnTransactional) {
+    TransactionAttributeSource attributeSource;
+    if (wholeTurnTransactional) {
+      NameMatchTransactionAttributeSource nameMatch = new NameMatchTransactionAttributeSource();
+      nameMatch.addTransactionalMethod("handleUserResponse", new RuleBasedTransactionAttribute());
+      attributeSource = nameMatch;
+    } else {
+      attributeSource = new AnnotationTransactionAttributeSource();
+    }
+    ProxyFactory proxyFactory = new ProxyFactory(target);
+    proxyFactory.setProxyTargetClass(true);
+    proxyFactory.addAdvice(new TransactionInterceptor(transactionManager, attributeSource));
+    return (ChatService) proxyFactory.getProxy();
+  }
+
+  private static ChatRequest request(String responseValue) {
+    ChatRequest request = new ChatRequest();
+    request.setResponseValue(responseValue);
+    return request;
+  }
+
+  private record Result(int maxAwaiting, int maxActive, int failures, int heldDuringGpt, long elapsedMs) {}
+}
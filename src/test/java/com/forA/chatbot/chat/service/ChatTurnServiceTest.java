@@ -0,0 +1,243 @@
+package com.forA.chatbot.chat.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.anyIterable;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.after;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.forA.chatbot.apiPayload.ApiResponse;
+import com.forA.chatbot.apiPayload.code.status.ErrorStatus;
+import com.forA.chatbot.apiPayload.exception.GeneralException;
+import com.forA.chatbot.apiPayload.exception.handler.ChatHandler;
+import com.forA.chatbot.chat.domain.ChatSession;
+import com.forA.chatbot.chat.domain.ChatTurn;
+import com.forA.chatbot.chat.domain.enums.ChatStep;
+import com.forA.chatbot.chat.dto.ChatRequest;
+import com.forA.chatbot.chat.dto.ChatResponse;
+import com.forA.chatbot.chat.dto.ChatResponse.ChatBotMessage;
+import com.forA.chatbot.chat.dto.ChatResponse.MessageType;
+import com.forA.chatbot.chat.dto.ChatTurnResponse;
+import com.forA.chatbot.chat.repository.ChatTurnRepository;
+import com.forA.chatbot.notification.service.NotificationService;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.web.context.request.async.DeferredResult;
+
+class ChatTurnServiceTest {
+
+  private final Map<String, ChatTurn> turns = new ConcurrentHashMap<>();
+  private final CountDownLatch bodyReady = new CountDownLatch(1);
+  private ChatService chatService;
+  private ChatTurnRepository chatTurnRepository;
+  private NotificationService notificationService;
+  private ChatTurnClaims chatTurnClaims;
+  private ChatTurnService chatTurnService;
+
+  @BeforeEach
+  void setUp() {
+    chatService = mock(ChatService.class);
+    notificationService = mock(NotificationService.class);
+    chatTurnRepository = mock(ChatTurnRepository.class);
+    // 세션당 PENDING 턴 하나만 허용하는 부분 유니크 인덱스 흉내
+    when(chatTurnRepository.insert(any(ChatTurn.class))).thenAnswer(invocation -> {
+      ChatTurn turn = invocation.getArgument(0);
+      synchronized (turns) {
+        boolean pending = turns.values().stream().anyMatch(existing ->
+            existing.getSessionId().equals(turn.getSessionId()) && existing.getStatus() == ChatTurn.Status.PENDING);
+        if (pending) {
+          throw new DuplicateKeyException("chat_turns_pending_session");
+        }
+        turn.setId("turn-" + turns.size());
+        turns.put(turn.getId(), turn);
+      }
+      return turn;
+    });
+    when(chatTurnRepository.save(any(ChatTurn.class))).thenAnswer(invocation -> {
+      ChatTurn turn = invocation.getArgument(0);
+      turns.put(turn.getId(), turn);
+      return turn;
+    });
+    when(chatTurnRepository.findById(anyString()))
+        .thenAnswer(invocation -> Optional.ofNullable(turns.get(invocation.<String>getArgument(0))));
+    when(chatTurnRepository.findAllById(anyIterable())).thenAnswer(invocation -> {
+      List<ChatTurn> found = new ArrayList<>();
+      invocation.<Iterable<String>>getArgument(0).forEach(id -> Optional.ofNullable(turns.get(id)).ifPresent(found::add));
+      return found;
+    });
+    doAnswer(invocation -> turns.remove(invocation.<String>getArgument(0)))
+        .when(chatTurnRepository).deleteById(anyString());
+    MongoTemplate mongoTemplate = mock(MongoTemplate.class);
+    when(mongoTemplate.updateFirst(any(Query.class), any(Update.class), eq(ChatTurn.class))).thenAnswer(invocation -> {
+      String turnId = invocation.<Query>getArgument(0).getQueryObject().getString("_id");
+      LocalDateTime until = (LocalDateTime) invocation.<Update>getArgument(1).getUpdateObject()
+          .get("$set", Document.class).get("awaited_until");
+      Optional.ofNullable(turns.get(turnId)).ifPresent(turn -> turn.setAwaitedUntil(until));
+      return null;
+    });
+
+    ChatTurnContext context = new ChatTurnContext(ChatSession.builder().id("session-1").build(), null,
+        ChatStep.SITUATION_INPUT, "시험 때문에 불안해요", LocalDateTime.now(), 1);
+    when(chatService.beginTurn(eq(1L), eq("session-1"), any())).thenReturn(context);
+    when(chatService.completeTurn(eq(context), any(), any())).thenAnswer(invocation -> {
+      bodyReady.await(5, TimeUnit.SECONDS);
+      return ChatResponse.builder()
+          .sessionId("session-1")
+          .currentStep(ChatStep.ACTION_OFFER.name())
+          .botMessage(ChatBotMessage.builder().content("많이 불안했겠어요").type(MessageType.TEXT).build())
+          .isCompleted(false)
+          .build();
+    });
+
+    ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+    executor.initialize();
+    chatTurnClaims = new ChatTurnClaims(chatTurnRepository, mongoTemplate, 120);
+    chatTurnService = new ChatTurnService(chatService, chatTurnRepository, chatTurnClaims, mongoTemplate,
+        notificationService, executor, new ObjectMapper());
+  }
+
+  @Test
+  @DisplayName("접수 즉시 PENDING 봇 메시지를 반환하고, 롱폴링 중이면 결과를 전달하고 푸시는 보내지 않음")
+  void submit_DeliversToWaitingPoller() throws Exception {
+    // when
+    ChatTurnResponse accepted = chatTurnService.submit(1L, "session-1", new ChatRequest());
+    DeferredResult<ApiResponse<ChatTurnResponse>> poll = chatTurnService.await(1L, accepted.getTurnId(), 5_000);
+    bodyReady.countDown();
+
+    // then
+    assertThat(accepted.getStatus()).isEqualTo("PENDING");
+    assertThat(accepted.getChatResponse().getBotMessage().getType()).isEqualTo(MessageType.PENDING);
+    ChatTurnResponse completed = awaitResult(poll);
+    assertThat(completed.getStatus()).isEqualTo("COMPLETED");
+    assertThat(completed.getChatResponse().getBotMessage().getContent()).isEqualTo("많이 불안했겠어요");
+    verify(notificationService, never()).sendChatTurnCompletedNotification(any(), any());
+  }
+
+  @Test
+  @DisplayName("기다리는 요청이 없으면 완료 시 푸시 알림 발송")
+  void submit_PushesWhenNoPoller() throws Exception {
+    // when
+    ChatTurnResponse accepted = chatTurnService.submit(1L, "session-1", new ChatRequest());
+    bodyReady.countDown();
+
+    // then
+    verify(notificationService, timeout(5_000)).sendChatTurnCompletedNotification(1L, "많이 불안했겠어요");
+    // 기다리는 요청이 없는 비동기 워커는 대화형 턴 마감 없이 처리
+    verify(chatService).completeTurn(any(), isNull(), isNull());
+    assertThat(turns.get(accepted.getTurnId()).getStatus()).isEqualTo(ChatTurn.Status.COMPLETED);
+  }
+
+  @Test
+  @DisplayName("같은 세션에 처리 중인 턴이 있으면 두 번째 접수는 CHAT_TURN_IN_PROGRESS 이고 유저 메시지도 기록하지 않음")
+  void submit_RejectsSecondPendingTurnOnSameSession() {
+    // given
+    chatTurnService.submit(1L, "session-1", new ChatRequest());
+
+    // when & then
+    assertThatThrownBy(() -> chatTurnService.submit(1L, "session-1", new ChatRequest()))
+        .isInstanceOf(ChatHandler.class)
+        .extracting(e -> ((GeneralException) e).getCode())
+        .isEqualTo(ErrorStatus.CHAT_TURN_IN_PROGRESS);
+    verify(chatService, times(1)).beginTurn(eq(1L), eq("session-1"), any());
+    bodyReady.countDown();
+  }
+
+  @Test
+  @DisplayName("동기/스트리밍 턴도 같은 선점을 쓰므로 비동기 턴 처리 중에는 거절되고, 완료 후에는 선점 가능")
+  void claim_RejectsSyncTurnWhileAsyncTurnIsPending() {
+    // given
+    ChatTurnResponse accepted = chatTurnService.submit(1L, "session-1", new ChatRequest());
+
+    // when & then
+    assertThatThrownBy(() -> chatTurnClaims.claim(1L, "session-1"))
+        .isInstanceOf(ChatHandler.class)
+        .extracting(e -> ((GeneralException) e).getCode())
+        .isEqualTo(ErrorStatus.CHAT_TURN_IN_PROGRESS);
+
+    bodyReady.countDown();
+    verify(notificationService, timeout(5_000)).sendChatTurnCompletedNotification(1L, "많이 불안했겠어요");
+    assertThat(turns.get(accepted.getTurnId()).getStatus()).isEqualTo(ChatTurn.Status.COMPLETED);
+    ChatTurn claim = chatTurnClaims.claim(1L, "session-1");
+    chatTurnClaims.release(claim);
+    assertThat(turns).doesNotContainKey(claim.getId());
+  }
+
+  @Test
+  @DisplayName("다른 인스턴스의 워커가 완료한 턴도 턴 문서 조회로 롱폴링에 전달")
+  void await_DeliversTurnCompletedOnAnotherInstance() throws Exception {
+    // given
+    ChatTurn turn = ChatTurn.builder()
+        .id("turn-remote")
+        .sessionId("session-2")
+        .userId(1L)
+        .status(ChatTurn.Status.PENDING)
+        .createdAt(LocalDateTime.now())
+        .build();
+    turns.put(turn.getId(), turn);
+    DeferredResult<ApiResponse<ChatTurnResponse>> poll = chatTurnService.await(1L, turn.getId(), 5_000);
+
+    // when
+    turn.setStatus(ChatTurn.Status.COMPLETED);
+    turn.setCurrentStep(ChatStep.ACTION_OFFER.name());
+    turn.setBotMessageContent("많이 불안했겠어요");
+    turn.setBotMessageType(MessageType.TEXT.name());
+    chatTurnService.pollWaitingTurns();
+
+    // then
+    assertThat(turn.getAwaitedUntil()).isAfter(LocalDateTime.now());
+    ChatTurnResponse completed = awaitResult(poll);
+    assertThat(completed.getStatus()).isEqualTo("COMPLETED");
+    assertThat(completed.getChatResponse().getBotMessage().getContent()).isEqualTo("많이 불안했겠어요");
+  }
+
+  @Test
+  @DisplayName("다른 인스턴스에서 롱폴링 중이면 완료 시 푸시를 보내지 않음")
+  void submit_SkipsPushWhenAwaitedOnAnotherInstance() {
+    // given
+    ChatTurnResponse accepted = chatTurnService.submit(1L, "session-1", new ChatRequest());
+    turns.get(accepted.getTurnId()).setAwaitedUntil(LocalDateTime.now().plusSeconds(30));
+
+    // when
+    bodyReady.countDown();
+
+    // then
+    verify(chatTurnRepository, timeout(5_000)).save(any(ChatTurn.class));
+    verify(notificationService, after(300).never()).sendChatTurnCompletedNotification(any(), any());
+    assertThat(turns.get(accepted.getTurnId()).getStatus()).isEqualTo(ChatTurn.Status.COMPLETED);
+  }
+
+  @SuppressWarnings("unchecked")
+  private ChatTurnResponse awaitResult(DeferredResult<ApiResponse<ChatTurnResponse>> poll) throws Exception {
+    long deadline = System.currentTimeMillis() + 5_000;
+    while (!poll.hasResult() && System.currentTimeMillis() < deadline) {
+      Thread.sleep(10);
+    }
+    return ((ApiResponse<ChatTurnResponse>) poll.getResult()).getResult();
+  }
+}
@@ -0,0 +1,124 @@
+package com.forA.chatbot.chat.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.forA.chatbot.apiPayload.exception.handler.ChatHandler;
+import com.forA.chatbot.chat.domain.DailyChatCount;
+import com.forA.chatbot.chat.repository.ChatSessionRepository;
+import java.time.LocalDate;
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+class DailyChatCounterTest {
+
+  private MongoTemplate mongoTemplate;
+  private ChatSessionRepository chatSessionRepository;
+
+  @BeforeEach
+  void setUp() {
+    mongoTemplate = mock(MongoTemplate.class);
+    chatSessionRepository = mock(ChatSessionRepository.class);
+  }
+
+  @Test
+  @DisplayName("카운터가 없는 날은 세션 수로 한 번만 채우고, 이후 조회는 로컬 캐시에서 처리")
+  void today_SeedsOnceThenServesFromCache() {
+    // given
+    DailyChatCounter counter = new DailyChatCounter(mongoTemplate, chatSessionRepository, false, 3, 300);
+    when(mongoTemplate.findById(anyString(), eq(DailyChatCount.class))).thenReturn(null);
+    when(chatSessionRepository.countByUserIdAndStartedAtBetween(eq(1L), any(), any())).thenReturn(2L);
+    when(mongoTemplate.findAndModify(any(Query.class), any(Update.class), any(FindAndModifyOptions.class),
+        eq(DailyChatCount.class))).thenReturn(count(2));
+
+    // when
+    int first = counter.today(1L);
+    int second = counter.today(1L);
+
+    // then
+    assertThat(first).isEqualTo(2);
+    assertThat(second).isEqualTo(2);
+    verify(chatSessionRepository, times(1)).countByUserIdAndStartedAtBetween(eq(1L), any(), any());
+    verify(mongoTemplate, times(1)).findById(anyString(), eq(DailyChatCount.class));
+  }
+
+  @Test
+  @DisplayName("세션 시작 시 $inc 결과를 반환하고 캐시에 반영해 다음 조회에서 Mongo 를 읽지 않음")
+  void increment_ReturnsIncrementedCount() {
+    // given
+    DailyChatCounter counter = new DailyChatCounter(mongoTemplate, chatSessionRepository, false, 3, 300);
+    when(mongoTemplate.findById(anyString(), eq(DailyChatCount.class))).thenReturn(count(4));
+    when(mongoTemplate.findAndModify(any(Query.class), any(Update.class), any(FindAndModifyOptions.class),
+        eq(DailyChatCount.class))).thenReturn(count(5));
+
+    // when
+    int started = counter.increment(1L);
+
+    // then
+    assertThat(started).isEqualTo(5);
+    assertThat(counter.today(1L)).isEqualTo(5);
+    verify(mongoTemplate, times(1)).findById(anyString(), eq(DailyChatCount.class));
+    verify(chatSessionRepository, never()).countByUserIdAndStartedAtBetween(any(), any(), any());
+  }
+
+  @Test
+  @DisplayName("한도가 켜져 있으면 count < 한도 조건부로 증가하고, 조건에 맞지 않으면 CHAT_LIMIT_EXCEEDED")
+  void increment_RejectsWhenLimitReached() {
+    // given
+    DailyChatCounter counter = new DailyChatCounter(mongoTemplate, chatSessionRepository, true, 3, 300);
+    when(mongoTemplate.findById(anyString(), eq(DailyChatCount.class))).thenReturn(count(3));
+    ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+    ArgumentCaptor<FindAndModifyOptions> options = ArgumentCaptor.forClass(FindAndModifyOptions.class);
+    when(mongoTemplate.findAndModify(query.capture(), any(Update.class), options.capture(),
+        eq(DailyChatCount.class))).thenReturn(null);
+
+    // when & then
+    assertThatThrownBy(() -> counter.increment(1L)).isInstanceOf(ChatHandler.class);
+    assertThat(query.getValue().getQueryObject().get("count")).isEqualTo(new Document("$lt", 3));
+    assertThat(options.getValue().isUpsert()).isFalse();
+    assertThat(counter.today(1L)).isEqualTo(3);
+  }
+
+  @Test
+  @DisplayName("회원 탈퇴 시 유저의 카운터 문서를 모두 지우고, 캐시된 오늘 횟수도 다시 읽음")
+  void deleteByUserId_RemovesCountersAndCachedCount() {
+    // given
+    DailyChatCounter counter = new DailyChatCounter(mongoTemplate, chatSessionRepository, false, 3, 300);
+    when(mongoTemplate.findById(anyString(), eq(DailyChatCount.class))).thenReturn(count(2), (DailyChatCount) null);
+    when(chatSessionRepository.countByUserIdAndStartedAtBetween(eq(1L), any(), any())).thenReturn(0L);
+    counter.today(1L);
+
+    // when
+    counter.deleteByUserId(1L);
+
+    // then
+    ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+    verify(mongoTemplate).remove(query.capture(), eq(DailyChatCount.class));
+    assertThat(query.getValue().getQueryObject()).isEqualTo(new Document("user_id", 1L));
+    assertThat(counter.today(1L)).isZero();
+  }
+
+  private static DailyChatCount count(int count) {
+    return DailyChatCount.builder()
+        .id(DailyChatCount.idOf(1L, LocalDate.now()))
+        .userId(1L)
+        .date(LocalDate.now())
+        .count(count)
+        .build();
+  }
+}
@@ -0,0 +1,142 @@
+package com.forA.chatbot.chat.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.forA.chatbot.chat.domain.enums.EmotionType;
+import com.forA.chatbot.chat.llm.FakeChatModel;
+import com.forA.chatbot.chat.llm.LlmGateway;
+import com.forA.chatbot.chat.llm.LlmGatewayProperties;
+import com.forA.chatbot.chat.llm.LlmUsageLedger;
+import com.forA.chatbot.chat.llm.PromptBudgeter;
+import com.forA.chatbot.chat.llm.PromptRegistry;
+import com.forA.chatbot.chat.repository.PromptTemplateOverrideRepository;
+import com.forA.chatbot.enums.Gender;
+import com.forA.chatbot.user.domain.User;
+import com.forA.chatbot.user.domain.enums.JobType;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.ai.chat.client.ChatClient;
+import org.springframework.ai.chat.messages.AssistantMessage;
+import org.springframework.ai.chat.model.ChatModel;
+import org.springframework.ai.chat.model.ChatResponse;
+import org.springframework.ai.chat.model.Generation;
+import org.springframework.ai.chat.prompt.Prompt;
+
+class FakeChatModelTest {
+
+  private static final Set<EmotionType> EMOTIONS = Set.of(EmotionType.ANXIETY);
+  private static final String SITUATION = "내일 발표가 있어서 잠이 안 와요";
+  private static final BehavioralSkill SKILL = new BehavioralSkill("distress-004", "distress_tolerance",
+      List.of("불안"), "DBT", "STOP 기법", "멈추고 한 걸음 물러나 관찰하기", List.of("멈추기", "관찰하기"),
+      List.of("불안함"));
+
+  @TempDir
+  Path tempDir;
+
+  private final ObjectMapper objectMapper = new ObjectMapper();
+  private ExecutorService executor;
+  private SimpleMeterRegistry meterRegistry;
+  private PromptRegistry promptRegistry;
+  private PromptBudgeter promptBudgeter;
+  private LlmGatewayProperties properties;
+
+  @BeforeEach
+  void setUp() {
+    executor = Executors.newVirtualThreadPerTaskExecutor();
+    meterRegistry = new SimpleMeterRegistry();
+    promptRegistry = new PromptRegistry(mock(PromptTemplateOverrideRepository.class), true);
+    promptRegistry.load();
+    properties = new LlmGatewayProperties();
+    promptBudgeter = new PromptBudgeter(properties, meterRegistry);
+    properties.getFake().setCassettePath(tempDir.resolve("cassettes.jsonl").toString());
+    properties.getFake().setStreamChunkDelay(Duration.ZERO);
+    properties.getFake().getLatency().setDistribution(LlmGatewayProperties.Latency.Distribution.FIXED);
+    properties.getFake().getLatency().setMedian(Duration.ZERO);
+  }
+
+  @AfterEach
+  void tearDown() {
+    executor.shutdownNow();
+  }
+
+  @Test
+  @DisplayName("합성 모드에서 모든 ChatAiService 호출이 fallback 없이 파서를 통과하는 응답을 받음")
+  void synthesize_SatisfiesEveryParser() {
+    // given
+    ChatAiService chatAiService = chatAiService(null);
+    User user = mock(User.class);
+    when(user.getJobs()).thenReturn(Set.of(JobType.OFFICE_WORKER));
+    when(user.getDisorders()).thenReturn(Set.of());
+    when(user.getBirthYear()).thenReturn(2000);
+    when(user.getGender()).thenReturn(Gender.FEMALE);
+    StringBuilder streamed = new StringBuilder();
+
+    // when
+    String empathy = chatAiService.generateEmpathyResponse(SITUATION, EMOTIONS, user, "", streamed::append);
+    List<String> skillIds = chatAiService.recommendSkillChunkId(SITUATION, "불안함",
+        "[{\"chunk_id\":\"distress-007\"},{\"chunk_id\":\"distress-011\"},{\"chunk_id\":\"distress-012\"},"
+            + "{\"chunk_id\":\"distress-013\"},{\"chunk_id\":\"distress-014\"}]");
+
+    // then
+    assertThat(empathy).isNotEqualTo(ChatAiService.DEFAULT_EMPATHY_SENTENCE).isEqualTo(streamed.toString());
+    assertThat(skillIds).hasSize(4).doesNotContainAnyElementsOf(ChatAiService.DEFAULT_SKILL_IDS);
+    assertThat(chatAiService.generateProposalGoalPhrase(SITUATION, EMOTIONS))
+        .isNotBlank();
+    assertThat(chatAiService.generateDetailedSkillSteps(SKILL))
+        .hasSize(4).doesNotContainAnyElementsOf(ChatAiService.DEFAULT_SKILL_STEPS);
+    assertThat(chatAiService.generateSkillDescription(SITUATION, EMOTIONS, SKILL, user))
+        .isNotEqualTo(SKILL.description());
+    assertThat(chatAiService.generateSelfSoothingMessages(SITUATION, EMOTIONS))
+        .isNotEqualTo(ChatAiService.DEFAULT_SELF_SOOTHING_MESSAGE);
+    assertThat(chatAiService.generateActionSkipped(SITUATION, EMOTIONS, SKILL)).isNotBlank();
+    assertThat(chatAiService.generateMemorySummary("", "- 감정: 불안함")).isNotBlank();
+    assertThat(chatAiService.generateConversationSummary("", "사용자: 힘들었어")).isNotBlank();
+    assertThat(chatAiService.generateFreeChatReply("", "", "", "얘기 더 해도 돼?", null))
+        .isNotEqualTo(ChatAiService.DEFAULT_FREE_CHAT_REPLY);
+    assertThat(meterRegistry.get("chat.llm.tokens").tag("operation", "empathy").counters()).isNotEmpty();
+  }
+
+  @Test
+  @DisplayName("기록 모드로 남긴 카세트를 재생 모드에서 같은 프롬프트에 그대로 돌려줌")
+  void replay_ReturnsRecordedResponse() {
+    // given
+    ChatModel openAi = mock(ChatModel.class);
+    when(openAi.call(any(Prompt.class))).thenReturn(new ChatResponse(List.of(
+        new Generation(new AssistantMessage("천천히 숨쉬기, 발끝 느껴보기, 물 한 잔 마시기, 하늘 바라보기")))));
+    properties.getFake().setMode(LlmGatewayProperties.Fake.Mode.RECORD);
+    List<String> recorded = chatAiService(openAi).generateDetailedSkillSteps(SKILL);
+
+    // when
+    properties.getFake().setMode(LlmGatewayProperties.Fake.Mode.REPLAY);
+    List<String> replayed = chatAiService(null).generateDetailedSkillSteps(SKILL);
+
+    // then
+    verify(openAi).call(any(Prompt.class));
+    assertThat(replayed).isEqualTo(recorded)
+        .containsExactly("천천히 숨쉬기", "발끝 느껴보기", "물 한 잔 마시기", "하늘 바라보기");
+  }
+
+  private ChatAiService chatAiService(ChatModel delegate) {
+    FakeChatModel fakeChatModel = new FakeChatModel(properties.getFake(), promptRegistry, promptBudgeter,
+        objectMapper, delegate);
+    LlmGateway llmGateway = new LlmGateway(ChatClient.builder(fakeChatModel), executor, properties,
+        meterRegistry, new LlmUsageLedger(properties));
+    return new ChatAiService(llmGateway, promptBudgeter, promptRegistry, objectMapper,
+        new SimilarSituationCache(meterRegistry, false, 0.8, 100, 60));
+  }
+}
@@ -0,0 +1,169 @@
+package com.forA.chatbot.chat.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.forA.chatbot.chat.domain.ChatMessage.SenderType;
+import com.forA.chatbot.chat.domain.ChatSession;
+import com.forA.chatbot.chat.domain.ChatSession.ContextMessage;
+import com.forA.chatbot.chat.llm.LlmGatewayProperties;
+import com.forA.chatbot.chat.llm.PromptBudgeter;
+import com.forA.chatbot.user.domain.User;
+import com.mongodb.client.result.UpdateResult;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.AggregationUpdate;
+import org.springframework.data.mongodb.core.query.Query;
+
+class FreeChatServiceTest {
+
+  private ChatAiService chatAiService;
+  private UserMemoryService userMemoryService;
+  private PromptBudgeter promptBudgeter;
+  private MongoTemplate mongoTemplate;
+  private SimpleMeterRegistry meterRegistry;
+  private FreeChatService freeChatService;
+  private User user;
+
+  @BeforeEach
+  void setUp() {
+    chatAiService = mock(ChatAiService.class);
+    userMemoryService = mock(UserMemoryService.class);
+    meterRegistry = new SimpleMeterRegistry();
+    promptBudgeter = new PromptBudgeter(new LlmGatewayProperties(), meterRegistry);
+    mongoTemplate = mock(MongoTemplate.class);
+    when(mongoTemplate.updateFirst(any(Query.class), any(AggregationUpdate.class), eq(ChatSession.class)))
+        .thenReturn(UpdateResult.acknowledged(1, 1L, null));
+    // 백그라운드 정리를 호출 스레드에서 바로 실행
+    ExecutorService executor = mock(ExecutorService.class);
+    doAnswer(invocation -> {
+      invocation.<Runnable>getArgument(0).run();
+      return null;
+    }).when(executor).execute(any());
+    freeChatService = new FreeChatService(chatAiService, userMemoryService, promptBudgeter, mongoTemplate,
+        executor, meterRegistry, 4, 1000, 60);
+    user = mock(User.class);
+    when(user.getId()).thenReturn(1L);
+    when(userMemoryService.summaryFor(1L)).thenReturn("발표 불안이 반복됨.");
+  }
+
+  @Test
+  @DisplayName("창 안에서는 요약 없이 최근 대화 원문만 프롬프트에 넣고 창에 두 메시지를 더함")
+  void reply_AppendsToWindow() {
+    // given
+    ChatSession session = ChatSession.builder().id("s1").build();
+    session.getFreeChatWindow().add(new ContextMessage(SenderType.USER, "오늘 좀 힘들었어"));
+    session.getFreeChatWindow().add(new ContextMessage(SenderType.BOT, "많이 지치셨겠어요."));
+    when(chatAiService.generateFreeChatReply(any(), any(), anyString(), eq("얘기 더 해도 돼?"), isNull()))
+        .thenReturn("물론이에요.");
+
+    // when
+    String reply = freeChatService.reply(session, user, "얘기 더 해도 돼?", null);
+
+    // then
+    assertThat(reply).isEqualTo("물론이에요.");
+    verify(chatAiService).generateFreeChatReply("발표 불안이 반복됨.", null,
+        "사용자: 오늘 좀 힘들었어\n모리: 많이 지치셨겠어요.", "얘기 더 해도 돼?", null);
+    assertThat(session.getFreeChatWindow()).hasSize(4);
+    verify(chatAiService, never()).generateConversationSummary(any(), any());
+  }
+
+  @Test
+  @DisplayName("답변 중에는 요약하지 않고, 넘친 창은 커밋 후 정리에서 밀려난 메시지만 기존 요약에 접음")
+  void compactAsync_FoldsEvictedMessagesAfterReply() {
+    // given
+    ChatSession session = ChatSession.builder().id("s1").freeChatSummary("회사 일로 지쳐 있음.").build();
+    session.setFreeChatWindow(new ArrayList<>(List.of(
+        new ContextMessage(SenderType.USER, "첫 번째"),
+        new ContextMessage(SenderType.BOT, "첫 답변"),
+        new ContextMessage(SenderType.USER, "두 번째"),
+        new ContextMessage(SenderType.BOT, "두 번째 답변"))));
+    when(chatAiService.generateFreeChatReply(any(), any(), any(), any(), any())).thenReturn("세 번째 답변");
+    when(chatAiService.generateConversationSummary("회사 일로 지쳐 있음.", "사용자: 첫 번째\n모리: 첫 답변"))
+        .thenReturn("회사 일로 지쳐 있고, 처음 이야기를 꺼냄.");
+
+    // when
+    freeChatService.reply(session, user, "세 번째", null);
+
+    // then
+    assertThat(session.getFreeChatWindow()).hasSize(6);
+    verify(chatAiService, never()).generateConversationSummary(any(), any());
+
+    // when
+    freeChatService.compactAsync(1L, session);
+
+    // then
+    Document update = capturedUpdate("회사 일로 지쳐 있음.");
+    assertThat(update.get("free_chat_summary")).isEqualTo("회사 일로 지쳐 있고, 처음 이야기를 꺼냄.");
+    assertThat(update.get("free_chat_window", Document.class).get("$slice", List.class))
+        .containsExactly("$free_chat_window", 2, Integer.MAX_VALUE);
+  }
+
+  @Test
+  @DisplayName("요약이 그 사이 바뀌었으면 반영하지 않고 conflict 로 기록")
+  void compact_SkipsWhenSummaryChangedMeanwhile() {
+    // given
+    when(chatAiService.generateConversationSummary(any(), anyString())).thenReturn("새 요약");
+    when(mongoTemplate.updateFirst(any(Query.class), any(AggregationUpdate.class), eq(ChatSession.class)))
+        .thenReturn(UpdateResult.acknowledged(0, 0L, null));
+
+    // when
+    freeChatService.compact("s1", "이전 요약", List.of(new ContextMessage(SenderType.USER, "첫 번째")));
+
+    // then
+    assertThat(meterRegistry.get("chat.free_chat.compactions").tag("result", "conflict").counter().count())
+        .isEqualTo(1.0);
+  }
+
+  @Test
+  @DisplayName("요약에 실패해도 밀려난 메시지를 요약 뒤에 덧붙이고 토큰 상한으로 자름")
+  void compactAsync_FallsBackWithinTokenLimit() {
+    // given
+    ChatSession session = ChatSession.builder().id("s1").build();
+    List<ContextMessage> window = new ArrayList<>();
+    for (int i = 0; i < 10; i++) {
+      window.add(new ContextMessage(i % 2 == 0 ? SenderType.USER : SenderType.BOT, "긴 이야기 " + i + " ".repeat(3)));
+    }
+    session.setFreeChatWindow(window);
+    when(chatAiService.generateConversationSummary(any(), anyString())).thenReturn(null);
+
+    // when
+    freeChatService.compactAsync(1L, session);
+
+    // then
+    Document update = capturedUpdate(null);
+    String summary = (String) update.get("free_chat_summary");
+    assertThat(summary).startsWith("사용자: 긴 이야기 0");
+    assertThat(promptBudgeter.countTokens(summary)).isLessThanOrEqualTo(60);
+    assertThat(update.get("free_chat_window", Document.class).get("$slice", List.class))
+        .containsExactly("$free_chat_window", 6, Integer.MAX_VALUE);
+  }
+
+  private Document capturedUpdate(String expectedPreviousSummary) {
+    ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+    ArgumentCaptor<AggregationUpdate> update = ArgumentCaptor.forClass(AggregationUpdate.class);
+    verify(mongoTemplate).updateFirst(query.capture(), update.capture(), eq(ChatSession.class));
+    assertThat(query.getValue().getQueryObject().get("free_chat_summary")).isEqualTo(expectedPreviousSummary);
+    Document set = new Document();
+    update.getValue().toPipeline(Aggregation.DEFAULT_CONTEXT)
+        .forEach(stage -> set.putAll(stage.get("$set", Document.class)));
+    return set;
+  }
+}
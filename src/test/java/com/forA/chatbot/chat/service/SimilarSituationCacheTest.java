@@ -0,0 +1,66 @@
+package com.forA.chatbot.chat.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.Optional;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+class SimilarSituationCacheTest {
+
+  private SimpleMeterRegistry meterRegistry;
+  private SimilarSituationCache cache;
+
+  @BeforeEach
+  void setUp() {
+    meterRegistry = new SimpleMeterRegistry();
+    cache = new SimilarSituationCache(meterRegistry, true, 0.8, 100, 60);
+  }
+
+  @Test
+  @DisplayName("띄어쓰기/문장부호만 다른 상황 문장은 캐시 적중")
+  void lookup_Hit_WhenNearDuplicate() {
+    // given
+    cache.put("goal_phrase", "내일 시험인데 공부를 하나도 못해서 너무 불안해요", "ANXIETY", "마음을 차분하게 가라앉히는");
+
+    // when
+    Optional<String> result = cache.lookup("goal_phrase", "내일 시험인데 공부를 하나도 못 해서 너무 불안해요!!", "ANXIETY");
+
+    // then
+    assertThat(result).contains("마음을 차분하게 가라앉히는");
+    assertThat(meterRegistry.get("chat.ai.similarity_cache.requests").tag("result", "hit").counter().count())
+        .isEqualTo(1.0);
+  }
+
+  @Test
+  @DisplayName("감정 조합이나 작업이 다르면 캐시 미적중")
+  void lookup_Miss_WhenEmotionOrOperationDiffers() {
+    // given
+    cache.put("goal_phrase", "친구랑 크게 싸워서 속상해요", "ANGER,SADNESS", "기분을 전환하는");
+
+    // when & then
+    assertThat(cache.lookup("goal_phrase", "친구랑 크게 싸워서 속상해요", "ANXIETY")).isEmpty();
+    assertThat(cache.lookup("self_soothing", "친구랑 크게 싸워서 속상해요", "ANGER,SADNESS")).isEmpty();
+  }
+
+  @Test
+  @DisplayName("내용이 다른 상황 문장은 캐시 미적중")
+  void lookup_Miss_WhenSituationDiffers() {
+    // given
+    cache.put("goal_phrase", "친구랑 크게 싸워서 속상해요", "ANGER", "기분을 전환하는");
+
+    // when
+    Optional<String> result = cache.lookup("goal_phrase", "회사에서 상사에게 혼나서 화가 나요", "ANGER");
+
+    // then
+    assertThat(result).isEmpty();
+  }
+
+  @Test
+  @DisplayName("정규화는 띄어쓰기, 문장부호, 이모지를 제거")
+  void normalize_RemovesSpacesAndSymbols() {
+    assertThat(SimilarSituationCache.normalize("너무 불안해요 😢!!")).isEqualTo("너무불안해요");
+  }
+}
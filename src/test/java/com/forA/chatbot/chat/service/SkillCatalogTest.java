@@ -0,0 +1,148 @@
+package com.forA.chatbot.chat.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.forA.chatbot.user.domain.enums.DisorderType;
+import com.forA.chatbot.user.domain.enums.SymptomType;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Set;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.support.GenericApplicationContext;
+
+class SkillCatalogTest {
+
+  private final ObjectMapper objectMapper = new ObjectMapper();
+  private final ApplicationEventPublisher eventPublisher = mock(ApplicationEventPublisher.class);
+
+  @TempDir
+  Path tempDir;
+
+  @Test
+  @DisplayName("classpath 카탈로그를 chunk_id / 태그 인덱스와 미리 직렬화한 JSON 으로 로드")
+  void load_BuildsIndexes() throws Exception {
+    // given
+    SkillCatalog catalog = catalog("classpath:behavioral-skills.json");
+
+    // when
+    catalog.load();
+    SkillCatalog.Snapshot snapshot = catalog.current();
+
+    // then
+    assertThat(snapshot.size()).isPositive();
+    BehavioralSkill first = snapshot.getSkills().get(0);
+    assertThat(snapshot.find(first.chunk_id())).containsSame(first);
+    assertThat(snapshot.find("distress-999")).isEmpty();
+    assertThat(snapshot.findBySituationTag(first.situation_tags().get(0))).contains(first);
+    List<BehavioralSkill> some = snapshot.getSkills().subList(0, 3);
+    assertThat(snapshot.toJson(some)).isEqualTo(objectMapper.writeValueAsString(some));
+    verify(eventPublisher).publishEvent(any(SkillCatalog.ChangedEvent.class));
+  }
+
+  @Test
+  @DisplayName("situation_tags 와 증상 설명이 같은 스킬로 증상/질환 → 스킬 맵을 미리 계산")
+  void load_BuildsSymptomAndDisorderIndexes() {
+    // given
+    SkillCatalog catalog = catalog("classpath:behavioral-skills.json");
+    catalog.load();
+    SkillCatalog.Snapshot snapshot = catalog.current();
+    SymptomType symptom = SymptomType.IMPULSIVE_SPENDING_AND_RECKLESS_BEHAVIOR;
+
+    // when
+    List<BehavioralSkill> bySymptom = snapshot.findBySymptom(symptom);
+    List<BehavioralSkill> byDisorder = snapshot.findByDisorder(symptom.getDisorderType());
+
+    // then
+    assertThat(bySymptom).isNotEmpty()
+        .allSatisfy(skill -> assertThat(skill.situation_tags()).contains(symptom.getDescription()));
+    assertThat(byDisorder).containsAll(bySymptom)
+        .allSatisfy(skill -> assertThat(skill.situation_tags())
+            .anyMatch(tag -> SymptomType.getByDisorderType(symptom.getDisorderType()).stream()
+                .anyMatch(s -> s.getDescription().equals(tag))));
+    assertThat(snapshot.findByDisorder(DisorderType.NONE)).isEmpty();
+  }
+
+  @Test
+  @DisplayName("프로필 후보는 선택한 증상과 직접 겹치는 스킬이 같은 질환의 다른 스킬보다 앞에 옴")
+  void shortlist_RanksSymptomMatchesFirst() throws Exception {
+    // given
+    Path file = tempDir.resolve("skills.json");
+    Files.writeString(file, "[" + String.join(",",
+        skillJson("distress-001", SymptomType.EXTREME_MOOD_SWINGS.getDescription()),
+        skillJson("distress-002", "다른 상황"),
+        skillJson("distress-003", SymptomType.IMPULSIVE_SPENDING_AND_RECKLESS_BEHAVIOR.getDescription()),
+        skillJson("distress-004", SymptomType.EXTREME_MOOD_SWINGS.getDescription(),
+            SymptomType.IMPULSIVE_SPENDING_AND_RECKLESS_BEHAVIOR.getDescription())) + "]");
+    SkillCatalog catalog = catalog(file.toUri().toString());
+    catalog.load();
+
+    // when
+    List<BehavioralSkill> shortlist = catalog.current().shortlist(
+        Set.of(SymptomType.IMPULSIVE_SPENDING_AND_RECKLESS_BEHAVIOR), Set.of(DisorderType.BIPOLAR_DISORDER), 10);
+
+    // then
+    assertThat(shortlist).extracting(BehavioralSkill::chunk_id)
+        .containsExactly("distress-004", "distress-003", "distress-001");
+    assertThat(catalog.current().shortlist(Set.of(), Set.of(), 10)).isEmpty();
+  }
+
+  @Test
+  @DisplayName("파일 내용이 바뀐 경우에만 스냅샷을 교체하고, 잘못된 JSON 이면 이전 스냅샷 유지")
+  void reload_SwapsSnapshotOnlyWhenChanged() throws Exception {
+    // given
+    Path file = tempDir.resolve("skills.json");
+    Files.writeString(file, catalogJson("distress-001", "슬픔"));
+    SkillCatalog catalog = catalog(file.toUri().toString());
+    catalog.load();
+    SkillCatalog.Snapshot before = catalog.current();
+
+    // when
+    boolean unchanged = catalog.reload();
+    Files.writeString(file, catalogJson("distress-002", "불안"));
+    boolean changed = catalog.reload();
+    SkillCatalog.Snapshot after = catalog.current();
+    Files.writeString(file, "[{ broken");
+    boolean broken = catalog.reload();
+
+    // then
+    assertThat(unchanged).isFalse();
+    assertThat(changed).isTrue();
+    assertThat(broken).isFalse();
+    assertThat(before.find("distress-001")).isPresent();
+    assertThat(after.find("distress-001")).isEmpty();
+    assertThat(after.findByEmotionTag("불안")).extracting(BehavioralSkill::chunk_id).containsExactly("distress-002");
+    assertThat(catalog.current()).isSameAs(after);
+    verify(eventPublisher, times(2)).publishEvent(any(SkillCatalog.ChangedEvent.class));
+  }
+
+  private SkillCatalog catalog(String location) {
+    GenericApplicationContext context = new GenericApplicationContext();
+    context.refresh();
+    return new SkillCatalog(context, eventPublisher, objectMapper, location);
+  }
+
+  private static String skillJson(String chunkId, String... situations) {
+    return """
+        {"chunk_id":"%s","skill_type":"Distress Tolerance","situation_tags":["%s"],
+         "skill_origin":"STOP Skill","skill_name":"멈추기","description":"잠시 멈춰요",
+         "step_by_step":["멈추기"],"emotion_tags":["불안"]}
+        """.formatted(chunkId, String.join("\",\"", situations));
+  }
+
+  private static String catalogJson(String chunkId, String emotion) {
+    return """
+        [{"chunk_id":"%s","skill_type":"Distress Tolerance","situation_tags":["잠이 안 와요"],
+          "skill_origin":"STOP Skill","skill_name":"멈추기","description":"잠시 멈춰요",
+          "step_by_step":["멈추기"],"emotion_tags":["%s"]}]
+        """.formatted(chunkId, emotion);
+  }
+}
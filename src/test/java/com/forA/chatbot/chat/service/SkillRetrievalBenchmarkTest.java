@@ -0,0 +1,75 @@
+package com.forA.chatbot.chat.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.InputStream;
+import java.util.List;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.ai.tokenizer.JTokkitTokenCountEstimator;
+
+/**
+ * 스킬 추천 프롬프트 크기 비교 벤치마크 (전체 카탈로그 vs BM25 후보)
+ * ./gradlew perfTest 로 실행
+ */
+@Tag("perf")
+class SkillRetrievalBenchmarkTest {
+
+  private static final int CANDIDATE_COUNT = 8;
+  private static final int ITERATIONS = 2_000;
+  private static final List<String> SITUATIONS = List.of(
+      "내일 시험인데 공부를 하나도 못해서 너무 불안해요",
+      "친구랑 크게 싸워서 화가 나고 속상해요",
+      "해야 할 일을 계속 미루다가 마감이 코앞이라 죄책감이 들어요",
+      "밤에 누워도 잠이 안 와서 하루 종일 피곤해요");
+
+  @Test
+  @DisplayName("후보 스킬만 직렬화하면 추천 프롬프트의 토큰 수와 준비 시간이 줄어듦")
+  void compareRecommendationPromptSize() throws Exception {
+    ObjectMapper objectMapper = new ObjectMapper();
+    List<BehavioralSkill> skills;
+    try (InputStream inputStream = getClass().getResourceAsStream("/behavioral-skills.json")) {
+      skills = objectMapper.readValue(inputStream, new TypeReference<List<BehavioralSkill>>() {});
+    }
+    SkillRetrievalIndex index = SkillRetrievalIndex.build(skills);
+    JTokkitTokenCountEstimator tokenCounter = new JTokkitTokenCountEstimator();
+
+    String fullJson = objectMapper.writeValueAsString(skills);
+    int fullTokens = tokenCounter.estimate(fullJson);
+
+    for (String situation : SITUATIONS) {
+      List<BehavioralSkill> candidates = index.search(situation, List.of("불안함", "화남"), CANDIDATE_COUNT);
+      String candidateJson = objectMapper.writeValueAsString(candidates);
+      int candidateTokens = tokenCounter.estimate(candidateJson);
+      System.out.printf("[prompt] %-40s full=%6d chars / %5d tokens, candidates=%6d chars / %5d tokens (%.0f%%)%n",
+          situation, fullJson.length(), fullTokens, candidateJson.length(), candidateTokens,
+          100.0 * candidateTokens / fullTokens);
+      assertThat(candidateTokens).isLessThan(fullTokens);
+    }
+
+    long fullNanos = time(() -> objectMapper.writeValueAsString(skills));
+    long candidateNanos = time(() -> objectMapper.writeValueAsString(
+        index.search(SITUATIONS.get(0), List.of("불안함", "화남"), CANDIDATE_COUNT)));
+    System.out.printf("[latency] full serialization=%d us/op, search + candidate serialization=%d us/op%n",
+        fullNanos / 1_000, candidateNanos / 1_000);
+  }
+
+  private long time(ThrowingSupplier supplier) throws Exception {
+    for (int i = 0; i < ITERATIONS; i++) {
+      supplier.get();
+    }
+    long start = System.nanoTime();
+    for (int i = 0; i < ITERATIONS; i++) {
+      supplier.get();
+    }
+    return (System.nanoTime() - start) / ITERATIONS;
+  }
+
+  @FunctionalInterface
+  private interface ThrowingSupplier {
+    Object get() throws Exception;
+  }
+}
@@ -0,0 +1,63 @@
+package com.forA.chatbot.chat.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.InputStream;
+import java.util.List;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+class SkillRetrievalIndexTest {
+
+  private static List<BehavioralSkill> skills;
+  private static SkillRetrievalIndex index;
+
+  @BeforeAll
+  static void setUp() throws Exception {
+    try (InputStream inputStream = SkillRetrievalIndexTest.class.getResourceAsStream("/behavioral-skills.json")) {
+      skills = new ObjectMapper().readValue(inputStream, new TypeReference<List<BehavioralSkill>>() {});
+    }
+    index = SkillRetrievalIndex.build(skills);
+  }
+
+  @Test
+  @DisplayName("상위 k개의 서로 다른 후보 스킬을 반환")
+  void search_ReturnsTopKDistinctSkills() {
+    // when
+    List<BehavioralSkill> result = index.search("시험을 망쳐서 너무 속상하고 화가 나요", List.of("화남", "슬픔"), 8);
+
+    // then
+    assertThat(result).hasSize(8);
+    assertThat(result).doesNotHaveDuplicates();
+  }
+
+  @Test
+  @DisplayName("상황 문장이 situation_tags 와 같으면 해당 태그를 가진 스킬이 상위에 위치")
+  void search_RanksMatchingSituationTagFirst() {
+    // given
+    String situation = "충동적으로 지출하거나, 무모한 행동을 하고 후회해요";
+
+    // when
+    List<BehavioralSkill> result = index.search(situation, List.of("후회됨"), 4);
+
+    // then
+    assertThat(result.get(0).situation_tags()).contains(situation);
+  }
+
+  @Test
+  @DisplayName("후보 수가 0 이하이거나 전체 개수 이상이면 전체 목록을 반환")
+  void search_ReturnsAllSkills_WhenTopKDisabled() {
+    assertThat(index.search("아무 상황", List.of("불안함"), 0)).hasSize(skills.size());
+    assertThat(index.search("아무 상황", List.of("불안함"), skills.size() + 1)).hasSize(skills.size());
+  }
+
+  @Test
+  @DisplayName("토큰화 시 이모지와 문장부호를 제거하고 어절별 문자 bigram 으로 분해")
+  void tokenize_SplitsIntoCharacterBigrams() {
+    assertThat(SkillRetrievalIndex.tokenize("숨 쉬기🌬️!")).containsExactly("숨", "쉬기");
+    assertThat(SkillRetrievalIndex.tokenize("불안함")).containsExactly("불안", "안함");
+  }
+}
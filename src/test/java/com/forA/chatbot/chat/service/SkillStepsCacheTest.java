@@ -0,0 +1,118 @@
+package com.forA.chatbot.chat.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoMoreInteractions;
+import static org.mockito.Mockito.when;
+
+import com.forA.chatbot.chat.domain.SkillDetailedSteps;
+import com.forA.chatbot.chat.repository.SkillDetailedStepsRepository;
+import java.util.List;
+import java.util.Optional;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+class SkillStepsCacheTest {
+
+  private static final BehavioralSkill SKILL = new BehavioralSkill("distress-004", "distress_tolerance",
+      List.of("불안"), "DBT", "STOP 기법", "멈추고 한 걸음 물러나 관찰하기", List.of("멈추기", "물러나기"),
+      List.of("불안함"));
+  private static final List<String> STEPS = List.of("하던 일을 멈춰요", "숨을 크게 쉬어요", "상황을 살펴봐요", "다음 행동을 골라요");
+
+  private ChatAiService chatAiService;
+  private SkillDetailedStepsRepository repository;
+  private SkillStepsCache cache;
+
+  @BeforeEach
+  void setUp() {
+    chatAiService = mock(ChatAiService.class);
+    repository = mock(SkillDetailedStepsRepository.class);
+    cache = new SkillStepsCache(chatAiService, repository);
+  }
+
+  @Test
+  @DisplayName("로컬 캐시와 Mongo 에 없으면 GPT 로 생성해 둘 다 저장하고, 다음 조회는 로컬 캐시에서 처리")
+  void getSteps_GeneratesOnMissAndCachesLocally() {
+    // given
+    when(repository.findById("hash-1:distress-004")).thenReturn(Optional.empty());
+    when(chatAiService.generateDetailedSkillSteps(SKILL)).thenReturn(STEPS);
+
+    // when
+    List<String> first = cache.getSteps("hash-1", SKILL);
+    List<String> second = cache.getSteps("hash-1", SKILL);
+
+    // then
+    assertThat(first).isEqualTo(STEPS);
+    assertThat(second).isEqualTo(STEPS);
+    verify(chatAiService, times(1)).generateDetailedSkillSteps(SKILL);
+    verify(repository, times(1)).findById("hash-1:distress-004");
+    ArgumentCaptor<SkillDetailedSteps> stored = ArgumentCaptor.forClass(SkillDetailedSteps.class);
+    verify(repository).save(stored.capture());
+    assertThat(stored.getValue().getId()).isEqualTo("hash-1:distress-004");
+    assertThat(stored.getValue().getSteps()).isEqualTo(STEPS);
+  }
+
+  @Test
+  @DisplayName("Mongo 에 있으면 GPT 를 호출하지 않고 로컬 캐시에 올림")
+  void getSteps_ServesFromMongoWithoutCallingGpt() {
+    // given
+    when(repository.findById("hash-1:distress-004")).thenReturn(Optional.of(SkillDetailedSteps.builder()
+        .id("hash-1:distress-004")
+        .chunkId("distress-004")
+        .catalogHash("hash-1")
+        .steps(STEPS)
+        .build()));
+
+    // when
+    List<String> first = cache.getSteps("hash-1", SKILL);
+    List<String> second = cache.getSteps("hash-1", SKILL);
+
+    // then
+    assertThat(first).isEqualTo(STEPS);
+    assertThat(second).isEqualTo(STEPS);
+    verify(repository, times(1)).findById("hash-1:distress-004");
+    verify(chatAiService, never()).generateDetailedSkillSteps(any());
+  }
+
+  @Test
+  @DisplayName("GPT 생성에 실패한 기본값은 저장하지 않아 다음 조회에서 다시 생성")
+  void getSteps_DoesNotCacheDefaultSteps() {
+    // given
+    when(repository.findById("hash-1:distress-004")).thenReturn(Optional.empty());
+    when(chatAiService.generateDetailedSkillSteps(SKILL)).thenReturn(ChatAiService.DEFAULT_SKILL_STEPS, STEPS);
+
+    // when
+    List<String> failed = cache.getSteps("hash-1", SKILL);
+    List<String> retried = cache.getSteps("hash-1", SKILL);
+
+    // then
+    assertThat(failed).isEqualTo(ChatAiService.DEFAULT_SKILL_STEPS);
+    assertThat(retried).isEqualTo(STEPS);
+    verify(repository, times(1)).save(any());
+  }
+
+  @Test
+  @DisplayName("카탈로그가 바뀌어도 다른 해시의 Mongo 항목은 지우지 않고, 로컬 캐시만 비움")
+  void warmUp_DoesNotPurgeOtherCatalogEntries() {
+    // given
+    when(repository.findById("hash-1:distress-004")).thenReturn(Optional.empty());
+    when(repository.findById("hash-2:distress-004")).thenReturn(Optional.empty());
+    when(chatAiService.generateDetailedSkillSteps(SKILL)).thenReturn(STEPS);
+
+    // when
+    cache.warmUp("hash-1", List.of(SKILL));
+    cache.warmUp("hash-2", List.of(SKILL));
+
+    // then
+    verify(repository).findById("hash-1:distress-004");
+    verify(repository).findById("hash-2:distress-004");
+    verify(repository, times(2)).save(any());
+    verifyNoMoreInteractions(repository);
+  }
+}
@@ -0,0 +1,159 @@
+package com.forA.chatbot.chat.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.forA.chatbot.chat.llm.LlmTurnContext;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+class SpeculativePrefetcherTest {
+
+  private ExecutorService executor;
+  private SimpleMeterRegistry meterRegistry;
+  private SpeculativePrefetcher prefetcher;
+
+  @BeforeEach
+  void setUp() {
+    executor = Executors.newVirtualThreadPerTaskExecutor();
+    meterRegistry = new SimpleMeterRegistry();
+    prefetcher = new SpeculativePrefetcher(executor, meterRegistry, true, 60, 2, 0.2, 2500);
+  }
+
+  @AfterEach
+  void tearDown() {
+    executor.shutdownNow();
+  }
+
+  @Test
+  @DisplayName("미리 계산된 분기 결과는 한 번만 꺼낼 수 있고, 선택되지 않은 분기는 버려짐")
+  void take_ReturnsPrefetchedResultOnce() {
+    // given
+    prefetcher.prefetch("session-1", 1L, "ACTION_OFFER", "YES_PROPOSE", 2, () -> "추천 결과");
+    prefetcher.prefetch("session-1", 1L, "ACTION_OFFER", "NO_PROPOSE", 2, () -> "위로 메시지");
+
+    // when
+    prefetcher.discard("session-1", "NO_PROPOSE");
+    Optional<String> first = prefetcher.take("session-1", "YES_PROPOSE");
+    Optional<String> second = prefetcher.take("session-1", "YES_PROPOSE");
+    Optional<String> discarded = prefetcher.take("session-1", "NO_PROPOSE");
+
+    // then
+    assertThat(first).contains("추천 결과");
+    assertThat(second).isEmpty();
+    assertThat(discarded).isEmpty();
+    assertThat(meterRegistry.get("chat.ai.prefetch").tag("branch", "NO_PROPOSE").tag("result", "wasted")
+        .counter().count()).isEqualTo(1.0);
+  }
+
+  @Test
+  @DisplayName("미리 계산이 기본값으로 대체되어 null 을 남겼으면 hit 이 아니라 miss 로 세고 empty")
+  void take_TreatsFallbackAsMiss() {
+    // given
+    prefetcher.prefetch("session-1", 1L, "ACTION_OFFER", "NO_PROPOSE", 2, () -> null);
+
+    // when
+    Optional<String> taken = prefetcher.take("session-1", "NO_PROPOSE");
+
+    // then
+    assertThat(taken).isEmpty();
+    assertThat(meterRegistry.get("chat.ai.prefetch").tag("branch", "NO_PROPOSE").tag("result", "miss")
+        .counter().count()).isEqualTo(1.0);
+    assertThat(meterRegistry.find("chat.ai.prefetch").tag("result", "hit").counter()).isNull();
+    assertThat(meterRegistry.find("chat.ai.prefetch").tag("result", "hit_in_flight").counter()).isNull();
+  }
+
+  @Test
+  @DisplayName("유저별 일일 예산을 넘으면 미리 계산하지 않음")
+  void prefetch_SkipsWhenBudgetExhausted() {
+    // when
+    boolean first = prefetcher.prefetch("session-1", 1L, "ACTION_OFFER", "YES_PROPOSE", 2, () -> "a");
+    boolean second = prefetcher.prefetch("session-1", 1L, "ACTION_OFFER", "NO_PROPOSE", 2, () -> "b");
+    boolean third = prefetcher.prefetch("session-2", 1L, "ACTION_OFFER", "YES_PROPOSE", 2, () -> "c");
+    boolean otherUser = prefetcher.prefetch("session-3", 2L, "ACTION_OFFER", "YES_PROPOSE", 2, () -> "d");
+
+    // then
+    assertThat(first).isTrue();
+    assertThat(second).isTrue();
+    assertThat(third).isFalse();
+    assertThat(otherUser).isTrue();
+  }
+
+  @Test
+  @DisplayName("거의 선택되지 않는 분기는 미리 계산하지 않음")
+  void prefetch_SkipsUnlikelyBranch() {
+    // given
+    for (int i = 0; i < 20; i++) {
+      prefetcher.recordBranch("ACTION_OFFER", "YES_PROPOSE");
+    }
+
+    // when
+    boolean unlikely = prefetcher.prefetch("session-1", 1L, "ACTION_OFFER", "NO_PROPOSE", 2, () -> "위로 메시지");
+
+    // then
+    assertThat(prefetcher.branchProbability("ACTION_OFFER", "NO_PROPOSE", 2)).isLessThan(0.2);
+    assertThat(unlikely).isFalse();
+  }
+
+  @Test
+  @DisplayName("계산 중인 결과는 현재 턴의 남은 시간까지만 기다리고, 그 안에 끝나지 않으면 empty")
+  void take_WaitsOnlyForRemainingTurnBudget() {
+    // given
+    CountDownLatch release = new CountDownLatch(1);
+    prefetcher.prefetch("session-1", 1L, "ACTION_OFFER", "YES_PROPOSE", 2, () -> {
+      await(release);
+      return "추천 결과";
+    });
+
+    // when
+    Optional<String> taken;
+    long start = System.nanoTime();
+    try (LlmTurnContext.Scope ignored = LlmTurnContext.open(1L, Duration.ofMillis(100))) {
+      taken = prefetcher.take("session-1", "YES_PROPOSE");
+    }
+    long elapsedMs = (System.nanoTime() - start) / 1_000_000;
+    release.countDown();
+
+    // then
+    assertThat(taken).isEmpty();
+    assertThat(elapsedMs).isLessThan(1_000);
+    assertThat(meterRegistry.get("chat.ai.prefetch").tag("branch", "YES_PROPOSE").tag("result", "timeout")
+        .counter().count()).isEqualTo(1.0);
+  }
+
+  @Test
+  @DisplayName("미리 계산도 턴과 같은 마감 시간 안에서 실행")
+  void prefetch_RunsUnderTurnDeadline() {
+    // given
+    AtomicReference<Optional<Duration>> remaining = new AtomicReference<>();
+
+    // when
+    prefetcher.prefetch("session-1", 1L, "ACTION_OFFER", "YES_PROPOSE", 2, () -> {
+      remaining.set(LlmTurnContext.remaining());
+      return "추천 결과";
+    });
+    Optional<String> taken = prefetcher.take("session-1", "YES_PROPOSE");
+
+    // then
+    assertThat(taken).contains("추천 결과");
+    assertThat(remaining.get()).hasValueSatisfying(duration ->
+        assertThat(duration).isPositive().isLessThanOrEqualTo(Duration.ofMillis(2500)));
+  }
+
+  private static void await(CountDownLatch latch) {
+    try {
+      latch.await(5, TimeUnit.SECONDS);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+}
@@ -0,0 +1,142 @@
+package com.forA.chatbot.chat.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.forA.chatbot.chat.domain.UserMemory;
+import com.forA.chatbot.chat.llm.LlmGatewayProperties;
+import com.forA.chatbot.chat.llm.PromptBudgeter;
+import com.forA.chatbot.chat.repository.UserMemoryRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+
+class UserMemoryServiceTest {
+
+  private static final UserMemoryService.SessionDigest DIGEST = new UserMemoryService.SessionDigest(
+      "session-2", LocalDate.of(2026, 10, 17), "불안함", "내일 발표가 있어서 잠이 안 와요",
+      "STOP 기법", "행동 완료, 피드백: 살짝 기분 좋아졌어");
+
+  private UserMemoryRepository userMemoryRepository;
+  private MongoTemplate mongoTemplate;
+  private ChatAiService chatAiService;
+  private PromptBudgeter promptBudgeter;
+  private SimpleMeterRegistry meterRegistry;
+  private UserMemoryService userMemoryService;
+
+  @BeforeEach
+  void setUp() {
+    userMemoryRepository = mock(UserMemoryRepository.class);
+    mongoTemplate = mock(MongoTemplate.class);
+    chatAiService = mock(ChatAiService.class);
+    meterRegistry = new SimpleMeterRegistry();
+    promptBudgeter = new PromptBudgeter(new LlmGatewayProperties(), meterRegistry);
+    userMemoryService = new UserMemoryService(userMemoryRepository, mongoTemplate, chatAiService, promptBudgeter,
+        mock(ExecutorService.class), meterRegistry, true, 50, 20, 2);
+  }
+
+  @Test
+  @DisplayName("기존 요약과 이번 세션만 GPT 에 넘기고, 결과 요약을 토큰 상한 안으로 저장")
+  void fold_SummarizesOnlyTheDelta() {
+    // given
+    UserMemory previous = memory("발표 불안이 반복됨.", "session-1", List.of("호흡하기", "STOP 기법"));
+    when(userMemoryRepository.findById(1L)).thenReturn(Optional.of(previous));
+    when(mongoTemplate.findAndReplace(any(Query.class), any(UserMemory.class))).thenReturn(previous);
+    when(chatAiService.generateMemorySummary(eq("발표 불안이 반복됨."), anyString()))
+        .thenReturn("발표 전 불안이 반복되고, STOP 기법이 조금 도움이 됐음. ".repeat(20));
+
+    // when
+    UserMemory memory = userMemoryService.fold(1L, DIGEST);
+
+    // then
+    ArgumentCaptor<String> session = ArgumentCaptor.forClass(String.class);
+    verify(chatAiService).generateMemorySummary(eq("발표 불안이 반복됨."), session.capture());
+    assertThat(session.getValue()).contains("- 감정: 불안함", "- 선택한 행동: STOP 기법");
+    assertThat(promptBudgeter.countTokens(memory.getSummary())).isLessThanOrEqualTo(50);
+    assertThat(memory.getRecentSkills()).containsExactly("STOP 기법", "호흡하기");
+    assertThat(memory.getSessionCount()).isEqualTo(2);
+    assertThat(memory.getLastSessionId()).isEqualTo("session-2");
+    ArgumentCaptor<Query> unchanged = ArgumentCaptor.forClass(Query.class);
+    verify(mongoTemplate).findAndReplace(unchanged.capture(), eq(memory));
+    assertThat(unchanged.getValue().getQueryObject()).containsEntry("last_session_id", "session-1");
+  }
+
+  @Test
+  @DisplayName("이미 반영한 세션은 다시 요약하지 않음")
+  void fold_SkipsAlreadyFoldedSession() {
+    // given
+    UserMemory existing = memory("요약", "session-2", List.of());
+    when(userMemoryRepository.findById(1L)).thenReturn(Optional.of(existing));
+
+    // when
+    UserMemory memory = userMemoryService.fold(1L, DIGEST);
+
+    // then
+    assertThat(memory).isSameAs(existing);
+    verify(chatAiService, never()).generateMemorySummary(any(), any());
+    verify(mongoTemplate, never()).findAndReplace(any(Query.class), any(UserMemory.class));
+  }
+
+  @Test
+  @DisplayName("GPT 요약에 실패하면 기존 요약 뒤에 이번 세션 한 줄을 덧붙임")
+  void fold_FallsBackToAppendingOneLine() {
+    // given
+    when(userMemoryRepository.findById(1L)).thenReturn(Optional.empty());
+    when(chatAiService.generateMemorySummary(eq(""), anyString())).thenReturn(null);
+
+    // when
+    UserMemory memory = userMemoryService.fold(1L, DIGEST);
+
+    // then
+    assertThat(memory.getSummary()).startsWith("2026-10-17 불안함 감정").contains("'STOP 기법' 선택");
+    assertThat(memory.getSessionCount()).isEqualTo(1);
+    verify(mongoTemplate).insert(memory);
+    assertThat(meterRegistry.get("chat.memory.folds").tag("result", "fallback").counter().count())
+        .isEqualTo(1.0);
+  }
+
+  @Test
+  @DisplayName("읽은 뒤 다른 세션이 먼저 반영했으면 다시 읽어서 그 요약 위에 접음")
+  void fold_RetriesWhenAnotherSessionFoldedFirst() {
+    // given
+    UserMemory stale = memory("발표 불안이 반복됨.", "session-1", List.of());
+    UserMemory concurrent = memory("발표 불안이 반복됨. 산책이 도움이 됨.", "session-3", List.of("산책"));
+    when(userMemoryRepository.findById(1L)).thenReturn(Optional.of(stale), Optional.of(concurrent));
+    when(chatAiService.generateMemorySummary(anyString(), anyString())).thenReturn("새 요약");
+    when(mongoTemplate.findAndReplace(any(Query.class), any(UserMemory.class))).thenReturn(null, concurrent);
+
+    // when
+    UserMemory memory = userMemoryService.fold(1L, DIGEST);
+
+    // then
+    verify(chatAiService).generateMemorySummary(eq("발표 불안이 반복됨. 산책이 도움이 됨."), anyString());
+    assertThat(memory.getRecentSkills()).containsExactly("STOP 기법", "산책");
+    assertThat(memory.getLastSessionId()).isEqualTo("session-2");
+  }
+
+  private static UserMemory memory(String summary, String lastSessionId, List<String> recentSkills) {
+    return UserMemory.builder()
+        .userId(1L)
+        .summary(summary)
+        .recentSkills(recentSkills)
+        .sessionCount(1)
+        .lastSessionId(lastSessionId)
+        .updatedAt(LocalDateTime.now())
+        .build();
+  }
+}
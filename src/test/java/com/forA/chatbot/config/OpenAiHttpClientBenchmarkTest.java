@@ -0,0 +1,169 @@
+package com.forA.chatbot.config;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.sun.net.httpserver.HttpServer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Supplier;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.ai.chat.client.ChatClient;
+import org.springframework.ai.openai.OpenAiChatModel;
+import org.springframework.ai.openai.OpenAiChatOptions;
+import org.springframework.ai.openai.api.OpenAiApi;
+import org.springframework.web.client.RestClient;
+import org.springframework.web.reactive.function.client.WebClient;
+
+/**
+ * OpenAI 호출 경로의 호출당 오버헤드 비교 (로컬 스텁 서버, 응답 지연 20ms)
+ * - 기존: 호출마다 ChatClient 생성 + 기본 HTTP 클라이언트 (라우트당 연결 5개)
+ * - 변경: ChatClient 재사용 + OpenAiHttpClientConfig 커넥션 풀
+ * ./gradlew perfTest 로 실행
+ */
+@Tag("perf")
+class OpenAiHttpClientBenchmarkTest {
+
+  private static final int SERVER_LATENCY_MS = 20;
+  private static final int SEQUENTIAL_CALLS = 200;
+  private static final int CONCURRENT_CALLS = 640;
+  private static final int CONCURRENCY = 32;
+  private static final String COMPLETION = """
+      {"id":"chatcmpl-1","object":"chat.completion","created":1,"model":"gpt-4o-mini",
+       "choices":[{"index":0,"message":{"role":"assistant","content":"마음을 진정시키는"},"finish_reason":"stop"}],
+       "usage":{"prompt_tokens":120,"completion_tokens":6,"total_tokens":126}}
+      """;
+
+  private HttpServer server;
+  private ExecutorService executor;
+  private String baseUrl;
+
+  @BeforeAll
+  static void disableNagle() {
+    // 스텁 서버의 Nagle/지연 ACK(약 40ms)가 측정값을 덮지 않도록
+    System.setProperty("sun.net.httpserver.nodelay", "true");
+  }
+
+  @BeforeEach
+  void setUp() throws Exception {
+    executor = Executors.newVirtualThreadPerTaskExecutor();
+    server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 256);
+    server.setExecutor(executor);
+    server.createContext("/v1/chat/completions", exchange -> {
+      exchange.getRequestBody().readAllBytes();
+      try {
+        Thread.sleep(SERVER_LATENCY_MS);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+      byte[] body = COMPLETION.getBytes(StandardCharsets.UTF_8);
+      exchange.getResponseHeaders().add("Content-Type", "application/json");
+      exchange.sendResponseHeaders(200, body.length);
+      try (OutputStream out = exchange.getResponseBody()) {
+        out.write(body);
+      }
+    });
+    server.start();
+    baseUrl = "http://127.0.0.1:" + server.getAddress().getPort();
+  }
+
+  @AfterEach
+  void tearDown() {
+    server.stop(0);
+    executor.shutdownNow();
+  }
+
+  @Test
+  @DisplayName("ChatClient 재사용 + 커넥션 풀이 호출당 오버헤드와 동시 호출 대기 시간을 줄임")
+  void compareTransport() throws Exception {
+    // given
+    ChatClient.Builder defaultBuilder = ChatClient.builder(chatModel(RestClient.builder()));
+
+    OpenAiHttpClientConfig config = new OpenAiHttpClientConfig();
+    PoolingHttpClientConnectionManager connectionManager = config.openAiConnectionManager(
+        new SimpleMeterRegistry(), 64, Duration.ofSeconds(2), Duration.ofSeconds(30), Duration.ofMinutes(5));
+    CloseableHttpClient httpClient = config.openAiHttpClient(
+        connectionManager, Duration.ofSeconds(2), Duration.ofSeconds(30), Duration.ofSeconds(60));
+    RestClient.Builder pooled = RestClient.builder();
+    config.openAiRestClientCustomizer(httpClient).customize(pooled);
+    ChatClient reused = ChatClient.builder(chatModel(pooled)).build();
+
+    // when
+    Supplier<ChatClient> perCall = defaultBuilder::build;
+    Supplier<ChatClient> cached = () -> reused;
+    runSequential(perCall, 20); // 워밍업
+    runSequential(cached, 20);
+    double beforeSequential = runSequential(perCall, SEQUENTIAL_CALLS);
+    double afterSequential = runSequential(cached, SEQUENTIAL_CALLS);
+    long beforeConcurrent = runConcurrent(perCall);
+    long afterConcurrent = runConcurrent(cached);
+
+    System.out.printf("[openai-http] sequential mean overhead: before=%.2f ms, after=%.2f ms (server %d ms)%n",
+        beforeSequential - SERVER_LATENCY_MS, afterSequential - SERVER_LATENCY_MS, SERVER_LATENCY_MS);
+    System.out.printf("[openai-http] %d calls x %d concurrent: before=%d ms, after=%d ms%n",
+        CONCURRENT_CALLS, CONCURRENCY, beforeConcurrent, afterConcurrent);
+    httpClient.close();
+    connectionManager.close();
+
+    // then
+    assertThat(afterConcurrent).isLessThan(beforeConcurrent);
+  }
+
+  private OpenAiChatModel chatModel(RestClient.Builder restClientBuilder) {
+    OpenAiApi api = OpenAiApi.builder()
+        .baseUrl(baseUrl)
+        .apiKey("test-key")
+        .restClientBuilder(restClientBuilder)
+        .webClientBuilder(WebClient.builder())
+        .build();
+    return OpenAiChatModel.builder()
+        .openAiApi(api)
+        .defaultOptions(OpenAiChatOptions.builder().model("gpt-4o-mini").build())
+        .build();
+  }
+
+  /** 평균 호출 시간 (ms) */
+  private double runSequential(Supplier<ChatClient> client, int calls) {
+    long start = System.nanoTime();
+    for (int i = 0; i < calls; i++) {
+      call(client);
+    }
+    return (System.nanoTime() - start) / 1_000_000.0 / calls;
+  }
+
+  /** 전체 소요 시간 (ms) */
+  private long runConcurrent(Supplier<ChatClient> client) throws Exception {
+    long start = System.nanoTime();
+    List<Future<?>> workers = new ArrayList<>();
+    for (int w = 0; w < CONCURRENCY; w++) {
+      workers.add(executor.submit(() -> {
+        for (int i = 0; i < CONCURRENT_CALLS / CONCURRENCY; i++) {
+          call(client);
+        }
+      }));
+    }
+    for (Future<?> worker : workers) {
+      worker.get();
+    }
+    return (System.nanoTime() - start) / 1_000_000;
+  }
+
+  private static void call(Supplier<ChatClient> client) {
+    String text = client.get().prompt().user("목표 구문").call().content();
+    assertThat(text).isEqualTo("마음을 진정시키는");
+  }
+}